@@ -0,0 +1,266 @@
+package ru.yandex.practicum.filmorate;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import ru.yandex.practicum.filmorate.generator.DatasetGenerator;
+import ru.yandex.practicum.filmorate.generator.DatasetSpec;
+import ru.yandex.practicum.filmorate.index.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.FilmDbStorage;
+import ru.yandex.practicum.filmorate.repository.MemoryStore;
+import ru.yandex.practicum.filmorate.repository.UserDbStorage;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Приложение во встроенной H2 в памяти, заполненное генератором синтетических данных заданного размера.
+ * Используется бенчмарками сервисов и хранилищ: каждый запуск получает собственную базу данных.
+ */
+public final class BenchmarkContext implements AutoCloseable {
+
+    private static final String[] WORDS = {
+            "любовь", "война", "город", "ночь", "море", "путь", "тайна", "звезда", "зима", "лето",
+            "герой", "дорога", "остров", "небо", "сердце", "тень", "огонь", "ветер", "река", "мечта"
+    };
+
+    private final ConfigurableApplicationContext context;
+    private final Random random;
+
+    private BenchmarkContext(ConfigurableApplicationContext context, long seed) {
+        this.context = context;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Запускает приложение без веб-сервера с пустой базой данных.
+     *
+     * @param seed начальное значение генератора случайных данных
+     * @return контекст бенчмарка
+     */
+    public static BenchmarkContext start(long seed) {
+        return start(seed, List.of());
+    }
+
+    /**
+     * Запускает приложение без веб-сервера с пустой базой данных и дополнительными параметрами.
+     *
+     * @param seed    начальное значение генератора случайных данных
+     * @param appArgs дополнительные параметры приложения вида --имя=значение
+     * @return контекст бенчмарка
+     */
+    public static BenchmarkContext start(long seed, List<String> appArgs) {
+        return start(seed, WebApplicationType.NONE, appArgs);
+    }
+
+    /**
+     * Запускает приложение с веб-сервером на случайном порту и пустой базой данных.
+     *
+     * @param seed    начальное значение генератора случайных данных
+     * @param appArgs дополнительные параметры приложения вида --имя=значение
+     * @return контекст бенчмарка
+     */
+    public static BenchmarkContext startServer(long seed, List<String> appArgs) {
+        return start(seed, WebApplicationType.SERVLET, appArgs);
+    }
+
+    private static BenchmarkContext start(long seed, WebApplicationType webType, List<String> appArgs) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID());
+        args.put("server.port", "0");
+        args.put("logging.level.root", "WARN");
+        args.put("logging.level.org.zalando.logbook", "WARN");
+        args.put("spring.main.banner-mode", "off");
+        // Повтор параметра в командной строке склеивает значения через запятую, поэтому переданные значения
+        // заменяют значения по умолчанию
+        for (String arg : appArgs) {
+            int separator = arg.indexOf('=');
+            args.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .web(webType)
+                .run(args.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+        return new BenchmarkContext(context, seed);
+    }
+
+    /**
+     * Возвращает порт веб-сервера, запущенного через {@link #startServer(long, List)}.
+     *
+     * @return номер порта
+     */
+    public int port() {
+        return context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+    }
+
+    /**
+     * Возвращает бин приложения.
+     *
+     * @param type класс бина
+     * @return бин
+     */
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Возвращает генератор случайных данных контекста.
+     *
+     * @return генератор случайных чисел
+     */
+    public Random random() {
+        return random;
+    }
+
+    /**
+     * Параметры набора данных бенчмарка с фиксированным seed.
+     *
+     * @param users             количество пользователей
+     * @param films             количество фильмов
+     * @param meanLikesPerUser  среднее количество лайков пользователя
+     * @param maxFriendsPerUser максимальное количество друзей пользователя, 0 - без дружбы
+     * @return параметры набора данных
+     */
+    public static DatasetSpec spec(int users, int films, double meanLikesPerUser, int maxFriendsPerUser) {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setUsers(users);
+        spec.setFilms(films);
+        spec.setMeanLikesPerUser(meanLikesPerUser);
+        spec.setMaxFriendsPerUser(maxFriendsPerUser);
+        return spec;
+    }
+
+    /**
+     * Заполняет базу данных генератором синтетических данных и перестраивает состояние в памяти.
+     * При хранилище в памяти сгенерированные данные переносятся в него.
+     *
+     * @param spec параметры набора данных
+     * @return этот контекст
+     */
+    public BenchmarkContext seed(DatasetSpec spec) {
+        new DatasetGenerator(bean(DataSource.class)).generate(spec);
+
+        MemoryStore memoryStore = context.getBeanProvider(MemoryStore.class).getIfAvailable();
+        if (memoryStore != null) {
+            copyToMemory(memoryStore);
+        } else {
+            bean(FilmDbStorage.class).loadIds();
+            bean(UserDbStorage.class).loadIds();
+        }
+        bean(FilmPopularityIndex.class).rebuild();
+        bean(FilmSearchIndex.class).rebuild();
+        bean(FilmFacetIndex.class).rebuild();
+        bean(LikeMatrix.class).rebuild();
+        bean(TrendingIndex.class).rebuild();
+        bean(FriendGraph.class).rebuild();
+        return this;
+    }
+
+    /**
+     * Переносит сгенерированные данные из базы данных в хранилище в памяти при filmorate.storage.engine=memory.
+     * Хранилище присваивает собственные ID, поэтому лайки и дружба переносятся через соответствие ID.
+     */
+    private void copyToMemory(MemoryStore store) {
+        JdbcTemplate jdbcTemplate = bean(JdbcTemplate.class);
+        Map<Integer, Set<Genre>> genres = new HashMap<>();
+        jdbcTemplate.query("SELECT film_id, genre_id FROM film_genres", (RowCallbackHandler) rs ->
+                genres.computeIfAbsent(rs.getInt("film_id"), id -> new LinkedHashSet<>())
+                        .add(new Genre(rs.getInt("genre_id"), null)));
+        List<Integer> filmIds = new ArrayList<>();
+        List<Film> films = jdbcTemplate.query("SELECT * FROM films ORDER BY film_id", (rs, rowNum) -> {
+            Film film = new Film();
+            filmIds.add(rs.getInt("film_id"));
+            film.setName(rs.getString("name"));
+            film.setDescription(rs.getString("description"));
+            film.setReleaseDate(rs.getDate("release_date").toLocalDate());
+            film.setDuration(rs.getInt("duration"));
+            film.setMpa(new MpaRating(rs.getInt("mpa_rating_id"), null));
+            film.setGenres(genres.getOrDefault(filmIds.get(rowNum), Set.of()));
+            return film;
+        });
+        List<Integer> userIds = new ArrayList<>();
+        List<User> users = jdbcTemplate.query("SELECT * FROM users ORDER BY user_id", (rs, rowNum) -> {
+            User user = new User();
+            userIds.add(rs.getInt("user_id"));
+            user.setEmail(rs.getString("email"));
+            user.setLogin(rs.getString("login"));
+            user.setName(rs.getString("name"));
+            user.setBirthday(rs.getDate("birthday").toLocalDate());
+            return user;
+        });
+        Map<Integer, Integer> filmIdMap = new HashMap<>();
+        List<Film> storedFilms = store.insertFilms(films);
+        for (int i = 0; i < storedFilms.size(); i++) {
+            filmIdMap.put(filmIds.get(i), storedFilms.get(i).getId());
+        }
+        Map<Integer, Integer> userIdMap = new HashMap<>();
+        List<User> storedUsers = store.insertUsers(users);
+        for (int i = 0; i < storedUsers.size(); i++) {
+            userIdMap.put(userIds.get(i), storedUsers.get(i).getId());
+        }
+        jdbcTemplate.query("SELECT film_id, user_id FROM likes", (RowCallbackHandler) rs ->
+                store.addLike(filmIdMap.get(rs.getInt("film_id")), userIdMap.get(rs.getInt("user_id"))));
+        jdbcTemplate.query("SELECT user_id, friend_id, status FROM friendships", (RowCallbackHandler) rs ->
+                store.addFriendship(new Friendship(userIdMap.get(rs.getInt("user_id")),
+                        userIdMap.get(rs.getInt("friend_id")), FriendshipStatus.valueOf(rs.getString("status")))));
+    }
+
+    /**
+     * Создает еще не сохраненный фильм со случайными названием, жанрами и рейтингом.
+     *
+     * @param number порядковый номер фильма
+     * @return фильм
+     */
+    public Film film(int number) {
+        Film film = new Film();
+        film.setName(word() + " " + word() + " " + number);
+        film.setDescription(word() + " " + word() + " " + word() + " " + word());
+        film.setReleaseDate(LocalDate.of(1950 + random.nextInt(75), 1 + random.nextInt(12), 1));
+        film.setDuration(60 + random.nextInt(120));
+        film.setMpa(new MpaRating(1 + random.nextInt(5), null));
+        Set<Genre> genres = new LinkedHashSet<>();
+        for (int i = random.nextInt(3); i >= 0; i--) {
+            genres.add(new Genre(1 + random.nextInt(6), null));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+
+    /**
+     * Возвращает случайное слово из словаря, на котором построены названия и описания фильмов.
+     *
+     * @return слово
+     */
+    public String word() {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Останавливает приложение и освобождает базу данных.
+     */
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Бенчмарк полнотекстового поиска по каталогу до миллиона фильмов.
+ * Режим SampleTime сохраняет в результатах распределение времени ответа, включая p99.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilmSearchIndexBenchmark {
+
+    /**
+     * Размер словаря; частота слова с номером k пропорциональна 1/k, как в естественных текстах.
+     */
+    private static final int VOCABULARY_SIZE = 50_000;
+
+    @Param({"100000", "1000000"})
+    private int filmCount;
+
+    private FilmSearchIndex searchIndex;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        double[] cumulative = zipf(VOCABULARY_SIZE);
+
+        Map<Integer, Integer> likes = new HashMap<>();
+        for (int id = 1; id <= filmCount; id++) {
+            likes.put(id, random.nextInt(100));
+        }
+        LikeRepository likeRepository = mock(LikeRepository.class);
+        when(likeRepository.getLikesCountByFilm()).thenReturn(likes);
+        FilmPopularityIndex popularityIndex = new FilmPopularityIndex(likeRepository, mock(FilmRepository.class));
+        popularityIndex.rebuild();
+
+        FilmRepository filmRepository = mock(FilmRepository.class);
+        doAnswer(invocation -> {
+            Consumer<Film> consumer = invocation.getArgument(0);
+            for (int id = 1; id <= filmCount; id++) {
+                Film film = new Film();
+                film.setId(id);
+                film.setName(text(random, cumulative, 3));
+                film.setDescription(text(random, cumulative, 20));
+                consumer.accept(film);
+            }
+            return null;
+        }).when(filmRepository).streamAll(any());
+
+        searchIndex = new FilmSearchIndex(filmRepository, popularityIndex);
+        ReflectionTestUtils.setField(searchIndex, "likesWeight", 0.2);
+        searchIndex.rebuild();
+
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = text(random, cumulative, 1 + random.nextInt(3));
+        }
+    }
+
+    @Benchmark
+    public List<Integer> search() {
+        return searchIndex.search(queries[ThreadLocalRandom.current().nextInt(queries.length)], 10);
+    }
+
+    private static double[] zipf(int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int k = 1; k <= size; k++) {
+            sum += 1.0 / k;
+            cumulative[k - 1] = sum;
+        }
+        for (int k = 0; k < size; k++) {
+            cumulative[k] /= sum;
+        }
+        return cumulative;
+    }
+
+    private static String text(Random random, double[] cumulative, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            int position = Arrays.binarySearch(cumulative, random.nextDouble());
+            int word = position >= 0 ? position : -(position + 1);
+            text.append(i > 0 ? " " : "").append("w").append(word);
+        }
+        return text.toString();
+    }
+}
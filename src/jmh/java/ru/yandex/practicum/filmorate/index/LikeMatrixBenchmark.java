@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Бенчмарк рекомендаций на матрице 100 тысяч пользователей на миллион лайков.
+ * Популярность фильмов неравномерна: произведение двух равномерных величин смещает лайки к первым фильмам.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LikeMatrixBenchmark {
+
+    @Param({"100000"})
+    private int userCount;
+
+    @Param({"20000"})
+    private int filmCount;
+
+    @Param({"1000000"})
+    private int likeCount;
+
+    private LikeMatrix likeMatrix;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        LikeRepository likeRepository = mock(LikeRepository.class);
+        doAnswer(invocation -> {
+            Consumer<Like> consumer = invocation.getArgument(0);
+            for (int i = 0; i < likeCount; i++) {
+                double skewed = random.nextDouble() * random.nextDouble();
+                consumer.accept(new Like(1 + (int) (skewed * filmCount), 1 + random.nextInt(userCount)));
+            }
+            return null;
+        }).when(likeRepository).streamAll(any());
+
+        likeMatrix = new LikeMatrix(likeRepository);
+        ReflectionTestUtils.setField(likeMatrix, "neighbourCount", 50);
+        likeMatrix.rebuild();
+    }
+
+    @Benchmark
+    public List<Integer> recommendFilms() {
+        return likeMatrix.recommendFilms(1 + ThreadLocalRandom.current().nextInt(userCount), 10);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import ru.yandex.practicum.filmorate.generator.DatasetSpec;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Перечисление REST-запросов, из которых складывается нагрузка.
+ * Идентификаторы выбираются равномерно среди записей, созданных генератором в пустой базе данных.
+ */
+@Getter
+@AllArgsConstructor
+public enum LoadOperation {
+    /**
+     * Популярные фильмы.
+     */
+    POPULAR("popular", "GET /films/popular") {
+        @Override
+        HttpRequest.Builder request(URI base, SplittableRandom random, DatasetSpec spec) {
+            return HttpRequest.newBuilder(base.resolve("/films/popular?count=10")).GET();
+        }
+    },
+
+    /**
+     * Лайк фильму.
+     */
+    LIKE("like", "PUT /films/{id}/like/{userId}") {
+        @Override
+        HttpRequest.Builder request(URI base, SplittableRandom random, DatasetSpec spec) {
+            return HttpRequest.newBuilder(base.resolve("/films/" + film(random, spec) + "/like/" + user(random, spec)))
+                    .PUT(HttpRequest.BodyPublishers.noBody());
+        }
+    },
+
+    /**
+     * Список друзей пользователя.
+     */
+    FRIENDS("friends", "GET /users/{id}/friends") {
+        @Override
+        HttpRequest.Builder request(URI base, SplittableRandom random, DatasetSpec spec) {
+            return HttpRequest.newBuilder(base.resolve("/users/" + user(random, spec) + "/friends")).GET();
+        }
+    },
+
+    /**
+     * Общие друзья двух пользователей.
+     */
+    COMMON_FRIENDS("common", "GET /users/{id}/friends/common/{otherId}") {
+        @Override
+        HttpRequest.Builder request(URI base, SplittableRandom random, DatasetSpec spec) {
+            return HttpRequest.newBuilder(base.resolve(
+                    "/users/" + user(random, spec) + "/friends/common/" + user(random, spec))).GET();
+        }
+    };
+
+    /**
+     * Обозначение операции в параметре --mix.
+     */
+    private final String key;
+
+    /**
+     * Название эндпоинта в отчете.
+     */
+    private final String endpoint;
+
+    /**
+     * Строит случайный запрос операции.
+     *
+     * @param base   адрес приложения
+     * @param random генератор случайных чисел
+     * @param spec   параметры набора данных, на котором работает приложение
+     * @return построитель запроса
+     */
+    abstract HttpRequest.Builder request(URI base, SplittableRandom random, DatasetSpec spec);
+
+    /**
+     * Находит операцию по обозначению.
+     *
+     * @param key обозначение операции
+     * @return операция
+     */
+    public static LoadOperation fromKey(String key) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.key.equals(key))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестная операция нагрузки: " + key));
+    }
+
+    private static int film(SplittableRandom random, DatasetSpec spec) {
+        return 1 + random.nextInt(spec.getFilms());
+    }
+
+    private static int user(SplittableRandom random, DatasetSpec spec) {
+        return 1 + random.nextInt(spec.getUsers());
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и ошибки запросов нагрузки по эндпоинтам.
+ * Задержка отсчитывается от запланированного момента отправки запроса, а не от фактического,
+ * поэтому ожидание свободного клиента входит в результат и не скрывает перегрузку приложения.
+ */
+public class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final Map<LoadOperation, Recorder> recorders = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+
+    public LoadReport() {
+        for (LoadOperation operation : LoadOperation.values()) {
+            recorders.put(operation, new Recorder(3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    /**
+     * Записывает задержку успешного запроса.
+     *
+     * @param operation операция
+     * @param nanos     задержка в наносекундах
+     */
+    public void recordLatency(LoadOperation operation, long nanos) {
+        recorders.get(operation).recordValue(Math.max(nanos, 1));
+    }
+
+    /**
+     * Учитывает неуспешный запрос: ответ с кодом ошибки или сбой соединения.
+     *
+     * @param operation операция
+     */
+    public void recordError(LoadOperation operation) {
+        errors.get(operation).increment();
+    }
+
+    /**
+     * Формирует текстовый отчет с процентилями задержек в миллисекундах.
+     * Отчет не содержит времени запуска и других меняющихся между сборками данных, кроме измерений,
+     * поэтому отчеты разных сборок сравниваются обычным diff.
+     *
+     * @param header     описание параметров нагрузки
+     * @param durationMs длительность измерения в миллисекундах
+     * @return отчет
+     */
+    public String format(String header, long durationMs) {
+        StringBuilder report = new StringBuilder();
+        report.append("# ").append(header).append('\n');
+        report.append(String.format(Locale.ROOT, "%-42s %8s %8s %9s", "endpoint", "count", "errors", "rps"));
+        for (double percentile : PERCENTILES) {
+            report.append(String.format(Locale.ROOT, " %10s", "p" + formatPercentile(percentile) + " ms"));
+        }
+        report.append(String.format(Locale.ROOT, " %10s%n", "max ms"));
+
+        for (LoadOperation operation : LoadOperation.values()) {
+            Histogram histogram = recorders.get(operation).getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            long errorCount = errors.get(operation).sum();
+            if (count == 0 && errorCount == 0) {
+                continue;
+            }
+            report.append(String.format(Locale.ROOT, "%-42s %8d %8d %9.1f", operation.getEndpoint(), count,
+                    errorCount, (count + errorCount) * 1000.0 / durationMs));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(Locale.ROOT, " %10.3f",
+                        histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI));
+            }
+            report.append(String.format(Locale.ROOT, " %10.3f%n", histogram.getMaxValue() / NANOS_PER_MILLI));
+        }
+        return report.toString();
+    }
+
+    private static String formatPercentile(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
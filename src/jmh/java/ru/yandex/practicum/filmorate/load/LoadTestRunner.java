@@ -0,0 +1,197 @@
+package ru.yandex.practicum.filmorate.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DataBinder;
+import ru.yandex.practicum.filmorate.BenchmarkContext;
+import ru.yandex.practicum.filmorate.generator.DatasetSpec;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный тест приложения целиком: запускает приложение на случайном порту со встроенной H2 в памяти,
+ * заполняет ее генератором синтетических данных и отправляет смесь REST-запросов с постоянной частотой.
+ * Запросы планируются по расписанию независимо от ответов (открытая модель нагрузки), а задержка
+ * отсчитывается от запланированного момента, поэтому медленные ответы не снижают нагрузку
+ * и не выпадают из процентилей.
+ *
+ * <p>Параметры передаются в виде --имя=значение:
+ * <ul>
+ *     <li>rate - запросов в секунду, по умолчанию 200;</li>
+ *     <li>duration, warmup - длительность измерения и прогрева в секундах, по умолчанию 30 и 5;</li>
+ *     <li>clients - количество одновременных клиентов, по умолчанию 64;</li>
+ *     <li>mix - доли операций, по умолчанию popular:50,like:20,friends:15,common:15;</li>
+ *     <li>report - файл отчета, по умолчанию target/load-report.txt;</li>
+ *     <li>поля DatasetSpec (users, films, seed и другие) - размер набора данных;</li>
+ *     <li>параметры с префиксами spring., filmorate., logging., server. передаются приложению.</li>
+ * </ul>
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    private static final List<String> APP_PREFIXES = List.of("spring.", "filmorate.", "logging.", "server.");
+
+    private int rate = 200;
+    private int duration = 30;
+    private int warmup = 5;
+    private int clients = 64;
+    private String mix = "popular:50,like:20,friends:15,common:15";
+    private Path report = Path.of("target", "load-report.txt");
+    private final DatasetSpec spec = new DatasetSpec();
+    private final List<String> appArgs = new ArrayList<>();
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        LoadTestRunner runner = new LoadTestRunner();
+        runner.parse(args);
+        runner.run();
+    }
+
+    private void parse(String[] args) {
+        Map<String, String> specOptions = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается параметр вида --имя=значение: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            String name = arg.substring(2, separator);
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "rate" -> rate = Integer.parseInt(value);
+                case "duration" -> duration = Integer.parseInt(value);
+                case "warmup" -> warmup = Integer.parseInt(value);
+                case "clients" -> clients = Integer.parseInt(value);
+                case "mix" -> mix = value;
+                case "report" -> report = Path.of(value);
+                default -> {
+                    if (APP_PREFIXES.stream().anyMatch(name::startsWith)) {
+                        appArgs.add(arg);
+                    } else {
+                        specOptions.put(name, value);
+                    }
+                }
+            }
+        }
+
+        spec.setUsers(10_000);
+        spec.setFilms(1_000);
+        DataBinder binder = new DataBinder(spec);
+        binder.setIgnoreUnknownFields(false);
+        binder.bind(new MutablePropertyValues(specOptions));
+        BindingResult binding = binder.getBindingResult();
+        if (binding.hasErrors()) {
+            throw new IllegalArgumentException("Неверные параметры нагрузки: " + binding.getAllErrors());
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        Map<LoadOperation, Integer> weights = parseMix(mix);
+        LoadReport measurement = new LoadReport();
+        LoadReport discarded = new LoadReport();
+
+        try (BenchmarkContext context = BenchmarkContext.startServer(spec.getSeed(), appArgs).seed(spec)) {
+            URI base = URI.create("http://localhost:" + context.port());
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            ExecutorService executor = Executors.newFixedThreadPool(clients);
+            SplittableRandom random = new SplittableRandom(spec.getSeed());
+            int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+
+            log.warn("Нагрузка {} запросов/с: прогрев {} с, измерение {} с", rate, warmup, duration);
+            long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+            long start = System.nanoTime();
+            long measurementStart = start + TimeUnit.SECONDS.toNanos(warmup);
+            long end = measurementStart + TimeUnit.SECONDS.toNanos(duration);
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                long delay = intended - System.nanoTime();
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+
+                LoadOperation operation = pick(weights, totalWeight, random);
+                HttpRequest request = operation.request(base, random, spec).build();
+                LoadReport target = intended >= measurementStart ? measurement : discarded;
+                executor.execute(() -> send(client, request, operation, intended, target));
+            }
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                executor.shutdownNow();
+            }
+        }
+
+        String header = String.format("rate=%d/s duration=%ds warmup=%ds clients=%d mix=%s users=%d films=%d seed=%d",
+                rate, duration, warmup, clients, mix, spec.getUsers(), spec.getFilms(), spec.getSeed());
+        String text = measurement.format(header, TimeUnit.SECONDS.toMillis(duration));
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        Files.writeString(report, text, StandardCharsets.UTF_8);
+        System.out.print(text);
+        log.warn("Отчет нагрузки сохранен в {}", report.toAbsolutePath());
+    }
+
+    private static void send(HttpClient client, HttpRequest request, LoadOperation operation, long intended,
+                             LoadReport report) {
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                report.recordError(operation);
+            } else {
+                report.recordLatency(operation, System.nanoTime() - intended);
+            }
+        } catch (IOException e) {
+            report.recordError(operation);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (String part : mix.split(",")) {
+            String[] keyAndWeight = part.trim().split(":");
+            if (keyAndWeight.length != 2) {
+                throw new IllegalArgumentException("Ожидается доля операции вида имя:вес: " + part);
+            }
+            int weight = Integer.parseInt(keyAndWeight[1]);
+            if (weight > 0) {
+                weights.put(LoadOperation.fromKey(keyAndWeight[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Смесь операций не содержит ни одной операции: " + mix);
+        }
+        return weights;
+    }
+
+    private static LoadOperation pick(Map<LoadOperation, Integer> weights, int totalWeight, SplittableRandom random) {
+        int point = random.nextInt(totalWeight);
+        for (Map.Entry<LoadOperation, Integer> entry : weights.entrySet()) {
+            point -= entry.getValue();
+            if (point < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Вес операций вне диапазона: " + totalWeight);
+    }
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.BenchmarkContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки пропускной способности HTTP в разных режимах логирования Logbook:
+ * off - без логов, full - синхронный лог всех запросов с телами, production - профиль production
+ * с выборкой запросов, правилами для тел и асинхронной записью. Логи пишутся в файл, а не в консоль.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+public class HttpLoggingBenchmark {
+
+    @Param({"off", "full", "production"})
+    private String mode;
+
+    private BenchmarkContext context;
+    private HttpClient client;
+    private HttpRequest popularFilms;
+    private HttpRequest allFilms;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> logging = List.of(
+                "--logging.file.name=target/http-logging-benchmark.log",
+                "--logging.pattern.console=",
+                "--logging.level.org.zalando.logbook=" + ("off".equals(mode) ? "WARN" : "TRACE"),
+                "--spring.profiles.active=" + ("production".equals(mode) ? "production" : "default"));
+        context = BenchmarkContext.startServer(42, logging).seed(BenchmarkContext.spec(1000, 200, 10, 0));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        URI base = URI.create("http://localhost:" + context.port());
+        popularFilms = HttpRequest.newBuilder(base.resolve("/films/popular?count=10")).GET().build();
+        allFilms = HttpRequest.newBuilder(base.resolve("/films")).GET().build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int popularFilms() throws IOException, InterruptedException {
+        return client.send(popularFilms, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public int allFilms() throws IOException, InterruptedException {
+        return client.send(allFilms, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,71 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.BenchmarkContext;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.repository.FilmDbStorage;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки накладных расходов метрик хранилищ: одни и те же вызовы с включенными и выключенными метриками.
+ * existsById отвечает из памяти и показывает абсолютную стоимость таймера,
+ * findById обращается к базе данных и показывает ее долю в типичном вызове.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RepositoryMetricsBenchmark {
+
+    private static final int FILM_COUNT = 1000;
+
+    @Param({"true", "false"})
+    private boolean metricsEnabled;
+
+    private BenchmarkContext context;
+    private FilmDbStorage filmDbStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(42, List.of("--filmorate.metrics.repository.enabled=" + metricsEnabled))
+                .seed(BenchmarkContext.spec(100, FILM_COUNT, 10, 0));
+        filmDbStorage = context.bean(FilmDbStorage.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public boolean existsById() {
+        return filmDbStorage.existsById(randomFilm());
+    }
+
+    @Benchmark
+    public Optional<Film> findById() {
+        return filmDbStorage.findById(randomFilm());
+    }
+
+    private static int randomFilm() {
+        return 1 + ThreadLocalRandom.current().nextInt(FILM_COUNT);
+    }
+}
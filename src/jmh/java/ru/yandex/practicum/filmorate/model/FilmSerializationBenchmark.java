@@ -0,0 +1,62 @@
+package ru.yandex.practicum.filmorate.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки сериализации фильма в JSON и обратно тем же ObjectMapper, что и у контроллеров.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilmSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Film film;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        film = new Film();
+        film.setId(42);
+        film.setName("Ёжик в тумане");
+        film.setDescription("Ёжик идет в гости к медвежонку считать звезды и теряется в тумане");
+        film.setReleaseDate(LocalDate.of(1975, 3, 1));
+        film.setDuration(10);
+        film.setMpa(new MpaRating(1, "G"));
+        film.setGenres(new LinkedHashSet<>(List.of(new Genre(2, "Драма"), new Genre(3, "Мультфильм"))));
+        film.getLikes().addAll(List.of(1, 2, 3, 4, 5));
+        json = objectMapper.writeValueAsBytes(film);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(film);
+    }
+
+    @Benchmark
+    public Film deserialize() throws IOException {
+        return objectMapper.readValue(json, Film.class);
+    }
+}
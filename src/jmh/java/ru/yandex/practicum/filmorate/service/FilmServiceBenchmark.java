@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.BenchmarkContext;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки сервиса фильмов: популярные фильмы, проверка фильма и пакетный импорт.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FilmServiceBenchmark {
+
+    private static final int IMPORT_BATCH = 1000;
+
+    @Param({"1000", "10000"})
+    private int filmCount;
+
+    private BenchmarkContext context;
+    private FilmServiceImpl filmService;
+    private Film validFilm;
+
+    /**
+     * Новый пакет фильмов для каждого вызова импорта: генерация не попадает в замер
+     * и не замедляет остальные бенчмарки класса.
+     */
+    @State(Scope.Thread)
+    public static class ImportBatch {
+
+        private List<Film> films;
+
+        @Setup(Level.Invocation)
+        public void prepare(FilmServiceBenchmark benchmark) {
+            films = new ArrayList<>(IMPORT_BATCH);
+            for (int i = 0; i < IMPORT_BATCH; i++) {
+                films.add(benchmark.context.film(i));
+            }
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(42).seed(BenchmarkContext.spec(filmCount / 10, filmCount, 20, 0));
+        filmService = context.bean(FilmServiceImpl.class);
+        validFilm = context.film(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmService.getPopularFilms(10, null, null);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilmsByGenreAndYear() {
+        return filmService.getPopularFilms(10, 2, 1999);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Film validateFilm() throws ValidationException {
+        filmService.validateFilm(validFilm);
+        return validFilm;
+    }
+
+    /**
+     * Пропускная способность пакетного импорта в фильмах в секунду.
+     * База данных растет от итерации к итерации, как при реальном импорте.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(IMPORT_BATCH)
+    public BatchResult<Film> createFilms(ImportBatch batch) {
+        return filmService.createFilms(batch.films);
+    }
+}
@@ -0,0 +1,88 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.BenchmarkContext;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.generator.DatasetSpec;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.FriendshipDbStorage;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бенчмарки общих друзей: сервис целиком, а также пересечение массивов друзей в памяти
+ * в сравнении с самосоединением таблицы дружбы в SQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int userCount;
+
+    @Param({"1000"})
+    private int maxFriendsPerUser;
+
+    @Param({"1.5"})
+    private double friendDegreeExponent;
+
+    private BenchmarkContext context;
+    private UserService userService;
+    private FriendGraph friendGraph;
+    private FriendshipDbStorage friendshipDbStorage;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DatasetSpec spec = BenchmarkContext.spec(userCount, 100, 0, maxFriendsPerUser);
+        spec.setFriendDegreeExponent(friendDegreeExponent);
+        context = BenchmarkContext.start(42).seed(spec);
+        userService = context.bean(UserService.class);
+        friendGraph = context.bean(FriendGraph.class);
+        friendshipDbStorage = context.bean(FriendshipDbStorage.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Collection<User> getCommonFriends() throws ValidationException {
+        return userService.getCommonFriends(List.of(randomUser(), randomUser()));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int[] commonFriendIdsInMemory() {
+        return friendGraph.getCommonFriends(randomUser(), randomUser());
+    }
+
+    @Benchmark
+    public Collection<Integer> commonFriendIdsSql() {
+        return friendshipDbStorage.getCommonFriendsIds(randomUser(), randomUser());
+    }
+
+    private int randomUser() {
+        return 1 + ThreadLocalRandom.current().nextInt(userCount);
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.MutablePropertyValues;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DataBinder;
+import ru.yandex.practicum.filmorate.generator.DatasetGenerator;
+import ru.yandex.practicum.filmorate.generator.DatasetSpec;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Точка входа генератора синтетических данных.
+ * Параметры передаются в виде --имя=значение: url, username, password для подключения
+ * и любые поля DatasetSpec, например --users=1000000 --films=200000 --meanLikesPerUser=20.
+ * По умолчанию данные пишутся в файловую базу данных приложения.
+ */
+@Slf4j
+public class FilmorateDatasetGenerator {
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Ожидается параметр вида --имя=значение: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                options.getOrDefault("url", "jdbc:h2:file:./db/filmorate;AUTO_SERVER=TRUE"),
+                options.getOrDefault("username", "sa"),
+                options.getOrDefault("password", "password"));
+        options.remove("url");
+        options.remove("username");
+        options.remove("password");
+
+        DatasetSpec spec = new DatasetSpec();
+        DataBinder binder = new DataBinder(spec);
+        binder.setIgnoreUnknownFields(false);
+        binder.bind(new MutablePropertyValues(options));
+        BindingResult binding = binder.getBindingResult();
+        if (binding.hasErrors()) {
+            throw new IllegalArgumentException("Неверные параметры генератора: " + binding.getAllErrors());
+        }
+
+        log.info("Генерация набора данных: {}", spec);
+        DatasetGenerator generator = new DatasetGenerator(dataSource);
+        generator.initSchema();
+        generator.generate(spec);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.yandex.practicum.filmorate.cache;
+
+/**
+ * Статистика работы кэша.
+ *
+ * @param hits      количество попаданий
+ * @param misses    количество промахов
+ * @param evictions количество вытеснений из-за превышения размера
+ * @param size      текущее количество записей
+ */
+public record CacheStats(long hits, long misses, long evictions, int size) {
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Кэш фильмов и пользователей по идентификатору.
+ * Заполняется кэширующими репозиториями при чтении и очищается при любых изменениях сущностей.
+ * Объекты из кэша общие для всех потребителей и не должны изменяться.
+ */
+@Component
+public class EntityCache {
+
+    private final LruCache<Integer, Film> films;
+    private final LruCache<Integer, User> users;
+
+    /**
+     * Создает кэш сущностей.
+     *
+     * @param maxSize максимальное количество записей в кэше каждого типа сущностей
+     */
+    public EntityCache(@Value("${filmorate.cache.entities.max-size:10000}") int maxSize) {
+        this.films = new LruCache<>(maxSize);
+        this.users = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Возвращает кэш фильмов.
+     *
+     * @return кэш фильмов
+     */
+    public LruCache<Integer, Film> films() {
+        return films;
+    }
+
+    /**
+     * Возвращает кэш пользователей.
+     *
+     * @return кэш пользователей
+     */
+    public LruCache<Integer, User> users() {
+        return users;
+    }
+
+    /**
+     * Удаляет фильм из кэша.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void evictFilm(Integer filmId) {
+        films.invalidate(filmId);
+    }
+
+    /**
+     * Удаляет пользователя из кэша.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void evictUser(Integer userId) {
+        users.invalidate(userId);
+    }
+}
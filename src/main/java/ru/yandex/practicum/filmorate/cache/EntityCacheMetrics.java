@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Метрики кэша сущностей в соглашениях Micrometer для кэшей:
+ * cache.gets с тегом result (hit, miss), cache.evictions и cache.size с тегом cache (films, users).
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheMetrics implements MeterBinder {
+
+    private final EntityCache entityCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bind(registry, "films", entityCache.films());
+        bind(registry, "users", entityCache.users());
+    }
+
+    private static void bind(MeterRegistry registry, String name, LruCache<?, ?> cache) {
+        Tags tags = Tags.of("cache", name);
+        counter(registry, "cache.gets", tags.and("result", "hit"), cache, CacheStats::hits);
+        counter(registry, "cache.gets", tags.and("result", "miss"), cache, CacheStats::misses);
+        counter(registry, "cache.evictions", tags, cache, CacheStats::evictions);
+        Gauge.builder("cache.size", cache, c -> c.stats().size())
+                .description("Количество записей в кэше")
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String meter, Tags tags, LruCache<?, ?> cache,
+                                ToDoubleFunction<CacheStats> value) {
+        FunctionCounter.builder(meter, cache, c -> value.applyAsDouble(c.stats()))
+                .tags(tags)
+                .register(registry);
+    }
+}
@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Версии фильмов, пользователей и коллекций для строгих ETag условных GET-запросов.
+ * Все версии берутся из общего счетчика, поэтому новая версия всегда отличается от любой выданной ранее.
+ * Сервисы продвигают версию после того, как изменение записано в хранилище и индексы, а контроллеры
+ * читают версию до загрузки данных: ETag может оказаться старше тела ответа, но не новее,
+ * и клиент в худшем случае получит ответ 200 лишний раз. Версии публикуются как максимум из текущей и новой,
+ * поэтому при одновременных изменениях версия не откатывается к меньшему значению.
+ * <p>
+ * Версия удаленной сущности не удаляется, иначе ETag, выданный до изменений, снова совпал бы с начальной версией.
+ * В ETag входит момент запуска приложения: счетчики живут в памяти, а данные в базе переживают перезапуск.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityVersions {
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicLong clock = new AtomicLong();
+    private final Map<Integer, Long> films = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> users = new ConcurrentHashMap<>();
+    private final AtomicLong filmCollection = new AtomicLong();
+
+    /**
+     * Продвигает версию фильма и поколение коллекций фильмов.
+     * Вызывается при создании, изменении и удалении фильма и при изменении его лайков.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void filmChanged(Integer filmId) {
+        long version = clock.incrementAndGet();
+        films.merge(filmId, version, Math::max);
+        filmCollection.accumulateAndGet(version, Math::max);
+    }
+
+    /**
+     * Продвигает версии нескольких фильмов и поколение коллекций фильмов.
+     *
+     * @param filmIds идентификаторы фильмов
+     */
+    public void filmsChanged(Collection<Integer> filmIds) {
+        long version = clock.incrementAndGet();
+        for (Integer filmId : filmIds) {
+            films.merge(filmId, version, Math::max);
+        }
+        filmCollection.accumulateAndGet(version, Math::max);
+    }
+
+    /**
+     * Продвигает версию пользователя.
+     * Вызывается при создании, изменении и удалении пользователя и при изменении его друзей.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void userChanged(Integer userId) {
+        users.merge(userId, clock.incrementAndGet(), Math::max);
+    }
+
+    /**
+     * Возвращает ETag фильма.
+     *
+     * @param filmId идентификатор фильма
+     * @return строгий ETag
+     */
+    public String filmTag(Integer filmId) {
+        return tag("f" + filmId, films.getOrDefault(filmId, 0L));
+    }
+
+    /**
+     * Возвращает ETag пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @return строгий ETag
+     */
+    public String userTag(Integer userId) {
+        return tag("u" + userId, users.getOrDefault(userId, 0L));
+    }
+
+    /**
+     * Возвращает ETag коллекций фильмов, например списков популярных фильмов.
+     * Меняется при любом изменении фильмов или лайков.
+     *
+     * @return строгий ETag
+     */
+    public String filmCollectionTag() {
+        return tag("films", filmCollection.get());
+    }
+
+    /**
+     * Возвращает ETag справочников жанров и рейтингов MPA. Меняется при перезагрузке справочников.
+     *
+     * @return строгий ETag
+     */
+    public String referenceDataTag() {
+        return tag("ref", referenceDataCache.getVersion());
+    }
+
+    private String tag(String key, long version) {
+        return "\"" + key + "-" + epoch + "-" + version + "\"";
+    }
+}
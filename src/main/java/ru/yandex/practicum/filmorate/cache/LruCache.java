@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Потокобезопасный кэш ограниченного размера с вытеснением давно не использовавшихся записей (LRU).
+ * Чтобы значение, загруженное до инвалидации, не попало в кэш после нее, запись выполняется
+ * только с отметкой, полученной до загрузки, и отклоняется, если с тех пор был инвалидирован этот же ключ.
+ * Инвалидация одного ключа не мешает кэшировать другие. Версии инвалидаций хранятся для последних
+ * MAX_TOMBSTONES ключей; вытесненная версия поднимает общую нижнюю границу, поэтому отклоняются
+ * только загрузки, начавшиеся раньше нее.
+ *
+ * @param <K> тип ключа
+ * @param <V> тип значения
+ */
+public class LruCache<K, V> {
+
+    /**
+     * Количество ключей, для которых хранится версия последней инвалидации.
+     */
+    static final int MAX_TOMBSTONES = 1024;
+
+    private final Map<K, V> entries;
+
+    /**
+     * Версия последней инвалидации по ключу, в порядке инвалидаций.
+     */
+    private final Map<K, Long> invalidatedAt;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Версия последней инвалидации любого ключа.
+     */
+    private long version;
+
+    /**
+     * Загрузки с отметкой меньше границы отклоняются для всех ключей: после очистки кэша
+     * или вытеснения версии инвалидации.
+     */
+    private long rejectedBefore;
+
+    /**
+     * Создает кэш.
+     *
+     * @param maxSize максимальное количество записей
+     */
+    public LruCache(int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidatedAt = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                if (size() > MAX_TOMBSTONES) {
+                    rejectedBefore = Math.max(rejectedBefore, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Возвращает значение из кэша и учитывает попадание или промах.
+     *
+     * @param key ключ
+     * @return значение или null, если его нет в кэше
+     */
+    public synchronized V get(K key) {
+        V value = entries.get(key);
+        if (value != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return value;
+    }
+
+    /**
+     * Проверяет наличие значения в кэше без учета в статистике.
+     *
+     * @param key ключ
+     * @return true, если значение есть в кэше
+     */
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Возвращает отметку, которую нужно получить перед загрузкой значения из хранилища.
+     *
+     * @return версия последней инвалидации
+     */
+    public synchronized long stamp() {
+        return version;
+    }
+
+    /**
+     * Помещает загруженное значение в кэш, если после получения отметки ключ не инвалидировался.
+     *
+     * @param key   ключ
+     * @param value значение
+     * @param stamp отметка, полученная до загрузки значения
+     */
+    public synchronized void put(K key, V value, long stamp) {
+        if (stamp < rejectedBefore) {
+            return;
+        }
+        Long invalidated = invalidatedAt.get(key);
+        if (invalidated == null || invalidated <= stamp) {
+            entries.put(key, value);
+        }
+    }
+
+    /**
+     * Удаляет значение из кэша.
+     *
+     * @param key ключ
+     */
+    public synchronized void invalidate(K key) {
+        // Повторная инвалидация переносит ключ в конец порядка вытеснения версий
+        invalidatedAt.remove(key);
+        invalidatedAt.put(key, ++version);
+        entries.remove(key);
+    }
+
+    /**
+     * Очищает кэш.
+     */
+    public synchronized void clear() {
+        rejectedBefore = ++version;
+        invalidatedAt.clear();
+        entries.clear();
+    }
+
+    /**
+     * Возвращает статистику работы кэша.
+     *
+     * @return статистика
+     */
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size());
+    }
+}
@@ -0,0 +1,133 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.BaseEntity;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.repository.GenreRepository;
+import ru.yandex.practicum.filmorate.repository.MpaRatingRepository;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кэш справочных данных: жанров и рейтингов MPA.
+ * Справочники заполняются schema.sql и не меняются во время работы, поэтому загружаются один раз
+ * при старте в неизменяемые таблицы с доступом по индексу, равному ID.
+ * Повторная загрузка выполняется только явным вызовом reload().
+ * Возвращаемые объекты общие для всех потребителей и не должны изменяться.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReferenceDataCache {
+
+    private final GenreRepository genreRepository;
+    private final MpaRatingRepository mpaRatingRepository;
+
+    private volatile Snapshot snapshot = new Snapshot(0, List.of(), List.of());
+
+    /**
+     * Загружает справочники из хранилища и атомарно заменяет текущие таблицы.
+     */
+    @PostConstruct
+    public void reload() {
+        snapshot = new Snapshot(snapshot.version + 1, genreRepository.findAll(), mpaRatingRepository.findAll());
+        log.info("Справочники загружены: жанров {}, рейтингов MPA {}",
+                snapshot.genres.size(), snapshot.mpaRatings.size());
+    }
+
+    /**
+     * Возвращает все жанры, упорядоченные по ID.
+     *
+     * @return неизменяемый список жанров
+     */
+    public List<Genre> getGenres() {
+        return snapshot.genres;
+    }
+
+    /**
+     * Находит жанр по идентификатору.
+     *
+     * @param id идентификатор жанра
+     * @return Optional с жанром, если найден, иначе пустой Optional
+     */
+    public Optional<Genre> findGenre(Integer id) {
+        return Optional.ofNullable(lookup(snapshot.genresById, id));
+    }
+
+    /**
+     * Возвращает все рейтинги MPA, упорядоченные по ID.
+     *
+     * @return неизменяемый список рейтингов MPA
+     */
+    public List<MpaRating> getMpaRatings() {
+        return snapshot.mpaRatings;
+    }
+
+    /**
+     * Находит рейтинг MPA по идентификатору.
+     *
+     * @param id идентификатор рейтинга MPA
+     * @return Optional с рейтингом MPA, если найден, иначе пустой Optional
+     */
+    public Optional<MpaRating> findMpa(Integer id) {
+        return Optional.ofNullable(lookup(snapshot.mpaById, id));
+    }
+
+    /**
+     * Возвращает версию справочников, которая увеличивается при каждой загрузке.
+     *
+     * @return версия текущего снимка справочников
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    private static <T> T lookup(T[] table, Integer id) {
+        if (id == null || id < 0 || id >= table.length) {
+            return null;
+        }
+        return table[id];
+    }
+
+    /**
+     * Неизменяемый снимок справочников.
+     */
+    private static final class Snapshot {
+        private final long version;
+        private final List<Genre> genres;
+        private final Genre[] genresById;
+        private final List<MpaRating> mpaRatings;
+        private final MpaRating[] mpaById;
+
+        Snapshot(long version, Collection<Genre> genres, Collection<MpaRating> mpaRatings) {
+            this.version = version;
+            this.genres = sorted(genres);
+            this.genresById = index(this.genres, new Genre[0]);
+            this.mpaRatings = sorted(mpaRatings);
+            this.mpaById = index(this.mpaRatings, new MpaRating[0]);
+        }
+
+        private static <T extends BaseEntity> List<T> sorted(Collection<T> items) {
+            return items.stream()
+                    .sorted(Comparator.comparing(BaseEntity::getId))
+                    .toList();
+        }
+
+        private static <T extends BaseEntity> T[] index(List<T> items, T[] empty) {
+            int maxId = items.stream().mapToInt(BaseEntity::getId).max().orElse(-1);
+            T[] table = Arrays.copyOf(empty, maxId + 1);
+            for (T item : items) {
+                table[item.getId()] = item;
+            }
+            return table;
+        }
+    }
+}
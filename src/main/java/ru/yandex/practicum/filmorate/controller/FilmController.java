@@ -1,11 +1,19 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.FilmFilterResult;
 import ru.yandex.practicum.filmorate.service.FilmService;
 
 import java.util.Collection;
@@ -23,6 +31,8 @@ import java.util.Optional;
 public class FilmController {
 
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final EntityVersions entityVersions;
 
     /**
      * Создание нового фильма
@@ -37,6 +47,18 @@ public class FilmController {
         return filmService.createFilm(film);
     }
 
+    /**
+     * Пакетное создание фильмов
+     *
+     * @param films список фильмов для создания
+     * @return созданные фильмы и ошибки по отдельным элементам
+     */
+    @PostMapping("/batch")
+    public BatchResult<Film> createFilms(@RequestBody List<Film> films) {
+        log.info("Получен запрос на пакетное создание фильмов, количество: {}", films.size());
+        return filmService.createFilms(films);
+    }
+
     /**
      * Обновление существующего фильма
      *
@@ -53,23 +75,63 @@ public class FilmController {
     /**
      * Получение всех фильмов
      *
-     * @return коллекция всех фильмов
+     * Если задан параметр ids, возвращаются фильмы с указанными ID в порядке их перечисления
+     *
+     * @param ids идентификаторы фильмов через запятую (необязательно)
+     * @return коллекция фильмов
      */
     @GetMapping
-    public Collection<Film> getAllFilms() {
+    public Collection<Film> getAllFilms(@RequestParam(required = false) List<Integer> ids) {
+        if (ids != null) {
+            log.info("Получен запрос на получение фильмов по списку id, количество: {}", ids.size());
+            return filmService.getFilmsByIds(ids);
+        }
         log.info("Получен запрос на получение всех фильмов");
         return filmService.getAllFilms();
     }
 
+    /**
+     * Фасетная фильтрация фильмов по жанру, рейтингу MPA и диапазону годов релиза
+     *
+     * Возвращает первые count отобранных фильмов, общее количество подходящих фильмов
+     * и количество фильмов по значениям фасетов
+     *
+     * @param filter параметры фильтрации
+     * @return результат фильтрации
+     * @throws ValidationException если параметры фильтрации некорректны
+     */
+    @GetMapping("/filter")
+    public FilmFilterResult filterFilms(FilmFilter filter) throws ValidationException {
+        log.info("Получен запрос на фильтрацию фильмов: {}", filter);
+        return filmService.getFilms(filter);
+    }
+
+    /**
+     * Потоковая выгрузка всех фильмов в формате NDJSON (Accept: application/x-ndjson)
+     *
+     * @return поток фильмов, по одному JSON-объекту на строку
+     */
+    @GetMapping(produces = NdjsonResponses.APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        log.info("Получен запрос на потоковую выгрузку всех фильмов");
+        return NdjsonResponses.stream(objectMapper.writerFor(Film.class), filmService::streamAllFilms);
+    }
+
     /**
      * Получение фильма по ID
      *
-     * @param id идентификатор фильма
-     * @return фильм
+     * Если ETag из If-None-Match совпадает с текущей версией фильма, возвращается 304 без обращения к хранилищу
+     *
+     * @param id      идентификатор фильма
+     * @param request текущий запрос для проверки If-None-Match
+     * @return фильм или null, если ответ 304 уже сформирован
      */
     @GetMapping("/{id}")
-    public Film getFilmById(@PathVariable Integer id) {
+    public Film getFilmById(@PathVariable Integer id, WebRequest request) {
         log.info("Получен запрос на получение фильма с id: {}", id);
+        if (request.checkNotModified(entityVersions.filmTag(id))) {
+            return null;
+        }
         Optional<Film> film = filmService.getFilmById(id);
         if (film.isPresent()) {
             return film.get();
@@ -122,13 +184,53 @@ public class FilmController {
 
     /**
      * Получение популярных фильмов
+     * ETag общий для всех вариантов параметров и меняется при любом изменении фильмов или лайков
      *
-     * @param count количество фильмов (по умолчанию 10)
-     * @return список популярных фильмов
+     * @param count   количество фильмов (по умолчанию 10)
+     * @param genreId идентификатор жанра (необязательно)
+     * @param year    год релиза (необязательно)
+     * @param request текущий запрос для проверки If-None-Match
+     * @return список популярных фильмов или null, если ответ 304 уже сформирован
      */
     @GetMapping("/popular")
-    public List<Film> getPopularFilms(@RequestParam(required = false) Integer count) {
-        log.info("Получен запрос на получение популярных фильмов, count: {}", count);
-        return filmService.getPopularFilms(count);
+    public List<Film> getPopularFilms(@RequestParam(required = false) Integer count,
+                                      @RequestParam(required = false) Integer genreId,
+                                      @RequestParam(required = false) Integer year,
+                                      WebRequest request) {
+        log.info("Получен запрос на получение популярных фильмов, count: {}, genreId: {}, year: {}", count, genreId, year);
+        if (request.checkNotModified(entityVersions.filmCollectionTag())) {
+            return null;
+        }
+        return filmService.getPopularFilms(count, genreId, year);
+    }
+
+    /**
+     * Получение фильмов, набирающих популярность
+     *
+     * @param window временное окно: 1h, 24h или 7d (по умолчанию 24h)
+     * @param count  количество фильмов (по умолчанию 10)
+     * @return список фильмов в порядке убывания лайков за окно
+     * @throws ValidationException если окно не поддерживается
+     */
+    @GetMapping("/trending")
+    public List<Film> getTrendingFilms(@RequestParam(required = false) String window,
+                                       @RequestParam(required = false) Integer count) throws ValidationException {
+        log.info("Получен запрос на получение фильмов в тренде, window: {}, count: {}", window, count);
+        return filmService.getTrendingFilms(window, count);
+    }
+
+    /**
+     * Полнотекстовый поиск фильмов по названию и описанию
+     *
+     * @param query поисковый запрос
+     * @param count максимальное количество фильмов (по умолчанию 10)
+     * @return список найденных фильмов в порядке убывания релевантности
+     * @throws ValidationException если запрос пустой
+     */
+    @GetMapping("/search")
+    public List<Film> searchFilms(@RequestParam(name = "q", required = false) String query,
+                                  @RequestParam(required = false) Integer count) throws ValidationException {
+        log.info("Получен запрос на поиск фильмов: {}, count: {}", query, count);
+        return filmService.searchFilms(query, count);
     }
-}
\ No newline at end of file
+}
@@ -6,6 +6,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.service.GenreService;
@@ -23,27 +25,37 @@ import java.util.Collection;
 public class GenreController {
 
     private final GenreService genreService;
+    private final EntityVersions entityVersions;
 
     /**
      * Возвращает список всех жанров.
+     * Если ETag из If-None-Match совпадает с версией справочников, возвращается 304.
      *
-     * @return коллекция всех жанров
+     * @param request текущий запрос для проверки If-None-Match
+     * @return коллекция всех жанров или null, если ответ 304 уже сформирован
      */
     @GetMapping
-    public Collection<Genre> getAllGenres() {
+    public Collection<Genre> getAllGenres(WebRequest request) {
         log.info("Получен запрос на получение всех жанров");
+        if (request.checkNotModified(entityVersions.referenceDataTag())) {
+            return null;
+        }
         return genreService.getAllGenres();
     }
 
     /**
      * Возвращает жанр по его идентификатору.
      *
-     * @param id идентификатор жанра
-     * @return жанр
+     * @param id      идентификатор жанра
+     * @param request текущий запрос для проверки If-None-Match
+     * @return жанр или null, если ответ 304 уже сформирован
      */
     @GetMapping("/{id}")
-    public Genre getGenreById(@PathVariable Integer id) {
+    public Genre getGenreById(@PathVariable Integer id, WebRequest request) {
         log.info("Получен запрос на получение жанра с id: {}", id);
+        if (request.checkNotModified(entityVersions.referenceDataTag())) {
+            return null;
+        }
         return genreService.getGenreById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Жанр с id = %d не найден", id)));
     }
@@ -6,6 +6,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 import ru.yandex.practicum.filmorate.service.MpaRatingService;
@@ -23,27 +25,37 @@ import java.util.Collection;
 public class MpaRatingController {
 
     private final MpaRatingService mpaRatingService;
+    private final EntityVersions entityVersions;
 
     /**
      * Возвращает список всех рейтингов MPA.
+     * Если ETag из If-None-Match совпадает с версией справочников, возвращается 304.
      *
-     * @return коллекция всех рейтингов MPA
+     * @param request текущий запрос для проверки If-None-Match
+     * @return коллекция всех рейтингов MPA или null, если ответ 304 уже сформирован
      */
     @GetMapping
-    public Collection<MpaRating> getAllMpaRatings() {
+    public Collection<MpaRating> getAllMpaRatings(WebRequest request) {
         log.info("Получен запрос на получение всех рейтингов MPA");
+        if (request.checkNotModified(entityVersions.referenceDataTag())) {
+            return null;
+        }
         return mpaRatingService.getAllMpaRatings();
     }
 
     /**
      * Возвращает рейтинг MPA по его идентификатору.
      *
-     * @param id идентификатор рейтинга MPA
-     * @return рейтинг MPA
+     * @param id      идентификатор рейтинга MPA
+     * @param request текущий запрос для проверки If-None-Match
+     * @return рейтинг MPA или null, если ответ 304 уже сформирован
      */
     @GetMapping("/{id}")
-    public MpaRating getMpaRatingById(@PathVariable Integer id) {
+    public MpaRating getMpaRatingById(@PathVariable Integer id, WebRequest request) {
         log.info("Получен запрос на получение рейтинга MPA с id: {}", id);
+        if (request.checkNotModified(entityVersions.referenceDataTag())) {
+            return null;
+        }
         return mpaRatingService.getMpaRatingById(id)
                 .orElseThrow(() -> new NotFoundException(String.format("Рейтинг MPA с id = %d не найден", id)));
     }
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Формирование потоковых ответов в формате NDJSON (один JSON-объект на строку).
+ */
+final class NdjsonResponses {
+
+    /**
+     * Тип содержимого NDJSON.
+     */
+    static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * Создает тело ответа, которое записывает каждый элемент в поток сразу после получения.
+     *
+     * @param writer сериализатор элементов
+     * @param source источник, передающий элементы получателю по одному
+     * @param <T>    тип элементов
+     * @return ответ с потоковым телом
+     */
+    static <T> ResponseEntity<StreamingResponseBody> stream(ObjectWriter writer, Consumer<Consumer<T>> source) {
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            try {
+                source.accept(item -> {
+                    try {
+                        out.write(writer.writeValueAsBytes(item));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(body);
+    }
+}
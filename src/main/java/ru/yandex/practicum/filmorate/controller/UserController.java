@@ -1,14 +1,22 @@
 package ru.yandex.practicum.filmorate.controller;
 
 import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.UserService;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,6 +30,8 @@ import java.util.Optional;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
+    private final EntityVersions entityVersions;
 
     /**
      * Создание нового пользователя
@@ -36,6 +46,18 @@ public class UserController {
         return userService.createUser(user);
     }
 
+    /**
+     * Пакетное создание пользователей
+     *
+     * @param users список пользователей для создания
+     * @return созданные пользователи и ошибки по отдельным элементам
+     */
+    @PostMapping("/batch")
+    public BatchResult<User> createUsers(@RequestBody List<User> users) {
+        log.info("Получен запрос на пакетное создание пользователей, количество: {}", users.size());
+        return userService.createUsers(users);
+    }
+
     /**
      * Обновление существующего пользователя
      *
@@ -50,25 +72,47 @@ public class UserController {
     }
 
     /**
-     * Получение всех пользователей
+     * Получение всех пользователей или пользователей по списку ID
      *
-     * @return коллекция всех пользователей
+     * @param ids идентификаторы пользователей через запятую (необязательно)
+     * @return коллекция пользователей в порядке переданных идентификаторов либо всех пользователей
      */
     @GetMapping
-    public Collection<User> getAllUsers() {
+    public Collection<User> getAllUsers(@RequestParam(required = false) List<Integer> ids) {
+        if (ids != null) {
+            log.info("Получен запрос на получение пользователей по списку id, количество: {}", ids.size());
+            return userService.getUsersByIds(ids);
+        }
         log.info("Получен запрос на получение всех пользователей");
         return userService.getAllUsers();
     }
 
+    /**
+     * Потоковая выгрузка всех пользователей в формате NDJSON (Accept: application/x-ndjson)
+     *
+     * @return поток пользователей, по одному JSON-объекту на строку
+     */
+    @GetMapping(produces = NdjsonResponses.APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("Получен запрос на потоковую выгрузку всех пользователей");
+        return NdjsonResponses.stream(objectMapper.writerFor(User.class), userService::streamAllUsers);
+    }
+
     /**
      * Получение пользователя по ID
      *
-     * @param id идентификатор пользователя
-     * @return пользователь
+     * Если ETag из If-None-Match совпадает с текущей версией пользователя, возвращается 304 без обращения к хранилищу
+     *
+     * @param id      идентификатор пользователя
+     * @param request текущий запрос для проверки If-None-Match
+     * @return пользователь или null, если ответ 304 уже сформирован
      */
     @GetMapping("/{id}")
-    public User getUserById(@PathVariable Integer id) {
+    public User getUserById(@PathVariable Integer id, WebRequest request) {
         log.info("Получен запрос на получение пользователя с id: {}", id);
+        if (request.checkNotModified(entityVersions.userTag(id))) {
+            return null;
+        }
         Optional<User> user = userService.getUserById(id);
         if (user.isPresent()) {
             return user.get();
@@ -131,6 +175,32 @@ public class UserController {
         return userService.getUserFriends(id);
     }
 
+    /**
+     * Получение общих друзей группы пользователей
+     *
+     * @param ids идентификаторы пользователей через запятую
+     * @return список общих друзей
+     * @throws ValidationException если передано меньше двух пользователей
+     */
+    @GetMapping("/common-friends")
+    public Collection<User> getCommonFriends(@RequestParam List<Integer> ids) throws ValidationException {
+        log.info("Получен запрос на получение общих друзей пользователей {}", ids);
+        return userService.getCommonFriends(ids);
+    }
+
+    /**
+     * Получение возможных друзей пользователя по количеству общих друзей
+     *
+     * @param id    идентификатор пользователя
+     * @param count максимальное количество пользователей (по умолчанию 10)
+     * @return список возможных друзей
+     */
+    @GetMapping("/{id}/friends/suggestions")
+    public List<User> getFriendSuggestions(@PathVariable Integer id, @RequestParam(required = false) Integer count) {
+        log.info("Получен запрос на получение возможных друзей пользователя {}, count: {}", id, count);
+        return userService.getFriendSuggestions(id, count);
+    }
+
     /**
      * Получение списка общих друзей
      *
@@ -143,4 +213,17 @@ public class UserController {
         log.info("Получен запрос на получение общих друзей пользователей {} и {}", id, otherId);
         return userService.getCommonFriends(id, otherId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Получение рекомендаций фильмов для пользователя
+     *
+     * @param id    идентификатор пользователя
+     * @param count максимальное количество фильмов (по умолчанию 10)
+     * @return список рекомендованных фильмов
+     */
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable Integer id, @RequestParam(required = false) Integer count) {
+        log.info("Получен запрос на получение рекомендаций для пользователя {}, count: {}", id, count);
+        return userService.getRecommendations(id, count);
+    }
+}
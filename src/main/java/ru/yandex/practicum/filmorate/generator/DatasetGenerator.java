@@ -0,0 +1,401 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Генератор синтетического набора данных в схеме из schema.sql.
+ * Популярность фильмов подчиняется распределению Ципфа, граф дружбы - степенному закону:
+ * количество друзей пользователя и популярность пользователя как друга распределены по Ципфу.
+ * Данные пишутся пакетами JDBC в несколько потоков. Каждая порция пользователей или фильмов
+ * получает собственный генератор случайных чисел, производный от seed и номера порции,
+ * поэтому результат зависит только от параметров, а не от количества потоков.
+ * Новые записи добавляются после уже существующих, счетчики идентификаторов сдвигаются в конце.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DatasetGenerator {
+
+    /**
+     * Количество пользователей или фильмов в одной порции, обрабатываемой одним потоком.
+     */
+    private static final int CHUNK_SIZE = 10_000;
+
+    private static final int VOCABULARY_SIZE = 20_000;
+    private static final int MPA_COUNT = 5;
+    private static final int GENRE_COUNT = 6;
+
+    private static final String[] SYLLABLES = {
+            "ка", "ро", "ми", "ла", "те", "но", "ви", "за", "ду", "ше",
+            "бо", "ры", "гу", "ня", "сте", "пра", "ло", "ки", "ма", "це"
+    };
+
+    private static final long USERS_STREAM = 1;
+    private static final long FILMS_STREAM = 2;
+    private static final long LIKES_STREAM = 3;
+    private static final long FRIENDS_STREAM = 4;
+    private static final long PERMUTATION_STREAM = 5;
+
+    /**
+     * Таблицы, проверка внешних ключей которых отключается на время загрузки.
+     */
+    private static final List<String> BULK_TABLES = List.of("films", "film_genres", "likes", "friendships");
+
+    private final DataSource dataSource;
+
+    /**
+     * Итог генерации.
+     *
+     * @param users       количество созданных пользователей
+     * @param films       количество созданных фильмов
+     * @param likes       количество созданных лайков
+     * @param friendships количество созданных связей дружбы
+     * @param elapsed     длительность генерации
+     */
+    public record Result(int users, int films, long likes, long friendships, Duration elapsed) {
+    }
+
+    /**
+     * Порция работы одного потока.
+     */
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(Connection connection, SplittableRandom random, int from, int to, LongAdder rows) throws SQLException;
+    }
+
+    /**
+     * Создает таблицы и справочники из schema.sql, если их еще нет.
+     */
+    public void initSchema() {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:schema.sql' CHARSET 'UTF-8'");
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось создать схему базы данных", e);
+        }
+    }
+
+    /**
+     * Генерирует и загружает набор данных.
+     *
+     * @param spec параметры набора данных
+     * @return количество созданных записей
+     */
+    public Result generate(DatasetSpec spec) {
+        long started = System.nanoTime();
+        int userBase = maxId("SELECT COALESCE(MAX(user_id), 0) FROM users");
+        int filmBase = maxId("SELECT COALESCE(MAX(film_id), 0) FROM films");
+        long now = System.currentTimeMillis();
+
+        SplittableRandom permutationRandom = random(spec.getSeed(), PERMUTATION_STREAM, 0);
+        int[] filmsByRank = permutation(spec.getFilms(), permutationRandom);
+        int[] usersByRank = permutation(spec.getUsers(), permutationRandom);
+        ZipfSampler words = new ZipfSampler(VOCABULARY_SIZE, 1.0);
+
+        // Ссылки корректны по построению, поэтому внешние ключи не проверяются построчно:
+        // в H2 это втрое ускоряет вставку лайков
+        setReferentialIntegrity(false);
+        try {
+            return load(spec, userBase, filmBase, now, filmsByRank, usersByRank, words, started);
+        } finally {
+            setReferentialIntegrity(true);
+        }
+    }
+
+    private Result load(DatasetSpec spec, int userBase, int filmBase, long now, int[] filmsByRank, int[] usersByRank,
+                        ZipfSampler words, long started) {
+        LongAdder users = new LongAdder();
+        runStage("пользователи", spec, USERS_STREAM, spec.getUsers(), users, (connection, random, from, to, rows) ->
+                insertUsers(connection, random, userBase, from, to, spec.getBatchSize(), rows));
+
+        LongAdder films = new LongAdder();
+        runStage("фильмы", spec, FILMS_STREAM, spec.getFilms(), films, (connection, random, from, to, rows) ->
+                insertFilms(connection, random, words, filmBase, from, to, spec.getBatchSize(), rows));
+
+        LongAdder likes = new LongAdder();
+        if (spec.getFilms() > 0 && spec.getMeanLikesPerUser() > 0) {
+            ZipfSampler filmRanks = new ZipfSampler(spec.getFilms(), spec.getFilmPopularityExponent());
+            long historyMillis = Duration.ofDays(spec.getLikeHistoryDays()).toMillis();
+            runStage("лайки", spec, LIKES_STREAM, spec.getUsers(), likes, (connection, random, from, to, rows) ->
+                    insertLikes(connection, random, spec, filmRanks, filmsByRank, userBase, filmBase, from, to,
+                            now, historyMillis, rows));
+        }
+
+        LongAdder friendships = new LongAdder();
+        if (spec.getUsers() > 1 && spec.getMaxFriendsPerUser() > 0) {
+            ZipfSampler degrees = new ZipfSampler(spec.getMaxFriendsPerUser(), spec.getFriendDegreeExponent());
+            ZipfSampler userRanks = new ZipfSampler(spec.getUsers(), spec.getUserPopularityExponent());
+            runStage("дружба", spec, FRIENDS_STREAM, spec.getUsers(), friendships, (connection, random, from, to, rows) ->
+                    insertFriendships(connection, random, spec, degrees, userRanks, usersByRank, userBase, from, to, rows));
+        }
+
+        restartIdentity("users", "user_id", userBase + spec.getUsers() + 1);
+        restartIdentity("films", "film_id", filmBase + spec.getFilms() + 1);
+
+        Result result = new Result(users.intValue(), films.intValue(), likes.sum(), friendships.sum(),
+                Duration.ofNanos(System.nanoTime() - started));
+        log.info("Сгенерирован набор данных: {}", result);
+        return result;
+    }
+
+    private static void insertUsers(Connection connection, SplittableRandom random, int userBase,
+                                    int from, int to, int batchSize, LongAdder rows) throws SQLException {
+        String sql = "INSERT INTO users (user_id, email, login, name, birthday) VALUES (?, ?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            Batch batch = new Batch(connection, statement, batchSize, rows);
+            for (int i = from; i < to; i++) {
+                int userId = userBase + i + 1;
+                statement.setInt(1, userId);
+                statement.setString(2, "user" + userId + "@example.com");
+                statement.setString(3, "user" + userId);
+                statement.setString(4, "User " + userId);
+                statement.setDate(5, Date.valueOf(LocalDate.ofEpochDay(random.nextInt(-7300, 14600))));
+                batch.add();
+            }
+            batch.flush();
+        }
+    }
+
+    private static void insertFilms(Connection connection, SplittableRandom random, ZipfSampler words, int filmBase,
+                                    int from, int to, int batchSize, LongAdder rows) throws SQLException {
+        String filmSql = "INSERT INTO films (film_id, name, description, release_date, duration, mpa_rating_id) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        String genreSql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+        try (PreparedStatement filmStatement = connection.prepareStatement(filmSql);
+             PreparedStatement genreStatement = connection.prepareStatement(genreSql)) {
+            Batch filmBatch = new Batch(connection, filmStatement, batchSize, rows);
+            int[] genreMasks = new int[to - from];
+            for (int i = from; i < to; i++) {
+                int filmId = filmBase + i + 1;
+                filmStatement.setInt(1, filmId);
+                filmStatement.setString(2, text(random, words, 1 + random.nextInt(3)));
+                filmStatement.setString(3, text(random, words, 5 + random.nextInt(10)));
+                filmStatement.setDate(4, Date.valueOf(LocalDate.of(1920 + random.nextInt(105), 1 + random.nextInt(12), 1)));
+                filmStatement.setInt(5, 60 + random.nextInt(120));
+                filmStatement.setInt(6, 1 + random.nextInt(MPA_COUNT));
+                filmBatch.add();
+
+                genreMasks[i - from] = random.nextInt(1 << GENRE_COUNT) & random.nextInt(1 << GENRE_COUNT);
+            }
+            filmBatch.flush();
+
+            // Жанры ссылаются на фильмы, поэтому пишутся после того, как записаны все фильмы порции
+            Batch genreBatch = new Batch(connection, genreStatement, batchSize, new LongAdder());
+            for (int i = from; i < to; i++) {
+                for (int genreId = 1; genreId <= GENRE_COUNT; genreId++) {
+                    if ((genreMasks[i - from] & (1 << (genreId - 1))) != 0) {
+                        genreStatement.setInt(1, filmBase + i + 1);
+                        genreStatement.setInt(2, genreId);
+                        genreBatch.add();
+                    }
+                }
+            }
+            genreBatch.flush();
+        }
+    }
+
+    private static void insertLikes(Connection connection, SplittableRandom random, DatasetSpec spec,
+                                    ZipfSampler filmRanks, int[] filmsByRank, int userBase, int filmBase,
+                                    int from, int to, long now, long historyMillis, LongAdder rows) throws SQLException {
+        String sql = "INSERT INTO likes (film_id, user_id, created_at) VALUES (?, ?, ?)";
+        double p = 1 / (spec.getMeanLikesPerUser() + 1);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            Batch batch = new Batch(connection, statement, spec.getBatchSize(), rows);
+            Set<Integer> liked = new HashSet<>();
+            for (int i = from; i < to; i++) {
+                int count = (int) Math.min(spec.getFilms(), Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - p)));
+                liked.clear();
+                for (int attempt = 0; liked.size() < count && attempt < count * 10; attempt++) {
+                    int filmId = filmBase + filmsByRank[filmRanks.sample(random) - 1];
+                    if (liked.add(filmId)) {
+                        statement.setInt(1, filmId);
+                        statement.setInt(2, userBase + i + 1);
+                        statement.setTimestamp(3, new Timestamp(now - (historyMillis > 0 ? random.nextLong(historyMillis) : 0)));
+                        batch.add();
+                    }
+                }
+            }
+            batch.flush();
+        }
+    }
+
+    private static void insertFriendships(Connection connection, SplittableRandom random, DatasetSpec spec,
+                                          ZipfSampler degrees, ZipfSampler userRanks, int[] usersByRank,
+                                          int userBase, int from, int to, LongAdder rows) throws SQLException {
+        String sql = "INSERT INTO friendships (user_id, friend_id, status) VALUES (?, ?, 'PENDING')";
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            Batch batch = new Batch(connection, statement, spec.getBatchSize(), rows);
+            Set<Integer> friends = new HashSet<>();
+            for (int i = from; i < to; i++) {
+                int userId = userBase + i + 1;
+                int degree = Math.min(spec.getUsers() - 1, degrees.sample(random));
+                friends.clear();
+                for (int attempt = 0; friends.size() < degree && attempt < degree * 10; attempt++) {
+                    int friendId = userBase + usersByRank[userRanks.sample(random) - 1];
+                    if (friendId != userId && friends.add(friendId)) {
+                        statement.setInt(1, userId);
+                        statement.setInt(2, friendId);
+                        batch.add();
+                    }
+                }
+            }
+            batch.flush();
+        }
+    }
+
+    /**
+     * Делит диапазон 0..count на порции и обрабатывает их в пуле потоков.
+     * Каждая порция выполняется в своем соединении и фиксируется пакетами.
+     */
+    private void runStage(String name, DatasetSpec spec, long stream, int count, LongAdder rows, ChunkTask task) {
+        long started = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, spec.getThreads()));
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int chunk = 0; (long) chunk * CHUNK_SIZE < count; chunk++) {
+                int from = chunk * CHUNK_SIZE;
+                int to = Math.min(count, from + CHUNK_SIZE);
+                SplittableRandom random = random(spec.getSeed(), stream, chunk);
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        task.run(connection, random, from, to, rows);
+                        connection.commit();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Не удалось сгенерировать данные: " + name, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Генерация прервана: " + name, e);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("Сгенерировано {}: {} строк за {} мс", name, rows.sum(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int maxId(String sql) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return resultSet.getInt(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось прочитать существующие данные", e);
+        }
+    }
+
+    private void setReferentialIntegrity(boolean enabled) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String table : BULK_TABLES) {
+                statement.execute(String.format("ALTER TABLE %s SET REFERENTIAL_INTEGRITY %s",
+                        table, enabled ? "TRUE NOCHECK" : "FALSE"));
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось переключить проверку внешних ключей", e);
+        }
+    }
+
+    private void restartIdentity(String table, String column, int next) {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(String.format("ALTER TABLE %s ALTER COLUMN %s RESTART WITH %d", table, column, next));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось сдвинуть счетчик идентификаторов " + table, e);
+        }
+    }
+
+    /**
+     * Генератор случайных чисел порции, однозначно определяемый seed, этапом и номером порции.
+     */
+    private static SplittableRandom random(long seed, long stream, int chunk) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + stream * 0xBF58476D1CE4E5B9L + chunk);
+    }
+
+    /**
+     * Случайная перестановка 1..size: ранг популярности не совпадает с порядком идентификаторов.
+     */
+    private static int[] permutation(int size, SplittableRandom random) {
+        int[] values = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = i + 1;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int value = values[i];
+            values[i] = values[j];
+            values[j] = value;
+        }
+        return values;
+    }
+
+    /**
+     * Текст из слов словаря, частоты которых подчиняются закону Ципфа, как в естественном языке.
+     */
+    private static String text(SplittableRandom random, ZipfSampler words, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            int word = words.sample(random);
+            do {
+                text.append(SYLLABLES[word % SYLLABLES.length]);
+                word /= SYLLABLES.length;
+            } while (word > 0);
+        }
+        return text.toString();
+    }
+
+    /**
+     * Пакет строк одного запроса, фиксируемый в базе данных по достижении размера.
+     */
+    @RequiredArgsConstructor
+    private static final class Batch {
+        private final Connection connection;
+        private final PreparedStatement statement;
+        private final int size;
+        private final LongAdder rows;
+        private int pending;
+
+        private void add() throws SQLException {
+            statement.addBatch();
+            if (++pending >= size) {
+                flush();
+            }
+        }
+
+        private void flush() throws SQLException {
+            if (pending > 0) {
+                statement.executeBatch();
+                connection.commit();
+                rows.add(pending);
+                pending = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import lombok.Data;
+
+/**
+ * Параметры синтетического набора данных.
+ * Одинаковые параметры дают одинаковые данные независимо от количества потоков.
+ */
+@Data
+public class DatasetSpec {
+    /**
+     * Начальное значение генератора случайных чисел.
+     */
+    private long seed = 42;
+
+    /**
+     * Количество пользователей.
+     */
+    private int users = 10_000;
+
+    /**
+     * Количество фильмов.
+     */
+    private int films = 1_000;
+
+    /**
+     * Среднее количество лайков одного пользователя (геометрическое распределение).
+     */
+    private double meanLikesPerUser = 10;
+
+    /**
+     * Показатель распределения Ципфа для популярности фильмов.
+     */
+    private double filmPopularityExponent = 1.0;
+
+    /**
+     * Показатель степенного распределения количества друзей пользователя.
+     */
+    private double friendDegreeExponent = 2.0;
+
+    /**
+     * Максимальное количество друзей одного пользователя, 0 - без дружбы.
+     */
+    private int maxFriendsPerUser = 1_000;
+
+    /**
+     * Показатель распределения Ципфа для популярности пользователей как друзей.
+     * Чем он больше, тем сильнее входящие связи сосредоточены у немногих пользователей.
+     */
+    private double userPopularityExponent = 0.8;
+
+    /**
+     * За сколько последних дней распределяется время лайков.
+     */
+    private int likeHistoryDays = 30;
+
+    /**
+     * Количество потоков загрузки.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Количество строк в одном пакете JDBC.
+     */
+    private int batchSize = 5_000;
+}
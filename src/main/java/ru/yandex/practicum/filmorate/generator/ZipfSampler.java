@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Генератор рангов 1..n с распределением Ципфа: вероятность ранга k пропорциональна 1 / k^exponent.
+ * Использует метод отбора с обращением (rejection-inversion, Hörmann и Derflinger),
+ * поэтому не хранит таблицу вероятностей и тратит O(1) памяти при любом n.
+ * Неизменяем и потокобезопасен: источник случайности передается при каждом вызове.
+ */
+public class ZipfSampler {
+
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+
+    /**
+     * Создает генератор.
+     *
+     * @param n        количество рангов
+     * @param exponent показатель степени, больше нуля
+     */
+    public ZipfSampler(int n, double exponent) {
+        if (n < 1) {
+            throw new IllegalArgumentException("Количество рангов должно быть положительным: " + n);
+        }
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("Показатель степени должен быть положительным: " + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * Возвращает случайный ранг.
+     *
+     * @param random источник случайности
+     * @return ранг от 1 до n
+     */
+    public int sample(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) Math.min(n, Math.max(1, (long) (x + 0.5)));
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(helper1(t) * x);
+    }
+
+    /**
+     * log(1 + x) / x с разложением в ряд около нуля.
+     */
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    /**
+     * (exp(x) - 1) / x с разложением в ряд около нуля.
+     */
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3 * (1 + 0.25 * x));
+    }
+}
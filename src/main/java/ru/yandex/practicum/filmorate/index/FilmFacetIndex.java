@@ -0,0 +1,208 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.FacetCounts;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Фасетный индекс фильмов в памяти.
+ * Для каждого жанра, рейтинга MPA и года релиза хранится битовая карта идентификаторов фильмов,
+ * поэтому отбор по нескольким фасетам сводится к пересечению битовых карт.
+ * Фасеты подсчитываются за один проход по отобранным фильмам без копирования битовых карт.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmFacetIndex {
+
+    private final FilmRepository filmRepository;
+
+    private final BitSet allFilms = new BitSet();
+    private final Map<Integer, BitSet> filmsByGenre = new HashMap<>();
+    private final Map<Integer, BitSet> filmsByMpa = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> filmsByYear = new TreeMap<>();
+    private final IntObjectMap<Facets> facetsByFilm = new IntObjectMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Значения фасетов проиндексированного фильма.
+     *
+     * @param genreIds идентификаторы жанров
+     * @param mpaId    идентификатор рейтинга MPA или null
+     * @param year     год релиза или null
+     */
+    private record Facets(int[] genreIds, Integer mpaId, Integer year) {
+    }
+
+    /**
+     * Результат отбора: идентификаторы фильмов и их распределение по фасетам.
+     *
+     * @param filmIds идентификаторы отобранных фильмов
+     * @param facets  количество отобранных фильмов по значениям фасетов
+     */
+    public record Selection(BitSet filmIds, FacetCounts facets) {
+    }
+
+    /**
+     * Перестраивает индекс по всем фильмам хранилища.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            allFilms.clear();
+            filmsByGenre.clear();
+            filmsByMpa.clear();
+            filmsByYear.clear();
+            facetsByFilm.clear();
+            filmRepository.streamAll(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Фасетный индекс построен, фильмов: {}", facetsByFilm.size());
+    }
+
+    /**
+     * Добавляет фильм в индекс или обновляет значения его фасетов.
+     *
+     * @param film фильм
+     */
+    public void indexFilm(Film film) {
+        lock.writeLock().lock();
+        try {
+            remove(film.getId());
+            put(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет фильм из индекса.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void removeFilm(Integer filmId) {
+        lock.writeLock().lock();
+        try {
+            remove(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Отбирает фильмы, удовлетворяющие всем заданным условиям фильтра, и подсчитывает фасеты.
+     *
+     * @param filter параметры фильтрации
+     * @return отобранные фильмы и их распределение по фасетам
+     */
+    public Selection select(FilmFilter filter) {
+        lock.readLock().lock();
+        try {
+            BitSet selected = (BitSet) allFilms.clone();
+            if (filter.getGenre() != null) {
+                selected.and(filmsByGenre.getOrDefault(filter.getGenre(), new BitSet()));
+            }
+            if (filter.getMpa() != null) {
+                selected.and(filmsByMpa.getOrDefault(filter.getMpa(), new BitSet()));
+            }
+            if (filter.getYearFrom() != null || filter.getYearTo() != null) {
+                int from = filter.getYearFrom() != null ? filter.getYearFrom() : Integer.MIN_VALUE;
+                int to = filter.getYearTo() != null ? filter.getYearTo() : Integer.MAX_VALUE;
+                BitSet years = new BitSet();
+                filmsByYear.subMap(from, true, to, true).values().forEach(years::or);
+                selected.and(years);
+            }
+            return new Selection(selected, count(selected));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private FacetCounts count(BitSet selected) {
+        IntCounter genres = new IntCounter(filmsByGenre.size());
+        IntCounter mpa = new IntCounter(filmsByMpa.size());
+        IntCounter years = new IntCounter(filmsByYear.size());
+        for (int filmId = selected.nextSetBit(0); filmId >= 0; filmId = selected.nextSetBit(filmId + 1)) {
+            Facets facets = facetsByFilm.get(filmId);
+            for (int genreId : facets.genreIds()) {
+                genres.increment(genreId);
+            }
+            if (facets.mpaId() != null) {
+                mpa.increment(facets.mpaId());
+            }
+            if (facets.year() != null) {
+                years.increment(facets.year());
+            }
+        }
+
+        FacetCounts counts = new FacetCounts();
+        genres.forEach(counts.getGenres()::put);
+        mpa.forEach(counts.getMpa()::put);
+        years.forEach(counts.getYears()::put);
+        return counts;
+    }
+
+    private void put(Film film) {
+        int filmId = film.getId();
+        int[] genreIds = film.getGenres() == null ? new int[0] : film.getGenres().stream()
+                .map(Genre::getId)
+                .distinct()
+                .mapToInt(Integer::intValue)
+                .toArray();
+        Integer mpaId = film.getMpa() != null ? film.getMpa().getId() : null;
+        Integer year = film.getReleaseDate() != null ? film.getReleaseDate().getYear() : null;
+
+        allFilms.set(filmId);
+        for (int genreId : genreIds) {
+            filmsByGenre.computeIfAbsent(genreId, id -> new BitSet()).set(filmId);
+        }
+        if (mpaId != null) {
+            filmsByMpa.computeIfAbsent(mpaId, id -> new BitSet()).set(filmId);
+        }
+        if (year != null) {
+            filmsByYear.computeIfAbsent(year, y -> new BitSet()).set(filmId);
+        }
+        facetsByFilm.put(filmId, new Facets(genreIds, mpaId, year));
+    }
+
+    private void remove(int filmId) {
+        Facets facets = facetsByFilm.remove(filmId);
+        if (facets == null) {
+            return;
+        }
+        allFilms.clear(filmId);
+        for (int genreId : facets.genreIds()) {
+            clear(filmsByGenre, genreId, filmId);
+        }
+        if (facets.mpaId() != null) {
+            clear(filmsByMpa, facets.mpaId(), filmId);
+        }
+        if (facets.year() != null) {
+            clear(filmsByYear, facets.year(), filmId);
+        }
+    }
+
+    private static void clear(Map<Integer, BitSet> bitmaps, Integer value, int filmId) {
+        BitSet films = bitmaps.get(value);
+        films.clear(filmId);
+        if (films.isEmpty()) {
+            bitmaps.remove(value);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Индекс популярности фильмов в памяти.
+ * Хранит счетчик лайков каждого фильма и упорядоченные по убыванию лайков рейтинги:
+ * общий, по каждому жанру, по каждому году релиза и по каждой паре жанр-год.
+ * Это позволяет получать топ-N фильмов, в том числе с фильтром по жанру и году,
+ * без обращения к базе данных и без перебора всех фильмов.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmPopularityIndex {
+
+    /**
+     * Порядок рейтинга: по убыванию лайков, при равенстве - по возрастанию ID фильма.
+     */
+    private static final Comparator<Rank> RANK_ORDER = Comparator
+            .comparingInt(Rank::likes).reversed()
+            .thenComparingInt(Rank::filmId);
+
+    /**
+     * Ключ общего рейтинга без фильтров.
+     */
+    private static final long ALL = partitionKey(null, null);
+
+    private static final int[] NO_GENRES = new int[0];
+
+    /**
+     * Во сколько раз раздел рейтинга должен быть больше выборки, чтобы выборка ранжировалась напрямую,
+     * а не поиском ее фильмов в разделе.
+     */
+    private static final int DIRECT_RANKING_RATIO = 8;
+
+    private final LikeRepository likeRepository;
+    private final FilmRepository filmRepository;
+
+    private final Map<Integer, Rank> ranksByFilm = new HashMap<>();
+    private final Map<Long, NavigableSet<Rank>> rankings = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Позиция фильма в рейтингах.
+     *
+     * @param filmId    идентификатор фильма
+     * @param likes     количество лайков
+     * @param genreIds  идентификаторы жанров фильма
+     * @param year      год релиза или null
+     */
+    private record Rank(int filmId, int likes, int[] genreIds, Integer year) {
+
+        private Rank withLikes(int likes) {
+            return new Rank(filmId, likes, genreIds, year);
+        }
+    }
+
+    /**
+     * Перестраивает индекс по данным таблицы лайков и жанрам и датам релиза фильмов.
+     */
+    @PostConstruct
+    public void rebuild() {
+        Map<Integer, Integer> counts = likeRepository.getLikesCountByFilm();
+        lock.writeLock().lock();
+        try {
+            ranksByFilm.clear();
+            rankings.clear();
+            counts.forEach((filmId, likes) -> put(new Rank(filmId, likes, NO_GENRES, null)));
+            filmRepository.streamAll(film -> {
+                Rank rank = ranksByFilm.get(film.getId());
+                if (rank != null) {
+                    replace(rank, rank(film, rank.likes()));
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Индекс популярности построен, фильмов: {}, рейтингов: {}", counts.size(), rankings.size());
+    }
+
+    /**
+     * Добавляет в индекс новый фильм без лайков или переносит фильм в рейтинги
+     * его текущих жанров и года релиза, сохраняя количество лайков.
+     *
+     * @param film фильм
+     */
+    public void indexFilm(Film film) {
+        lock.writeLock().lock();
+        try {
+            Rank rank = ranksByFilm.get(film.getId());
+            if (rank == null) {
+                put(rank(film, 0));
+            } else {
+                replace(rank, rank(film, rank.likes()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет фильм из индекса.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void removeFilm(Integer filmId) {
+        lock.writeLock().lock();
+        try {
+            Rank rank = ranksByFilm.remove(filmId);
+            if (rank != null) {
+                unlink(rank);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Увеличивает счетчик лайков фильма на единицу.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void incrementLikes(Integer filmId) {
+        changeLikes(filmId, 1);
+    }
+
+    /**
+     * Уменьшает счетчик лайков фильма на единицу.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void decrementLikes(Integer filmId) {
+        changeLikes(filmId, -1);
+    }
+
+    /**
+     * Возвращает количество лайков фильма по данным индекса.
+     *
+     * @param filmId идентификатор фильма
+     * @return количество лайков, 0 если фильм отсутствует в индексе
+     */
+    public int getLikes(Integer filmId) {
+        lock.readLock().lock();
+        try {
+            Rank rank = ranksByFilm.get(filmId);
+            return rank != null ? rank.likes() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы самых популярных фильмов.
+     *
+     * @param count количество фильмов
+     * @return список идентификаторов фильмов в порядке убывания популярности
+     */
+    public List<Integer> getTopFilmIds(int count) {
+        return getTopFilmIds(count, null, null);
+    }
+
+    /**
+     * Возвращает идентификаторы самых популярных фильмов жанра и года релиза.
+     * Ответ берется из начала рейтинга соответствующего раздела.
+     *
+     * @param count   количество фильмов
+     * @param genreId идентификатор жанра или null для любого жанра
+     * @param year    год релиза или null для любого года
+     * @return список идентификаторов фильмов в порядке убывания популярности
+     */
+    public List<Integer> getTopFilmIds(int count, Integer genreId, Integer year) {
+        lock.readLock().lock();
+        try {
+            return head(rankings.get(partitionKey(genreId, year)), count, filmId -> true);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы самых популярных фильмов среди отобранных.
+     * Отобранные фильмы должны входить в раздел жанра и года: поиск идет по этому разделу, а не по общему рейтингу.
+     * Если выборка мала по сравнению с разделом, ее фильмы ранжируются напрямую по счетчикам лайков,
+     * иначе раздел обходится с начала, пока не найдено count фильмов или все отобранные.
+     *
+     * @param count    количество фильмов
+     * @param selected идентификаторы отобранных фильмов
+     * @param genreId  идентификатор жанра, которому принадлежат все отобранные фильмы, или null
+     * @param year     год релиза всех отобранных фильмов или null
+     * @return список идентификаторов фильмов в порядке убывания популярности
+     */
+    public List<Integer> getTopFilmIds(int count, BitSet selected, Integer genreId, Integer year) {
+        int selectedCount = selected.cardinality();
+        lock.readLock().lock();
+        try {
+            NavigableSet<Rank> ranking = rankings.get(partitionKey(genreId, year));
+            if (ranking == null || selectedCount == 0) {
+                return List.of();
+            }
+            if (selectedCount <= ranking.size() / DIRECT_RANKING_RATIO) {
+                return rankDirectly(selected, selectedCount, count);
+            }
+            return head(ranking, Math.min(count, selectedCount), selected::get);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Integer> rankDirectly(BitSet selected, int selectedCount, int count) {
+        List<Rank> ranks = new ArrayList<>(selectedCount);
+        for (int filmId = selected.nextSetBit(0); filmId >= 0; filmId = selected.nextSetBit(filmId + 1)) {
+            Rank rank = ranksByFilm.get(filmId);
+            if (rank != null) {
+                ranks.add(rank);
+            }
+        }
+        ranks.sort(RANK_ORDER);
+        return ranks.stream().limit(count).map(Rank::filmId).toList();
+    }
+
+    private static List<Integer> head(NavigableSet<Rank> ranking, int count, IntPredicate filter) {
+        if (ranking == null) {
+            return List.of();
+        }
+        List<Integer> result = new ArrayList<>(Math.min(count, ranking.size()));
+        Iterator<Rank> iterator = ranking.iterator();
+        while (iterator.hasNext() && result.size() < count) {
+            int filmId = iterator.next().filmId();
+            if (filter.test(filmId)) {
+                result.add(filmId);
+            }
+        }
+        return result;
+    }
+
+    private void changeLikes(Integer filmId, int delta) {
+        lock.writeLock().lock();
+        try {
+            Rank rank = ranksByFilm.get(filmId);
+            if (rank == null) {
+                return;
+            }
+            replace(rank, rank.withLikes(Math.max(0, rank.likes() + delta)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void replace(Rank current, Rank changed) {
+        unlink(current);
+        put(changed);
+    }
+
+    private void put(Rank rank) {
+        ranksByFilm.put(rank.filmId(), rank);
+        link(rank, ALL);
+        if (rank.year() != null) {
+            link(rank, partitionKey(null, rank.year()));
+        }
+        for (int genreId : rank.genreIds()) {
+            link(rank, partitionKey(genreId, null));
+            if (rank.year() != null) {
+                link(rank, partitionKey(genreId, rank.year()));
+            }
+        }
+    }
+
+    private void unlink(Rank rank) {
+        unlink(rank, ALL);
+        if (rank.year() != null) {
+            unlink(rank, partitionKey(null, rank.year()));
+        }
+        for (int genreId : rank.genreIds()) {
+            unlink(rank, partitionKey(genreId, null));
+            if (rank.year() != null) {
+                unlink(rank, partitionKey(genreId, rank.year()));
+            }
+        }
+    }
+
+    private void link(Rank rank, long key) {
+        rankings.computeIfAbsent(key, k -> new TreeSet<>(RANK_ORDER)).add(rank);
+    }
+
+    private void unlink(Rank rank, long key) {
+        NavigableSet<Rank> ranking = rankings.get(key);
+        if (ranking != null && ranking.remove(rank) && ranking.isEmpty() && key != ALL) {
+            rankings.remove(key);
+        }
+    }
+
+    private static Rank rank(Film film, int likes) {
+        int[] genreIds = film.getGenres() == null ? NO_GENRES : film.getGenres().stream()
+                .map(Genre::getId)
+                .distinct()
+                .mapToInt(Integer::intValue)
+                .toArray();
+        Integer year = film.getReleaseDate() != null ? film.getReleaseDate().getYear() : null;
+        return new Rank(film.getId(), likes, genreIds, year);
+    }
+
+    /**
+     * Составляет ключ раздела рейтинга: старшие 32 бита - жанр, младшие - год, -1 означает любое значение.
+     */
+    private static long partitionKey(Integer genreId, Integer year) {
+        long genrePart = genreId != null ? genreId : -1;
+        long yearPart = year != null ? year : -1;
+        return (genrePart << 32) | (yearPart & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,377 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Полнотекстовый индекс фильмов по названию и описанию.
+ * Для каждого терма хранится список вхождений в виде отсортированных массивов int:
+ * идентификаторы фильмов и частоты терма, длины документов - в массиве, индексированном ID фильма.
+ * Результаты ранжируются по BM25, умноженному на вес популярности фильма. Вес популярности
+ * применяется только к ограниченному числу лучших по BM25 кандидатов, поэтому при обходе
+ * списков вхождений индекс популярности не запрашивается.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilmSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Во сколько раз вхождение в название весомее вхождения в описание.
+     */
+    private static final int NAME_WEIGHT = 2;
+
+    /**
+     * Во сколько раз кандидатов по BM25 больше, чем запрошенных результатов.
+     * Запас позволяет популярным фильмам подняться выше фильмов с чуть большей текстовой релевантностью.
+     */
+    private static final int CANDIDATE_FACTOR = 4;
+
+    /**
+     * Граница таблицы свертки: латинские буквы с диакритикой до расширенной латиницы включительно.
+     */
+    private static final char FOLD_LIMIT = '\u1F00';
+
+    /**
+     * Замены символов при нормализации: латинские буквы без диакритики и ё - е.
+     */
+    private static final char[] FOLD = new char[FOLD_LIMIT];
+
+    static {
+        for (char c = 0; c < FOLD_LIMIT; c++) {
+            FOLD[c] = c >= 0x80 && Character.UnicodeScript.of(c) == Character.UnicodeScript.LATIN
+                    ? Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0)
+                    : c;
+        }
+        FOLD['ё'] = 'е';
+    }
+
+    /**
+     * Порядок результатов: по убыванию оценки, при равенстве - по возрастанию ID фильма.
+     */
+    private static final Comparator<Hit> HIT_ORDER = Comparator
+            .comparingDouble(Hit::score).reversed()
+            .thenComparingInt(Hit::filmId);
+
+    private final FilmRepository filmRepository;
+    private final FilmPopularityIndex popularityIndex;
+
+    /**
+     * Вклад количества лайков в оценку: итог = BM25 * (1 + likesWeight * ln(1 + лайки)).
+     */
+    @Value("${filmorate.search.likes-weight:0.2}")
+    private double likesWeight;
+
+    private final Map<String, Postings> postingsByTerm = new HashMap<>();
+
+    /**
+     * Различные термы проиндексированных фильмов, нужны для удаления фильма из списков вхождений.
+     */
+    private final IntObjectMap<String[]> termsByFilm = new IntObjectMap<>();
+
+    /**
+     * Длина документа с учетом веса названия по ID фильма.
+     */
+    private int[] lengthByFilm = new int[16];
+    private long totalLength;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Найденный фильм с оценкой релевантности.
+     *
+     * @param filmId идентификатор фильма
+     * @param score  оценка
+     */
+    private record Hit(int filmId, double score) {
+    }
+
+    /**
+     * Перестраивает индекс по всем фильмам хранилища.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postingsByTerm.clear();
+            termsByFilm.clear();
+            lengthByFilm = new int[16];
+            totalLength = 0;
+            filmRepository.streamAll(this::put);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Поисковый индекс построен, фильмов: {}, термов: {}", termsByFilm.size(), postingsByTerm.size());
+    }
+
+    /**
+     * Добавляет фильм в индекс или заменяет ранее проиндексированную версию.
+     *
+     * @param film фильм
+     */
+    public void indexFilm(Film film) {
+        lock.writeLock().lock();
+        try {
+            remove(film.getId());
+            put(film);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет фильм из индекса.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void removeFilm(Integer filmId) {
+        lock.writeLock().lock();
+        try {
+            remove(filmId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет фильмы, содержащие хотя бы одно слово запроса.
+     * Под блокировкой индекса отбираются limit * CANDIDATE_FACTOR лучших по BM25 фильмов,
+     * затем уже без нее их оценки умножаются на вес популярности и отбираются limit лучших.
+     *
+     * @param query поисковый запрос
+     * @param limit максимальное количество результатов
+     * @return идентификаторы фильмов в порядке убывания релевантности
+     */
+    public List<Integer> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int candidates = (int) Math.min(Integer.MAX_VALUE, (long) limit * CANDIDATE_FACTOR);
+        List<Hit> hits;
+        lock.readLock().lock();
+        try {
+            hits = score(terms, candidates);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Hit> boosted = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            double weight = 1 + likesWeight * Math.log1p(popularityIndex.getLikes(hit.filmId()));
+            boosted.add(new Hit(hit.filmId(), hit.score() * weight));
+        }
+        boosted.sort(HIT_ORDER);
+        return boosted.stream().limit(limit).map(Hit::filmId).toList();
+    }
+
+    /**
+     * Разбивает текст на нормализованные термы: нижний регистр, латинские буквы без диакритики,
+     * ё - е, без отдельных надстрочных знаков (например, ударений); й сохраняется.
+     * Разделители - все символы, кроме букв и цифр.
+     *
+     * @param text исходный текст
+     * @return список термов в порядке следования
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        // NFC собирает буквы с надстрочными знаками в один символ, поэтому й остается буквой,
+        // а отдельными остаются только знаки без составной формы
+        String composed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFC);
+        StringBuilder folded = new StringBuilder(composed.length());
+        for (int i = 0; i < composed.length(); i++) {
+            char c = composed.charAt(i);
+            if (!isMark(c)) {
+                folded.append(c < FOLD_LIMIT ? FOLD[c] : c);
+            }
+        }
+        String normalized = folded.toString();
+
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.ENCLOSING_MARK
+                || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    /**
+     * Вычисляет оценки BM25 документов, обходя списки вхождений термов запроса одновременно,
+     * и оставляет limit лучших в куче ограниченного размера.
+     */
+    private List<Hit> score(Set<String> terms, int limit) {
+        List<Postings> lists = new ArrayList<>();
+        for (String term : terms) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null) {
+                lists.add(postings);
+            }
+        }
+        if (lists.isEmpty()) {
+            return List.of();
+        }
+
+        int documents = termsByFilm.size();
+        double averageLength = (double) totalLength / documents;
+        double[] idf = new double[lists.size()];
+        for (int t = 0; t < lists.size(); t++) {
+            int df = lists.get(t).size;
+            idf[t] = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+        }
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(Math.min(limit, documents) + 1, HIT_ORDER.reversed());
+        int[] positions = new int[lists.size()];
+        while (true) {
+            int filmId = Integer.MAX_VALUE;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings postings = lists.get(t);
+                if (positions[t] < postings.size) {
+                    filmId = Math.min(filmId, postings.filmIds[positions[t]]);
+                }
+            }
+            if (filmId == Integer.MAX_VALUE) {
+                break;
+            }
+
+            double lengthNorm = K1 * (1 - B + B * lengthByFilm[filmId] / averageLength);
+            double score = 0;
+            for (int t = 0; t < lists.size(); t++) {
+                Postings postings = lists.get(t);
+                int position = positions[t];
+                if (position < postings.size && postings.filmIds[position] == filmId) {
+                    int frequency = postings.frequencies[position];
+                    score += idf[t] * frequency * (K1 + 1) / (frequency + lengthNorm);
+                    positions[t]++;
+                }
+            }
+
+            // Фильмы обходятся по возрастанию ID, поэтому при равной оценке новый фильм хуже худшего в куче
+            if (top.size() < limit) {
+                top.offer(new Hit(filmId, score));
+            } else if (score > top.peek().score()) {
+                top.poll();
+                top.offer(new Hit(filmId, score));
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(HIT_ORDER);
+        return hits;
+    }
+
+    private void put(Film film) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String token : tokenize(film.getName())) {
+            frequencies.merge(token, NAME_WEIGHT, Integer::sum);
+        }
+        for (String token : tokenize(film.getDescription())) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postingsByTerm.computeIfAbsent(entry.getKey(), term -> new Postings())
+                    .put(film.getId(), entry.getValue());
+            length += entry.getValue();
+        }
+        int filmId = film.getId();
+        if (filmId >= lengthByFilm.length) {
+            lengthByFilm = Arrays.copyOf(lengthByFilm, Math.max(filmId + 1, lengthByFilm.length * 2));
+        }
+        termsByFilm.put(filmId, frequencies.keySet().toArray(new String[0]));
+        lengthByFilm[filmId] = length;
+        totalLength += length;
+    }
+
+    private void remove(Integer filmId) {
+        String[] terms = termsByFilm.remove(filmId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Postings postings = postingsByTerm.get(term);
+            postings.remove(filmId);
+            if (postings.size == 0) {
+                postingsByTerm.remove(term);
+            }
+        }
+        totalLength -= lengthByFilm[filmId];
+        lengthByFilm[filmId] = 0;
+    }
+
+    /**
+     * Список вхождений терма: идентификаторы фильмов по возрастанию и частоты терма в них.
+     */
+    private static final class Postings {
+        private int[] filmIds = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void put(int filmId, int frequency) {
+            // Новые фильмы получают наибольший ID, поэтому обычно это добавление в конец
+            int position = size > 0 && filmIds[size - 1] < filmId
+                    ? -(size + 1)
+                    : Arrays.binarySearch(filmIds, 0, size, filmId);
+            if (position >= 0) {
+                frequencies[position] = frequency;
+                return;
+            }
+            position = -(position + 1);
+            if (size == filmIds.length) {
+                filmIds = Arrays.copyOf(filmIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(filmIds, position, filmIds, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            filmIds[position] = filmId;
+            frequencies[position] = frequency;
+            size++;
+        }
+
+        void remove(int filmId) {
+            int position = Arrays.binarySearch(filmIds, 0, size, filmId);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(filmIds, position + 1, filmIds, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.repository.FriendshipRepository;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Граф дружбы пользователей в памяти.
+ * Дружба односторонняя: для каждого пользователя хранятся отсортированные массивы int
+ * с его друзьями и с пользователями, добавившими его в друзья. Массивы индексируются ID пользователя,
+ * поэтому ни ключи, ни значения не упаковываются в Integer.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FriendGraph {
+
+    private static final SortedIntArray EMPTY = new SortedIntArray();
+
+    private final FriendshipRepository friendshipRepository;
+
+    private SortedIntArray[] friends = new SortedIntArray[16];
+    private SortedIntArray[] followers = new SortedIntArray[16];
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Перестраивает граф по данным таблицы дружбы.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            friends = new SortedIntArray[16];
+            followers = new SortedIntArray[16];
+            friendshipRepository.streamAll(friendship -> put(friendship.getUserId(), friendship.getFriendId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Граф дружбы построен");
+    }
+
+    /**
+     * Добавляет друга пользователю.
+     *
+     * @param userId   идентификатор пользователя
+     * @param friendId идентификатор друга
+     */
+    public void addFriend(int userId, int friendId) {
+        lock.writeLock().lock();
+        try {
+            put(userId, friendId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет друга пользователя.
+     *
+     * @param userId   идентификатор пользователя
+     * @param friendId идентификатор друга
+     */
+    public void removeFriend(int userId, int friendId) {
+        lock.writeLock().lock();
+        try {
+            row(friends, userId).remove(friendId);
+            row(followers, friendId).remove(userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет пользователя и все его связи.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void removeUser(int userId) {
+        lock.writeLock().lock();
+        try {
+            SortedIntArray userFriends = row(friends, userId);
+            for (int i = 0; i < userFriends.size(); i++) {
+                row(followers, userFriends.get(i)).remove(userId);
+            }
+            SortedIntArray userFollowers = row(followers, userId);
+            for (int i = 0; i < userFollowers.size(); i++) {
+                row(friends, userFollowers.get(i)).remove(userId);
+            }
+            if (userId < friends.length) {
+                friends[userId] = null;
+                followers[userId] = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает друзей пользователя.
+     *
+     * @param userId идентификатор пользователя
+     * @return идентификаторы друзей по возрастанию
+     */
+    public int[] getFriends(int userId) {
+        lock.readLock().lock();
+        try {
+            return row(friends, userId).toArray();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает общих друзей нескольких пользователей.
+     * Массивы друзей пересекаются начиная с самых коротких, при пустом пересечении обход прекращается.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return идентификаторы общих друзей по возрастанию
+     */
+    public int[] getCommonFriends(int... userIds) {
+        if (userIds.length == 0) {
+            return new int[0];
+        }
+        lock.readLock().lock();
+        try {
+            SortedIntArray[] rows = new SortedIntArray[userIds.length];
+            for (int i = 0; i < userIds.length; i++) {
+                rows[i] = row(friends, userIds[i]);
+            }
+            Arrays.sort(rows, Comparator.comparingInt(SortedIntArray::size));
+
+            int[] common = rows[0].toArray();
+            for (int i = 1; i < rows.length && common.length > 0; i++) {
+                common = rows[i].intersect(common);
+            }
+            return common;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Подбирает возможных друзей: друзей друзей пользователя, которых нет среди его друзей.
+     * Кандидаты упорядочены по убыванию количества общих друзей, при равенстве - по возрастанию ID.
+     * Общие друзья считаются в IntCounter, размер которого ограничен числом друзей друзей,
+     * поэтому память запроса не зависит от общего количества пользователей.
+     *
+     * @param userId идентификатор пользователя
+     * @param count  максимальное количество кандидатов
+     * @return идентификаторы кандидатов
+     */
+    public int[] suggestFriends(int userId, int count) {
+        lock.readLock().lock();
+        try {
+            SortedIntArray userFriends = row(friends, userId);
+            long fanOut = 0;
+            for (int i = 0; i < userFriends.size(); i++) {
+                fanOut += row(friends, userFriends.get(i)).size();
+            }
+            IntCounter mutual = new IntCounter((int) Math.min(fanOut, friends.length));
+            for (int i = 0; i < userFriends.size(); i++) {
+                SortedIntArray secondHop = row(friends, userFriends.get(i));
+                for (int j = 0; j < secondHop.size(); j++) {
+                    mutual.increment(secondHop.get(j));
+                }
+            }
+            return top(mutual, userId, userFriends, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Выбирает count лучших кандидатов с помощью min-кучи на массиве.
+     * В куче лежат пары ID кандидата и количества общих друзей, упакованные в long.
+     */
+    private static int[] top(IntCounter mutual, int userId, SortedIntArray userFriends, int count) {
+        long[] heap = new long[Math.max(0, Math.min(count, mutual.size()))];
+        int[] heapSize = {0};
+        mutual.forEach((candidate, common) -> {
+            if (candidate == userId || userFriends.contains(candidate)) {
+                return;
+            }
+            long entry = entry(candidate, common);
+            if (heapSize[0] < heap.length) {
+                heap[heapSize[0]] = entry;
+                siftUp(heap, heapSize[0]++);
+            } else if (heapSize[0] > 0 && better(entry, heap[0])) {
+                heap[0] = entry;
+                siftDown(heap, heapSize[0]);
+            }
+        });
+
+        int size = heapSize[0];
+        int[] result = new int[size];
+        for (int i = size - 1; i >= 0; i--) {
+            result[i] = candidate(heap[0]);
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+        }
+        return result;
+    }
+
+    private static long entry(int candidate, int common) {
+        return ((long) common << 32) | (candidate & 0xFFFFFFFFL);
+    }
+
+    private static int candidate(long entry) {
+        return (int) entry;
+    }
+
+    private static boolean better(long first, long second) {
+        int firstCommon = (int) (first >>> 32);
+        int secondCommon = (int) (second >>> 32);
+        return firstCommon != secondCommon ? firstCommon > secondCommon : candidate(first) < candidate(second);
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!better(heap[parent], heap[index])) {
+                break;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int worst = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && better(heap[worst], heap[left])) {
+                worst = left;
+            }
+            if (right < size && better(heap[worst], heap[right])) {
+                worst = right;
+            }
+            if (worst == index) {
+                return;
+            }
+            swap(heap, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(long[] heap, int i, int j) {
+        long value = heap[i];
+        heap[i] = heap[j];
+        heap[j] = value;
+    }
+
+    private void put(int userId, int friendId) {
+        ensureCapacity(Math.max(userId, friendId));
+        if (friends[userId] == null) {
+            friends[userId] = new SortedIntArray();
+        }
+        if (followers[friendId] == null) {
+            followers[friendId] = new SortedIntArray();
+        }
+        friends[userId].add(friendId);
+        followers[friendId].add(userId);
+    }
+
+    private void ensureCapacity(int userId) {
+        if (userId >= friends.length) {
+            int length = Math.max(userId + 1, friends.length * 2);
+            friends = Arrays.copyOf(friends, length);
+            followers = Arrays.copyOf(followers, length);
+        }
+    }
+
+    private static SortedIntArray row(SortedIntArray[] rows, int userId) {
+        if (userId < 0 || userId >= rows.length || rows[userId] == null) {
+            return EMPTY;
+        }
+        return rows[userId];
+    }
+}
@@ -0,0 +1,131 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Битовая карта присутствия целочисленных идентификаторов.
+ * Один бит на идентификатор: для плотных автоинкрементных ID это около 125 КБ на миллион записей.
+ * Чтение выполняется без блокировок, изменения сериализуются.
+ */
+public class IdBitmap {
+
+    private static final int INITIAL_WORDS = 16;
+
+    private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+    private int size;
+
+    /**
+     * Проверяет наличие идентификатора.
+     *
+     * @param id идентификатор
+     * @return true, если идентификатор присутствует
+     */
+    public boolean contains(Integer id) {
+        if (id == null || id < 0) {
+            return false;
+        }
+        AtomicLongArray current = words;
+        int index = id >>> 6;
+        return index < current.length() && (current.get(index) & (1L << id)) != 0;
+    }
+
+    /**
+     * Добавляет идентификатор.
+     *
+     * @param id идентификатор
+     */
+    public synchronized void add(int id) {
+        int index = id >>> 6;
+        if (index >= words.length()) {
+            grow(index);
+        }
+        long word = words.get(index);
+        if ((word & (1L << id)) == 0) {
+            words.set(index, word | (1L << id));
+            size++;
+        }
+    }
+
+    /**
+     * Удаляет идентификатор.
+     *
+     * @param id идентификатор
+     */
+    public synchronized void remove(int id) {
+        int index = id >>> 6;
+        if (id < 0 || index >= words.length()) {
+            return;
+        }
+        long word = words.get(index);
+        if ((word & (1L << id)) != 0) {
+            words.set(index, word & ~(1L << id));
+            size--;
+        }
+    }
+
+    /**
+     * Удаляет все идентификаторы.
+     */
+    public synchronized void clear() {
+        words = new AtomicLongArray(INITIAL_WORDS);
+        size = 0;
+    }
+
+    /**
+     * Возвращает количество идентификаторов.
+     *
+     * @return количество идентификаторов
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Добавляет идентификатор с учетом текущей транзакции: при ее откате добавление отменяется.
+     *
+     * @param id идентификатор
+     */
+    public void addInTransaction(int id) {
+        add(id);
+        onRollback(() -> remove(id));
+    }
+
+    /**
+     * Удаляет идентификатор с учетом текущей транзакции: при ее откате удаление отменяется.
+     *
+     * @param id идентификатор
+     */
+    public void removeInTransaction(int id) {
+        if (contains(id)) {
+            remove(id);
+            onRollback(() -> add(id));
+        }
+    }
+
+    private void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    private void grow(int index) {
+        AtomicLongArray current = words;
+        int length = Math.max(index + 1, current.length() * 2);
+        AtomicLongArray grown = new AtomicLongArray(length);
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        words = grown;
+    }
+}
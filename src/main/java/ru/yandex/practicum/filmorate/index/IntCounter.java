@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.index;
+
+/**
+ * Счетчик вхождений целочисленных ключей без упаковки в Integer.
+ * Открытая адресация с линейным пробированием: ключи и счетчики лежат в двух параллельных массивах,
+ * нулевой счетчик означает пустую ячейку. Размер таблицы пропорционален числу различных ключей,
+ * а не диапазону их значений, поэтому счетчик подходит для подсчета кандидатов в пределах одного запроса.
+ * Таблица увеличивается вдвое при заполнении больше чем на 3/4.
+ * Не потокобезопасно.
+ */
+public class IntCounter {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+    private int mask;
+
+    /**
+     * Создает пустой счетчик, рассчитанный на указанное количество различных ключей без расширения.
+     *
+     * @param expectedSize ожидаемое количество различных ключей
+     */
+    public IntCounter(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 4 / 3 + 1) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Увеличивает счетчик ключа на единицу.
+     *
+     * @param key ключ
+     * @return новое значение счетчика
+     */
+    public int increment(int key) {
+        int slot = slot(key);
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                return ++counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        counts[slot] = 1;
+        if (++size > counts.length * 3 / 4) {
+            resize(counts.length * 2);
+        }
+        return 1;
+    }
+
+    /**
+     * Возвращает значение счетчика ключа.
+     *
+     * @param key ключ
+     * @return количество вхождений или 0, если ключ не встречался
+     */
+    public int get(int key) {
+        int slot = slot(key);
+        while (counts[slot] != 0) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return 0;
+    }
+
+    /**
+     * Возвращает количество различных ключей.
+     *
+     * @return количество ключей
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Передает каждый ключ и его счетчик получателю в порядке расположения в таблице.
+     *
+     * @param consumer получатель пар
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] != 0) {
+                consumer.accept(keys[slot], counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Получатель пары ключ-счетчик.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        /**
+         * Принимает пару.
+         *
+         * @param key   ключ
+         * @param count количество вхождений
+         */
+        void accept(int key, int count);
+    }
+
+    private int slot(int key) {
+        // Перемешивание битов, чтобы последовательные ID не образовывали длинных цепочек
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        allocate(capacity);
+        for (int slot = 0; slot < oldCounts.length; slot++) {
+            if (oldCounts[slot] != 0) {
+                int target = slot(oldKeys[slot]);
+                while (counts[target] != 0) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = oldKeys[slot];
+                counts[target] = oldCounts[slot];
+            }
+        }
+    }
+}
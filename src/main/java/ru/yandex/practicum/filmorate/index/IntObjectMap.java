@@ -0,0 +1,249 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Отображение целочисленных ключей на объекты без упаковки ключей в Integer.
+ * Открытая адресация с линейным пробированием: ключи и значения лежат в двух параллельных массивах,
+ * при удалении последующие элементы цепочки сдвигаются назад, поэтому маркеры удаления не нужны.
+ * Таблица увеличивается вдвое при заполнении больше чем на 3/4.
+ * Не потокобезопасно: синхронизацию обеспечивает владелец.
+ *
+ * @param <V> тип значений
+ */
+public class IntObjectMap<V> {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int mask;
+
+    /**
+     * Создает пустое отображение.
+     */
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Создает пустое отображение, рассчитанное на указанное количество элементов без расширения.
+     *
+     * @param expectedSize ожидаемое количество элементов
+     */
+    public IntObjectMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 4 / 3 + 1) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Возвращает значение по ключу.
+     *
+     * @param key ключ
+     * @return значение или null, если ключа нет
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        return slot >= 0 ? (V) values[slot] : null;
+    }
+
+    /**
+     * Проверяет наличие ключа.
+     *
+     * @param key ключ
+     * @return true, если ключ присутствует
+     */
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Сохраняет значение по ключу.
+     *
+     * @param key   ключ
+     * @param value значение, не null
+     * @return предыдущее значение или null, если ключа не было
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Значение не может быть null");
+        }
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > values.length * 3 / 4) {
+            resize(values.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Возвращает значение по ключу, создавая его при отсутствии.
+     *
+     * @param key     ключ
+     * @param factory создание значения для нового ключа
+     * @return существующее или созданное значение
+     */
+    public V computeIfAbsent(int key, Supplier<V> factory) {
+        V value = get(key);
+        if (value == null) {
+            value = factory.get();
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Удаляет ключ.
+     *
+     * @param key ключ
+     * @return удаленное значение или null, если ключа не было
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V removed = (V) values[slot];
+        // Сдвигаем назад элементы цепочки, которые не могут остаться после образовавшейся дыры
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Возвращает количество элементов.
+     *
+     * @return количество элементов
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пусто ли отображение.
+     *
+     * @return true, если элементов нет
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Передает каждую пару ключ-значение получателю в порядке расположения в таблице.
+     *
+     * @param consumer получатель пар
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                consumer.accept(keys[slot], (V) values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Возвращает ключи в порядке возрастания.
+     *
+     * @return отсортированный массив ключей
+     */
+    public int[] sortedKeys() {
+        int[] result = new int[size];
+        int index = 0;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                result[index++] = keys[slot];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Удаляет все элементы.
+     */
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * Получатель пары ключ-значение.
+     *
+     * @param <V> тип значений
+     */
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        /**
+         * Принимает пару.
+         *
+         * @param key   ключ
+         * @param value значение
+         */
+        void accept(int key, V value);
+    }
+
+    private int find(int key) {
+        int slot = slot(key);
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int slot(int key) {
+        // Перемешивание битов, чтобы последовательные ID не образовывали длинных цепочек
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                int target = slot(oldKeys[slot]);
+                while (values[target] != null) {
+                    target = (target + 1) & mask;
+                }
+                keys[target] = oldKeys[slot];
+                values[target] = oldValues[slot];
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Разреженная матрица лайков пользователь x фильм в памяти.
+ * Для каждого пользователя хранится отсортированный массив понравившихся фильмов,
+ * для каждого фильма - отсортированный массив поставивших лайк пользователей.
+ * Используется для рекомендаций на основе похожих пользователей.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LikeMatrix {
+
+    private static final Comparator<Score> SCORE_ORDER = Comparator
+            .comparingDouble(Score::value).reversed()
+            .thenComparingInt(Score::id);
+
+    private final LikeRepository likeRepository;
+
+    /**
+     * Количество наиболее похожих пользователей, чьи лайки учитываются в рекомендациях.
+     */
+    @Value("${filmorate.recommendations.neighbours:50}")
+    private int neighbourCount;
+
+    private final Map<Integer, SortedIntArray> filmsByUser = new HashMap<>();
+    private final Map<Integer, SortedIntArray> usersByFilm = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Идентификатор с оценкой.
+     *
+     * @param id    идентификатор пользователя или фильма
+     * @param value оценка
+     */
+    private record Score(int id, double value) {
+    }
+
+    /**
+     * Перестраивает матрицу по данным таблицы лайков.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            filmsByUser.clear();
+            usersByFilm.clear();
+            likeRepository.streamAll(like -> put(like.getFilmId(), like.getUserId()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Матрица лайков построена, пользователей: {}, фильмов: {}", filmsByUser.size(), usersByFilm.size());
+    }
+
+    /**
+     * Добавляет лайк в матрицу.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     */
+    public void addLike(Integer filmId, Integer userId) {
+        lock.writeLock().lock();
+        try {
+            put(filmId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет лайк из матрицы.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     */
+    public void removeLike(Integer filmId, Integer userId) {
+        lock.writeLock().lock();
+        try {
+            remove(filmsByUser, userId, filmId);
+            remove(usersByFilm, filmId, userId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет все лайки пользователя.
+     *
+     * @param userId идентификатор пользователя
+     */
+    public void removeUser(Integer userId) {
+        lock.writeLock().lock();
+        try {
+            SortedIntArray films = filmsByUser.remove(userId);
+            if (films != null) {
+                for (int i = 0; i < films.size(); i++) {
+                    remove(usersByFilm, films.get(i), userId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет все лайки фильма.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void removeFilm(Integer filmId) {
+        lock.writeLock().lock();
+        try {
+            SortedIntArray users = usersByFilm.remove(filmId);
+            if (users != null) {
+                for (int i = 0; i < users.size(); i++) {
+                    remove(filmsByUser, users.get(i), filmId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Подбирает фильмы, понравившиеся наиболее похожим пользователям, но не оцененные данным.
+     * Сходство пользователей - коэффициент Жаккара множеств понравившихся фильмов;
+     * оценка фильма - сумма сходства похожих пользователей, которым он понравился.
+     *
+     * @param userId идентификатор пользователя
+     * @param count  максимальное количество фильмов
+     * @return идентификаторы фильмов в порядке убывания оценки
+     */
+    public List<Integer> recommendFilms(Integer userId, int count) {
+        lock.readLock().lock();
+        try {
+            SortedIntArray liked = filmsByUser.get(userId);
+            if (liked == null || liked.isEmpty() || count <= 0) {
+                return List.of();
+            }
+
+            Map<Integer, Double> filmScores = new HashMap<>();
+            for (Score neighbour : findNeighbours(userId, liked)) {
+                SortedIntArray films = filmsByUser.get(neighbour.id());
+                for (int i = 0; i < films.size(); i++) {
+                    int filmId = films.get(i);
+                    if (!liked.contains(filmId)) {
+                        filmScores.merge(filmId, neighbour.value(), Double::sum);
+                    }
+                }
+            }
+
+            List<Score> scores = new ArrayList<>(filmScores.size());
+            filmScores.forEach((filmId, score) -> scores.add(new Score(filmId, score)));
+            return top(scores, count).stream().map(Score::id).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Находит пользователей, лайкнувших хотя бы один общий фильм, и выбирает наиболее похожих.
+     * Количество общих фильмов с каждым кандидатом накапливается в счетчике, размер которого
+     * пропорционален числу различных кандидатов, а не числу всех лайков понравившихся фильмов.
+     */
+    private List<Score> findNeighbours(int userId, SortedIntArray liked) {
+        long occurrences = 0;
+        for (int i = 0; i < liked.size(); i++) {
+            occurrences += usersByFilm.get(liked.get(i)).size();
+        }
+        IntCounter common = new IntCounter((int) Math.min(occurrences, filmsByUser.size()));
+        for (int i = 0; i < liked.size(); i++) {
+            SortedIntArray users = usersByFilm.get(liked.get(i));
+            for (int j = 0; j < users.size(); j++) {
+                common.increment(users.get(j));
+            }
+        }
+
+        PriorityQueue<Score> top = new PriorityQueue<>(neighbourCount + 1, SCORE_ORDER.reversed());
+        common.forEach((candidate, commonCount) -> {
+            if (candidate == userId) {
+                return;
+            }
+            int otherSize = filmsByUser.get(candidate).size();
+            top.offer(new Score(candidate, (double) commonCount / (liked.size() + otherSize - commonCount)));
+            if (top.size() > neighbourCount) {
+                top.poll();
+            }
+        });
+        List<Score> neighbours = new ArrayList<>(top);
+        neighbours.sort(SCORE_ORDER);
+        return neighbours;
+    }
+
+    private static List<Score> top(List<Score> scores, int count) {
+        PriorityQueue<Score> top = new PriorityQueue<>(count + 1, SCORE_ORDER.reversed());
+        for (Score score : scores) {
+            top.offer(score);
+            if (top.size() > count) {
+                top.poll();
+            }
+        }
+        List<Score> result = new ArrayList<>(top);
+        result.sort(SCORE_ORDER);
+        return result;
+    }
+
+    private void put(int filmId, int userId) {
+        filmsByUser.computeIfAbsent(userId, id -> new SortedIntArray()).add(filmId);
+        usersByFilm.computeIfAbsent(filmId, id -> new SortedIntArray()).add(userId);
+    }
+
+    private static void remove(Map<Integer, SortedIntArray> rows, Integer key, int value) {
+        SortedIntArray row = rows.get(key);
+        if (row != null && row.remove(value) && row.isEmpty()) {
+            rows.remove(key);
+        }
+    }
+}
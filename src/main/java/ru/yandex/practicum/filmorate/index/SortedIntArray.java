@@ -0,0 +1,180 @@
+package ru.yandex.practicum.filmorate.index;
+
+import java.util.Arrays;
+
+/**
+ * Множество целых чисел в виде отсортированного массива int без упаковки в Integer.
+ * Поиск выполняется двоичным поиском, вставка в конец - за O(1).
+ * Не потокобезопасно: синхронизацию обеспечивает владелец.
+ */
+public class SortedIntArray {
+
+    private int[] values;
+    private int size;
+
+    /**
+     * Создает пустое множество.
+     */
+    public SortedIntArray() {
+        this.values = new int[4];
+    }
+
+    /**
+     * Добавляет значение.
+     *
+     * @param value значение
+     * @return true, если значения еще не было
+     */
+    public boolean add(int value) {
+        int position = size > 0 && values[size - 1] < value
+                ? -(size + 1)
+                : Arrays.binarySearch(values, 0, size, value);
+        if (position >= 0) {
+            return false;
+        }
+        position = -(position + 1);
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, position, values, position + 1, size - position);
+        values[position] = value;
+        size++;
+        return true;
+    }
+
+    /**
+     * Удаляет значение.
+     *
+     * @param value значение
+     * @return true, если значение было удалено
+     */
+    public boolean remove(int value) {
+        int position = Arrays.binarySearch(values, 0, size, value);
+        if (position < 0) {
+            return false;
+        }
+        System.arraycopy(values, position + 1, values, position, size - position - 1);
+        size--;
+        return true;
+    }
+
+    /**
+     * Проверяет наличие значения.
+     *
+     * @param value значение
+     * @return true, если значение присутствует
+     */
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    /**
+     * Возвращает значение по позиции в порядке возрастания.
+     *
+     * @param index позиция
+     * @return значение
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Возвращает количество значений.
+     *
+     * @return количество значений
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Проверяет, пусто ли множество.
+     *
+     * @return true, если значений нет
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Возвращает копию значений в порядке возрастания.
+     *
+     * @return массив значений
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Пересекает множество с отсортированным массивом.
+     *
+     * @param sorted отсортированный массив без повторов
+     * @return отсортированный массив общих значений
+     */
+    public int[] intersect(int[] sorted) {
+        return intersect(sorted, sorted.length, values, size);
+    }
+
+    /**
+     * Пересекает массивы галопирующим поиском: каждый элемент меньшего массива ищется в большем
+     * сначала экспоненциальным шагом, затем двоичным поиском в найденном окне.
+     * Для массивов сильно различающегося размера это O(m log(n / m)) вместо O(m + n).
+     */
+    private static int[] intersect(int[] first, int firstSize, int[] second, int secondSize) {
+        boolean firstSmaller = firstSize <= secondSize;
+        int[] small = firstSmaller ? first : second;
+        int smallSize = firstSmaller ? firstSize : secondSize;
+        int[] large = firstSmaller ? second : first;
+        int largeSize = firstSmaller ? secondSize : firstSize;
+
+        int[] result = new int[smallSize];
+        int count = 0;
+        int low = 0;
+        for (int i = 0; i < smallSize && low < largeSize; i++) {
+            int value = small[i];
+            // Расширяем окно, пока его правая граница меньше искомого значения
+            int step = 1;
+            int high = low;
+            while (high < largeSize && large[high] < value) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int position = Arrays.binarySearch(large, low, Math.min(high + 1, largeSize), value);
+            if (position >= 0) {
+                result[count++] = value;
+                low = position + 1;
+            } else {
+                low = -(position + 1);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Подсчитывает количество общих значений двух множеств слиянием.
+     *
+     * @param first  первое множество
+     * @param second второе множество
+     * @return размер пересечения
+     */
+    public static int intersectionSize(SortedIntArray first, SortedIntArray second) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < first.size && j < second.size) {
+            int a = first.values[i];
+            int b = second.values[j];
+            if (a == b) {
+                count++;
+                i++;
+                j++;
+            } else if (a < b) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return count;
+    }
+}
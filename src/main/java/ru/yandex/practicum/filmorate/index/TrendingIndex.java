@@ -0,0 +1,354 @@
+package ru.yandex.practicum.filmorate.index;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Индекс набирающих популярность фильмов в памяти.
+ * Лайки раскладываются по корзинам длиной BUCKET в кольцевом буфере, охватывающем самое длинное окно.
+ * Для каждого окна поддерживаются счетчики лайков фильмов и упорядоченный рейтинг:
+ * лайк и его отмена меняют их сразу, а корзина, вышедшая за границу окна, вычитается целиком.
+ * Поэтому топ фильмов берется из начала рейтинга без перебора.
+ * <p>
+ * Корзины хранят только счетчики лайков по фильмам, поэтому объем памяти ограничен количеством фильмов,
+ * получивших лайки за самое длинное окно. Отмена лайка находит его корзину по времени постановки,
+ * которое возвращает хранилище, и вычитается из всех окон, еще охватывающих эту корзину.
+ */
+@Slf4j
+@Component
+public class TrendingIndex {
+
+    /**
+     * Длина корзины - точность, с которой окно сдвигается во времени.
+     */
+    static final Duration BUCKET = Duration.ofMinutes(5);
+
+    private static final long BUCKET_MILLIS = BUCKET.toMillis();
+
+    /**
+     * Порядок рейтинга: по убыванию лайков, при равенстве - по возрастанию ID фильма.
+     */
+    private static final Comparator<Rank> RANK_ORDER = Comparator
+            .comparingInt(Rank::likes).reversed()
+            .thenComparingInt(Rank::filmId);
+
+    private final LikeRepository likeRepository;
+    private final Clock clock;
+
+    private final Bucket[] ring;
+    private final Map<TrendingWindow, WindowCounts> windows = new EnumMap<>(TrendingWindow.class);
+    private final Lock lock = new ReentrantLock();
+
+    private long currentBucket;
+
+    /**
+     * Позиция фильма в рейтинге окна.
+     *
+     * @param filmId идентификатор фильма
+     * @param likes  количество лайков за окно
+     */
+    private record Rank(int filmId, int likes) {
+    }
+
+    /**
+     * Лайки, поставленные за время одной корзины.
+     */
+    private static final class Bucket {
+        private final long number;
+        private final Map<Integer, Integer> likesByFilm = new HashMap<>();
+
+        private Bucket(long number) {
+            this.number = number;
+        }
+
+        private void add(int filmId) {
+            likesByFilm.merge(filmId, 1, Integer::sum);
+        }
+
+        private boolean remove(int filmId) {
+            Integer likes = likesByFilm.get(filmId);
+            if (likes == null) {
+                return false;
+            }
+            if (likes > 1) {
+                likesByFilm.put(filmId, likes - 1);
+            } else {
+                likesByFilm.remove(filmId);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Счетчики и рейтинг одного окна.
+     */
+    private static final class WindowCounts {
+        private final int length;
+        private final Map<Integer, Rank> ranksByFilm = new HashMap<>();
+        private final NavigableSet<Rank> ranking = new TreeSet<>(RANK_ORDER);
+
+        /**
+         * Номер последней корзины, уже вычтенной из счетчиков окна.
+         */
+        private long expiredUpTo;
+
+        private WindowCounts(int length, long currentBucket) {
+            this.length = length;
+            this.expiredUpTo = currentBucket - length;
+        }
+
+        private boolean covers(long bucket) {
+            return bucket > expiredUpTo;
+        }
+
+        private void change(int filmId, int delta) {
+            Rank rank = ranksByFilm.get(filmId);
+            int likes = delta;
+            if (rank != null) {
+                ranking.remove(rank);
+                likes += rank.likes();
+            }
+            if (likes > 0) {
+                Rank changed = new Rank(filmId, likes);
+                ranksByFilm.put(filmId, changed);
+                ranking.add(changed);
+            } else {
+                ranksByFilm.remove(filmId);
+            }
+        }
+
+        private void removeFilm(int filmId) {
+            Rank rank = ranksByFilm.remove(filmId);
+            if (rank != null) {
+                ranking.remove(rank);
+            }
+        }
+    }
+
+    /**
+     * Создает индекс, использующий системные часы.
+     *
+     * @param likeRepository репозиторий лайков
+     */
+    @Autowired
+    public TrendingIndex(LikeRepository likeRepository) {
+        this(likeRepository, Clock.systemUTC());
+    }
+
+    /**
+     * Создает индекс с заданными часами.
+     *
+     * @param likeRepository репозиторий лайков
+     * @param clock          часы, по которым сдвигаются окна
+     */
+    TrendingIndex(LikeRepository likeRepository, Clock clock) {
+        this.likeRepository = likeRepository;
+        this.clock = clock;
+        int maxLength = 0;
+        for (TrendingWindow window : TrendingWindow.values()) {
+            maxLength = Math.max(maxLength, bucketCount(window));
+        }
+        this.ring = new Bucket[maxLength];
+        reset();
+    }
+
+    /**
+     * Перестраивает индекс по лайкам, поставленным за самое длинное окно.
+     */
+    @PostConstruct
+    public void rebuild() {
+        lock.lock();
+        try {
+            reset();
+            Instant since = Instant.ofEpochMilli((currentBucket - ring.length + 1) * BUCKET_MILLIS);
+            likeRepository.streamCreatedSince(since, like -> record(like.getFilmId(), bucketOf(like.getCreatedAt())));
+        } finally {
+            lock.unlock();
+        }
+        log.info("Индекс трендов построен, фильмов с лайками за {}: {}", TrendingWindow.WEEK.getValue(),
+                windows.get(TrendingWindow.WEEK).ranksByFilm.size());
+    }
+
+    /**
+     * Учитывает новый лайк фильма.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void addLike(int filmId) {
+        lock.lock();
+        try {
+            advance();
+            record(filmId, currentBucket);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Отменяет лайк фильма: вычитает его из корзины, соответствующей времени постановки,
+     * и из всех окон, которые еще охватывают эту корзину. Лайк старше самого длинного окна не учитывается.
+     *
+     * @param filmId    идентификатор фильма
+     * @param createdAt время, когда был поставлен отменяемый лайк
+     */
+    public void removeLike(int filmId, Instant createdAt) {
+        lock.lock();
+        try {
+            advance();
+            long bucket = bucketOf(createdAt);
+            if (bucket <= currentBucket - ring.length) {
+                return;
+            }
+            Bucket slot = ring[index(bucket)];
+            // Лайк мог быть учтен в соседней корзине, если отметки времени индекса и хранилища
+            // разошлись на границе корзин: тогда счетчики окон не трогаются, чтобы не уйти в минус
+            if (slot == null || slot.number != bucket || !slot.remove(filmId)) {
+                return;
+            }
+            windows.values().forEach(window -> {
+                if (window.covers(bucket)) {
+                    window.change(filmId, -1);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаляет фильм из рейтингов всех окон.
+     *
+     * @param filmId идентификатор фильма
+     */
+    public void removeFilm(int filmId) {
+        lock.lock();
+        try {
+            windows.values().forEach(window -> window.removeFilm(filmId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает фильмы, получившие больше всего лайков за окно.
+     *
+     * @param window временное окно
+     * @param count  количество фильмов
+     * @return идентификаторы фильмов в порядке убывания лайков за окно
+     */
+    public List<Integer> getTopFilmIds(TrendingWindow window, int count) {
+        lock.lock();
+        try {
+            advance();
+            NavigableSet<Rank> ranking = windows.get(window).ranking;
+            List<Integer> result = new ArrayList<>(Math.min(count, ranking.size()));
+            Iterator<Rank> iterator = ranking.iterator();
+            while (iterator.hasNext() && result.size() < count) {
+                result.add(iterator.next().filmId());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сдвигает окна к текущему времени: вычитает из счетчиков каждого окна вышедшие из него корзины
+     * и освобождает корзины, вышедшие из самого длинного окна.
+     * Корзины старше кольцевого буфера уже освобождены, поэтому сдвиг после долгого простоя
+     * обходит не больше одного кольца.
+     */
+    private void advance() {
+        long now = bucketOf(clock.millis());
+        if (now <= currentBucket) {
+            return;
+        }
+        long oldest = currentBucket - ring.length + 1;
+        for (WindowCounts window : windows.values()) {
+            long expireTo = now - window.length;
+            for (long bucket = Math.max(window.expiredUpTo + 1, oldest); bucket <= expireTo; bucket++) {
+                Bucket expired = ring[index(bucket)];
+                if (expired != null && expired.number == bucket) {
+                    expired.likesByFilm.forEach((filmId, likes) -> window.change(filmId, -likes));
+                }
+            }
+            window.expiredUpTo = Math.max(window.expiredUpTo, expireTo);
+        }
+        for (long bucket = oldest; bucket <= now - ring.length; bucket++) {
+            if (ring[index(bucket)] != null && ring[index(bucket)].number == bucket) {
+                ring[index(bucket)] = null;
+            }
+        }
+        currentBucket = now;
+    }
+
+    /**
+     * Учитывает лайк в корзине и окнах.
+     */
+    private void record(int filmId, long bucket) {
+        if (bucket <= currentBucket - ring.length) {
+            return;
+        }
+        slot(bucket).add(filmId);
+        windows.values().forEach(window -> {
+            if (window.covers(bucket)) {
+                window.change(filmId, 1);
+            }
+        });
+    }
+
+    private Bucket slot(long bucket) {
+        int index = index(bucket);
+        if (ring[index] == null || ring[index].number != bucket) {
+            ring[index] = new Bucket(bucket);
+        }
+        return ring[index];
+    }
+
+    private void reset() {
+        Arrays.fill(ring, null);
+        currentBucket = bucketOf(clock.millis());
+        for (TrendingWindow window : TrendingWindow.values()) {
+            windows.put(window, new WindowCounts(bucketCount(window), currentBucket));
+        }
+    }
+
+    private int index(long bucket) {
+        return (int) Math.floorMod(bucket, (long) ring.length);
+    }
+
+    private static long bucketOf(long epochMillis) {
+        return Math.floorDiv(epochMillis, BUCKET_MILLIS);
+    }
+
+    /**
+     * Возвращает корзину момента; моменты из будущего относятся к текущей корзине.
+     */
+    private long bucketOf(Instant instant) {
+        return Math.min(currentBucket, bucketOf(instant.toEpochMilli()));
+    }
+
+    private static int bucketCount(TrendingWindow window) {
+        return (int) (window.getDuration().toMillis() / BUCKET_MILLIS);
+    }
+}
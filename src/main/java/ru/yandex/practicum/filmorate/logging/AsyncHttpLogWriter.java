@@ -0,0 +1,125 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Асинхронная запись HTTP-логов через ограниченный буфер.
+ * Поток обработки запроса только кладет отформатированную запись в буфер, а запись в лог выполняет
+ * отдельный фоновый поток. Если буфер заполнен, запись отбрасывается и учитывается в счетчике,
+ * поэтому медленный лог не блокирует обработку запросов.
+ */
+@Slf4j
+public class AsyncHttpLogWriter implements HttpLogWriter, AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MS = 5000;
+
+    private final HttpLogWriter delegate;
+    private final BlockingQueue<Entry> buffer;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread worker;
+    private volatile boolean closed;
+
+    /**
+     * Создает асинхронную запись и запускает фоновый поток.
+     *
+     * @param delegate запись, которой передаются записи из буфера
+     * @param capacity размер буфера
+     */
+    public AsyncHttpLogWriter(HttpLogWriter delegate, int capacity) {
+        this.delegate = delegate;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.worker = new Thread(this::drain, "http-log-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public boolean isActive() {
+        return !closed && delegate.isActive();
+    }
+
+    @Override
+    public void write(Precorrelation precorrelation, String request) {
+        offer(new Entry(precorrelation, null, request));
+    }
+
+    @Override
+    public void write(Correlation correlation, String response) {
+        offer(new Entry(null, correlation, response));
+    }
+
+    /**
+     * Возвращает количество записей, отброшенных из-за заполненного буфера.
+     *
+     * @return количество отброшенных записей
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Возвращает количество записей, ожидающих в буфере.
+     *
+     * @return количество записей в буфере
+     */
+    public int getPending() {
+        return buffer.size();
+    }
+
+    private void offer(Entry entry) {
+        if (closed || !buffer.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private void drain() {
+        while (!closed || !buffer.isEmpty()) {
+            try {
+                Entry entry = buffer.poll(100, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    entry.writeTo(delegate);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException | RuntimeException e) {
+                log.warn("Не удалось записать HTTP-лог: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Прекращает прием записей и дожидается записи оставшихся в буфере.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join(CLOSE_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (worker.isAlive()) {
+            worker.interrupt();
+        }
+    }
+
+    private record Entry(Precorrelation precorrelation, Correlation correlation, String message) {
+        void writeTo(HttpLogWriter writer) throws IOException {
+            if (correlation != null) {
+                writer.write(correlation, message);
+            } else {
+                writer.write(precorrelation, message);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.springframework.util.AntPathMatcher;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Стратегия Logbook с правилами по эндпоинтам: для запросов, подходящих под правило, тела запроса и ответа
+ * не буферизуются и не пишутся в лог. Остальные запросы логируются целиком.
+ * Правило имеет вид "МЕТОД шаблон пути", например "GET /films" или "* /users/**";
+ * метод * подходит для любого метода.
+ */
+public class EndpointBodyStrategy implements Strategy {
+
+    private static final AntPathMatcher PATH_MATCHER = new AntPathMatcher();
+
+    private final List<Rule> rules;
+
+    /**
+     * Создает стратегию по списку правил.
+     *
+     * @param rules правила вида "МЕТОД шаблон пути"
+     */
+    public EndpointBodyStrategy(List<String> rules) {
+        this.rules = rules.stream().map(String::trim).filter(rule -> !rule.isEmpty()).map(Rule::parse).toList();
+    }
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        return excludesBody(request) ? request.withoutBody() : request.withBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        return excludesBody(request) ? response.withoutBody() : response.withBody();
+    }
+
+    /**
+     * Проверяет, подходит ли запрос под одно из правил.
+     *
+     * @param request HTTP-запрос
+     * @return true, если тела запроса и ответа не логируются
+     */
+    boolean excludesBody(HttpRequest request) {
+        for (Rule rule : rules) {
+            if (rule.matches(request.getMethod(), request.getPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record Rule(String method, String pattern) {
+        static Rule parse(String rule) {
+            String[] parts = rule.split("\\s+");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Ожидается правило вида \"МЕТОД шаблон пути\": " + rule);
+            }
+            return new Rule(parts[0].toUpperCase(), parts[1]);
+        }
+
+        boolean matches(String requestMethod, String path) {
+            return ("*".equals(method) || method.equalsIgnoreCase(requestMethod)) && PATH_MATCHER.match(pattern, path);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.Strategy;
+import org.zalando.logbook.core.DefaultHttpLogWriter;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Производственный режим логирования HTTP-запросов (filmorate.http-log.mode=sampled).
+ * Заменяет бины Logbook по умолчанию:
+ * <ul>
+ *     <li>в лог попадает только доля запросов filmorate.http-log.sample-rate;</li>
+ *     <li>для эндпоинтов из filmorate.http-log.body-exclude тела не буферизуются и не пишутся;</li>
+ *     <li>записи пишутся в лог фоновым потоком через буфер filmorate.http-log.async.capacity,
+ *     при заполнении буфера записи отбрасываются.</li>
+ * </ul>
+ * Размер тел ограничивается стандартным свойством Logbook logbook.write.max-body-size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "filmorate.http-log.mode", havingValue = "sampled")
+public class SampledHttpLogConfiguration {
+
+    /**
+     * Условие логирования запроса: случайная выборка с заданной долей.
+     * Имя бина заменяет условие Logbook по умолчанию, а свойства logbook.predicate.* продолжают действовать.
+     *
+     * @param sampleRate доля логируемых запросов от 0 до 1
+     * @return условие логирования
+     */
+    @Bean
+    public Predicate<HttpRequest> requestCondition(@Value("${filmorate.http-log.sample-rate:0.01}") double sampleRate) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Доля логируемых запросов должна быть от 0 до 1: " + sampleRate);
+        }
+        return request -> sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Стратегия с правилами логирования тел по эндпоинтам.
+     *
+     * @param bodyExclude правила вида "МЕТОД шаблон пути" для запросов, тела которых не логируются
+     * @return стратегия Logbook
+     */
+    @Bean
+    public Strategy strategy(@Value("${filmorate.http-log.body-exclude:}") List<String> bodyExclude) {
+        return new EndpointBodyStrategy(bodyExclude);
+    }
+
+    /**
+     * Асинхронная запись логов с метриками отброшенных и ожидающих записей.
+     *
+     * @param capacity размер буфера записей
+     * @param registry поставщик реестра метрик
+     * @return запись логов
+     */
+    @Bean
+    public AsyncHttpLogWriter writer(@Value("${filmorate.http-log.async.capacity:10000}") int capacity,
+                                     ObjectProvider<MeterRegistry> registry) {
+        AsyncHttpLogWriter writer = new AsyncHttpLogWriter(new DefaultHttpLogWriter(), capacity);
+        registry.ifAvailable(meterRegistry -> {
+            FunctionCounter.builder("filmorate.http.log.dropped", writer, AsyncHttpLogWriter::getDropped)
+                    .description("Количество HTTP-логов, отброшенных из-за заполненного буфера")
+                    .register(meterRegistry);
+            Gauge.builder("filmorate.http.log.pending", writer, AsyncHttpLogWriter::getPending)
+                    .description("Количество HTTP-логов, ожидающих записи")
+                    .register(meterRegistry);
+        });
+        return writer;
+    }
+}
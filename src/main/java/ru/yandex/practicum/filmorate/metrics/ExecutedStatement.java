@@ -0,0 +1,34 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * Выполненное SQL-выражение.
+ *
+ * @param sql      текст выражения
+ * @param shape    форма выражения: текст без литералов, со списками параметров IN, сведенными к одному
+ * @param nanos    время выполнения в наносекундах
+ * @param callSite место вызова в коде приложения; определяется для первого выражения каждой формы в журнале
+ *                 и равно null для повторов
+ */
+public record ExecutedStatement(String sql, String shape, long nanos, String callSite) {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /**
+     * Приводит выражение к форме, общей для выражений, различающихся только значениями:
+     * литералы заменяются на ?, списки параметров (?, ?, ?) - на (?), пробелы схлопываются.
+     *
+     * @param sql текст выражения
+     * @return форма выражения
+     */
+    public static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
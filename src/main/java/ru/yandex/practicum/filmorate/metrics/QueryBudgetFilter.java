@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Бюджет SQL-выражений HTTP-запроса.
+ * Открывает журнал {@link QueryLog} на время обработки запроса и предупреждает в логе, если запрос выполнил
+ * больше выражений, чем разрешено, или повторил одну форму выражения больше допустимого - типичный признак N+1.
+ * Предупреждение содержит самые частые формы выражений и места их вызова.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final int SHAPES_IN_WARNING = 5;
+
+    private final QueryTracker queryTracker;
+    private final int maxStatements;
+    private final int maxRepeats;
+
+    /**
+     * Создает фильтр бюджета SQL-выражений.
+     *
+     * @param queryTracker  учет SQL-выражений приложения
+     * @param maxStatements допустимое количество выражений за запрос
+     * @param maxRepeats    допустимое количество выполнений одной формы выражения за запрос
+     */
+    public QueryBudgetFilter(QueryTracker queryTracker,
+                             @Value("${filmorate.jdbc.query-budget.max-statements:20}") int maxStatements,
+                             @Value("${filmorate.jdbc.query-budget.max-repeats:5}") int maxRepeats) {
+        this.queryTracker = queryTracker;
+        this.maxStatements = maxStatements;
+        this.maxRepeats = maxRepeats;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        try (QueryLog queryLog = queryTracker.start()) {
+            chain.doFilter(request, response);
+            check(request, queryLog);
+        }
+    }
+
+    private void check(HttpServletRequest request, QueryLog queryLog) {
+        List<QueryLog.ShapeStats> repeated = queryLog.repeatedShapes(maxRepeats);
+        if (queryLog.count() > maxStatements || !repeated.isEmpty()) {
+            log.warn("{} {} превысил бюджет SQL-выражений (не больше {}, одна форма не больше {} раз): {}",
+                    request.getMethod(), request.getRequestURI(), maxStatements, maxRepeats,
+                    queryLog.describe(SHAPES_IN_WARNING));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Журнал SQL-выражений, выполненных в текущем потоке с момента открытия журнала.
+ * Открывается методом {@link QueryTracker#start()} и закрывается в try-with-resources;
+ * вложенные журналы пишут выражения также во все внешние.
+ * Журнал не потокобезопасен и используется только потоком, который его открыл.
+ */
+public final class QueryLog implements AutoCloseable {
+
+    /**
+     * Максимальное количество выражений, которые журнал хранит целиком. Сверх него выражения только считаются.
+     */
+    static final int MAX_RECORDED = 1000;
+
+    private final QueryTracker tracker;
+    private final QueryLog parent;
+    private final List<ExecutedStatement> statements = new ArrayList<>();
+    private final Map<String, ShapeStats> shapes = new LinkedHashMap<>();
+    private int count;
+    private long totalNanos;
+    private boolean closed;
+
+    QueryLog(QueryTracker tracker, QueryLog parent) {
+        this.tracker = tracker;
+        this.parent = parent;
+    }
+
+    /**
+     * Статистика выражений одной формы.
+     *
+     * @param shape    форма выражения
+     * @param count    количество выполнений
+     * @param nanos    суммарное время выполнения в наносекундах
+     * @param callSite место первого вызова
+     */
+    public record ShapeStats(String shape, int count, long nanos, String callSite) {
+    }
+
+    /**
+     * Возвращает количество выполненных выражений.
+     *
+     * @return количество выражений
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Возвращает суммарное время выполнения выражений.
+     *
+     * @return время в наносекундах
+     */
+    public long totalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * Возвращает выполненные выражения в порядке выполнения, не больше {@value #MAX_RECORDED}.
+     *
+     * @return выражения
+     */
+    public List<ExecutedStatement> statements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Возвращает статистику по формам выражений, начиная с самых частых.
+     *
+     * @return статистика форм
+     */
+    public List<ShapeStats> shapes() {
+        return shapes.values().stream()
+                .sorted(Comparator.comparingInt(ShapeStats::count).reversed())
+                .toList();
+    }
+
+    /**
+     * Возвращает формы выражений, выполненные больше заданного количества раз, - признак N+1.
+     *
+     * @param maxRepeats допустимое количество выполнений одной формы
+     * @return статистика повторяющихся форм, начиная с самых частых
+     */
+    public List<ShapeStats> repeatedShapes(int maxRepeats) {
+        return shapes().stream().filter(stats -> stats.count() > maxRepeats).toList();
+    }
+
+    /**
+     * Проверяет, встречалась ли форма выражения в журнале.
+     *
+     * @param shape форма выражения
+     * @return true, если встречалась
+     */
+    boolean hasShape(String shape) {
+        return shapes.containsKey(shape);
+    }
+
+    /**
+     * Записывает выражение в журнал и во все внешние журналы.
+     *
+     * @param statement выполненное выражение
+     */
+    void record(ExecutedStatement statement) {
+        for (QueryLog log = this; log != null; log = log.parent) {
+            log.add(statement);
+        }
+    }
+
+    private void add(ExecutedStatement statement) {
+        count++;
+        totalNanos += statement.nanos();
+        if (statements.size() < MAX_RECORDED) {
+            statements.add(statement);
+        }
+        shapes.merge(statement.shape(),
+                new ShapeStats(statement.shape(), 1, statement.nanos(), statement.callSite()),
+                (stats, added) -> new ShapeStats(stats.shape(), stats.count() + 1, stats.nanos() + added.nanos(),
+                        stats.callSite() != null ? stats.callSite() : added.callSite()));
+    }
+
+    /**
+     * Формирует описание журнала: количество и время выражений и самые частые формы с местами вызова.
+     *
+     * @param maxShapes максимальное количество форм в описании
+     * @return описание
+     */
+    public String describe(int maxShapes) {
+        StringBuilder description = new StringBuilder()
+                .append(count).append(" SQL-выражений за ")
+                .append(String.format(Locale.ROOT, "%.3f", totalNanos / 1_000_000.0)).append(" мс");
+        shapes().stream().limit(maxShapes).forEach(stats -> description
+                .append("\n  ").append(stats.count()).append(" x ").append(stats.shape())
+                .append(" [").append(stats.callSite()).append(']'));
+        return description.toString();
+    }
+
+    QueryLog parent() {
+        return parent;
+    }
+
+    /**
+     * Закрывает журнал: следующие выражения потока пишутся во внешний журнал, если он есть.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            tracker.end(this);
+        }
+    }
+}
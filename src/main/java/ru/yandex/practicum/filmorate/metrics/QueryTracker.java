@@ -0,0 +1,176 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Учет SQL-выражений приложения.
+ * Оборачивает DataSource так, что каждое выполнение выражения (execute, executeQuery, executeUpdate,
+ * executeBatch) измеряется и передается слушателям, а также записывается в открытые журналы текущего потока.
+ * Журналы ({@link QueryLog}) открываются тестами для проверки количества запросов
+ * и фильтром {@link QueryBudgetFilter} для каждого HTTP-запроса.
+ */
+@Component
+public class QueryTracker implements BeanPostProcessor {
+
+    private static final Set<String> STATEMENT_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+    private static final String APP_PACKAGE = "ru.yandex.practicum.filmorate.";
+    private static final String TRACKER_CLASS = QueryTracker.class.getName();
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+
+    private final ThreadLocal<QueryLog> current = new ThreadLocal<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Слушатель выполненных SQL-выражений.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Вызывается в потоке, выполнившем выражение, сразу после его выполнения.
+         *
+         * @param sql   текст выражения
+         * @param nanos время выполнения в наносекундах
+         */
+        void onStatement(String sql, long nanos);
+    }
+
+    /**
+     * Добавляет слушателя выполненных выражений.
+     *
+     * @param listener слушатель
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Открывает журнал выражений текущего потока.
+     *
+     * @return журнал, который нужно закрыть после измеряемого участка
+     */
+    public QueryLog start() {
+        QueryLog log = new QueryLog(this, current.get());
+        current.set(log);
+        return log;
+    }
+
+    /**
+     * Возвращает открытый журнал текущего потока.
+     *
+     * @return журнал или пустой Optional, если журнал не открыт
+     */
+    public Optional<QueryLog> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    void end(QueryLog log) {
+        if (current.get() == log) {
+            if (log.parent() != null) {
+                current.set(log.parent());
+            } else {
+                current.remove();
+            }
+        }
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                Object result = invoke(method, target, args);
+                return result instanceof Connection connection ? trackingConnection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    private Connection trackingConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(method, target, args);
+            if (STATEMENT_METHODS.contains(method.getName()) && result instanceof Statement statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                return trackingStatement(method.getReturnType(), statement, sql);
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Statement> T trackingStatement(Class<?> type, Statement statement, String preparedSql) {
+        return proxy((Class<T>) type, (T) statement, (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(method, target, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(method, target, args);
+            } finally {
+                String sql = preparedSql != null ? preparedSql
+                        : args != null && args.length > 0 && args[0] instanceof String text ? text : "<batch>";
+                record(sql, System.nanoTime() - start);
+            }
+        });
+    }
+
+    private void record(String sql, long nanos) {
+        for (Listener listener : listeners) {
+            listener.onStatement(sql, nanos);
+        }
+        QueryLog log = current.get();
+        if (log != null) {
+            String shape = ExecutedStatement.shapeOf(sql);
+            String callSite = log.hasShape(shape) ? null : callSite();
+            log.record(new ExecutedStatement(sql, shape, nanos, callSite));
+        }
+    }
+
+    /**
+     * Находит ближайший к выражению метод приложения вне этого класса и сгенерированных прокси.
+     */
+    private static String callSite() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().equals(TRACKER_CLASS)
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName()
+                        + ":" + frame.getLineNumber())
+                .orElse("unknown"));
+    }
+
+    private static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, TargetHandler<T> handler) {
+        InvocationHandler invocationHandler = (p, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    @FunctionalInterface
+    private interface TargetHandler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Метрики хранилищ.
+ * Оборачивает каждый бин *DbStorage и InMemory*Storage из пакета repository и считает время вызова его методов
+ * (filmorate.repository.calls) и количество SQL-выражений, выполненных за вызов
+ * (filmorate.repository.queries). Выражения считаются в текущем потоке по событиям {@link QueryTracker},
+ * поэтому вложенный вызов другого хранилища учитывается и во внешнем вызове.
+ * Общее количество SQL-выражений приложения публикуется счетчиком filmorate.jdbc.statements.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.metrics.repository.enabled", havingValue = "true", matchIfMissing = true)
+public class RepositoryMetrics implements BeanPostProcessor {
+
+    private static final String STORAGE_SUFFIX = "DbStorage";
+    private static final String MEMORY_STORAGE_PREFIX = "InMemory";
+    private static final String MEMORY_STORAGE_SUFFIX = "Storage";
+    private static final String REPOSITORY_PACKAGE = "ru.yandex.practicum.filmorate.repository";
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private final ThreadLocal<long[]> statements = ThreadLocal.withInitial(() -> new long[1]);
+    private final Map<Method, MethodMeters> meters = new ConcurrentHashMap<>();
+    private volatile Counter totalStatements;
+
+    /**
+     * Создает обработчик метрик хранилищ.
+     * Реестр метрик запрашивается лениво, чтобы не создавать его раньше остальных бинов.
+     *
+     * @param registryProvider поставщик реестра метрик
+     * @param queryTracker     учет SQL-выражений приложения
+     */
+    public RepositoryMetrics(ObjectProvider<MeterRegistry> registryProvider, QueryTracker queryTracker) {
+        this.registryProvider = registryProvider;
+        queryTracker.addListener((sql, nanos) -> {
+            statements.get()[0]++;
+            totalStatements().increment();
+        });
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> type = ClassUtils.getUserClass(bean);
+        if (isStorage(type)) {
+            ProxyFactory proxyFactory = new ProxyFactory(bean);
+            proxyFactory.setProxyTargetClass(true);
+            proxyFactory.addAdvice(storageInterceptor(type));
+            return proxyFactory.getProxy(type.getClassLoader());
+        }
+        return bean;
+    }
+
+    private static boolean isStorage(Class<?> type) {
+        String name = type.getSimpleName();
+        return type.getPackageName().equals(REPOSITORY_PACKAGE) && (name.endsWith(STORAGE_SUFFIX)
+                || name.startsWith(MEMORY_STORAGE_PREFIX) && name.endsWith(MEMORY_STORAGE_SUFFIX));
+    }
+
+    private MethodInterceptor storageInterceptor(Class<?> type) {
+        return invocation -> {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == Object.class) {
+                return invocation.proceed();
+            }
+            long[] counter = statements.get();
+            long statementsBefore = counter[0];
+            long start = System.nanoTime();
+            try {
+                return invocation.proceed();
+            } finally {
+                MethodMeters methodMeters = meters.computeIfAbsent(method, m -> new MethodMeters(registry(), type, m));
+                methodMeters.timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                long executed = counter[0] - statementsBefore;
+                if (executed > 0) {
+                    methodMeters.queries.increment(executed);
+                }
+            }
+        };
+    }
+
+    private Counter totalStatements() {
+        Counter counter = totalStatements;
+        if (counter == null) {
+            counter = Counter.builder("filmorate.jdbc.statements")
+                    .description("Количество выполненных SQL-выражений")
+                    .register(registry());
+            totalStatements = counter;
+        }
+        return counter;
+    }
+
+    private MeterRegistry registry() {
+        return registryProvider.getObject();
+    }
+
+    /**
+     * Метрики одного метода хранилища. Перегруженные методы делят общие метрики.
+     */
+    private static final class MethodMeters {
+        private final Timer timer;
+        private final Counter queries;
+
+        MethodMeters(MeterRegistry registry, Class<?> type, Method method) {
+            String repository = type.getSimpleName();
+            this.timer = Timer.builder("filmorate.repository.calls")
+                    .description("Время вызова метода хранилища")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .register(registry);
+            this.queries = Counter.builder("filmorate.repository.queries")
+                    .description("Количество SQL-выражений, выполненных методом хранилища")
+                    .tag("repository", repository)
+                    .tag("method", method.getName())
+                    .register(registry);
+        }
+    }
+}
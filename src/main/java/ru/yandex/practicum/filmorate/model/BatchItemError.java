@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ошибка обработки одного элемента пакетного запроса.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchItemError {
+    /**
+     * Позиция элемента в исходном запросе (начиная с 0).
+     */
+    private Integer index;
+
+    /**
+     * Описание ошибки.
+     */
+    private String message;
+}
@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат пакетного создания сущностей.
+ * Содержит успешно созданные сущности и ошибки по отдельным элементам запроса.
+ *
+ * @param <T> тип сущности
+ */
+@Data
+public class BatchResult<T> {
+    /**
+     * Созданные сущности с присвоенными ID в порядке следования в запросе.
+     */
+    private List<T> created = new ArrayList<>();
+
+    /**
+     * Ошибки элементов, которые не удалось создать.
+     */
+    private List<BatchItemError> errors = new ArrayList<>();
+}
@@ -0,0 +1,27 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Количество отобранных фильмов по значениям каждого фасета.
+ */
+@Data
+public class FacetCounts {
+    /**
+     * Количество фильмов по ID жанра.
+     */
+    private Map<Integer, Integer> genres = new TreeMap<>();
+
+    /**
+     * Количество фильмов по ID рейтинга MPA.
+     */
+    private Map<Integer, Integer> mpa = new TreeMap<>();
+
+    /**
+     * Количество фильмов по году релиза.
+     */
+    private Map<Integer, Integer> years = new TreeMap<>();
+}
@@ -0,0 +1,45 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.Data;
+
+/**
+ * Параметры фильтрации фильмов по фасетам.
+ * Незаданные параметры не ограничивают выборку.
+ */
+@Data
+public class FilmFilter {
+    /**
+     * Значение параметра sort для сортировки по популярности.
+     */
+    public static final String SORT_POPULAR = "popular";
+
+    /**
+     * Идентификатор жанра.
+     */
+    private Integer genre;
+
+    /**
+     * Идентификатор рейтинга MPA.
+     */
+    private Integer mpa;
+
+    /**
+     * Минимальный год релиза включительно.
+     */
+    private Integer yearFrom;
+
+    /**
+     * Максимальный год релиза включительно.
+     */
+    private Integer yearTo;
+
+    /**
+     * Порядок сортировки: popular - по убыванию лайков, иначе по возрастанию ID.
+     */
+    private String sort;
+
+    /**
+     * Максимальное количество возвращаемых фильмов (по умолчанию 10).
+     */
+    private Integer count;
+}
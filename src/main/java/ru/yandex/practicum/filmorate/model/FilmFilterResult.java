@@ -0,0 +1,31 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Результат фасетной фильтрации фильмов.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FilmFilterResult {
+    /**
+     * Количество фильмов, подходящих под фильтр, без учета ограничения count.
+     */
+    private int total;
+
+    /**
+     * Первые count отобранных фильмов.
+     */
+    private List<Film> films = new ArrayList<>();
+
+    /**
+     * Распределение отобранных фильмов по фасетам.
+     */
+    private FacetCounts facets = new FacetCounts();
+}
@@ -0,0 +1,43 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Модель лайка - связи пользователя и понравившегося ему фильма.
+ * Лайки сравниваются только по фильму и пользователю, без учета времени.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Like {
+    /**
+     * Идентификатор фильма.
+     */
+    private Integer filmId;
+
+    /**
+     * Идентификатор пользователя, поставившего лайк.
+     */
+    private Integer userId;
+
+    /**
+     * Время, когда был поставлен лайк.
+     */
+    @EqualsAndHashCode.Exclude
+    private Instant createdAt;
+
+    /**
+     * Создает лайк без указания времени.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     */
+    public Like(Integer filmId, Integer userId) {
+        this(filmId, userId, null);
+    }
+}
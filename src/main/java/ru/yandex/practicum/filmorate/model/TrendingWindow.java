@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Перечисление временных окон, за которые считаются набирающие популярность фильмы.
+ */
+@Getter
+@AllArgsConstructor
+public enum TrendingWindow {
+    /**
+     * Последний час.
+     */
+    HOUR("1h", Duration.ofHours(1)),
+
+    /**
+     * Последние сутки.
+     */
+    DAY("24h", Duration.ofDays(1)),
+
+    /**
+     * Последняя неделя.
+     */
+    WEEK("7d", Duration.ofDays(7));
+
+    /**
+     * Обозначение окна в параметрах запроса.
+     */
+    private final String value;
+
+    /**
+     * Длительность окна.
+     */
+    private final Duration duration;
+
+    /**
+     * Находит окно по обозначению из параметров запроса.
+     *
+     * @param value обозначение окна, например 24h
+     * @return Optional с окном, если обозначение известно, иначе пустой Optional
+     */
+    public static Optional<TrendingWindow> fromValue(String value) {
+        return Arrays.stream(values())
+                .filter(window -> window.value.equalsIgnoreCase(value))
+                .findFirst();
+    }
+}
@@ -0,0 +1,448 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.index.IntObjectMap;
+import ru.yandex.practicum.filmorate.index.SortedIntArray;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище лайков с отложенной записью (write-behind).
+ * Изменения накапливаются в памяти, взаимно гасящие добавления и удаления схлопываются,
+ * а остальные сбрасываются в базу данных пакетно при достижении размера буфера или по таймеру.
+ * <p>
+ * При старте все лайки загружаются в память, поэтому проверка существования лайка и чтение
+ * не обращаются к базе данных. Блокировка буфера защищает только структуры в памяти:
+ * при сбросе накопленные изменения забираются под блокировкой, а пакет пишется уже без нее,
+ * так что запись в базу не задерживает новые лайки. Время постановки, которое возвращает удаление лайка,
+ * берется из ожидающего записи добавления, а для уже записанного лайка читается из базы:
+ * на это время удаление удерживает блокировку сброса, чтобы строка не исчезла раньше чтения.
+ * <p>
+ * Сброс по размеру буфера ставится в очередь не больше одного раза, пока он не начался.
+ * Количество ожидающих изменений ограничено: при достижении предела запрос сам записывает буфер в базу,
+ * а если запись не удалась, завершается ошибкой, поэтому при недоступной базе буфер не растет бесконечно.
+ * Предел может быть превышен не больше чем на число одновременных запросов.
+ * Лайки удаленных фильмов и пользователей
+ * отбрасывает условная вставка в базе; в памяти они остаются до перезагрузки, но не мешают работе,
+ * так как ID не переиспользуются, а сервисы проверяют существование фильма и пользователя.
+ * Включается свойством filmorate.likes.write-behind.enabled=true, используется только с filmorate.storage.engine=jdbc.
+ */
+@Slf4j
+@Primary
+@Repository
+@ConditionalOnExpression("${filmorate.likes.write-behind.enabled:false} and '${filmorate.storage.engine:jdbc}' == 'jdbc'")
+public class BufferedLikeStorage implements LikeRepository {
+
+    private final LikeDbStorage likeDbStorage;
+    private final int batchSize;
+    private final int maxPending;
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * Сброс по размеру буфера уже поставлен в очередь и еще не начался.
+     */
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    /**
+     * Количество неудачных фоновых сбросов подряд: ошибка пишется в журнал только для первого из них.
+     */
+    private final AtomicInteger failedFlushes = new AtomicInteger();
+
+    /**
+     * Текущие лайки с учетом еще не записанных изменений: пользователь - фильмы.
+     */
+    private IntObjectMap<SortedIntArray> filmsByUser = new IntObjectMap<>();
+
+    /**
+     * Текущее количество лайков фильмов с учетом еще не записанных изменений.
+     */
+    private Map<Integer, Integer> likesCountByFilm = new HashMap<>();
+
+    /**
+     * Ожидающие записи добавления: ключ и значение - один и тот же лайк, значение хранит время постановки.
+     */
+    private Map<Like, Like> pendingAdded = new HashMap<>();
+
+    /**
+     * Ожидающие записи удаления.
+     */
+    private Set<Like> pendingRemoved = new HashSet<>();
+
+    /**
+     * Защищает структуры в памяти. Под ней не выполняются обращения к базе данных.
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Упорядочивает сбросы, чтобы пакеты попадали в базу в порядке изменений.
+     * Пока она не захвачена, каждый лайк в памяти, кроме ожидающих добавления, уже записан в базу.
+     */
+    private final Lock flushLock = new ReentrantLock();
+
+    /**
+     * Создает хранилище с отложенной записью.
+     *
+     * @param likeDbStorage   хранилище лайков в базе данных
+     * @param batchSize       количество изменений, при котором буфер сбрасывается немедленно
+     * @param maxPending      количество ожидающих изменений, при котором запрос сам записывает буфер
+     * @param flushIntervalMs интервал периодического сброса буфера в миллисекундах
+     */
+    public BufferedLikeStorage(LikeDbStorage likeDbStorage,
+                               @Value("${filmorate.likes.write-behind.batch-size:500}") int batchSize,
+                               @Value("${filmorate.likes.write-behind.max-pending:50000}") int maxPending,
+                               @Value("${filmorate.likes.write-behind.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.likeDbStorage = likeDbStorage;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "like-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Записывает накопленные изменения и заново загружает лайки из базы данных в память.
+     */
+    @PostConstruct
+    public void reload() {
+        flush();
+        IntObjectMap<SortedIntArray> loadedFilmsByUser = new IntObjectMap<>();
+        Map<Integer, Integer> loadedCounts = new HashMap<>();
+        likeDbStorage.streamAll(like -> {
+            loadedFilmsByUser.computeIfAbsent(like.getUserId(), SortedIntArray::new).add(like.getFilmId());
+            loadedCounts.merge(like.getFilmId(), 1, Integer::sum);
+        });
+        lock.lock();
+        try {
+            filmsByUser = loadedFilmsByUser;
+            likesCountByFilm = loadedCounts;
+        } finally {
+            lock.unlock();
+        }
+        log.info("Лайки загружены в буфер, пользователей: {}, фильмов: {}",
+                loadedFilmsByUser.size(), loadedCounts.size());
+    }
+
+    /**
+     * Добавляет лайк в буфер.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return true, если лайк был добавлен, false если он уже существовал
+     */
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        awaitCapacity();
+        return change(new Like(filmId, userId, Instant.now()), true);
+    }
+
+    /**
+     * Добавляет удаление лайка в буфер.
+     * Если добавление лайка еще не записано, они взаимно гасятся, а время берется из добавления,
+     * иначе время постановки читается из базы под блокировкой сброса.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return время, когда был поставлен удаленный лайк, или пустой Optional, если лайка не было
+     */
+    @Override
+    public Optional<Instant> removeLike(Integer filmId, Integer userId) {
+        Like like = new Like(filmId, userId);
+        awaitCapacity();
+        flushLock.lock();
+        try {
+            lock.lock();
+            try {
+                if (!contains(filmId, userId)) {
+                    return Optional.empty();
+                }
+                Like added = pendingAdded.get(like);
+                if (added != null) {
+                    change(like, false);
+                    return Optional.of(added.getCreatedAt());
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Удаления одного лайка упорядочены блокировкой сброса, добавление существующего лайка ничего не меняет
+            Optional<Instant> createdAt = likeDbStorage.findCreatedAt(filmId, userId);
+            return change(like, false) ? createdAt : Optional.empty();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Проверяет наличие лайка с учетом ожидающих записи изменений.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return true, если лайк существует, иначе false
+     */
+    @Override
+    public boolean hasLike(Integer filmId, Integer userId) {
+        lock.lock();
+        try {
+            return contains(filmId, userId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество лайков у фильма с учетом ожидающих записи изменений.
+     *
+     * @param filmId идентификатор фильма
+     * @return количество лайков
+     */
+    @Override
+    public int getLikesCount(Integer filmId) {
+        lock.lock();
+        try {
+            return likesCountByFilm.getOrDefault(filmId, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество лайков для каждого фильма с учетом ожидающих записи изменений.
+     * Список фильмов берется из базы данных, количество лайков - из памяти.
+     *
+     * @return отображение идентификатора фильма на количество лайков
+     */
+    @Override
+    public Map<Integer, Integer> getLikesCountByFilm() {
+        Map<Integer, Integer> counts = likeDbStorage.getLikesCountByFilm();
+        lock.lock();
+        try {
+            counts.replaceAll((filmId, count) -> likesCountByFilm.getOrDefault(filmId, 0));
+            return counts;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы фильмов, которым пользователь поставил лайк,
+     * с учетом ожидающих записи изменений.
+     *
+     * @param userId идентификатор пользователя
+     * @return коллекция идентификаторов фильмов
+     */
+    @Override
+    public Collection<Integer> getFilmIdsLikedByUser(Integer userId) {
+        lock.lock();
+        try {
+            SortedIntArray filmIds = filmsByUser.get(userId);
+            return filmIds != null ? Arrays.stream(filmIds.toArray()).boxed().toList() : List.of();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Записывает накопленные изменения и возвращает лайки пользователя из базы данных.
+     *
+     * @param userId идентификатор пользователя
+     * @return лайки пользователя
+     */
+    @Override
+    public List<Like> getLikesByUser(Integer userId) {
+        flush();
+        return likeDbStorage.getLikesByUser(userId);
+    }
+
+    /**
+     * Записывает накопленные изменения и последовательно передает получателю все лайки.
+     *
+     * @param consumer получатель лайков
+     */
+    @Override
+    public void streamAll(Consumer<Like> consumer) {
+        flush();
+        likeDbStorage.streamAll(consumer);
+    }
+
+    /**
+     * Записывает накопленные изменения и последовательно передает получателю лайки,
+     * поставленные не раньше указанного момента.
+     *
+     * @param since    момент, начиная с которого выбираются лайки
+     * @param consumer получатель лайков
+     */
+    @Override
+    public void streamCreatedSince(Instant since, Consumer<Like> consumer) {
+        flush();
+        likeDbStorage.streamCreatedSince(since, consumer);
+    }
+
+    /**
+     * Записывает все накопленные изменения в базу данных одной транзакцией.
+     * Изменения забираются из буфера под блокировкой, а пакет пишется без нее.
+     * Если запись не удалась, изменения возвращаются в буфер для следующего сброса.
+     */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Like> added;
+            List<Like> removed;
+            lock.lock();
+            try {
+                if (pendingAdded.isEmpty() && pendingRemoved.isEmpty()) {
+                    return;
+                }
+                added = new ArrayList<>(pendingAdded.values());
+                removed = new ArrayList<>(pendingRemoved);
+                pendingAdded = new HashMap<>();
+                pendingRemoved = new HashSet<>();
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                likeDbStorage.applyChanges(added, removed);
+            } catch (RuntimeException e) {
+                restore(added, removed);
+                throw e;
+            }
+            log.debug("Записано изменений лайков: добавлено {}, удалено {}", added.size(), removed.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Останавливает периодический сброс и записывает оставшиеся изменения.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private boolean change(Like like, boolean add) {
+        lock.lock();
+        try {
+            int filmId = like.getFilmId();
+            int userId = like.getUserId();
+            if (contains(filmId, userId) == add) {
+                return false;
+            }
+
+            if (add) {
+                filmsByUser.computeIfAbsent(userId, SortedIntArray::new).add(filmId);
+            } else {
+                filmsByUser.get(userId).remove(filmId);
+            }
+            likesCountByFilm.merge(filmId, add ? 1 : -1, Integer::sum);
+
+            // Противоположное изменение еще не записано - они взаимно гасятся
+            if (add) {
+                if (!pendingRemoved.remove(like)) {
+                    pendingAdded.put(like, like);
+                }
+            } else if (pendingAdded.remove(like) == null) {
+                pendingRemoved.add(like);
+            }
+
+            if (pendingAdded.size() + pendingRemoved.size() >= batchSize && flushScheduled.compareAndSet(false, true)) {
+                flusher.execute(() -> {
+                    // Изменения, пришедшие во время этого сброса, могут поставить в очередь следующий
+                    flushScheduled.set(false);
+                    flushQuietly();
+                });
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Если буфер заполнен до предела, записывает его в базу в потоке запроса.
+     * Ошибка записи передается вызывающему, изменение при этом не принимается.
+     */
+    private void awaitCapacity() {
+        lock.lock();
+        try {
+            if (pendingAdded.size() + pendingRemoved.size() < maxPending) {
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        flush();
+    }
+
+    private boolean contains(int filmId, int userId) {
+        SortedIntArray filmIds = filmsByUser.get(userId);
+        return filmIds != null && filmIds.contains(filmId);
+    }
+
+    /**
+     * Возвращает в буфер изменения, которые не удалось записать.
+     * Более новое изменение того же лайка всегда противоположно возвращаемому, поэтому они взаимно гасятся.
+     */
+    private void restore(List<Like> added, List<Like> removed) {
+        lock.lock();
+        try {
+            for (Like like : added) {
+                if (!pendingRemoved.remove(like)) {
+                    pendingAdded.put(like, like);
+                }
+            }
+            for (Like like : removed) {
+                if (pendingAdded.remove(like) == null) {
+                    pendingRemoved.add(like);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            if (failedFlushes.getAndIncrement() == 0) {
+                log.error("Не удалось записать изменения лайков, повтор при следующем сбросе", e);
+            } else {
+                log.debug("Повторный сброс изменений лайков не удался: {}", e.getMessage());
+            }
+            return;
+        }
+        int failed = failedFlushes.getAndSet(0);
+        if (failed > 0) {
+            log.info("Запись изменений лайков восстановлена после неудачных сбросов: {}", failed);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.LruCache;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище фильмов со сквозным кэшированием чтения по идентификатору.
+ * Запросы по ID обслуживаются из EntityCache, промахи загружаются из FilmDbStorage.
+ * Обновление и удаление фильма удаляют его из кэша.
+ * Отключается свойством filmorate.cache.entities.enabled=false, используется только с filmorate.storage.engine=jdbc.
+ */
+@Primary
+@Repository
+@ConditionalOnExpression("${filmorate.cache.entities.enabled:true} and '${filmorate.storage.engine:jdbc}' == 'jdbc'")
+public class CachingFilmRepository implements FilmRepository {
+
+    private final FilmDbStorage filmDbStorage;
+    private final EntityCache entityCache;
+    private final LruCache<Integer, Film> cache;
+
+    /**
+     * Создает кэширующее хранилище.
+     *
+     * @param filmDbStorage хранилище фильмов в базе данных
+     * @param entityCache   кэш сущностей
+     */
+    public CachingFilmRepository(FilmDbStorage filmDbStorage, EntityCache entityCache) {
+        this.filmDbStorage = filmDbStorage;
+        this.entityCache = entityCache;
+        this.cache = entityCache.films();
+    }
+
+    @Override
+    public Film save(Film film) {
+        return filmDbStorage.save(film);
+    }
+
+    @Override
+    public List<Film> saveAll(List<Film> films) {
+        return filmDbStorage.saveAll(films);
+    }
+
+    /**
+     * Обновляет фильм в базе данных и удаляет его из кэша.
+     *
+     * @param film объект с обновленными данными
+     * @return обновленный объект
+     */
+    @Override
+    public Film update(Film film) {
+        try {
+            return filmDbStorage.update(film);
+        } finally {
+            entityCache.evictFilm(film.getId());
+        }
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        return filmDbStorage.findAll();
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        filmDbStorage.streamAll(consumer);
+    }
+
+    /**
+     * Возвращает фильм из кэша, при промахе загружает из базы данных и кэширует.
+     *
+     * @param id идентификатор
+     * @return Optional с найденным объектом, иначе пустой Optional
+     */
+    @Override
+    public Optional<Film> findById(Integer id) {
+        Film cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<Film> loaded = filmDbStorage.findById(id);
+        loaded.ifPresent(film -> cache.put(id, film, stamp));
+        return loaded;
+    }
+
+    /**
+     * Находит фильмы по набору идентификаторов: найденные в кэше берутся из него,
+     * остальные загружаются из базы данных одним пакетом.
+     *
+     * @param ids идентификаторы фильмов
+     * @return список найденных фильмов в порядке переданных идентификаторов
+     */
+    @Override
+    public List<Film> findAllByIds(Collection<Integer> ids) {
+        Map<Integer, Film> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            Film cached = cache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = cache.stamp();
+            for (Film film : filmDbStorage.findAllByIds(missing)) {
+                cache.put(film.getId(), film, stamp);
+                found.put(film.getId(), film);
+            }
+        }
+
+        List<Film> result = new ArrayList<>(found.size());
+        for (Integer id : ids) {
+            Film film = found.remove(id);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        return cache.contains(id) || filmDbStorage.existsById(id);
+    }
+
+    /**
+     * Удаляет фильм из базы данных и из кэша.
+     *
+     * @param id идентификатор
+     * @return true, если объект был удален, иначе false
+     */
+    @Override
+    public boolean deleteById(Integer id) {
+        try {
+            return filmDbStorage.deleteById(id);
+        } finally {
+            entityCache.evictFilm(id);
+        }
+    }
+}
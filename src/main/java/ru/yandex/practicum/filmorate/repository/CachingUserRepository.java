@@ -0,0 +1,154 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.LruCache;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище пользователей со сквозным кэшированием чтения по идентификатору.
+ * Запросы по ID обслуживаются из EntityCache, промахи загружаются из UserDbStorage.
+ * Обновление и удаление пользователя удаляют его из кэша.
+ * Отключается свойством filmorate.cache.entities.enabled=false, используется только с filmorate.storage.engine=jdbc.
+ */
+@Primary
+@Repository
+@ConditionalOnExpression("${filmorate.cache.entities.enabled:true} and '${filmorate.storage.engine:jdbc}' == 'jdbc'")
+public class CachingUserRepository implements UserRepository {
+
+    private final UserDbStorage userDbStorage;
+    private final EntityCache entityCache;
+    private final LruCache<Integer, User> cache;
+
+    /**
+     * Создает кэширующее хранилище.
+     *
+     * @param userDbStorage хранилище пользователей в базе данных
+     * @param entityCache   кэш сущностей
+     */
+    public CachingUserRepository(UserDbStorage userDbStorage, EntityCache entityCache) {
+        this.userDbStorage = userDbStorage;
+        this.entityCache = entityCache;
+        this.cache = entityCache.users();
+    }
+
+    @Override
+    public User save(User user) {
+        return userDbStorage.save(user);
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) {
+        return userDbStorage.saveAll(users);
+    }
+
+    /**
+     * Обновляет пользователя в базе данных и удаляет его из кэша.
+     *
+     * @param user объект с обновленными данными
+     * @return обновленный объект
+     */
+    @Override
+    public User update(User user) {
+        try {
+            return userDbStorage.update(user);
+        } finally {
+            entityCache.evictUser(user.getId());
+        }
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        return userDbStorage.findAll();
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        userDbStorage.streamAll(consumer);
+    }
+
+    /**
+     * Возвращает пользователя из кэша, при промахе загружает из базы данных и кэширует.
+     *
+     * @param id идентификатор
+     * @return Optional с найденным объектом, иначе пустой Optional
+     */
+    @Override
+    public Optional<User> findById(Integer id) {
+        User cached = cache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = cache.stamp();
+        Optional<User> loaded = userDbStorage.findById(id);
+        loaded.ifPresent(user -> cache.put(id, user, stamp));
+        return loaded;
+    }
+
+    /**
+     * Находит пользователей по набору идентификаторов: найденные в кэше берутся из него,
+     * остальные загружаются из базы данных одним пакетом.
+     *
+     * @param ids идентификаторы пользователей
+     * @return список найденных пользователей в порядке переданных идентификаторов
+     */
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        Map<Integer, User> found = new HashMap<>();
+        List<Integer> missing = new ArrayList<>();
+        for (Integer id : ids) {
+            User cached = cache.get(id);
+            if (cached != null) {
+                found.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            long stamp = cache.stamp();
+            for (User user : userDbStorage.findAllByIds(missing)) {
+                cache.put(user.getId(), user, stamp);
+                found.put(user.getId(), user);
+            }
+        }
+
+        List<User> result = new ArrayList<>(found.size());
+        for (Integer id : ids) {
+            User user = found.remove(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        return cache.contains(id) || userDbStorage.existsById(id);
+    }
+
+    /**
+     * Удаляет пользователя из базы данных и из кэша.
+     *
+     * @param id идентификатор
+     * @return true, если объект был удален, иначе false
+     */
+    @Override
+    public boolean deleteById(Integer id) {
+        try {
+            return userDbStorage.deleteById(id);
+        } finally {
+            entityCache.evictUser(id);
+        }
+    }
+}
@@ -1,33 +1,80 @@
 package ru.yandex.practicum.filmorate.repository;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.dao.EmptyResultDataAccessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.IdBitmap;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Genre;
 import ru.yandex.practicum.filmorate.model.MpaRating;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Реализация хранилища фильмов с использованием JDBC.
  * Отвечает за сохранение, обновление, получение и удаление фильмов из базы данных.
  */
+@Slf4j
 @Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "jdbc", matchIfMissing = true)
 @RequiredArgsConstructor
 public class FilmDbStorage implements FilmRepository {
 
+    /**
+     * Запрос фильмов вместе с идентификаторами жанров: одна строка на пару фильм-жанр.
+     * Названия жанров и рейтингов MPA берутся из кэша справочников.
+     */
+    private static final String FILM_SELECT = "SELECT f.film_id, f.name, f.description, f.release_date, f.duration, " +
+            "f.mpa_rating_id, fg.genre_id FROM films f " +
+            "LEFT JOIN film_genres fg ON f.film_id = fg.film_id ";
+
+    private static final String INSERT_FILM_SQL = "INSERT INTO films " +
+            "(name, description, release_date, duration, mpa_rating_id) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String FILM_ORDER = " ORDER BY f.film_id, fg.genre_id";
+
+    /**
+     * Максимальное количество идентификаторов в одном условии IN.
+     */
+    private static final int IN_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataCache referenceDataCache;
+
+    /**
+     * Идентификаторы существующих фильмов: проверка существования выполняется без запроса к базе.
+     */
+    private final IdBitmap filmIds = new IdBitmap();
+
+    /**
+     * Количество строк, получаемых из базы за одно обращение при потоковой выгрузке.
+     */
+    @Value("${filmorate.export.fetch-size:1000}")
+    private int exportFetchSize;
 
     /**
      * Маппер для преобразования результата запроса в объект Film.
@@ -41,16 +88,24 @@ public class FilmDbStorage implements FilmRepository {
         film.setDuration(rs.getInt("duration"));
 
         // Устанавливаем MPA рейтинг
-        if (rs.getObject("mpa_rating_id") != null) {
-            MpaRating mpa = new MpaRating();
-            mpa.setId(rs.getInt("mpa_rating_id"));
-            // Имя рейтинга будет установлено отдельно при необходимости
-            film.setMpa(mpa);
+        int mpaId = rs.getInt("mpa_rating_id");
+        if (!rs.wasNull()) {
+            film.setMpa(resolveMpa(mpaId));
         }
 
         return film;
     };
 
+    /**
+     * Загружает идентификаторы всех фильмов в битовую карту.
+     */
+    @PostConstruct
+    public void loadIds() {
+        filmIds.clear();
+        jdbcTemplate.query("SELECT film_id FROM films", (RowCallbackHandler) rs -> filmIds.add(rs.getInt("film_id")));
+        log.info("Загружены идентификаторы фильмов: {}", filmIds.size());
+    }
+
     /**
      * Сохраняет новый фильм в базе данных.
      *
@@ -59,27 +114,62 @@ public class FilmDbStorage implements FilmRepository {
      */
     @Override
     public Film save(Film film) {
-        String sql = "INSERT INTO films (name, description, release_date, duration, mpa_rating_id) VALUES (?, ?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(sql, new String[]{"film_id"});
-            stmt.setString(1, film.getName());
-            stmt.setString(2, film.getDescription());
-            stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
-            stmt.setInt(4, film.getDuration());
-            stmt.setObject(5, film.getMpa() != null ? film.getMpa().getId() : null);
+            PreparedStatement stmt = connection.prepareStatement(INSERT_FILM_SQL, new String[]{"film_id"});
+            setFilmParameters(stmt, film);
             return stmt;
         }, keyHolder);
 
         film.setId(keyHolder.getKey().intValue());
 
         // Сохраняем жанры фильма
-        saveFilmGenres(film);
+        saveFilmGenres(List.of(film));
+        filmIds.addInTransaction(film.getId());
 
         return film;
     }
 
+    /**
+     * Сохраняет несколько новых фильмов пакетными запросами в одной транзакции.
+     *
+     * @param films фильмы для сохранения
+     * @return сохраненные фильмы с присвоенными ID
+     */
+    @Override
+    @Transactional
+    public List<Film> saveAll(List<Film> films) {
+        if (films.isEmpty()) {
+            return films;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_FILM_SQL, new String[]{"film_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setFilmParameters(ps, films.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < films.size(); i++) {
+            Number key = (Number) keys.get(i).values().iterator().next();
+            films.get(i).setId(key.intValue());
+        }
+
+        saveFilmGenres(films);
+        films.forEach(film -> filmIds.addInTransaction(film.getId()));
+        return films;
+    }
+
     /**
      * Обновляет существующий фильм в базе данных.
      *
@@ -115,9 +205,29 @@ public class FilmDbStorage implements FilmRepository {
      */
     @Override
     public Collection<Film> findAll() {
-        String sql = "SELECT f.*, m.name as mpa_name FROM films f " +
-                "LEFT JOIN mpa_ratings m ON f.mpa_rating_id = m.mpa_rating_id";
-        return jdbcTemplate.query(sql, filmRowMapper);
+        List<Film> films = new ArrayList<>();
+        FilmHydrator hydrator = new FilmHydrator(films::add);
+        jdbcTemplate.query(FILM_SELECT + FILM_ORDER, hydrator);
+        hydrator.finish();
+        return films;
+    }
+
+    /**
+     * Последовательно передает получателю все фильмы, не накапливая их в памяти.
+     * Строки читаются однонаправленным курсором порциями по exportFetchSize.
+     *
+     * @param consumer получатель фильмов
+     */
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        FilmHydrator hydrator = new FilmHydrator(consumer);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(FILM_SELECT + FILM_ORDER,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(exportFetchSize);
+            return stmt;
+        }, hydrator);
+        hydrator.finish();
     }
 
     /**
@@ -128,32 +238,55 @@ public class FilmDbStorage implements FilmRepository {
      */
     @Override
     public Optional<Film> findById(Integer id) {
-        String sql = "SELECT f.*, m.name as mpa_name FROM films f " +
-                "LEFT JOIN mpa_ratings m ON f.mpa_rating_id = m.mpa_rating_id " +
-                "WHERE f.film_id = ?";
-        try {
-            Film film = jdbcTemplate.queryForObject(sql, filmRowMapper, id);
+        List<Film> films = new ArrayList<>(1);
+        FilmHydrator hydrator = new FilmHydrator(films::add);
+        jdbcTemplate.query(FILM_SELECT + "WHERE f.film_id = ?" + FILM_ORDER, hydrator, id);
+        hydrator.finish();
+        return films.stream().findFirst();
+    }
+
+    /**
+     * Находит фильмы по набору идентификаторов.
+     * Идентификаторы обрабатываются пачками, на каждую пачку выполняется один запрос.
+     *
+     * @param ids идентификаторы фильмов
+     * @return список найденных фильмов в порядке переданных идентификаторов
+     */
+    @Override
+    public List<Film> findAllByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, Film> filmsById = new HashMap<>();
+        FilmHydrator hydrator = new FilmHydrator(film -> filmsById.put(film.getId(), film));
+        for (int from = 0; from < idList.size(); from += IN_BATCH_SIZE) {
+            List<Integer> batch = idList.subList(from, Math.min(from + IN_BATCH_SIZE, idList.size()));
+            String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query(FILM_SELECT + "WHERE f.film_id IN (" + placeholders + ")" + FILM_ORDER,
+                    hydrator, batch.toArray());
+            hydrator.finish();
+        }
+
+        List<Film> result = new ArrayList<>(idList.size());
+        for (Integer id : idList) {
+            Film film = filmsById.get(id);
             if (film != null) {
-                loadFilmGenres(film);
-                loadFilmMpa(film);
+                result.add(film);
             }
-            return Optional.ofNullable(film);
-        } catch (EmptyResultDataAccessException e) {
-            return Optional.empty();
         }
+        return result;
     }
 
     /**
-     * Проверяет существование фильма с указанным идентификатором.
+     * Проверяет существование фильма с указанным идентификатором по битовой карте в памяти.
      *
      * @param id идентификатор фильма
      * @return true, если фильм существует, иначе false
      */
     @Override
     public boolean existsById(Integer id) {
-        String sql = "SELECT COUNT(*) FROM films WHERE film_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id);
-        return count != null && count > 0;
+        return filmIds.contains(id);
     }
 
     /**
@@ -166,20 +299,47 @@ public class FilmDbStorage implements FilmRepository {
     public boolean deleteById(Integer id) {
         String sql = "DELETE FROM films WHERE film_id = ?";
         int deleted = jdbcTemplate.update(sql, id);
+        if (deleted > 0) {
+            filmIds.removeInTransaction(id);
+        }
         return deleted > 0;
     }
 
     /**
-     * Сохраняет жанры фильма в базе данных.
+     * Заполняет параметры запроса INSERT_FILM_SQL данными фильма.
      *
-     * @param film фильм, для которого сохраняются жанры
+     * @param stmt подготовленный запрос
+     * @param film фильм
+     * @throws SQLException при ошибке установки параметров
      */
-    private void saveFilmGenres(Film film) {
-        if (film.getGenres() != null && !film.getGenres().isEmpty()) {
-            for (Genre genre : film.getGenres()) {
-                String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
-                jdbcTemplate.update(sql, film.getId(), genre.getId());
+    private void setFilmParameters(PreparedStatement stmt, Film film) throws SQLException {
+        stmt.setString(1, film.getName());
+        stmt.setString(2, film.getDescription());
+        stmt.setDate(3, Date.valueOf(film.getReleaseDate()));
+        stmt.setInt(4, film.getDuration());
+        stmt.setObject(5, film.getMpa() != null ? film.getMpa().getId() : null);
+    }
+
+    /**
+     * Сохраняет жанры фильмов в базе данных одним пакетным запросом.
+     * Повторяющиеся жанры одного фильма сохраняются один раз.
+     *
+     * @param films фильмы, для которых сохраняются жанры
+     */
+    private void saveFilmGenres(List<Film> films) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Film film : films) {
+            if (film.getGenres() == null) {
+                continue;
             }
+            film.getGenres().stream()
+                    .map(Genre::getId)
+                    .distinct()
+                    .forEach(genreId -> rows.add(new Object[]{film.getId(), genreId}));
+        }
+        if (!rows.isEmpty()) {
+            String sql = "INSERT INTO film_genres (film_id, genre_id) VALUES (?, ?)";
+            jdbcTemplate.batchUpdate(sql, rows);
         }
     }
 
@@ -194,43 +354,66 @@ public class FilmDbStorage implements FilmRepository {
         jdbcTemplate.update(deleteSql, film.getId());
 
         // Добавляем новые жанры
-        saveFilmGenres(film);
+        saveFilmGenres(List.of(film));
     }
 
     /**
-     * Загружает жанры фильма из базы данных.
+     * Возвращает рейтинг MPA из кэша справочников.
      *
-     * @param film фильм, для которого загружаются жанры
+     * @param mpaId идентификатор рейтинга
+     * @return рейтинг MPA; если его нет в кэше - рейтинг только с идентификатором
      */
-    private void loadFilmGenres(Film film) {
-        String sql = "SELECT g.genre_id, g.name FROM genres g " +
-                "JOIN film_genres fg ON g.genre_id = fg.genre_id " +
-                "WHERE fg.film_id = ?";
-        Set<Genre> genres = new HashSet<>(jdbcTemplate.query(sql, (rs, rowNum) -> {
-            Genre genre = new Genre();
-            genre.setId(rs.getInt("genre_id"));
-            genre.setName(rs.getString("name"));
-            return genre;
-        }, film.getId()));
-        film.setGenres(genres);
+    private MpaRating resolveMpa(int mpaId) {
+        return referenceDataCache.findMpa(mpaId).orElseGet(() -> new MpaRating(mpaId, null));
     }
 
     /**
-     * Загружает имя MPA рейтинга из базы данных.
+     * Возвращает жанр из кэша справочников.
      *
-     * @param film фильм, для которого загружается имя MPA рейтинга
-     */
-    private void loadFilmMpa(Film film) {
-        if (film.getMpa() != null && film.getMpa().getId() != null) {
-            String sql = "SELECT name FROM mpa_ratings WHERE mpa_rating_id = ?";
-            try {
-                String mpaName = jdbcTemplate.queryForObject(sql, String.class, film.getMpa().getId());
-                if (mpaName != null) {
-                    film.getMpa().setName(mpaName);
-                }
-            } catch (EmptyResultDataAccessException e) {
-                // Если рейтинг не найден, оставляем как есть
+     * @param genreId идентификатор жанра
+     * @return жанр; если его нет в кэше - жанр только с идентификатором
+     */
+    private Genre resolveGenre(int genreId) {
+        return referenceDataCache.findGenre(genreId).orElseGet(() -> new Genre(genreId, null));
+    }
+
+    /**
+     * Собирает фильмы из строк результата запроса FILM_SELECT за один проход.
+     * Строки одного фильма идут подряд, каждая добавляет к фильму не более одного жанра,
+     * поэтому готовый фильм передается получателю, как только начинаются строки следующего.
+     */
+    private class FilmHydrator implements RowCallbackHandler {
+
+        private final Consumer<Film> sink;
+        private Film current;
+
+        FilmHydrator(Consumer<Film> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            int filmId = rs.getInt("film_id");
+            if (current == null || current.getId() != filmId) {
+                finish();
+                current = filmRowMapper.mapRow(rs, 0);
+                current.setGenres(new LinkedHashSet<>());
+            }
+
+            int genreId = rs.getInt("genre_id");
+            if (!rs.wasNull()) {
+                current.getGenres().add(resolveGenre(genreId));
+            }
+        }
+
+        /**
+         * Передает получателю последний собранный фильм.
+         */
+        void finish() {
+            if (current != null) {
+                sink.accept(current);
+                current = null;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -3,17 +3,25 @@ package ru.yandex.practicum.filmorate.repository;
 import ru.yandex.practicum.filmorate.model.Film;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface FilmRepository {
     Film save(Film film);
 
+    List<Film> saveAll(List<Film> films);
+
     Film update(Film film);
 
     Collection<Film> findAll();
 
+    void streamAll(Consumer<Film> consumer);
+
     Optional<Film> findById(Integer id);
 
+    List<Film> findAllByIds(Collection<Integer> ids);
+
     boolean existsById(Integer id);
 
     boolean deleteById(Integer id);
@@ -4,6 +4,7 @@ import org.springframework.stereotype.Repository;
 import ru.yandex.practicum.filmorate.model.Friendship;
 
 import java.util.Collection;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс репозитория для работы с дружбой между пользователями.
@@ -43,4 +44,11 @@ public interface FriendshipRepository {
      * @return коллекция идентификаторов общих друзей
      */
     Collection<Integer> getCommonFriendsIds(Integer userId, Integer otherId);
-}
\ No newline at end of file
+
+    /**
+     * Последовательно передает получателю все связи дружбы, не накапливая их в памяти.
+     *
+     * @param consumer получатель связей дружбы
+     */
+    void streamAll(Consumer<Friendship> consumer);
+}
@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище фильмов в памяти поверх {@link MemoryStore}.
+ * Ссылки на MPA и жанры проверяются по кэшу справочников так же, как внешние ключи в базе данных,
+ * а названия подставляются из кэша при чтении.
+ * Включается свойством filmorate.storage.engine=memory.
+ */
+@Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryFilmStorage implements FilmRepository {
+
+    private final MemoryStore store;
+    private final ReferenceDataCache referenceDataCache;
+
+    @Override
+    public Film save(Film film) {
+        checkReferences(film);
+        store.insertFilms(List.of(film));
+        return film;
+    }
+
+    /**
+     * Сохраняет несколько новых фильмов. Ссылки всех фильмов проверяются до сохранения первого.
+     *
+     * @param films фильмы для сохранения
+     * @return сохраненные фильмы с присвоенными ID
+     */
+    @Override
+    public List<Film> saveAll(List<Film> films) {
+        films.forEach(this::checkReferences);
+        return store.insertFilms(films);
+    }
+
+    /**
+     * Обновляет существующий фильм.
+     *
+     * @param film объект фильма с обновленными данными
+     * @return обновленный фильм
+     * @throws ru.yandex.practicum.filmorate.exception.NotFoundException если фильм не найден
+     */
+    @Override
+    public Film update(Film film) {
+        checkReferences(film);
+        store.updateFilm(film);
+        return film;
+    }
+
+    @Override
+    public Collection<Film> findAll() {
+        List<Film> films = new ArrayList<>();
+        streamAll(films::add);
+        return films;
+    }
+
+    @Override
+    public void streamAll(Consumer<Film> consumer) {
+        store.forEachFilm(film -> consumer.accept(resolve(film)));
+    }
+
+    @Override
+    public Optional<Film> findById(Integer id) {
+        return store.findFilm(id).map(this::resolve);
+    }
+
+    /**
+     * Находит фильмы по набору идентификаторов.
+     *
+     * @param ids идентификаторы фильмов
+     * @return список найденных фильмов в порядке переданных идентификаторов
+     */
+    @Override
+    public List<Film> findAllByIds(Collection<Integer> ids) {
+        List<Film> result = new ArrayList<>(ids.size());
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            store.findFilm(id).map(this::resolve).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        return id != null && store.filmExists(id);
+    }
+
+    @Override
+    public boolean deleteById(Integer id) {
+        return store.deleteFilm(id);
+    }
+
+    private void checkReferences(Film film) {
+        if (film.getMpa() != null && referenceDataCache.findMpa(film.getMpa().getId()).isEmpty()) {
+            throw new DataIntegrityViolationException("Рейтинг MPA с id = " + film.getMpa().getId() + " не существует");
+        }
+        if (film.getGenres() != null) {
+            for (Genre genre : film.getGenres()) {
+                if (referenceDataCache.findGenre(genre.getId()).isEmpty()) {
+                    throw new DataIntegrityViolationException("Жанр с id = " + genre.getId() + " не существует");
+                }
+            }
+        }
+    }
+
+    /**
+     * Подставляет в копию фильма MPA и жанры из кэша справочников.
+     */
+    private Film resolve(Film film) {
+        if (film.getMpa() != null) {
+            int mpaId = film.getMpa().getId();
+            film.setMpa(referenceDataCache.findMpa(mpaId).orElseGet(() -> new MpaRating(mpaId, null)));
+        }
+        Set<Genre> genres = new LinkedHashSet<>();
+        for (Genre genre : film.getGenres()) {
+            int genreId = genre.getId();
+            genres.add(referenceDataCache.findGenre(genreId).orElseGet(() -> new Genre(genreId, null)));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Friendship;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище дружбы в памяти поверх {@link MemoryStore}.
+ * Как и в базе данных, повторное добавление связи приводит к DuplicateKeyException,
+ * а связь с несуществующим пользователем - к DataIntegrityViolationException.
+ * Включается свойством filmorate.storage.engine=memory.
+ */
+@Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryFriendshipStorage implements FriendshipRepository {
+
+    private final MemoryStore store;
+
+    @Override
+    public void addFriendship(Friendship friendship) {
+        store.addFriendship(friendship);
+    }
+
+    @Override
+    public void removeFriendship(Integer userId, Integer friendId) {
+        store.removeFriendship(userId, friendId);
+    }
+
+    @Override
+    public Collection<Integer> getUserFriendsIds(Integer userId) {
+        return Arrays.stream(store.friendIds(userId)).boxed().toList();
+    }
+
+    @Override
+    public Collection<Integer> getCommonFriendsIds(Integer userId, Integer otherId) {
+        return Arrays.stream(store.commonFriendIds(userId, otherId)).boxed().toList();
+    }
+
+    @Override
+    public void streamAll(Consumer<Friendship> consumer) {
+        store.forEachFriendship(consumer);
+    }
+}
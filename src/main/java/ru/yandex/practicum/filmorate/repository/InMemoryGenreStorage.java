@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Genre;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Хранилище жанров в памяти: тот же неизменяемый справочник, что заполняет schema.sql.
+ * Включается свойством filmorate.storage.engine=memory.
+ */
+@Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "memory")
+public class InMemoryGenreStorage implements GenreRepository {
+
+    private static final List<Genre> GENRES = List.of(Genre.COMEDY, Genre.DRAMA, Genre.CARTOON, Genre.THRILLER,
+            Genre.DOCUMENTARY, Genre.ACTION);
+
+    @Override
+    public Collection<Genre> findAll() {
+        return GENRES.stream().map(InMemoryGenreStorage::copy).toList();
+    }
+
+    @Override
+    public Optional<Genre> findById(Integer id) {
+        return GENRES.stream().filter(genre -> genre.getId().equals(id)).findFirst().map(InMemoryGenreStorage::copy);
+    }
+
+    private static Genre copy(Genre genre) {
+        return new Genre(genre.getId(), genre.getName());
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище лайков в памяти поверх {@link MemoryStore}.
+ * Лайки индексируются и по фильму, и по пользователю, поэтому все методы обходятся без полного перебора,
+ * кроме выгрузки.
+ * Включается свойством filmorate.storage.engine=memory.
+ */
+@Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryLikeStorage implements LikeRepository {
+
+    private final MemoryStore store;
+
+    @Override
+    public boolean addLike(Integer filmId, Integer userId) {
+        return store.addLike(filmId, userId);
+    }
+
+    @Override
+    public Optional<Instant> removeLike(Integer filmId, Integer userId) {
+        return store.removeLike(filmId, userId);
+    }
+
+    @Override
+    public boolean hasLike(Integer filmId, Integer userId) {
+        return store.hasLike(filmId, userId);
+    }
+
+    @Override
+    public int getLikesCount(Integer filmId) {
+        return store.likesCount(filmId);
+    }
+
+    @Override
+    public Map<Integer, Integer> getLikesCountByFilm() {
+        return store.likesCountByFilm();
+    }
+
+    @Override
+    public Collection<Integer> getFilmIdsLikedByUser(Integer userId) {
+        return Arrays.stream(store.filmIdsLikedBy(userId)).boxed().toList();
+    }
+
+    @Override
+    public List<Like> getLikesByUser(Integer userId) {
+        return store.likesOf(userId);
+    }
+
+    @Override
+    public void streamAll(Consumer<Like> consumer) {
+        store.forEachLike(null, consumer);
+    }
+
+    @Override
+    public void streamCreatedSince(Instant since, Consumer<Like> consumer) {
+        store.forEachLike(since, consumer);
+    }
+}
@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Хранилище рейтингов MPA в памяти: тот же неизменяемый справочник, что заполняет schema.sql.
+ * Включается свойством filmorate.storage.engine=memory.
+ */
+@Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "memory")
+public class InMemoryMpaRatingStorage implements MpaRatingRepository {
+
+    private static final List<MpaRating> RATINGS = List.of(MpaRating.G, MpaRating.PG, MpaRating.PG13, MpaRating.R,
+            MpaRating.NC17);
+
+    @Override
+    public Collection<MpaRating> findAll() {
+        return RATINGS.stream().map(InMemoryMpaRatingStorage::copy).toList();
+    }
+
+    @Override
+    public Optional<MpaRating> findById(Integer id) {
+        return RATINGS.stream().filter(mpa -> mpa.getId().equals(id)).findFirst().map(InMemoryMpaRatingStorage::copy);
+    }
+
+    private static MpaRating copy(MpaRating mpa) {
+        return new MpaRating(mpa.getId(), mpa.getName());
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище пользователей в памяти поверх {@link MemoryStore}.
+ * Включается свойством filmorate.storage.engine=memory.
+ */
+@Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class InMemoryUserStorage implements UserRepository {
+
+    private final MemoryStore store;
+
+    @Override
+    public User save(User user) {
+        store.insertUsers(List.of(user));
+        return user;
+    }
+
+    @Override
+    public List<User> saveAll(List<User> users) {
+        return store.insertUsers(users);
+    }
+
+    /**
+     * Обновляет существующего пользователя.
+     *
+     * @param user объект пользователя с обновленными данными
+     * @return обновленный пользователь
+     * @throws ru.yandex.practicum.filmorate.exception.NotFoundException если пользователь не найден
+     */
+    @Override
+    public User update(User user) {
+        store.updateUser(user);
+        return user;
+    }
+
+    @Override
+    public Collection<User> findAll() {
+        List<User> users = new ArrayList<>();
+        store.forEachUser(users::add);
+        return users;
+    }
+
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        store.forEachUser(consumer);
+    }
+
+    @Override
+    public Optional<User> findById(Integer id) {
+        return store.findUser(id);
+    }
+
+    /**
+     * Находит пользователей по набору идентификаторов.
+     *
+     * @param ids идентификаторы пользователей
+     * @return список найденных пользователей в порядке переданных идентификаторов
+     */
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        List<User> result = new ArrayList<>(ids.size());
+        for (Integer id : new LinkedHashSet<>(ids)) {
+            store.findUser(id).ifPresent(result::add);
+        }
+        return result;
+    }
+
+    @Override
+    public boolean existsById(Integer id) {
+        return id != null && store.userExists(id);
+    }
+
+    @Override
+    public boolean deleteById(Integer id) {
+        return store.deleteUser(id);
+    }
+}
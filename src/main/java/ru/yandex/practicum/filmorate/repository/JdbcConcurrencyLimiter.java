@@ -0,0 +1,138 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничение количества одновременных обращений к базе данных.
+ * Оборачивает DataSource так, что получение соединения требует разрешения семафора,
+ * а закрытие соединения возвращает разрешение. Количество разрешений по умолчанию равно размеру пула соединений.
+ * <p>
+ * При обработке запросов в виртуальных потоках количество одновременных запросов не ограничено пулом
+ * потоков Tomcat, и без семафора тысячи потоков ждали бы соединение внутри пула. Честный семафор выдает
+ * разрешения в порядке очереди, а ожидание на нем не блокирует поток-носитель.
+ * Включается свойством filmorate.jdbc.concurrency-limit.enabled=true.
+ */
+@Component
+@ConditionalOnProperty(name = "filmorate.jdbc.concurrency-limit.enabled", havingValue = "true")
+public class JdbcConcurrencyLimiter implements BeanPostProcessor {
+
+    private final Semaphore permits;
+    private final long timeoutMs;
+
+    /**
+     * Создает ограничение обращений к базе данных.
+     *
+     * @param maxConcurrency количество одновременно выданных соединений
+     * @param timeoutMs      время ожидания разрешения в миллисекундах
+     * @param registry       поставщик реестра метрик
+     */
+    public JdbcConcurrencyLimiter(
+            @Value("${filmorate.jdbc.concurrency-limit.permits:${spring.datasource.hikari.maximum-pool-size:10}}")
+            int maxConcurrency,
+            @Value("${filmorate.jdbc.concurrency-limit.timeout-ms:30000}") long timeoutMs,
+            ObjectProvider<MeterRegistry> registry) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Количество разрешений должно быть положительным: " + maxConcurrency);
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.timeoutMs = timeoutMs;
+        registry.ifAvailable(meterRegistry -> {
+            Gauge.builder("filmorate.jdbc.permits.available", permits, Semaphore::availablePermits)
+                    .description("Количество свободных разрешений на обращение к базе данных")
+                    .register(meterRegistry);
+            Gauge.builder("filmorate.jdbc.permits.waiting", permits, Semaphore::getQueueLength)
+                    .description("Количество потоков, ожидающих разрешения на обращение к базе данных")
+                    .register(meterRegistry);
+        });
+    }
+
+    /**
+     * Возвращает количество свободных разрешений.
+     *
+     * @return количество разрешений
+     */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return limit(dataSource);
+        }
+        return bean;
+    }
+
+    /**
+     * Оборачивает источник данных ограничением количества соединений.
+     *
+     * @param dataSource источник данных
+     * @return источник данных с ограничением
+     */
+    DataSource limit(DataSource dataSource) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> method.getName().equals("getConnection")
+                        ? acquire(dataSource, method, args)
+                        : invoke(method, dataSource, args));
+    }
+
+    private Connection acquire(DataSource dataSource, Method method, Object[] args) throws Throwable {
+        try {
+            if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLTransientConnectionException(
+                        "Нет свободного разрешения на обращение к базе данных за " + timeoutMs + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Ожидание соединения прервано", e);
+        }
+        try {
+            return releasingConnection((Connection) invoke(method, dataSource, args));
+        } catch (Throwable e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private Connection releasingConnection(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("close")) {
+                        return invoke(method, connection, args);
+                    }
+                    try {
+                        return invoke(method, connection, args);
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                });
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
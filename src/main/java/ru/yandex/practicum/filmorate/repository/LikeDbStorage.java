@@ -1,17 +1,49 @@
 package ru.yandex.practicum.filmorate.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Реализация хранилища лайков с использованием JDBC.
  * Отвечает за добавление, удаление и подсчет лайков в базе данных.
  */
 @Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "jdbc", matchIfMissing = true)
 @RequiredArgsConstructor
 public class LikeDbStorage implements LikeRepository {
 
+    /**
+     * Вставка лайка, пропускающая уже существующие лайки и удаленные фильмы или пользователей.
+     */
+    private static final String INSERT_LIKE_SQL = "INSERT INTO likes (film_id, user_id, created_at) " +
+            "SELECT f.film_id, u.user_id, ? FROM films f, users u " +
+            "WHERE f.film_id = ? AND u.user_id = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM likes l WHERE l.film_id = f.film_id AND l.user_id = u.user_id)";
+
+    private static final String DELETE_LIKE_SQL = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
+
+    /**
+     * Удаление лайка, возвращающее время постановки удаленной строки.
+     */
+    private static final String DELETE_LIKE_RETURNING_SQL = "SELECT created_at FROM OLD TABLE (" +
+            DELETE_LIKE_SQL + ")";
+
     private final JdbcTemplate jdbcTemplate;
 
     /**
@@ -19,11 +51,12 @@ public class LikeDbStorage implements LikeRepository {
      *
      * @param filmId идентификатор фильма
      * @param userId идентификатор пользователя
+     * @return true, если лайк был добавлен, false если он уже существовал
      */
     @Override
-    public void addLike(Integer filmId, Integer userId) {
-        String sql = "INSERT INTO likes (film_id, user_id) VALUES (?, ?)";
-        jdbcTemplate.update(sql, filmId, userId);
+    public boolean addLike(Integer filmId, Integer userId) {
+        int inserted = jdbcTemplate.update(INSERT_LIKE_SQL, Timestamp.from(Instant.now()), filmId, userId);
+        return inserted > 0;
     }
 
     /**
@@ -31,11 +64,40 @@ public class LikeDbStorage implements LikeRepository {
      *
      * @param filmId идентификатор фильма
      * @param userId идентификатор пользователя
+     * @return время, когда был поставлен удаленный лайк, или пустой Optional, если лайка не было
      */
     @Override
-    public void removeLike(Integer filmId, Integer userId) {
-        String sql = "DELETE FROM likes WHERE film_id = ? AND user_id = ?";
-        jdbcTemplate.update(sql, filmId, userId);
+    public Optional<Instant> removeLike(Integer filmId, Integer userId) {
+        List<Instant> deleted = jdbcTemplate.query(DELETE_LIKE_RETURNING_SQL,
+                (rs, rowNum) -> rs.getTimestamp("created_at").toInstant(), filmId, userId);
+        return deleted.stream().findFirst();
+    }
+
+    /**
+     * Возвращает время постановки лайка.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return время постановки или пустой Optional, если лайка нет
+     */
+    public Optional<Instant> findCreatedAt(Integer filmId, Integer userId) {
+        String sql = "SELECT created_at FROM likes WHERE film_id = ? AND user_id = ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getTimestamp("created_at").toInstant(), filmId, userId)
+                .stream().findFirst();
+    }
+
+    /**
+     * Проверяет, поставил ли пользователь лайк фильму.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return true, если лайк существует, иначе false
+     */
+    @Override
+    public boolean hasLike(Integer filmId, Integer userId) {
+        String sql = "SELECT COUNT(*) FROM likes WHERE film_id = ? AND user_id = ?";
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, filmId, userId);
+        return count != null && count > 0;
     }
 
     /**
@@ -50,4 +112,96 @@ public class LikeDbStorage implements LikeRepository {
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, filmId);
         return count != null ? count : 0;
     }
-}
\ No newline at end of file
+
+    /**
+     * Возвращает количество лайков для каждого фильма одним запросом.
+     *
+     * @return отображение идентификатора фильма на количество лайков
+     */
+    @Override
+    public Map<Integer, Integer> getLikesCountByFilm() {
+        String sql = "SELECT f.film_id, COUNT(l.user_id) AS likes_count FROM films f " +
+                "LEFT JOIN likes l ON f.film_id = l.film_id " +
+                "GROUP BY f.film_id";
+        Map<Integer, Integer> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getInt("film_id"), rs.getInt("likes_count"));
+        });
+        return counts;
+    }
+
+    /**
+     * Возвращает идентификаторы фильмов, которым пользователь поставил лайк.
+     *
+     * @param userId идентификатор пользователя
+     * @return коллекция идентификаторов фильмов
+     */
+    @Override
+    public Collection<Integer> getFilmIdsLikedByUser(Integer userId) {
+        String sql = "SELECT film_id FROM likes WHERE user_id = ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> rs.getInt("film_id"), userId);
+    }
+
+    /**
+     * Возвращает лайки пользователя вместе со временем их постановки.
+     *
+     * @param userId идентификатор пользователя
+     * @return лайки пользователя
+     */
+    @Override
+    public List<Like> getLikesByUser(Integer userId) {
+        String sql = "SELECT film_id, user_id, created_at FROM likes WHERE user_id = ?";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> mapLike(rs), userId);
+    }
+
+    /**
+     * Последовательно передает получателю все лайки, не накапливая их в памяти.
+     *
+     * @param consumer получатель лайков
+     */
+    @Override
+    public void streamAll(Consumer<Like> consumer) {
+        String sql = "SELECT film_id, user_id, created_at FROM likes";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> consumer.accept(mapLike(rs)));
+    }
+
+    /**
+     * Последовательно передает получателю лайки, поставленные не раньше указанного момента.
+     *
+     * @param since    момент, начиная с которого выбираются лайки
+     * @param consumer получатель лайков
+     */
+    @Override
+    public void streamCreatedSince(Instant since, Consumer<Like> consumer) {
+        String sql = "SELECT film_id, user_id, created_at FROM likes WHERE created_at >= ?";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> consumer.accept(mapLike(rs)), Timestamp.from(since));
+    }
+
+    /**
+     * Применяет накопленные изменения лайков пакетными запросами в одной транзакции.
+     *
+     * @param added   лайки для добавления
+     * @param removed лайки для удаления
+     */
+    @Transactional
+    public void applyChanges(List<Like> added, List<Like> removed) {
+        if (!added.isEmpty()) {
+            Instant now = Instant.now();
+            jdbcTemplate.batchUpdate(INSERT_LIKE_SQL, added, added.size(), (ps, like) -> {
+                ps.setTimestamp(1, Timestamp.from(like.getCreatedAt() != null ? like.getCreatedAt() : now));
+                ps.setInt(2, like.getFilmId());
+                ps.setInt(3, like.getUserId());
+            });
+        }
+        if (!removed.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_LIKE_SQL, removed, removed.size(), (ps, like) -> {
+                ps.setInt(1, like.getFilmId());
+                ps.setInt(2, like.getUserId());
+            });
+        }
+    }
+
+    private static Like mapLike(ResultSet rs) throws SQLException {
+        return new Like(rs.getInt("film_id"), rs.getInt("user_id"), rs.getTimestamp("created_at").toInstant());
+    }
+}
@@ -1,6 +1,14 @@
 package ru.yandex.practicum.filmorate.repository;
 
 import org.springframework.stereotype.Repository;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс репозитория для работы с лайками фильмов.
@@ -14,16 +22,27 @@ public interface LikeRepository {
      *
      * @param filmId идентификатор фильма
      * @param userId идентификатор пользователя
+     * @return true, если лайк был добавлен, false если он уже существовал
      */
-    void addLike(Integer filmId, Integer userId);
+    boolean addLike(Integer filmId, Integer userId);
 
     /**
      * Удаляет лайк у фильма от пользователя.
      *
      * @param filmId идентификатор фильма
      * @param userId идентификатор пользователя
+     * @return время, когда был поставлен удаленный лайк, или пустой Optional, если лайка не было
+     */
+    Optional<Instant> removeLike(Integer filmId, Integer userId);
+
+    /**
+     * Проверяет, поставил ли пользователь лайк фильму.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return true, если лайк существует, иначе false
      */
-    void removeLike(Integer filmId, Integer userId);
+    boolean hasLike(Integer filmId, Integer userId);
 
     /**
      * Возвращает количество лайков у фильма.
@@ -32,4 +51,42 @@ public interface LikeRepository {
      * @return количество лайков
      */
     int getLikesCount(Integer filmId);
-}
\ No newline at end of file
+
+    /**
+     * Возвращает количество лайков для каждого фильма, включая фильмы без лайков.
+     *
+     * @return отображение идентификатора фильма на количество лайков
+     */
+    Map<Integer, Integer> getLikesCountByFilm();
+
+    /**
+     * Возвращает идентификаторы фильмов, которым пользователь поставил лайк.
+     *
+     * @param userId идентификатор пользователя
+     * @return коллекция идентификаторов фильмов
+     */
+    Collection<Integer> getFilmIdsLikedByUser(Integer userId);
+
+    /**
+     * Возвращает лайки пользователя вместе со временем их постановки.
+     *
+     * @param userId идентификатор пользователя
+     * @return лайки пользователя
+     */
+    List<Like> getLikesByUser(Integer userId);
+
+    /**
+     * Последовательно передает получателю все лайки, не накапливая их в памяти.
+     *
+     * @param consumer получатель лайков
+     */
+    void streamAll(Consumer<Like> consumer);
+
+    /**
+     * Последовательно передает получателю лайки, поставленные не раньше указанного момента.
+     *
+     * @param since    момент, начиная с которого выбираются лайки
+     * @param consumer получатель лайков
+     */
+    void streamCreatedSince(Instant since, Consumer<Like> consumer);
+}
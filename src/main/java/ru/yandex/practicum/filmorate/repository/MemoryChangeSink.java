@@ -0,0 +1,75 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.Instant;
+
+/**
+ * Изменения хранилища в памяти.
+ * Реализуется журналом {@link MemoryJournal} для записи и хранилищем {@link MemoryStore} для проигрывания.
+ */
+public interface MemoryChangeSink {
+    /**
+     * Сохраняет фильм: добавляет новый или заменяет существующий.
+     *
+     * @param film фильм с идентификаторами MPA и жанров
+     */
+    void putFilm(Film film);
+
+    /**
+     * Удаляет фильм вместе с его лайками.
+     *
+     * @param filmId идентификатор фильма
+     */
+    void deleteFilm(int filmId);
+
+    /**
+     * Сохраняет пользователя: добавляет нового или заменяет существующего.
+     *
+     * @param user пользователь
+     */
+    void putUser(User user);
+
+    /**
+     * Удаляет пользователя вместе с его лайками и связями дружбы.
+     *
+     * @param userId идентификатор пользователя
+     */
+    void deleteUser(int userId);
+
+    /**
+     * Добавляет лайк.
+     *
+     * @param filmId    идентификатор фильма
+     * @param userId    идентификатор пользователя
+     * @param createdAt время лайка
+     */
+    void addLike(int filmId, int userId, Instant createdAt);
+
+    /**
+     * Удаляет лайк.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     */
+    void removeLike(int filmId, int userId);
+
+    /**
+     * Добавляет связь дружбы.
+     *
+     * @param userId   идентификатор пользователя
+     * @param friendId идентификатор друга
+     * @param status   статус дружбы
+     */
+    void addFriendship(int userId, int friendId, FriendshipStatus status);
+
+    /**
+     * Удаляет связь дружбы.
+     *
+     * @param userId   идентификатор пользователя
+     * @param friendId идентификатор друга
+     */
+    void removeFriendship(int userId, int friendId);
+}
@@ -0,0 +1,495 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений хранилища в памяти: снимок состояния и дописываемый журнал изменений после снимка.
+ * Каждое изменение записывается в журнал до применения к памяти и сбрасывается в операционную систему,
+ * при fsync=true - еще и на диск. Снимок пишется во временный файл и атомарно заменяет предыдущий,
+ * после чего журнал очищается. При восстановлении проигрывается снимок, затем журнал;
+ * недописанная последняя запись журнала отбрасывается.
+ * <p>
+ * Записи идемпотентны (сохранить, удалить, добавить или убрать связь), поэтому повторное проигрывание
+ * журнала поверх снимка, если процесс остановился между заменой снимка и очисткой журнала,
+ * приводит к тому же состоянию.
+ */
+@Slf4j
+public class MemoryJournal implements MemoryChangeSink, AutoCloseable {
+
+    private static final int MAGIC = 0x46494C4D;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte PUT_FILM = 1;
+    private static final byte DELETE_FILM = 2;
+    private static final byte PUT_USER = 3;
+    private static final byte DELETE_USER = 4;
+    private static final byte ADD_LIKE = 5;
+    private static final byte REMOVE_LIKE = 6;
+    private static final byte ADD_FRIENDSHIP = 7;
+    private static final byte REMOVE_FRIENDSHIP = 8;
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+    private static final int NO_INT = Integer.MIN_VALUE;
+
+    private final Path journalFile;
+    private final Path snapshotFile;
+    private final boolean fsync;
+    private final Lock lock = new ReentrantLock();
+
+    private FileChannel channel;
+    private DataOutputStream out;
+
+    /**
+     * Создает журнал в указанном каталоге. Файлы открываются методом {@link #recover(MemoryChangeSink)}.
+     *
+     * @param directory каталог файлов журнала и снимка
+     * @param fsync     сбрасывать ли каждую запись на диск
+     */
+    public MemoryJournal(Path directory, boolean fsync) {
+        this.journalFile = directory.resolve("filmorate.journal");
+        this.snapshotFile = directory.resolve("filmorate.snapshot");
+        this.fsync = fsync;
+    }
+
+    /**
+     * Проигрывает снимок и журнал и открывает журнал для дописывания.
+     *
+     * @param target получатель восстановленных изменений
+     * @return количество проигранных записей журнала после снимка
+     */
+    public int recover(MemoryChangeSink target) {
+        try {
+            Files.createDirectories(journalFile.getParent());
+            if (Files.exists(snapshotFile)) {
+                int records = replay(snapshotFile, target);
+                log.info("Восстановлен снимок хранилища: {} записей", records);
+            }
+            int journalRecords = 0;
+            if (Files.exists(journalFile)) {
+                journalRecords = replay(journalFile, target);
+            }
+            open();
+            return journalRecords;
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Не удалось восстановить хранилище из " + journalFile, e);
+        }
+    }
+
+    /**
+     * Записывает снимок состояния и очищает журнал.
+     * Вызывающий должен запретить изменения на время записи снимка.
+     *
+     * @param dump запись текущего состояния в переданный получатель
+     */
+    public void snapshot(Consumer<MemoryChangeSink> dump) {
+        lock.lock();
+        try {
+            Path temporary = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (FileChannel snapshotChannel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream snapshotOut = new DataOutputStream(
+                         new BufferedOutputStream(Channels.newOutputStream(snapshotChannel)))) {
+                writeHeader(snapshotOut);
+                dump.accept(new Writer(snapshotOut));
+                snapshotOut.flush();
+                snapshotChannel.force(true);
+            }
+            Files.move(temporary, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            out.flush();
+            channel.truncate(HEADER_SIZE);
+            channel.position(HEADER_SIZE);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Не удалось записать снимок хранилища " + snapshotFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает размер журнала изменений после последнего снимка.
+     *
+     * @return размер в байтах
+     */
+    public long size() {
+        lock.lock();
+        try {
+            out.flush();
+            return channel.size();
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Не удалось прочитать размер журнала " + journalFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void putFilm(Film film) {
+        append(writer -> writer.putFilm(film));
+    }
+
+    @Override
+    public void deleteFilm(int filmId) {
+        append(writer -> writer.deleteFilm(filmId));
+    }
+
+    @Override
+    public void putUser(User user) {
+        append(writer -> writer.putUser(user));
+    }
+
+    @Override
+    public void deleteUser(int userId) {
+        append(writer -> writer.deleteUser(userId));
+    }
+
+    @Override
+    public void addLike(int filmId, int userId, Instant createdAt) {
+        append(writer -> writer.addLike(filmId, userId, createdAt));
+    }
+
+    @Override
+    public void removeLike(int filmId, int userId) {
+        append(writer -> writer.removeLike(filmId, userId));
+    }
+
+    @Override
+    public void addFriendship(int userId, int friendId, FriendshipStatus status) {
+        append(writer -> writer.addFriendship(userId, friendId, status));
+    }
+
+    @Override
+    public void removeFriendship(int userId, int friendId) {
+        append(writer -> writer.removeFriendship(userId, friendId));
+    }
+
+    /**
+     * Дописывает оставшиеся записи и закрывает журнал.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (out != null) {
+                out.flush();
+                channel.force(true);
+                out.close();
+                out = null;
+            }
+        } catch (IOException e) {
+            log.error("Не удалось закрыть журнал хранилища {}", journalFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(Consumer<Writer> record) {
+        lock.lock();
+        try {
+            record.accept(new Writer(out));
+            out.flush();
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new DataAccessResourceFailureException("Не удалось записать журнал хранилища " + journalFile, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        if (channel.size() < HEADER_SIZE) {
+            channel.truncate(0);
+            writeHeader(out);
+            out.flush();
+        }
+        channel.position(channel.size());
+    }
+
+    /**
+     * Проигрывает файл и обрезает его по последней целой записи.
+     */
+    private int replay(Path file, MemoryChangeSink target) throws IOException {
+        int records = 0;
+        long validLength;
+        try (CountingInputStream counter = new CountingInputStream(Files.newInputStream(file));
+             DataInputStream in = new DataInputStream(counter)) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Неизвестный формат файла " + file);
+            }
+            validLength = counter.count;
+            try {
+                while (true) {
+                    byte op;
+                    try {
+                        op = in.readByte();
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    read(op, in, target);
+                    records++;
+                    validLength = counter.count;
+                }
+            } catch (EOFException e) {
+                log.warn("Последняя запись {} не дописана и будет отброшена", file);
+            }
+        }
+        if (Files.size(file) > validLength) {
+            try (FileChannel truncating = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncating.truncate(validLength);
+            }
+        }
+        return records;
+    }
+
+    private static void read(byte op, DataInputStream in, MemoryChangeSink target) throws IOException {
+        switch (op) {
+            case PUT_FILM -> target.putFilm(readFilm(in));
+            case DELETE_FILM -> target.deleteFilm(in.readInt());
+            case PUT_USER -> target.putUser(readUser(in));
+            case DELETE_USER -> target.deleteUser(in.readInt());
+            case ADD_LIKE -> target.addLike(in.readInt(), in.readInt(),
+                    Instant.ofEpochSecond(in.readLong(), in.readInt()));
+            case REMOVE_LIKE -> target.removeLike(in.readInt(), in.readInt());
+            case ADD_FRIENDSHIP -> target.addFriendship(in.readInt(), in.readInt(),
+                    FriendshipStatus.values()[in.readByte()]);
+            case REMOVE_FRIENDSHIP -> target.removeFriendship(in.readInt(), in.readInt());
+            default -> throw new IOException("Неизвестный тип записи журнала: " + op);
+        }
+    }
+
+    private static Film readFilm(DataInputStream in) throws IOException {
+        Film film = new Film();
+        film.setId(in.readInt());
+        film.setName(readString(in));
+        film.setDescription(readString(in));
+        film.setReleaseDate(readDate(in));
+        film.setDuration(readInteger(in));
+        Integer mpaId = readInteger(in);
+        film.setMpa(mpaId != null ? new MpaRating(mpaId, null) : null);
+        int genreCount = in.readInt();
+        Set<Genre> genres = new LinkedHashSet<>();
+        for (int i = 0; i < genreCount; i++) {
+            genres.add(new Genre(in.readInt(), null));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+
+    private static User readUser(DataInputStream in) throws IOException {
+        User user = new User();
+        user.setId(in.readInt());
+        user.setEmail(readString(in));
+        user.setLogin(readString(in));
+        user.setName(readString(in));
+        user.setBirthday(readDate(in));
+        return user;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static LocalDate readDate(DataInputStream in) throws IOException {
+        long epochDay = in.readLong();
+        return epochDay != NO_DATE ? LocalDate.ofEpochDay(epochDay) : null;
+    }
+
+    private static Integer readInteger(DataInputStream in) throws IOException {
+        int value = in.readInt();
+        return value != NO_INT ? value : null;
+    }
+
+    private static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Запись изменений в поток в формате журнала.
+     */
+    private static final class Writer implements MemoryChangeSink {
+
+        private final DataOutputStream out;
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void putFilm(Film film) {
+            write(() -> {
+                out.writeByte(PUT_FILM);
+                out.writeInt(film.getId());
+                writeString(film.getName());
+                writeString(film.getDescription());
+                writeDate(film.getReleaseDate());
+                writeInteger(film.getDuration());
+                writeInteger(film.getMpa() != null ? film.getMpa().getId() : null);
+                Set<Genre> genres = film.getGenres() != null ? film.getGenres() : Set.of();
+                out.writeInt(genres.size());
+                for (Genre genre : genres) {
+                    out.writeInt(genre.getId());
+                }
+            });
+        }
+
+        @Override
+        public void deleteFilm(int filmId) {
+            write(() -> {
+                out.writeByte(DELETE_FILM);
+                out.writeInt(filmId);
+            });
+        }
+
+        @Override
+        public void putUser(User user) {
+            write(() -> {
+                out.writeByte(PUT_USER);
+                out.writeInt(user.getId());
+                writeString(user.getEmail());
+                writeString(user.getLogin());
+                writeString(user.getName());
+                writeDate(user.getBirthday());
+            });
+        }
+
+        @Override
+        public void deleteUser(int userId) {
+            write(() -> {
+                out.writeByte(DELETE_USER);
+                out.writeInt(userId);
+            });
+        }
+
+        @Override
+        public void addLike(int filmId, int userId, Instant createdAt) {
+            write(() -> {
+                out.writeByte(ADD_LIKE);
+                out.writeInt(filmId);
+                out.writeInt(userId);
+                out.writeLong(createdAt.getEpochSecond());
+                out.writeInt(createdAt.getNano());
+            });
+        }
+
+        @Override
+        public void removeLike(int filmId, int userId) {
+            write(() -> {
+                out.writeByte(REMOVE_LIKE);
+                out.writeInt(filmId);
+                out.writeInt(userId);
+            });
+        }
+
+        @Override
+        public void addFriendship(int userId, int friendId, FriendshipStatus status) {
+            write(() -> {
+                out.writeByte(ADD_FRIENDSHIP);
+                out.writeInt(userId);
+                out.writeInt(friendId);
+                out.writeByte(status.ordinal());
+            });
+        }
+
+        @Override
+        public void removeFriendship(int userId, int friendId) {
+            write(() -> {
+                out.writeByte(REMOVE_FRIENDSHIP);
+                out.writeInt(userId);
+                out.writeInt(friendId);
+            });
+        }
+
+        private void writeString(String value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeUTF(value);
+            }
+        }
+
+        private void writeDate(LocalDate date) throws IOException {
+            out.writeLong(date != null ? date.toEpochDay() : NO_DATE);
+        }
+
+        private void writeInteger(Integer value) throws IOException {
+            out.writeInt(value != null ? value : NO_INT);
+        }
+
+        private static void write(IoAction action) {
+            try {
+                action.run();
+            } catch (IOException e) {
+                throw new DataAccessResourceFailureException("Не удалось записать изменение хранилища", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+
+    /**
+     * Поток, считающий прочитанные байты, чтобы найти конец последней целой записи.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(new BufferedInputStream(in));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,992 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.IntObjectMap;
+import ru.yandex.practicum.filmorate.index.SortedIntArray;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Хранилище всех данных приложения в памяти.
+ * Данные разбиты на сегменты по идентификатору (фильмы и лайки фильма - по ID фильма, пользователи,
+ * лайки пользователя и друзья - по ID пользователя), у каждого сегмента своя блокировка чтения-записи.
+ * Операция над двумя сегментами блокирует их по возрастанию номера, удаление фильма или пользователя
+ * каскадно удаляет связи и блокирует все сегменты.
+ * <p>
+ * Вторичные индексы: лайки по фильму и по пользователю, друзья пользователя и обратный индекс
+ * "у кого пользователь в друзьях" для каскадного удаления. Ключи хранятся без упаковки в {@link IntObjectMap}.
+ * Возвращаемые и принимаемые объекты копируются, жанры и MPA хранятся только идентификаторами.
+ * <p>
+ * Если задан каталог filmorate.storage.memory.journal.dir, изменения пишутся в {@link MemoryJournal},
+ * снимок состояния сохраняется раз в filmorate.storage.memory.snapshot-interval-ms и при остановке.
+ * Включается свойством filmorate.storage.engine=memory.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "memory")
+public class MemoryStore {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final MemoryJournal journal;
+    private final long snapshotIntervalMs;
+    private final ScheduledExecutorService snapshotter;
+
+    private final AtomicInteger filmSequence = new AtomicInteger();
+    private final AtomicInteger userSequence = new AtomicInteger();
+
+    /**
+     * Создает хранилище.
+     *
+     * @param stripes            количество сегментов, округляется вверх до степени двойки
+     * @param journalDir         каталог журнала и снимка; пустая строка - без сохранения на диск
+     * @param fsync              сбрасывать ли каждую запись журнала на диск
+     * @param snapshotIntervalMs интервал записи снимка в миллисекундах
+     */
+    public MemoryStore(@Value("${filmorate.storage.memory.stripes:16}") int stripes,
+                       @Value("${filmorate.storage.memory.journal.dir:}") String journalDir,
+                       @Value("${filmorate.storage.memory.journal.fsync:false}") boolean fsync,
+                       @Value("${filmorate.storage.memory.snapshot-interval-ms:300000}") long snapshotIntervalMs) {
+        int count = Integer.highestOneBit(Math.max(1, stripes) * 2 - 1);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe(i);
+        }
+        this.stripeMask = count - 1;
+        this.journal = journalDir.isBlank() ? null : new MemoryJournal(Path.of(journalDir), fsync);
+        this.snapshotIntervalMs = snapshotIntervalMs;
+        this.snapshotter = journal == null ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "memory-store-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Восстанавливает данные из снимка и журнала и запускает периодическую запись снимка.
+     */
+    @PostConstruct
+    public void recover() {
+        if (journal == null) {
+            log.info("Хранилище в памяти запущено без сохранения на диск");
+            return;
+        }
+        int records = journal.recover(new Replay());
+        log.info("Хранилище в памяти восстановлено: фильмов {}, пользователей {}, записей журнала {}",
+                count(stripe -> stripe.films.size()), count(stripe -> stripe.users.size()), records);
+        snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalMs, snapshotIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Записывает снимок состояния и очищает журнал. Изменения ждут окончания записи, чтение продолжается.
+     */
+    public void snapshot() {
+        if (journal == null) {
+            return;
+        }
+        lockAll(false);
+        try {
+            journal.snapshot(this::dump);
+        } finally {
+            unlockAll(false);
+        }
+    }
+
+    /**
+     * Останавливает периодическую запись снимка, записывает итоговый снимок и закрывает журнал.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        snapshotter.shutdown();
+        snapshot();
+        journal.close();
+    }
+
+    /**
+     * Закрывает журнал без итогового снимка, как при аварийной остановке процесса.
+     */
+    void closeJournal() {
+        snapshotter.shutdownNow();
+        journal.close();
+    }
+
+    // Фильмы
+
+    /**
+     * Сохраняет новые фильмы, присваивая им идентификаторы.
+     *
+     * @param films фильмы
+     * @return те же фильмы с присвоенными ID
+     */
+    public List<Film> insertFilms(List<Film> films) {
+        for (Film film : films) {
+            film.setId(filmSequence.incrementAndGet());
+            Stripe stripe = stripe(film.getId());
+            stripe.lock.writeLock().lock();
+            try {
+                Film stored = copyFilm(film);
+                journal().putFilm(stored);
+                applyPutFilm(stored);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+        return films;
+    }
+
+    /**
+     * Заменяет данные существующего фильма.
+     *
+     * @param film фильм с обновленными данными
+     * @throws NotFoundException если фильм не найден
+     */
+    public void updateFilm(Film film) {
+        Stripe stripe = stripe(film.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            if (!stripe.films.containsKey(film.getId())) {
+                throw new NotFoundException("Фильм с id = " + film.getId() + " не найден");
+            }
+            Film stored = copyFilm(film);
+            journal().putFilm(stored);
+            applyPutFilm(stored);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Находит копию фильма по идентификатору.
+     *
+     * @param id идентификатор фильма
+     * @return копия фильма с идентификаторами MPA и жанров
+     */
+    public Optional<Film> findFilm(int id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.readLock().lock();
+        try {
+            Film film = stripe.films.get(id);
+            return film != null ? Optional.of(copyFilm(film)) : Optional.empty();
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Проверяет существование фильма.
+     *
+     * @param id идентификатор фильма
+     * @return true, если фильм существует
+     */
+    public boolean filmExists(int id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.films.containsKey(id);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Передает получателю копии всех фильмов по возрастанию ID.
+     * Получатель вызывается вне блокировок.
+     *
+     * @param consumer получатель фильмов
+     */
+    public void forEachFilm(Consumer<Film> consumer) {
+        for (int id : sortedIds(stripe -> stripe.films)) {
+            findFilm(id).ifPresent(consumer);
+        }
+    }
+
+    /**
+     * Удаляет фильм вместе с его лайками.
+     *
+     * @param id идентификатор фильма
+     * @return true, если фильм был удален
+     */
+    public boolean deleteFilm(int id) {
+        lockAll(true);
+        try {
+            if (!stripe(id).films.containsKey(id)) {
+                return false;
+            }
+            journal().deleteFilm(id);
+            applyDeleteFilm(id);
+            return true;
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    // Пользователи
+
+    /**
+     * Сохраняет новых пользователей, присваивая им идентификаторы.
+     *
+     * @param users пользователи
+     * @return те же пользователи с присвоенными ID
+     */
+    public List<User> insertUsers(List<User> users) {
+        for (User user : users) {
+            user.setId(userSequence.incrementAndGet());
+            Stripe stripe = stripe(user.getId());
+            stripe.lock.writeLock().lock();
+            try {
+                User stored = copyUser(user);
+                journal().putUser(stored);
+                applyPutUser(stored);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        }
+        return users;
+    }
+
+    /**
+     * Заменяет данные существующего пользователя.
+     *
+     * @param user пользователь с обновленными данными
+     * @throws NotFoundException если пользователь не найден
+     */
+    public void updateUser(User user) {
+        Stripe stripe = stripe(user.getId());
+        stripe.lock.writeLock().lock();
+        try {
+            if (!stripe.users.containsKey(user.getId())) {
+                throw new NotFoundException("Пользователь с id = " + user.getId() + " не найден");
+            }
+            User stored = copyUser(user);
+            journal().putUser(stored);
+            applyPutUser(stored);
+        } finally {
+            stripe.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Находит копию пользователя по идентификатору.
+     *
+     * @param id идентификатор пользователя
+     * @return копия пользователя
+     */
+    public Optional<User> findUser(int id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.readLock().lock();
+        try {
+            User user = stripe.users.get(id);
+            return user != null ? Optional.of(copyUser(user)) : Optional.empty();
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Проверяет существование пользователя.
+     *
+     * @param id идентификатор пользователя
+     * @return true, если пользователь существует
+     */
+    public boolean userExists(int id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.readLock().lock();
+        try {
+            return stripe.users.containsKey(id);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Передает получателю копии всех пользователей по возрастанию ID.
+     * Получатель вызывается вне блокировок.
+     *
+     * @param consumer получатель пользователей
+     */
+    public void forEachUser(Consumer<User> consumer) {
+        for (int id : sortedIds(stripe -> stripe.users)) {
+            findUser(id).ifPresent(consumer);
+        }
+    }
+
+    /**
+     * Удаляет пользователя вместе с его лайками и связями дружбы в обе стороны.
+     *
+     * @param id идентификатор пользователя
+     * @return true, если пользователь был удален
+     */
+    public boolean deleteUser(int id) {
+        lockAll(true);
+        try {
+            if (!stripe(id).users.containsKey(id)) {
+                return false;
+            }
+            journal().deleteUser(id);
+            applyDeleteUser(id);
+            return true;
+        } finally {
+            unlockAll(true);
+        }
+    }
+
+    // Лайки
+
+    /**
+     * Добавляет лайк, если фильм и пользователь существуют и лайка еще нет.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return true, если лайк был добавлен
+     */
+    public boolean addLike(int filmId, int userId) {
+        Stripe filmStripe = stripe(filmId);
+        Stripe userStripe = stripe(userId);
+        lockPair(filmId, userId);
+        try {
+            if (!filmStripe.films.containsKey(filmId) || !userStripe.users.containsKey(userId)) {
+                return false;
+            }
+            IntObjectMap<Instant> likes = filmStripe.likesByFilm.get(filmId);
+            if (likes != null && likes.containsKey(userId)) {
+                return false;
+            }
+            Instant createdAt = Instant.now();
+            journal().addLike(filmId, userId, createdAt);
+            applyAddLike(filmId, userId, createdAt);
+            return true;
+        } finally {
+            unlockPair(filmId, userId);
+        }
+    }
+
+    /**
+     * Удаляет лайк.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return время постановки удаленного лайка или пустой Optional, если лайка не было
+     */
+    public Optional<Instant> removeLike(int filmId, int userId) {
+        lockPair(filmId, userId);
+        try {
+            IntObjectMap<Instant> likes = stripe(filmId).likesByFilm.get(filmId);
+            Instant createdAt = likes != null ? likes.get(userId) : null;
+            if (createdAt == null) {
+                return Optional.empty();
+            }
+            journal().removeLike(filmId, userId);
+            applyRemoveLike(filmId, userId);
+            return Optional.of(createdAt);
+        } finally {
+            unlockPair(filmId, userId);
+        }
+    }
+
+    /**
+     * Проверяет наличие лайка.
+     *
+     * @param filmId идентификатор фильма
+     * @param userId идентификатор пользователя
+     * @return true, если лайк существует
+     */
+    public boolean hasLike(int filmId, int userId) {
+        Stripe stripe = stripe(filmId);
+        stripe.lock.readLock().lock();
+        try {
+            IntObjectMap<Instant> likes = stripe.likesByFilm.get(filmId);
+            return likes != null && likes.containsKey(userId);
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество лайков фильма.
+     *
+     * @param filmId идентификатор фильма
+     * @return количество лайков
+     */
+    public int likesCount(int filmId) {
+        Stripe stripe = stripe(filmId);
+        stripe.lock.readLock().lock();
+        try {
+            IntObjectMap<Instant> likes = stripe.likesByFilm.get(filmId);
+            return likes != null ? likes.size() : 0;
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество лайков каждого фильма, включая фильмы без лайков.
+     *
+     * @return отображение идентификатора фильма на количество лайков
+     */
+    public Map<Integer, Integer> likesCountByFilm() {
+        Map<Integer, Integer> counts = new HashMap<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                stripe.films.forEach((filmId, film) -> {
+                    IntObjectMap<Instant> likes = stripe.likesByFilm.get(filmId);
+                    counts.put(filmId, likes != null ? likes.size() : 0);
+                });
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Возвращает идентификаторы фильмов, которым пользователь поставил лайк, по возрастанию.
+     *
+     * @param userId идентификатор пользователя
+     * @return идентификаторы фильмов
+     */
+    public int[] filmIdsLikedBy(int userId) {
+        Stripe stripe = stripe(userId);
+        stripe.lock.readLock().lock();
+        try {
+            SortedIntArray filmIds = stripe.likesByUser.get(userId);
+            return filmIds != null ? filmIds.toArray() : new int[0];
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает лайки пользователя вместе со временем их постановки.
+     * Время каждого лайка читается под блокировкой сегмента фильма, лайки, удаленные за время обхода, пропускаются.
+     *
+     * @param userId идентификатор пользователя
+     * @return лайки пользователя
+     */
+    public List<Like> likesOf(int userId) {
+        List<Like> result = new ArrayList<>();
+        for (int filmId : filmIdsLikedBy(userId)) {
+            Stripe stripe = stripe(filmId);
+            stripe.lock.readLock().lock();
+            try {
+                IntObjectMap<Instant> likes = stripe.likesByFilm.get(filmId);
+                Instant createdAt = likes != null ? likes.get(userId) : null;
+                if (createdAt != null) {
+                    result.add(new Like(filmId, userId, createdAt));
+                }
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Передает получателю лайки, поставленные не раньше указанного момента.
+     * Лайки копируются по сегментам, получатель вызывается вне блокировок.
+     *
+     * @param since    момент, начиная с которого выбираются лайки, или null для всех лайков
+     * @param consumer получатель лайков
+     */
+    public void forEachLike(Instant since, Consumer<Like> consumer) {
+        for (Stripe stripe : stripes) {
+            List<Like> batch = new ArrayList<>();
+            stripe.lock.readLock().lock();
+            try {
+                stripe.likesByFilm.forEach((filmId, likes) -> likes.forEach((userId, createdAt) -> {
+                    if (since == null || !createdAt.isBefore(since)) {
+                        batch.add(new Like(filmId, userId, createdAt));
+                    }
+                }));
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+            batch.forEach(consumer);
+        }
+    }
+
+    // Дружба
+
+    /**
+     * Добавляет связь дружбы.
+     *
+     * @param friendship связь дружбы
+     * @throws DataIntegrityViolationException если одного из пользователей нет
+     * @throws DuplicateKeyException           если связь уже существует
+     */
+    public void addFriendship(Friendship friendship) {
+        int userId = friendship.getUserId();
+        int friendId = friendship.getFriendId();
+        lockPair(userId, friendId);
+        try {
+            if (!stripe(userId).users.containsKey(userId) || !stripe(friendId).users.containsKey(friendId)) {
+                throw new DataIntegrityViolationException(
+                        "Пользователь с id = " + userId + " или " + friendId + " не существует");
+            }
+            IntObjectMap<FriendshipStatus> friends = stripe(userId).friends.get(userId);
+            if (friends != null && friends.containsKey(friendId)) {
+                throw new DuplicateKeyException("Дружба " + userId + " -> " + friendId + " уже существует");
+            }
+            journal().addFriendship(userId, friendId, friendship.getStatus());
+            applyAddFriendship(userId, friendId, friendship.getStatus());
+        } finally {
+            unlockPair(userId, friendId);
+        }
+    }
+
+    /**
+     * Удаляет связь дружбы, если она существует.
+     *
+     * @param userId   идентификатор пользователя
+     * @param friendId идентификатор друга
+     */
+    public void removeFriendship(int userId, int friendId) {
+        lockPair(userId, friendId);
+        try {
+            IntObjectMap<FriendshipStatus> friends = stripe(userId).friends.get(userId);
+            if (friends == null || !friends.containsKey(friendId)) {
+                return;
+            }
+            journal().removeFriendship(userId, friendId);
+            applyRemoveFriendship(userId, friendId);
+        } finally {
+            unlockPair(userId, friendId);
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы друзей пользователя по возрастанию.
+     *
+     * @param userId идентификатор пользователя
+     * @return идентификаторы друзей
+     */
+    public int[] friendIds(int userId) {
+        Stripe stripe = stripe(userId);
+        stripe.lock.readLock().lock();
+        try {
+            IntObjectMap<FriendshipStatus> friends = stripe.friends.get(userId);
+            return friends != null ? friends.sortedKeys() : new int[0];
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает идентификаторы общих друзей двух пользователей по возрастанию.
+     * Перебирается меньший из двух списков друзей.
+     *
+     * @param userId  идентификатор первого пользователя
+     * @param otherId идентификатор второго пользователя
+     * @return идентификаторы общих друзей
+     */
+    public int[] commonFriendIds(int userId, int otherId) {
+        lockPairForRead(userId, otherId);
+        try {
+            IntObjectMap<FriendshipStatus> first = stripe(userId).friends.get(userId);
+            IntObjectMap<FriendshipStatus> second = stripe(otherId).friends.get(otherId);
+            if (first == null || second == null) {
+                return new int[0];
+            }
+            IntObjectMap<FriendshipStatus> smaller = first.size() <= second.size() ? first : second;
+            IntObjectMap<FriendshipStatus> larger = smaller == first ? second : first;
+            int[] common = new int[smaller.size()];
+            int[] size = new int[1];
+            smaller.forEach((friendId, status) -> {
+                if (larger.containsKey(friendId)) {
+                    common[size[0]++] = friendId;
+                }
+            });
+            int[] result = Arrays.copyOf(common, size[0]);
+            Arrays.sort(result);
+            return result;
+        } finally {
+            unlockPairForRead(userId, otherId);
+        }
+    }
+
+    /**
+     * Передает получателю все связи дружбы. Связи копируются по сегментам, получатель вызывается вне блокировок.
+     *
+     * @param consumer получатель связей дружбы
+     */
+    public void forEachFriendship(Consumer<Friendship> consumer) {
+        for (Stripe stripe : stripes) {
+            List<Friendship> batch = new ArrayList<>();
+            stripe.lock.readLock().lock();
+            try {
+                stripe.friends.forEach((userId, friends) -> friends.forEach((friendId, status) ->
+                        batch.add(new Friendship(userId, friendId, status))));
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+            batch.forEach(consumer);
+        }
+    }
+
+    // Применение изменений: вызывается под блокировками и при восстановлении, повторное применение безопасно
+
+    private void applyPutFilm(Film film) {
+        stripe(film.getId()).films.put(film.getId(), film);
+        filmSequence.accumulateAndGet(film.getId(), Math::max);
+    }
+
+    private void applyDeleteFilm(int filmId) {
+        stripe(filmId).films.remove(filmId);
+        IntObjectMap<Instant> likes = stripe(filmId).likesByFilm.remove(filmId);
+        if (likes != null) {
+            likes.forEach((userId, createdAt) -> removeFromIndex(stripe(userId).likesByUser, userId, filmId));
+        }
+    }
+
+    private void applyPutUser(User user) {
+        stripe(user.getId()).users.put(user.getId(), user);
+        userSequence.accumulateAndGet(user.getId(), Math::max);
+    }
+
+    private void applyDeleteUser(int userId) {
+        Stripe stripe = stripe(userId);
+        stripe.users.remove(userId);
+        SortedIntArray likedFilms = stripe.likesByUser.remove(userId);
+        if (likedFilms != null) {
+            for (int filmId : likedFilms.toArray()) {
+                IntObjectMap<Instant> likes = stripe(filmId).likesByFilm.get(filmId);
+                if (likes != null) {
+                    likes.remove(userId);
+                }
+            }
+        }
+        IntObjectMap<FriendshipStatus> friends = stripe.friends.remove(userId);
+        if (friends != null) {
+            friends.forEach((friendId, status) -> removeFromIndex(stripe(friendId).friendOf, friendId, userId));
+        }
+        SortedIntArray friendOf = stripe.friendOf.remove(userId);
+        if (friendOf != null) {
+            for (int otherId : friendOf.toArray()) {
+                IntObjectMap<FriendshipStatus> otherFriends = stripe(otherId).friends.get(otherId);
+                if (otherFriends != null) {
+                    otherFriends.remove(userId);
+                }
+            }
+        }
+    }
+
+    private void applyAddLike(int filmId, int userId, Instant createdAt) {
+        stripe(filmId).likesByFilm.computeIfAbsent(filmId, IntObjectMap::new).put(userId, createdAt);
+        stripe(userId).likesByUser.computeIfAbsent(userId, SortedIntArray::new).add(filmId);
+    }
+
+    private void applyRemoveLike(int filmId, int userId) {
+        IntObjectMap<Instant> likes = stripe(filmId).likesByFilm.get(filmId);
+        if (likes != null) {
+            likes.remove(userId);
+        }
+        removeFromIndex(stripe(userId).likesByUser, userId, filmId);
+    }
+
+    private void applyAddFriendship(int userId, int friendId, FriendshipStatus status) {
+        stripe(userId).friends.computeIfAbsent(userId, IntObjectMap::new).put(friendId, status);
+        stripe(friendId).friendOf.computeIfAbsent(friendId, SortedIntArray::new).add(userId);
+    }
+
+    private void applyRemoveFriendship(int userId, int friendId) {
+        IntObjectMap<FriendshipStatus> friends = stripe(userId).friends.get(userId);
+        if (friends != null) {
+            friends.remove(friendId);
+        }
+        removeFromIndex(stripe(friendId).friendOf, friendId, userId);
+    }
+
+    private static void removeFromIndex(IntObjectMap<SortedIntArray> index, int key, int value) {
+        SortedIntArray values = index.get(key);
+        if (values != null) {
+            values.remove(value);
+            if (values.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Записывает состояние в получатель: сначала фильмы и пользователи, затем связи между ними.
+     */
+    private void dump(MemoryChangeSink sink) {
+        for (Stripe stripe : stripes) {
+            stripe.films.forEach((id, film) -> sink.putFilm(film));
+            stripe.users.forEach((id, user) -> sink.putUser(user));
+        }
+        for (Stripe stripe : stripes) {
+            stripe.likesByFilm.forEach((filmId, likes) ->
+                    likes.forEach((userId, createdAt) -> sink.addLike(filmId, userId, createdAt)));
+            stripe.friends.forEach((userId, friends) ->
+                    friends.forEach((friendId, status) -> sink.addFriendship(userId, friendId, status)));
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать снимок хранилища, повтор при следующем запуске", e);
+        }
+    }
+
+    private MemoryChangeSink journal() {
+        return journal != null ? journal : NoJournal.INSTANCE;
+    }
+
+    private Stripe stripe(int id) {
+        int hash = id * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & stripeMask];
+    }
+
+    private int[] sortedIds(Function<Stripe, IntObjectMap<?>> map) {
+        List<int[]> parts = new ArrayList<>(stripes.length);
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                int[] ids = map.apply(stripe).sortedKeys();
+                parts.add(ids);
+                total += ids.length;
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        int[] result = new int[total];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, result, offset, part.length);
+            offset += part.length;
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int count(ToIntFunction<Stripe> size) {
+        return Arrays.stream(stripes).mapToInt(size).sum();
+    }
+
+    private void lockPair(int firstId, int secondId) {
+        for (Lock lock : pairLocks(firstId, secondId, true)) {
+            lock.lock();
+        }
+    }
+
+    private void unlockPair(int firstId, int secondId) {
+        for (Lock lock : pairLocks(firstId, secondId, true)) {
+            lock.unlock();
+        }
+    }
+
+    private void lockPairForRead(int firstId, int secondId) {
+        for (Lock lock : pairLocks(firstId, secondId, false)) {
+            lock.lock();
+        }
+    }
+
+    private void unlockPairForRead(int firstId, int secondId) {
+        for (Lock lock : pairLocks(firstId, secondId, false)) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Блокировки сегментов двух идентификаторов в порядке возрастания номера сегмента, без повторов.
+     */
+    private Lock[] pairLocks(int firstId, int secondId, boolean write) {
+        Stripe first = stripe(firstId);
+        Stripe second = stripe(secondId);
+        if (first == second) {
+            return new Lock[]{first.lock(write)};
+        }
+        return first.index < second.index
+                ? new Lock[]{first.lock(write), second.lock(write)}
+                : new Lock[]{second.lock(write), first.lock(write)};
+    }
+
+    private void lockAll(boolean write) {
+        for (Stripe stripe : stripes) {
+            stripe.lock(write).lock();
+        }
+    }
+
+    private void unlockAll(boolean write) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            stripes[i].lock(write).unlock();
+        }
+    }
+
+    private static Film copyFilm(Film source) {
+        Film film = new Film();
+        film.setId(source.getId());
+        film.setName(source.getName());
+        film.setDescription(source.getDescription());
+        film.setReleaseDate(source.getReleaseDate());
+        film.setDuration(source.getDuration());
+        film.setMpa(source.getMpa() != null ? new MpaRating(source.getMpa().getId(), null) : null);
+        Set<Genre> genres = new LinkedHashSet<>();
+        if (source.getGenres() != null) {
+            source.getGenres().stream()
+                    .map(Genre::getId)
+                    .distinct()
+                    .sorted(Comparator.naturalOrder())
+                    .forEach(genreId -> genres.add(new Genre(genreId, null)));
+        }
+        film.setGenres(genres);
+        return film;
+    }
+
+    private static User copyUser(User source) {
+        User user = new User();
+        user.setId(source.getId());
+        user.setEmail(source.getEmail());
+        user.setLogin(source.getLogin());
+        user.setName(source.getName());
+        user.setBirthday(source.getBirthday());
+        return user;
+    }
+
+    /**
+     * Сегмент данных со своей блокировкой.
+     */
+    private static final class Stripe {
+        private final int index;
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final IntObjectMap<Film> films = new IntObjectMap<>();
+        private final IntObjectMap<User> users = new IntObjectMap<>();
+        private final IntObjectMap<IntObjectMap<Instant>> likesByFilm = new IntObjectMap<>();
+        private final IntObjectMap<SortedIntArray> likesByUser = new IntObjectMap<>();
+        private final IntObjectMap<IntObjectMap<FriendshipStatus>> friends = new IntObjectMap<>();
+        private final IntObjectMap<SortedIntArray> friendOf = new IntObjectMap<>();
+
+        private Stripe(int index) {
+            this.index = index;
+        }
+
+        private Lock lock(boolean write) {
+            return write ? lock.writeLock() : lock.readLock();
+        }
+    }
+
+    /**
+     * Применение восстановленных записей к памяти без повторной записи в журнал.
+     */
+    private final class Replay implements MemoryChangeSink {
+        @Override
+        public void putFilm(Film film) {
+            applyPutFilm(film);
+        }
+
+        @Override
+        public void deleteFilm(int filmId) {
+            applyDeleteFilm(filmId);
+        }
+
+        @Override
+        public void putUser(User user) {
+            applyPutUser(user);
+        }
+
+        @Override
+        public void deleteUser(int userId) {
+            applyDeleteUser(userId);
+        }
+
+        @Override
+        public void addLike(int filmId, int userId, Instant createdAt) {
+            applyAddLike(filmId, userId, createdAt);
+        }
+
+        @Override
+        public void removeLike(int filmId, int userId) {
+            applyRemoveLike(filmId, userId);
+        }
+
+        @Override
+        public void addFriendship(int userId, int friendId, FriendshipStatus status) {
+            applyAddFriendship(userId, friendId, status);
+        }
+
+        @Override
+        public void removeFriendship(int userId, int friendId) {
+            applyRemoveFriendship(userId, friendId);
+        }
+    }
+
+    /**
+     * Журнал без сохранения: хранилище работает только в памяти.
+     */
+    private enum NoJournal implements MemoryChangeSink {
+        INSTANCE;
+
+        @Override
+        public void putFilm(Film film) {
+        }
+
+        @Override
+        public void deleteFilm(int filmId) {
+        }
+
+        @Override
+        public void putUser(User user) {
+        }
+
+        @Override
+        public void deleteUser(int userId) {
+        }
+
+        @Override
+        public void addLike(int filmId, int userId, Instant createdAt) {
+        }
+
+        @Override
+        public void removeLike(int filmId, int userId) {
+        }
+
+        @Override
+        public void addFriendship(int userId, int friendId, FriendshipStatus status) {
+        }
+
+        @Override
+        public void removeFriendship(int userId, int friendId) {
+        }
+    }
+}
@@ -1,30 +1,67 @@
 package ru.yandex.practicum.filmorate.repository;
 
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.IdBitmap;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.sql.Date;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Реализация хранилища пользователей с использованием JDBC.
  * Отвечает за сохранение, обновление, получение и удаление пользователей из базы данных.
  */
+@Slf4j
 @Repository
+@ConditionalOnProperty(name = "filmorate.storage.engine", havingValue = "jdbc", matchIfMissing = true)
 @RequiredArgsConstructor
 public class UserDbStorage implements UserRepository {
 
+    private static final String INSERT_USER_SQL = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Максимальное количество идентификаторов в одном условии IN.
+     */
+    private static final int IN_BATCH_SIZE = 500;
+
     private final JdbcTemplate jdbcTemplate;
 
+    /**
+     * Идентификаторы существующих пользователей: проверка существования выполняется без запроса к базе.
+     */
+    private final IdBitmap userIds = new IdBitmap();
+
+    /**
+     * Количество строк, получаемых из базы за одно обращение при потоковой выгрузке.
+     */
+    @Value("${filmorate.export.fetch-size:1000}")
+    private int exportFetchSize;
+
     /**
      * Маппер для преобразования результата запроса в объект User.
      */
@@ -38,6 +75,16 @@ public class UserDbStorage implements UserRepository {
         return user;
     };
 
+    /**
+     * Загружает идентификаторы всех пользователей в битовую карту.
+     */
+    @PostConstruct
+    public void loadIds() {
+        userIds.clear();
+        jdbcTemplate.query("SELECT user_id FROM users", (RowCallbackHandler) rs -> userIds.add(rs.getInt("user_id")));
+        log.info("Загружены идентификаторы пользователей: {}", userIds.size());
+    }
+
     /**
      * Сохраняет нового пользователя в базе данных.
      *
@@ -46,22 +93,56 @@ public class UserDbStorage implements UserRepository {
      */
     @Override
     public User save(User user) {
-        String sql = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
 
         jdbcTemplate.update(connection -> {
-            PreparedStatement stmt = connection.prepareStatement(sql, new String[]{"user_id"});
-            stmt.setString(1, user.getEmail());
-            stmt.setString(2, user.getLogin());
-            stmt.setString(3, user.getName());
-            stmt.setDate(4, Date.valueOf(user.getBirthday()));
+            PreparedStatement stmt = connection.prepareStatement(INSERT_USER_SQL, new String[]{"user_id"});
+            setUserParameters(stmt, user);
             return stmt;
         }, keyHolder);
 
         user.setId(keyHolder.getKey().intValue());
+        userIds.addInTransaction(user.getId());
         return user;
     }
 
+    /**
+     * Сохраняет несколько новых пользователей пакетным запросом в одной транзакции.
+     *
+     * @param users пользователи для сохранения
+     * @return сохраненные пользователи с присвоенными ID
+     */
+    @Override
+    @Transactional
+    public List<User> saveAll(List<User> users) {
+        if (users.isEmpty()) {
+            return users;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_USER_SQL, new String[]{"user_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setUserParameters(ps, users.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            Number key = (Number) keys.get(i).values().iterator().next();
+            users.get(i).setId(key.intValue());
+            userIds.addInTransaction(key.intValue());
+        }
+        return users;
+    }
+
     /**
      * Обновляет существующего пользователя в базе данных.
      *
@@ -97,6 +178,23 @@ public class UserDbStorage implements UserRepository {
         return jdbcTemplate.query(sql, userRowMapper);
     }
 
+    /**
+     * Последовательно передает получателю всех пользователей, не накапливая их в памяти.
+     * Строки читаются однонаправленным курсором порциями по exportFetchSize.
+     *
+     * @param consumer получатель пользователей
+     */
+    @Override
+    public void streamAll(Consumer<User> consumer) {
+        String sql = "SELECT * FROM users ORDER BY user_id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement stmt = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(exportFetchSize);
+            return stmt;
+        }, (RowCallbackHandler) rs -> consumer.accept(userRowMapper.mapRow(rs, rs.getRow())));
+    }
+
     /**
      * Находит пользователя по его идентификатору.
      *
@@ -114,16 +212,48 @@ public class UserDbStorage implements UserRepository {
     }
 
     /**
-     * Проверяет существование пользователя с указанным идентификатором.
+     * Находит пользователей по набору идентификаторов.
+     * Идентификаторы обрабатываются пачками, на каждую пачку выполняется один запрос.
+     *
+     * @param ids идентификаторы пользователей
+     * @return список найденных пользователей в порядке переданных идентификаторов
+     */
+    @Override
+    public List<User> findAllByIds(Collection<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Integer> idList = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, User> usersById = new HashMap<>();
+        for (int from = 0; from < idList.size(); from += IN_BATCH_SIZE) {
+            List<Integer> batch = idList.subList(from, Math.min(from + IN_BATCH_SIZE, idList.size()));
+            String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+            jdbcTemplate.query("SELECT * FROM users WHERE user_id IN (" + placeholders + ")",
+                    (RowCallbackHandler) rs -> {
+                        User user = userRowMapper.mapRow(rs, rs.getRow());
+                        usersById.put(user.getId(), user);
+                    }, batch.toArray());
+        }
+
+        List<User> result = new ArrayList<>(idList.size());
+        for (Integer id : idList) {
+            User user = usersById.get(id);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Проверяет существование пользователя с указанным идентификатором по битовой карте в памяти.
      *
      * @param id идентификатор пользователя
      * @return true, если пользователь существует, иначе false
      */
     @Override
     public boolean existsById(Integer id) {
-        String sql = "SELECT COUNT(*) FROM users WHERE user_id = ?";
-        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, id);
-        return count != null && count > 0;
+        return userIds.contains(id);
     }
 
     /**
@@ -136,6 +266,23 @@ public class UserDbStorage implements UserRepository {
     public boolean deleteById(Integer id) {
         String sql = "DELETE FROM users WHERE user_id = ?";
         int deleted = jdbcTemplate.update(sql, id);
+        if (deleted > 0) {
+            userIds.removeInTransaction(id);
+        }
         return deleted > 0;
     }
-}
\ No newline at end of file
+
+    /**
+     * Заполняет параметры запроса INSERT_USER_SQL данными пользователя.
+     *
+     * @param stmt подготовленный запрос
+     * @param user пользователь
+     * @throws SQLException при ошибке установки параметров
+     */
+    private void setUserParameters(PreparedStatement stmt, User user) throws SQLException {
+        stmt.setString(1, user.getEmail());
+        stmt.setString(2, user.getLogin());
+        stmt.setString(3, user.getName());
+        stmt.setDate(4, Date.valueOf(user.getBirthday()));
+    }
+}
@@ -3,17 +3,25 @@ package ru.yandex.practicum.filmorate.repository;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface UserRepository {
     User save(User user);
 
+    List<User> saveAll(List<User> users);
+
     User update(User user);
 
     Collection<User> findAll();
 
+    void streamAll(Consumer<User> consumer);
+
     Optional<User> findById(Integer id);
 
+    List<User> findAllByIds(Collection<Integer> ids);
+
     boolean existsById(Integer id);
 
     boolean deleteById(Integer id);
@@ -1,11 +1,15 @@
 package ru.yandex.practicum.filmorate.service;
 
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.FilmFilterResult;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс сервиса для работы с фильмами.
@@ -23,6 +27,14 @@ public interface FilmService {
      */
     Film createFilm(Film film) throws ValidationException;
 
+    /**
+     * Создает несколько фильмов одним пакетом.
+     *
+     * @param films фильмы для создания
+     * @return созданные фильмы и ошибки по отдельным элементам
+     */
+    BatchResult<Film> createFilms(List<Film> films);
+
     /**
      * Обновляет существующий фильм.
      *
@@ -39,6 +51,30 @@ public interface FilmService {
      */
     Collection<Film> getAllFilms();
 
+    /**
+     * Возвращает фильмы по набору идентификаторов.
+     *
+     * @param ids идентификаторы фильмов
+     * @return найденные фильмы в порядке переданных идентификаторов
+     */
+    List<Film> getFilmsByIds(Collection<Integer> ids);
+
+    /**
+     * Отбирает фильмы по жанру, рейтингу MPA и диапазону годов релиза.
+     *
+     * @param filter параметры фильтрации
+     * @return первые count отобранных фильмов, их общее количество и распределение по фасетам
+     * @throws ValidationException если параметры фильтрации некорректны
+     */
+    FilmFilterResult getFilms(FilmFilter filter) throws ValidationException;
+
+    /**
+     * Последовательно передает получателю всех фильмов без загрузки всей коллекции в память.
+     *
+     * @param consumer получатель
+     */
+    void streamAllFilms(Consumer<Film> consumer);
+
     /**
      * Находит фильм по его идентификатору.
      *
@@ -72,10 +108,32 @@ public interface FilmService {
     void removeLike(Integer filmId, Integer userId);
 
     /**
-     * Возвращает список популярных фильмов.
+     * Возвращает список популярных фильмов, при необходимости только заданного жанра и года релиза.
      *
-     * @param count количество фильмов (по умолчанию 10)
+     * @param count   количество фильмов (по умолчанию 10)
+     * @param genreId идентификатор жанра или null для любого жанра
+     * @param year    год релиза или null для любого года
      * @return список популярных фильмов
      */
-    List<Film> getPopularFilms(Integer count);
-}
\ No newline at end of file
+    List<Film> getPopularFilms(Integer count, Integer genreId, Integer year);
+
+    /**
+     * Возвращает фильмы, получившие больше всего лайков за последнее время.
+     *
+     * @param window временное окно: 1h, 24h или 7d (по умолчанию 24h)
+     * @param count  количество фильмов (по умолчанию 10)
+     * @return список фильмов в порядке убывания лайков за окно
+     * @throws ValidationException если окно не поддерживается
+     */
+    List<Film> getTrendingFilms(String window, Integer count) throws ValidationException;
+
+    /**
+     * Ищет фильмы по словам в названии и описании.
+     *
+     * @param query поисковый запрос
+     * @param count максимальное количество фильмов (по умолчанию 10)
+     * @return список найденных фильмов в порядке убывания релевантности
+     * @throws ValidationException если запрос пустой
+     */
+    List<Film> searchFilms(String query, Integer count) throws ValidationException;
+}
@@ -1,23 +1,48 @@
 package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.index.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchItemError;
+import ru.yandex.practicum.filmorate.model.BatchResult;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.FilmFilterResult;
 import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
 import ru.yandex.practicum.filmorate.repository.*;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 
 /**
  * Реализация сервиса для работы с фильмами.
  * Использует репозитории для работы с данными и реализует бизнес-логику.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FilmServiceImpl implements FilmService {
@@ -25,8 +50,20 @@ public class FilmServiceImpl implements FilmService {
     private final FilmRepository filmRepository;
     private final UserRepository userRepository;
     private final LikeRepository likeRepository;
-    private final MpaRatingRepository mpaRatingRepository;
-    private final GenreRepository genreRepository;
+    private final ReferenceDataCache referenceDataCache;
+    private final EntityCache entityCache;
+    private final EntityVersions entityVersions;
+    private final FilmPopularityIndex popularityIndex;
+    private final FilmSearchIndex searchIndex;
+    private final FilmFacetIndex facetIndex;
+    private final LikeMatrix likeMatrix;
+    private final TrendingIndex trendingIndex;
+
+    /**
+     * Количество фильмов, сохраняемых в одной транзакции при пакетном создании.
+     */
+    @Value("${filmorate.import.chunk-size:1000}")
+    private int importChunkSize;
 
     /**
      * Создает новый фильм.
@@ -39,7 +76,60 @@ public class FilmServiceImpl implements FilmService {
     @Override
     public Film createFilm(Film film) throws ValidationException, NotFoundException {
         validateFilm(film);
-        return filmRepository.save(film);
+        Film created = filmRepository.save(film);
+        popularityIndex.indexFilm(created);
+        searchIndex.indexFilm(created);
+        facetIndex.indexFilm(created);
+        entityVersions.filmChanged(created.getId());
+        return created;
+    }
+
+    /**
+     * Создает несколько фильмов одним пакетом.
+     * Все фильмы проверяются заранее по кэшу справочников,
+     * корректные фильмы сохраняются частями по importChunkSize в отдельных транзакциях.
+     *
+     * @param films фильмы для создания
+     * @return созданные фильмы и ошибки по отдельным элементам
+     */
+    @Override
+    public BatchResult<Film> createFilms(List<Film> films) {
+        BatchResult<Film> result = new BatchResult<>();
+        List<Film> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            try {
+                validateFilm(film);
+                valid.add(film);
+                validIndexes.add(i);
+            } catch (ValidationException | NotFoundException e) {
+                result.getErrors().add(new BatchItemError(i, e.getMessage()));
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += importChunkSize) {
+            int to = Math.min(from + importChunkSize, valid.size());
+            List<Film> chunk = new ArrayList<>(valid.subList(from, to));
+            try {
+                List<Integer> savedIds = new ArrayList<>(chunk.size());
+                filmRepository.saveAll(chunk).forEach(film -> {
+                    popularityIndex.indexFilm(film);
+                    searchIndex.indexFilm(film);
+                    facetIndex.indexFilm(film);
+                    result.getCreated().add(film);
+                    savedIds.add(film.getId());
+                });
+                entityVersions.filmsChanged(savedIds);
+            } catch (DataAccessException e) {
+                log.error("Не удалось сохранить пакет фильмов", e);
+                for (Integer index : validIndexes.subList(from, to)) {
+                    result.getErrors().add(new BatchItemError(index, "Ошибка сохранения: " + e.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        result.getErrors().sort(Comparator.comparing(BatchItemError::getIndex));
+        return result;
     }
 
     /**
@@ -56,7 +146,12 @@ public class FilmServiceImpl implements FilmService {
         if (!filmRepository.existsById(film.getId())) {
             throw new NotFoundException(String.format("Фильм с id = %d не найден", film.getId()));
         }
-        return filmRepository.update(film);
+        Film updated = filmRepository.update(film);
+        popularityIndex.indexFilm(updated);
+        searchIndex.indexFilm(updated);
+        facetIndex.indexFilm(updated);
+        entityVersions.filmChanged(updated.getId());
+        return updated;
     }
 
     /**
@@ -69,6 +164,62 @@ public class FilmServiceImpl implements FilmService {
         return filmRepository.findAll();
     }
 
+    /**
+     * Возвращает фильмы по набору идентификаторов одним пакетным запросом.
+     *
+     * @param ids идентификаторы фильмов
+     * @return найденные фильмы в порядке переданных идентификаторов
+     */
+    @Override
+    public List<Film> getFilmsByIds(Collection<Integer> ids) {
+        return filmRepository.findAllByIds(ids);
+    }
+
+    /**
+     * Отбирает фильмы по жанру, рейтингу MPA и диапазону годов релиза.
+     * Отбор выполняется по фасетному индексу, из базы данных загружаются только первые count отобранных фильмов,
+     * фасеты при этом считаются по всей выборке.
+     *
+     * @param filter параметры фильтрации
+     * @return первые count отобранных фильмов, их общее количество и распределение по фасетам
+     * @throws ValidationException если параметры фильтрации некорректны
+     */
+    @Override
+    public FilmFilterResult getFilms(FilmFilter filter) throws ValidationException {
+        if (filter.getSort() != null && !FilmFilter.SORT_POPULAR.equals(filter.getSort())) {
+            throw new ValidationException("Неизвестный порядок сортировки: " + filter.getSort());
+        }
+        if (filter.getYearFrom() != null && filter.getYearTo() != null && filter.getYearFrom() > filter.getYearTo()) {
+            throw new ValidationException("Начальный год не может быть больше конечного");
+        }
+        int count = filter.getCount() == null || filter.getCount() <= 0 ? 10 : filter.getCount();
+
+        FilmFacetIndex.Selection selection = facetIndex.select(filter);
+        BitSet selected = selection.filmIds();
+        List<Integer> filmIds;
+        if (FilmFilter.SORT_POPULAR.equals(filter.getSort())) {
+            // Все отобранные фильмы входят в раздел рейтинга по жанру и, если диапазон из одного года, по году
+            Integer year = Objects.equals(filter.getYearFrom(), filter.getYearTo()) ? filter.getYearFrom() : null;
+            filmIds = popularityIndex.getTopFilmIds(count, selected, filter.getGenre(), year);
+        } else {
+            filmIds = new ArrayList<>(Math.min(count, selected.cardinality()));
+            for (int id = selected.nextSetBit(0); id >= 0 && filmIds.size() < count; id = selected.nextSetBit(id + 1)) {
+                filmIds.add(id);
+            }
+        }
+        return new FilmFilterResult(selected.cardinality(), filmRepository.findAllByIds(filmIds), selection.facets());
+    }
+
+    /**
+     * Последовательно передает получателю всех фильмов без загрузки всей коллекции в память.
+     *
+     * @param consumer получатель
+     */
+    @Override
+    public void streamAllFilms(Consumer<Film> consumer) {
+        filmRepository.streamAll(consumer);
+    }
+
     /**
      * Находит фильм по его идентификатору.
      *
@@ -88,17 +239,56 @@ public class FilmServiceImpl implements FilmService {
      */
     @Override
     public boolean deleteFilm(Integer id) {
-        return filmRepository.deleteById(id);
+        boolean deleted = filmRepository.deleteById(id);
+        if (deleted) {
+            popularityIndex.removeFilm(id);
+            searchIndex.removeFilm(id);
+            facetIndex.removeFilm(id);
+            likeMatrix.removeFilm(id);
+            trendingIndex.removeFilm(id);
+            entityVersions.filmChanged(id);
+        }
+        return deleted;
     }
 
     /**
      * Проверяет валидность данных фильма.
+     * Доступен в пакете, чтобы бенчмарки могли измерять проверку отдельно от сохранения.
      *
      * @param film объект фильма для валидации
      * @throws ValidationException если данные фильма не прошли валидацию
      * @throws NotFoundException если MPA или жанр не найдены
      */
-    private void validateFilm(Film film) throws ValidationException {
+    void validateFilm(Film film) throws ValidationException {
+        validateFilmFields(film);
+
+        // Проверка MPA по кэшу справочников с подстановкой названия
+        if (film.getMpa() != null && film.getMpa().getId() != null) {
+            Integer mpaId = film.getMpa().getId();
+            film.setMpa(referenceDataCache.findMpa(mpaId)
+                    .orElseThrow(() -> new NotFoundException(String.format("Рейтинг MPA с id = %d не найден", mpaId))));
+        }
+
+        // Проверка жанров по кэшу справочников: без повторов, по возрастанию ID
+        if (film.getGenres() != null) {
+            Set<Genre> genres = new TreeSet<>(Comparator.comparing(Genre::getId));
+            for (Genre genre : film.getGenres()) {
+                if (genre.getId() != null) {
+                    genres.add(referenceDataCache.findGenre(genre.getId())
+                            .orElseThrow(() -> new NotFoundException(String.format("Жанр с id = %d не найден", genre.getId()))));
+                }
+            }
+            film.setGenres(new LinkedHashSet<>(genres));
+        }
+    }
+
+    /**
+     * Проверяет поля фильма, не требующие обращения к справочникам.
+     *
+     * @param film объект фильма для валидации
+     * @throws ValidationException если данные фильма не прошли валидацию
+     */
+    private void validateFilmFields(Film film) throws ValidationException {
         if (film.getName() == null || film.getName().isEmpty()) {
             throw new ValidationException("Название фильма не может быть пустым");
         }
@@ -107,28 +297,16 @@ public class FilmServiceImpl implements FilmService {
             throw new ValidationException("Максимальная длина описания — 200 символов");
         }
 
-        if (film.getReleaseDate() != null && film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
-            throw new ValidationException("Дата релиза — не раньше 28 декабря 1895 года");
+        if (film.getReleaseDate() == null) {
+            throw new ValidationException("Дата релиза должна быть указана");
         }
 
-        if (film.getDuration() != null && film.getDuration() <= 0) {
-            throw new ValidationException("Продолжительность фильма должна быть положительной");
-        }
-
-        // Проверка MPA
-        if (film.getMpa() != null && film.getMpa().getId() != null) {
-            if (!mpaRatingRepository.findById(film.getMpa().getId()).isPresent()) {
-                throw new NotFoundException(String.format("Рейтинг MPA с id = %d не найден", film.getMpa().getId()));
-            }
+        if (film.getReleaseDate().isBefore(LocalDate.of(1895, 12, 28))) {
+            throw new ValidationException("Дата релиза — не раньше 28 декабря 1895 года");
         }
 
-        // Проверка жанров
-        if (film.getGenres() != null) {
-            for (Genre genre : film.getGenres()) {
-                if (genre.getId() != null && !genreRepository.findById(genre.getId()).isPresent()) {
-                    throw new NotFoundException(String.format("Жанр с id = %d не найден", genre.getId()));
-                }
-            }
+        if (film.getDuration() == null || film.getDuration() <= 0) {
+            throw new ValidationException("Продолжительность фильма должна быть положительной");
         }
     }
 
@@ -148,7 +326,13 @@ public class FilmServiceImpl implements FilmService {
             throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
         }
 
-        likeRepository.addLike(filmId, userId);
+        if (likeRepository.addLike(filmId, userId)) {
+            popularityIndex.incrementLikes(filmId);
+            likeMatrix.addLike(filmId, userId);
+            trendingIndex.addLike(filmId);
+            entityCache.evictFilm(filmId);
+            entityVersions.filmChanged(filmId);
+        }
     }
 
     /**
@@ -167,29 +351,73 @@ public class FilmServiceImpl implements FilmService {
             throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
         }
 
-        likeRepository.removeLike(filmId, userId);
+        Optional<Instant> createdAt = likeRepository.removeLike(filmId, userId);
+        if (createdAt.isPresent()) {
+            popularityIndex.decrementLikes(filmId);
+            likeMatrix.removeLike(filmId, userId);
+            trendingIndex.removeLike(filmId, createdAt.get());
+            entityCache.evictFilm(filmId);
+            entityVersions.filmChanged(filmId);
+        }
     }
 
     /**
-     * Возвращает список популярных фильмов.
+     * Возвращает список популярных фильмов, при необходимости только заданного жанра и года релиза.
+     * Порядок берется из рейтинга соответствующего раздела индекса популярности,
+     * без подсчета лайков в базе данных и без перебора фильмов.
      *
-     * @param count количество фильмов (по умолчанию 10)
+     * @param count   количество фильмов (по умолчанию 10)
+     * @param genreId идентификатор жанра или null
+     * @param year    год релиза или null
      * @return список популярных фильмов
      */
     @Override
-    public List<Film> getPopularFilms(Integer count) {
+    public List<Film> getPopularFilms(Integer count, Integer genreId, Integer year) {
+        if (count == null || count <= 0) {
+            count = 10;
+        }
+
+        return filmRepository.findAllByIds(popularityIndex.getTopFilmIds(count, genreId, year));
+    }
+
+    /**
+     * Возвращает фильмы, получившие больше всего лайков за последнее время.
+     * Порядок берется из индекса трендов, без подсчета лайков в базе данных.
+     *
+     * @param window временное окно: 1h, 24h или 7d (по умолчанию 24h)
+     * @param count  количество фильмов (по умолчанию 10)
+     * @return список фильмов в порядке убывания лайков за окно
+     * @throws ValidationException если окно не поддерживается
+     */
+    @Override
+    public List<Film> getTrendingFilms(String window, Integer count) throws ValidationException {
+        TrendingWindow trendingWindow = window == null ? TrendingWindow.DAY : TrendingWindow.fromValue(window)
+                .orElseThrow(() -> new ValidationException("Окно должно быть одним из: 1h, 24h, 7d"));
+        if (count == null || count <= 0) {
+            count = 10;
+        }
+
+        return filmRepository.findAllByIds(trendingIndex.getTopFilmIds(trendingWindow, count));
+    }
+
+    /**
+     * Ищет фильмы по словам в названии и описании.
+     * Порядок определяется релевантностью с учетом популярности фильма.
+     *
+     * @param query поисковый запрос
+     * @param count максимальное количество фильмов (по умолчанию 10)
+     * @return список найденных фильмов
+     * @throws ValidationException если запрос пустой
+     */
+    @Override
+    public List<Film> searchFilms(String query, Integer count) throws ValidationException {
+        if (query == null || query.isBlank()) {
+            throw new ValidationException("Поисковый запрос не может быть пустым");
+        }
         if (count == null || count <= 0) {
             count = 10;
         }
 
-        Collection<Film> allFilms = filmRepository.findAll();
-        return allFilms.stream()
-                .sorted((f1, f2) -> {
-                    int likes1 = likeRepository.getLikesCount(f1.getId());
-                    int likes2 = likeRepository.getLikesCount(f2.getId());
-                    return Integer.compare(likes2, likes1);
-                })
-                .limit(count)
-                .collect(Collectors.toList());
+        return filmRepository.findAllByIds(searchIndex.search(query, count));
     }
-}
\ No newline at end of file
+}
@@ -2,21 +2,21 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.model.Genre;
-import ru.yandex.practicum.filmorate.repository.GenreRepository;
 
 import java.util.Collection;
 import java.util.Optional;
 
 /**
  * Реализация сервиса для работы с жанрами фильмов.
- * Использует репозиторий для получения данных из хранилища.
+ * Данные берутся из кэша справочников без обращения к базе данных.
  */
 @Service
 @RequiredArgsConstructor
 public class GenreServiceImpl implements GenreService {
 
-    private final GenreRepository genreRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * Возвращает коллекцию всех жанров.
@@ -25,7 +25,7 @@ public class GenreServiceImpl implements GenreService {
      */
     @Override
     public Collection<Genre> getAllGenres() {
-        return genreRepository.findAll();
+        return referenceDataCache.getGenres();
     }
 
     /**
@@ -36,6 +36,6 @@ public class GenreServiceImpl implements GenreService {
      */
     @Override
     public Optional<Genre> getGenreById(Integer id) {
-        return genreRepository.findById(id);
+        return referenceDataCache.findGenre(id);
     }
 }
\ No newline at end of file
@@ -2,21 +2,21 @@ package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
 import ru.yandex.practicum.filmorate.model.MpaRating;
-import ru.yandex.practicum.filmorate.repository.MpaRatingRepository;
 
 import java.util.Collection;
 import java.util.Optional;
 
 /**
  * Реализация сервиса для работы с рейтингами MPA.
- * Использует репозиторий для получения данных из хранилища.
+ * Данные берутся из кэша справочников без обращения к базе данных.
  */
 @Service
 @RequiredArgsConstructor
 public class MpaRatingServiceImpl implements MpaRatingService {
 
-    private final MpaRatingRepository mpaRatingRepository;
+    private final ReferenceDataCache referenceDataCache;
 
     /**
      * Возвращает коллекцию всех рейтингов MPA.
@@ -25,7 +25,7 @@ public class MpaRatingServiceImpl implements MpaRatingService {
      */
     @Override
     public Collection<MpaRating> getAllMpaRatings() {
-        return mpaRatingRepository.findAll();
+        return referenceDataCache.getMpaRatings();
     }
 
     /**
@@ -36,6 +36,6 @@ public class MpaRatingServiceImpl implements MpaRatingService {
      */
     @Override
     public Optional<MpaRating> getMpaRatingById(Integer id) {
-        return mpaRatingRepository.findById(id);
+        return referenceDataCache.findMpa(id);
     }
 }
\ No newline at end of file
@@ -1,10 +1,14 @@
 package ru.yandex.practicum.filmorate.service;
 
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Интерфейс сервиса для работы с пользователями.
@@ -22,6 +26,14 @@ public interface UserService {
      */
     User createUser(User user) throws ValidationException;
 
+    /**
+     * Создает несколько пользователей одним пакетом.
+     *
+     * @param users пользователи для создания
+     * @return созданные пользователи и ошибки по отдельным элементам
+     */
+    BatchResult<User> createUsers(List<User> users);
+
     /**
      * Обновляет существующего пользователя.
      *
@@ -38,6 +50,21 @@ public interface UserService {
      */
     Collection<User> getAllUsers();
 
+    /**
+     * Возвращает пользователей по набору идентификаторов.
+     *
+     * @param ids идентификаторы пользователей
+     * @return найденные пользователи в порядке переданных идентификаторов
+     */
+    List<User> getUsersByIds(Collection<Integer> ids);
+
+    /**
+     * Последовательно передает получателю всех пользователей без загрузки всей коллекции в память.
+     *
+     * @param consumer получатель
+     */
+    void streamAllUsers(Consumer<User> consumer);
+
     /**
      * Находит пользователя по его идентификатору.
      *
@@ -86,4 +113,31 @@ public interface UserService {
      * @return список общих друзей
      */
     Collection<User> getCommonFriends(Integer userId, Integer otherId);
-}
\ No newline at end of file
+
+    /**
+     * Возвращает список общих друзей группы пользователей.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return список общих друзей
+     * @throws ValidationException если передано меньше двух пользователей
+     */
+    Collection<User> getCommonFriends(List<Integer> userIds) throws ValidationException;
+
+    /**
+     * Возвращает рекомендованные пользователю фильмы.
+     *
+     * @param userId идентификатор пользователя
+     * @param count максимальное количество фильмов (по умолчанию 10)
+     * @return список рекомендованных фильмов
+     */
+    List<Film> getRecommendations(Integer userId, Integer count);
+
+    /**
+     * Возвращает возможных друзей пользователя, упорядоченных по количеству общих друзей.
+     *
+     * @param userId идентификатор пользователя
+     * @param count максимальное количество пользователей (по умолчанию 10)
+     * @return список возможных друзей
+     */
+    List<User> getFriendSuggestions(Integer userId, Integer count);
+}
@@ -1,29 +1,61 @@
 package ru.yandex.practicum.filmorate.service;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
 import ru.yandex.practicum.filmorate.exception.NotFoundException;
 import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
+import ru.yandex.practicum.filmorate.model.BatchItemError;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.Friendship;
 import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.Like;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
 import ru.yandex.practicum.filmorate.repository.FriendshipRepository;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
 import ru.yandex.practicum.filmorate.repository.UserRepository;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Реализация сервиса для работы с пользователями.
  * Использует репозитории для работы с данными и реализует бизнес-логику.
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final FriendshipRepository friendshipRepository;
+    private final LikeRepository likeRepository;
+    private final FilmRepository filmRepository;
+    private final FilmPopularityIndex popularityIndex;
+    private final LikeMatrix likeMatrix;
+    private final FriendGraph friendGraph;
+    private final TrendingIndex trendingIndex;
+    private final EntityVersions entityVersions;
+
+    /**
+     * Количество пользователей, сохраняемых в одной транзакции при пакетном создании.
+     */
+    @Value("${filmorate.import.chunk-size:1000}")
+    private int importChunkSize;
 
     /**
      * Создает нового пользователя.
@@ -35,7 +67,51 @@ public class UserServiceImpl implements UserService {
     @Override
     public User createUser(User user) throws ValidationException {
         validateUser(user);
-        return userRepository.save(user);
+        User created = userRepository.save(user);
+        entityVersions.userChanged(created.getId());
+        return created;
+    }
+
+    /**
+     * Создает несколько пользователей одним пакетом.
+     * Все пользователи проверяются заранее, корректные сохраняются частями
+     * по importChunkSize в отдельных транзакциях.
+     *
+     * @param users пользователи для создания
+     * @return созданные пользователи и ошибки по отдельным элементам
+     */
+    @Override
+    public BatchResult<User> createUsers(List<User> users) {
+        BatchResult<User> result = new BatchResult<>();
+        List<User> valid = new ArrayList<>();
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < users.size(); i++) {
+            try {
+                validateUser(users.get(i));
+                valid.add(users.get(i));
+                validIndexes.add(i);
+            } catch (ValidationException e) {
+                result.getErrors().add(new BatchItemError(i, e.getMessage()));
+            }
+        }
+
+        for (int from = 0; from < valid.size(); from += importChunkSize) {
+            int to = Math.min(from + importChunkSize, valid.size());
+            List<User> chunk = new ArrayList<>(valid.subList(from, to));
+            try {
+                userRepository.saveAll(chunk).forEach(user -> {
+                    result.getCreated().add(user);
+                    entityVersions.userChanged(user.getId());
+                });
+            } catch (DataAccessException e) {
+                log.error("Не удалось сохранить пакет пользователей", e);
+                for (Integer index : validIndexes.subList(from, to)) {
+                    result.getErrors().add(new BatchItemError(index, "Ошибка сохранения: " + e.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        result.getErrors().sort(Comparator.comparing(BatchItemError::getIndex));
+        return result;
     }
 
     /**
@@ -51,7 +127,9 @@ public class UserServiceImpl implements UserService {
         if (!userRepository.existsById(user.getId())) {
             throw new NotFoundException(String.format("Пользователь с id = %d не найден", user.getId()));
         }
-        return userRepository.update(user);
+        User updated = userRepository.update(user);
+        entityVersions.userChanged(updated.getId());
+        return updated;
     }
 
     /**
@@ -64,6 +142,27 @@ public class UserServiceImpl implements UserService {
         return userRepository.findAll();
     }
 
+    /**
+     * Возвращает пользователей по набору идентификаторов одним пакетным запросом.
+     *
+     * @param ids идентификаторы пользователей
+     * @return найденные пользователи в порядке переданных идентификаторов
+     */
+    @Override
+    public List<User> getUsersByIds(Collection<Integer> ids) {
+        return userRepository.findAllByIds(ids);
+    }
+
+    /**
+     * Последовательно передает получателю всех пользователей без загрузки всей коллекции в память.
+     *
+     * @param consumer получатель
+     */
+    @Override
+    public void streamAllUsers(Consumer<User> consumer) {
+        userRepository.streamAll(consumer);
+    }
+
     /**
      * Находит пользователя по его идентификатору.
      *
@@ -77,13 +176,28 @@ public class UserServiceImpl implements UserService {
 
     /**
      * Удаляет пользователя по его идентификатору.
+     * Лайки пользователя удаляются каскадно, поэтому индексы популярности и трендов корректируются отдельно
+     * по лайкам, прочитанным до удаления.
      *
      * @param id идентификатор пользователя для удаления
      * @return true, если пользователь был удален, иначе false
      */
     @Override
     public boolean deleteUser(Integer id) {
-        return userRepository.deleteById(id);
+        List<Like> likes = likeRepository.getLikesByUser(id);
+        List<Integer> likedFilmIds = likes.stream().map(Like::getFilmId).toList();
+        boolean deleted = userRepository.deleteById(id);
+        if (deleted) {
+            likedFilmIds.forEach(popularityIndex::decrementLikes);
+            likes.forEach(like -> trendingIndex.removeLike(like.getFilmId(), like.getCreatedAt()));
+            likeMatrix.removeUser(id);
+            friendGraph.removeUser(id);
+            entityVersions.userChanged(id);
+            if (!likedFilmIds.isEmpty()) {
+                entityVersions.filmsChanged(likedFilmIds);
+            }
+        }
+        return deleted;
     }
 
     /**
@@ -132,6 +246,8 @@ public class UserServiceImpl implements UserService {
         friendship.setStatus(FriendshipStatus.PENDING);
 
         friendshipRepository.addFriendship(friendship);
+        friendGraph.addFriend(userId, friendId);
+        entityVersions.userChanged(userId);
     }
 
     /**
@@ -151,6 +267,8 @@ public class UserServiceImpl implements UserService {
         }
 
         friendshipRepository.removeFriendship(userId, friendId);
+        friendGraph.removeFriend(userId, friendId);
+        entityVersions.userChanged(userId);
     }
 
     /**
@@ -166,11 +284,7 @@ public class UserServiceImpl implements UserService {
             throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
         }
 
-        Collection<Integer> friendIds = friendshipRepository.getUserFriendsIds(userId);
-        return friendIds.stream()
-                .map(id -> userRepository.findById(id).orElse(null))
-                .filter(user -> user != null)
-                .collect(Collectors.toList());
+        return userRepository.findAllByIds(friendshipRepository.getUserFriendsIds(userId));
     }
 
     /**
@@ -190,10 +304,81 @@ public class UserServiceImpl implements UserService {
             throw new NotFoundException(String.format("Пользователь с id = %d не найден", otherId));
         }
 
-        Collection<Integer> commonFriendIds = friendshipRepository.getCommonFriendsIds(userId, otherId);
-        return commonFriendIds.stream()
-                .map(id -> userRepository.findById(id).orElse(null))
-                .filter(user -> user != null)
-                .collect(Collectors.toList());
+        return findCommonFriends(userId, otherId);
+    }
+
+    /**
+     * Возвращает список общих друзей группы пользователей.
+     *
+     * @param userIds идентификаторы пользователей
+     * @return список общих друзей
+     * @throws ValidationException если передано меньше двух пользователей
+     * @throws NotFoundException если один из пользователей не найден
+     */
+    @Override
+    public Collection<User> getCommonFriends(List<Integer> userIds) throws ValidationException {
+        if (userIds == null || userIds.size() < 2) {
+            throw new ValidationException("Для поиска общих друзей нужно указать не менее двух пользователей");
+        }
+        for (Integer userId : userIds) {
+            if (!userRepository.existsById(userId)) {
+                throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
+            }
+        }
+
+        return findCommonFriends(userIds.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Пересекает списки друзей по графу дружбы в памяти и загружает найденных пользователей одним запросом.
+     *
+     * @param userIds идентификаторы существующих пользователей
+     * @return список общих друзей
+     */
+    private List<User> findCommonFriends(int... userIds) {
+        int[] commonFriendIds = friendGraph.getCommonFriends(userIds);
+        return userRepository.findAllByIds(Arrays.stream(commonFriendIds).boxed().toList());
+    }
+
+    /**
+     * Возвращает рекомендованные пользователю фильмы: понравившиеся пользователям
+     * с наиболее похожими лайками и еще не оцененные им самим.
+     *
+     * @param userId идентификатор пользователя
+     * @param count максимальное количество фильмов (по умолчанию 10)
+     * @return список рекомендованных фильмов
+     * @throws NotFoundException если пользователь не найден
+     */
+    @Override
+    public List<Film> getRecommendations(Integer userId, Integer count) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
+        }
+        if (count == null || count <= 0) {
+            count = 10;
+        }
+
+        return filmRepository.findAllByIds(likeMatrix.recommendFilms(userId, count));
+    }
+
+    /**
+     * Возвращает возможных друзей пользователя: друзей его друзей, упорядоченных
+     * по убыванию количества общих друзей.
+     *
+     * @param userId идентификатор пользователя
+     * @param count максимальное количество пользователей (по умолчанию 10)
+     * @return список возможных друзей
+     * @throws NotFoundException если пользователь не найден
+     */
+    @Override
+    public List<User> getFriendSuggestions(Integer userId, Integer count) {
+        if (!userRepository.existsById(userId)) {
+            throw new NotFoundException(String.format("Пользователь с id = %d не найден", userId));
+        }
+        if (count == null || count <= 0) {
+            count = 10;
+        }
+
+        return userRepository.findAllByIds(Arrays.stream(friendGraph.suggestFriends(userId, count)).boxed().toList());
     }
-}
\ No newline at end of file
+}
@@ -47,13 +47,22 @@ CREATE TABLE IF NOT EXISTS film_genres
 -- Создание таблицы лайков (многие ко многим)
 CREATE TABLE IF NOT EXISTS likes
 (
-    film_id INTEGER,
-    user_id INTEGER,
+    film_id    INTEGER,
+    user_id    INTEGER,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL,
     PRIMARY KEY (film_id, user_id),
     FOREIGN KEY (film_id) REFERENCES films (film_id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users (user_id) ON DELETE CASCADE
 );
 
+-- Время лайка для баз данных, созданных до появления столбца.
+-- Существующие лайки получают время начала эпохи, чтобы не попасть в окна трендов как только что поставленные,
+-- новые лайки - текущее время
+ALTER TABLE likes ADD COLUMN IF NOT EXISTS created_at TIMESTAMP DEFAULT TIMESTAMP '1970-01-01 00:00:00' NOT NULL;
+ALTER TABLE likes ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_likes_created_at ON likes (created_at);
+
 -- Создание таблицы дружбы между пользователями
 CREATE TABLE IF NOT EXISTS friendships
 (
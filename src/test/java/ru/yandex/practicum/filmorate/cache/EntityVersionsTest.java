@@ -0,0 +1,107 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для EntityVersions.
+ * Проверяют смену ETag при изменениях и неизменность ETag несвязанных сущностей.
+ */
+class EntityVersionsTest {
+
+    private final ReferenceDataCache referenceDataCache = mock(ReferenceDataCache.class);
+    private final EntityVersions versions = new EntityVersions(referenceDataCache);
+
+    /**
+     * Тест смены ETag фильма и коллекций фильмов при изменении фильма.
+     */
+    @Test
+    void testFilmChangeAdvancesFilmAndCollectionTags() {
+        String filmTag = versions.filmTag(1);
+        String otherTag = versions.filmTag(2);
+        String collectionTag = versions.filmCollectionTag();
+
+        versions.filmChanged(1);
+
+        assertThat(versions.filmTag(1)).isNotEqualTo(filmTag).startsWith("\"f1-").endsWith("\"");
+        assertThat(versions.filmTag(2)).isEqualTo(otherTag);
+        assertThat(versions.filmCollectionTag()).isNotEqualTo(collectionTag);
+        assertThat(versions.filmTag(1)).isEqualTo(versions.filmTag(1));
+    }
+
+    /**
+     * Тест того, что ETag не возвращается к выданному ранее значению после нескольких изменений.
+     */
+    @Test
+    void testTagsNeverRepeat() {
+        String initial = versions.filmTag(1);
+        versions.filmChanged(1);
+        String created = versions.filmTag(1);
+
+        versions.filmsChanged(List.of(1, 3));
+
+        assertThat(versions.filmTag(1)).isNotIn(initial, created);
+        assertThat(versions.filmTag(3)).isNotEqualTo(versions.filmTag(1));
+    }
+
+    /**
+     * Тест того, что после одновременных изменений ETag коллекций соответствует последнему изменению,
+     * а не откатывается к версии, опубликованной позже, но выданной раньше.
+     */
+    @Test
+    void testConcurrentChangesPublishLatestCollectionVersion() throws InterruptedException {
+        int threads = 4;
+        int changes = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int filmId = t;
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < changes; i++) {
+                    versions.filmChanged(filmId);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertThat(versions.filmCollectionTag()).endsWith("-" + threads * changes + "\"");
+    }
+
+    /**
+     * Тест смены ETag пользователя без влияния на ETag фильмов.
+     */
+    @Test
+    void testUserChangeDoesNotAffectFilmTags() {
+        String userTag = versions.userTag(1);
+        String filmTag = versions.filmTag(1);
+        String collectionTag = versions.filmCollectionTag();
+
+        versions.userChanged(1);
+
+        assertThat(versions.userTag(1)).isNotEqualTo(userTag);
+        assertThat(versions.filmTag(1)).isEqualTo(filmTag);
+        assertThat(versions.filmCollectionTag()).isEqualTo(collectionTag);
+    }
+
+    /**
+     * Тест смены ETag справочников вместе с версией кэша справочников.
+     */
+    @Test
+    void testReferenceDataTagFollowsCacheVersion() {
+        when(referenceDataCache.getVersion()).thenReturn(1L);
+        String tag = versions.referenceDataTag();
+
+        when(referenceDataCache.getVersion()).thenReturn(2L);
+
+        assertThat(versions.referenceDataTag()).isNotEqualTo(tag);
+    }
+}
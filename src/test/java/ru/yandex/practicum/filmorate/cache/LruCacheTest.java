@@ -0,0 +1,90 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для LruCache.
+ * Проверяют вытеснение, статистику и защиту от записи устаревших значений.
+ */
+class LruCacheTest {
+
+    /**
+     * Тест вытеснения давно не использовавшейся записи.
+     */
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>(2);
+        cache.put(1, "a", cache.stamp());
+        cache.put(2, "b", cache.stamp());
+        cache.get(1);
+        cache.put(3, "c", cache.stamp());
+
+        assertThat(cache.get(2)).isNull();
+        assertThat(cache.get(1)).isEqualTo("a");
+        assertThat(cache.get(3)).isEqualTo("c");
+        assertThat(cache.stats()).isEqualTo(new CacheStats(3, 1, 1, 2));
+    }
+
+    /**
+     * Тест отклонения значения, загруженного до инвалидации.
+     */
+    @Test
+    void testRejectsValueLoadedBeforeInvalidation() {
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp();
+        cache.invalidate(1);
+        cache.put(1, "устаревшее", stamp);
+
+        assertThat(cache.get(1)).isNull();
+
+        cache.put(1, "актуальное", cache.stamp());
+        assertThat(cache.get(1)).isEqualTo("актуальное");
+    }
+
+    /**
+     * Тест того, что инвалидация другого ключа во время загрузки не мешает записать значение.
+     */
+    @Test
+    void testInvalidationOfAnotherKeyDoesNotRejectValue() {
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp();
+        cache.invalidate(7);
+        cache.put(8, "восьмой", stamp);
+
+        assertThat(cache.get(8)).isEqualTo("восьмой");
+    }
+
+    /**
+     * Тест отклонения значений, загруженных до очистки кэша.
+     */
+    @Test
+    void testRejectsValueLoadedBeforeClear() {
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp();
+        cache.clear();
+        cache.put(1, "устаревшее", stamp);
+
+        assertThat(cache.get(1)).isNull();
+    }
+
+    /**
+     * Тест того, что вытеснение версии инвалидации не пропускает устаревшее значение.
+     */
+    @Test
+    void testEvictedTombstoneStillRejectsOlderValue() {
+        LruCache<Integer, String> cache = new LruCache<>(10);
+        long stamp = cache.stamp();
+        cache.invalidate(1);
+        for (int key = 2; key <= LruCache.MAX_TOMBSTONES + 1; key++) {
+            cache.invalidate(key);
+        }
+        cache.put(1, "устаревшее", stamp);
+
+        assertThat(cache.get(1)).isNull();
+
+        cache.put(1, "актуальное", cache.stamp());
+        assertThat(cache.get(1)).isEqualTo("актуальное");
+    }
+}
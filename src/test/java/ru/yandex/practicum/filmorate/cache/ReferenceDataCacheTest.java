@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.metrics.QueryLog;
+import ru.yandex.practicum.filmorate.metrics.QueryTracker;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.repository.GenreDbStorage;
+import ru.yandex.practicum.filmorate.repository.MpaRatingDbStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.metrics.QueryAssert.assertThatQueries;
+
+/**
+ * Интеграционные тесты для ReferenceDataCache.
+ * Проверяют загрузку справочников и обслуживание запросов без обращения к базе данных.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({ReferenceDataCache.class, GenreDbStorage.class, MpaRatingDbStorage.class, QueryTracker.class})
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private ReferenceDataCache cache;
+
+    @Autowired
+    private QueryTracker queryTracker;
+
+    /**
+     * Тест поиска справочных данных без запросов к базе данных.
+     */
+    @Test
+    void testLookupsDoNotQueryDatabase() {
+        try (QueryLog queries = queryTracker.start()) {
+            assertThat(cache.getGenres()).extracting(Genre::getId).containsExactly(1, 2, 3, 4, 5, 6);
+            assertThat(cache.getMpaRatings()).extracting(MpaRating::getName)
+                    .containsExactly("G", "PG", "PG-13", "R", "NC-17");
+            assertThat(cache.findGenre(2)).contains(Genre.DRAMA);
+            assertThat(cache.findMpa(5)).contains(MpaRating.NC17);
+            assertThat(cache.findGenre(0)).isEmpty();
+            assertThat(cache.findGenre(100)).isEmpty();
+            assertThat(cache.findMpa(null)).isEmpty();
+
+            assertThatQueries(queries).hasCount(0);
+        }
+    }
+
+    /**
+     * Тест увеличения версии справочников при повторной загрузке.
+     */
+    @Test
+    void testReloadAdvancesVersion() {
+        long version = cache.getVersion();
+
+        cache.reload();
+
+        assertThat(version).isPositive();
+        assertThat(cache.getVersion()).isEqualTo(version + 1);
+    }
+}
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для DatasetGenerator.
+ * Проверяют воспроизводимость данных, их целостность и дозапись в непустую базу данных.
+ */
+class DatasetGeneratorTest {
+
+    /**
+     * Тест совпадения данных при одинаковом seed и разном количестве потоков.
+     */
+    @Test
+    void testSameSeedGivesSameDataRegardlessOfThreads() {
+        DatasetSpec spec = spec();
+        spec.setThreads(1);
+        JdbcTemplate first = generate(spec);
+        spec.setThreads(4);
+        JdbcTemplate second = generate(spec);
+
+        for (String sql : List.of(
+                "SELECT film_id, user_id FROM likes ORDER BY film_id, user_id",
+                "SELECT user_id, friend_id FROM friendships ORDER BY user_id, friend_id",
+                "SELECT film_id, name, release_date, mpa_rating_id FROM films ORDER BY film_id",
+                "SELECT film_id, genre_id FROM film_genres ORDER BY film_id, genre_id")) {
+            assertThat(second.queryForList(sql)).as(sql).isEqualTo(first.queryForList(sql));
+        }
+    }
+
+    /**
+     * Тест количества и целостности сгенерированных данных.
+     */
+    @Test
+    void testGeneratedDataIsConsistent() {
+        DatasetSpec spec = spec();
+        DataSourceHolder holder = new DataSourceHolder();
+        DatasetGenerator.Result result = holder.generator.generate(spec);
+        JdbcTemplate jdbcTemplate = holder.jdbcTemplate;
+
+        assertThat(result.users()).isEqualTo(spec.getUsers());
+        assertThat(result.films()).isEqualTo(spec.getFilms());
+        assertThat(count(jdbcTemplate, "likes")).isEqualTo(result.likes()).isPositive();
+        assertThat(count(jdbcTemplate, "friendships")).isEqualTo(result.friendships()).isPositive();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM friendships WHERE user_id = friend_id",
+                Long.class)).isZero();
+
+        // Самый популярный фильм заметно популярнее медианного
+        List<Integer> likesPerFilm = jdbcTemplate.queryForList(
+                "SELECT COUNT(*) FROM likes GROUP BY film_id ORDER BY COUNT(*) DESC", Integer.class);
+        assertThat(likesPerFilm.get(0)).isGreaterThan(10 * likesPerFilm.get(likesPerFilm.size() / 2));
+
+        // Счетчик идентификаторов сдвинут за сгенерированные записи
+        jdbcTemplate.update("INSERT INTO users (email, login, name, birthday) VALUES ('a@b.c', 'a', 'a', DATE '2000-01-01')");
+        assertThat(jdbcTemplate.queryForObject("SELECT MAX(user_id) FROM users", Integer.class))
+                .isEqualTo(spec.getUsers() + 1);
+    }
+
+    /**
+     * Тест дозаписи данных после уже существующих записей.
+     */
+    @Test
+    void testGenerateAppendsToExistingData() {
+        DatasetSpec spec = spec();
+        DataSourceHolder holder = new DataSourceHolder();
+        holder.generator.generate(spec);
+        holder.generator.generate(spec);
+
+        assertThat(count(holder.jdbcTemplate, "users")).isEqualTo(2L * spec.getUsers());
+        assertThat(count(holder.jdbcTemplate, "films")).isEqualTo(2L * spec.getFilms());
+        assertThat(holder.jdbcTemplate.queryForObject("SELECT MAX(film_id) FROM films", Integer.class))
+                .isEqualTo(2 * spec.getFilms());
+    }
+
+    private static DatasetSpec spec() {
+        DatasetSpec spec = new DatasetSpec();
+        spec.setUsers(12_000);
+        spec.setFilms(500);
+        spec.setMeanLikesPerUser(3);
+        spec.setMaxFriendsPerUser(200);
+        spec.setBatchSize(1000);
+        return spec;
+    }
+
+    private static JdbcTemplate generate(DatasetSpec spec) {
+        DataSourceHolder holder = new DataSourceHolder();
+        holder.generator.generate(spec);
+        return holder.jdbcTemplate;
+    }
+
+    private static long count(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+
+    /**
+     * Отдельная база данных в памяти со схемой приложения.
+     */
+    private static class DataSourceHolder {
+        private final JdbcTemplate jdbcTemplate;
+        private final DatasetGenerator generator;
+
+        DataSourceHolder() {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:generator-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            generator = new DatasetGenerator(dataSource);
+            generator.initSchema();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ru.yandex.practicum.filmorate.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Тесты для ZipfSampler.
+ * Проверяют диапазон рангов и частоты против точных вероятностей распределения.
+ */
+class ZipfSamplerTest {
+
+    /**
+     * Тест частот первых рангов при разных показателях степени.
+     */
+    @Test
+    void testFrequenciesMatchDistribution() {
+        for (double exponent : new double[]{0.8, 1.0, 2.0}) {
+            int n = 1000;
+            int samples = 200_000;
+            ZipfSampler sampler = new ZipfSampler(n, exponent);
+            SplittableRandom random = new SplittableRandom(7);
+
+            int[] counts = new int[n + 1];
+            for (int i = 0; i < samples; i++) {
+                int rank = sampler.sample(random);
+                assertThat(rank).isBetween(1, n);
+                counts[rank]++;
+            }
+
+            double normalization = 0;
+            for (int k = 1; k <= n; k++) {
+                normalization += Math.pow(k, -exponent);
+            }
+            for (int k = 1; k <= 5; k++) {
+                double expected = Math.pow(k, -exponent) / normalization;
+                assertThat((double) counts[k] / samples)
+                        .as("exponent=%s, rank=%d", exponent, k)
+                        .isCloseTo(expected, within(0.01));
+            }
+        }
+    }
+
+    /**
+     * Тест воспроизводимости последовательности при одинаковом seed.
+     */
+    @Test
+    void testSameSeedGivesSameSequence() {
+        ZipfSampler sampler = new ZipfSampler(100_000, 1.1);
+        SplittableRandom first = new SplittableRandom(42);
+        SplittableRandom second = new SplittableRandom(42);
+        for (int i = 0; i < 1000; i++) {
+            assertThat(sampler.sample(first)).isEqualTo(sampler.sample(second));
+        }
+    }
+}
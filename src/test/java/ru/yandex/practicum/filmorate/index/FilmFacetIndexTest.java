@@ -0,0 +1,94 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тесты для FilmFacetIndex.
+ * Проверяют пересечение фасетов, подсчет фасетов и обновление индекса.
+ */
+class FilmFacetIndexTest {
+
+    private FilmFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FilmFacetIndex(mock(FilmRepository.class));
+        index.rebuild();
+        index.indexFilm(film(1, 1, 1995, 1, 2));
+        index.indexFilm(film(2, 3, 1999, 2));
+        index.indexFilm(film(3, 3, 2005, 2, 6));
+        index.indexFilm(film(4, 1, 1985));
+    }
+
+    /**
+     * Тест отбора по пересечению нескольких фасетов.
+     */
+    @Test
+    void testSelectIntersectsFacets() {
+        FilmFilter filter = new FilmFilter();
+        filter.setGenre(2);
+        assertThat(index.select(filter).filmIds().stream()).containsExactly(1, 2, 3);
+
+        filter.setMpa(3);
+        assertThat(index.select(filter).filmIds().stream()).containsExactly(2, 3);
+
+        filter.setYearFrom(1990);
+        filter.setYearTo(2000);
+        assertThat(index.select(filter).filmIds().stream()).containsExactly(2);
+    }
+
+    /**
+     * Тест подсчета фасетов среди отобранных фильмов.
+     */
+    @Test
+    void testFacetCounts() {
+        FilmFilter filter = new FilmFilter();
+        filter.setYearFrom(1990);
+
+        FilmFacetIndex.Selection selection = index.select(filter);
+
+        assertThat(selection.facets().getGenres()).isEqualTo(Map.of(1, 1, 2, 3, 6, 1));
+        assertThat(selection.facets().getMpa()).isEqualTo(Map.of(1, 1, 3, 2));
+        assertThat(selection.facets().getYears()).isEqualTo(Map.of(1995, 1, 1999, 1, 2005, 1));
+    }
+
+    /**
+     * Тест обновления фасетов фильма и его удаления из индекса.
+     */
+    @Test
+    void testUpdateAndRemove() {
+        index.indexFilm(film(2, 1, 1999, 6));
+        index.removeFilm(3);
+
+        FilmFilter filter = new FilmFilter();
+        filter.setGenre(6);
+        assertThat(index.select(filter).filmIds().stream()).containsExactly(2);
+
+        filter.setGenre(2);
+        assertThat(index.select(filter).filmIds().stream()).containsExactly(1);
+    }
+
+    private Film film(int id, int mpaId, int year, int... genreIds) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName("Film " + id);
+        film.setReleaseDate(LocalDate.of(year, 1, 1));
+        film.setMpa(new MpaRating(mpaId, null));
+        film.setGenres(new LinkedHashSet<>(Arrays.stream(genreIds).mapToObj(genreId -> new Genre(genreId, null)).toList()));
+        return film;
+    }
+}
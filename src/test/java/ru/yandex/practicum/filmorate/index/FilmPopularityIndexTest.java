@@ -0,0 +1,195 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для FilmPopularityIndex.
+ * Проверяют построение рейтинга, его инкрементальное обновление и рейтинги по жанрам и годам.
+ */
+class FilmPopularityIndexTest {
+
+    private FilmPopularityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        LikeRepository likeRepository = mock(LikeRepository.class);
+        when(likeRepository.getLikesCountByFilm()).thenReturn(Map.of(1, 2, 2, 5, 3, 0));
+        index = new FilmPopularityIndex(likeRepository, mock(FilmRepository.class));
+        index.rebuild();
+    }
+
+    /**
+     * Тест построения рейтинга по данным хранилища.
+     */
+    @Test
+    void testRebuildOrdersByLikes() {
+        assertThat(index.getTopFilmIds(10)).containsExactly(2, 1, 3);
+        assertThat(index.getTopFilmIds(2)).containsExactly(2, 1);
+    }
+
+    /**
+     * Тест изменения позиции фильма при добавлении и удалении лайков.
+     */
+    @Test
+    void testIncrementAndDecrementReorder() {
+        index.incrementLikes(3);
+        index.incrementLikes(3);
+        index.incrementLikes(3);
+
+        assertThat(index.getLikes(3)).isEqualTo(3);
+        assertThat(index.getTopFilmIds(10)).containsExactly(2, 3, 1);
+
+        index.decrementLikes(3);
+        index.decrementLikes(3);
+
+        assertThat(index.getTopFilmIds(10)).containsExactly(2, 1, 3);
+    }
+
+    /**
+     * Тест добавления и удаления фильмов из индекса.
+     */
+    @Test
+    void testAddAndRemoveFilm() {
+        index.indexFilm(film(4, 2000));
+        index.removeFilm(2);
+
+        assertThat(index.getTopFilmIds(10)).containsExactly(1, 3, 4);
+        assertThat(index.getLikes(2)).isZero();
+    }
+
+    /**
+     * Тест ранжирования выборки: малая выборка ранжируется напрямую, большая - обходом раздела жанра,
+     * а обход заканчивается, как только найдены все отобранные фильмы.
+     */
+    @Test
+    void testTopOfSelection() {
+        for (int filmId = 4; filmId <= 40; filmId++) {
+            index.indexFilm(film(filmId, 2000, 3));
+        }
+        index.indexFilm(film(1, 1999, 2));
+        index.indexFilm(film(2, 1999, 2));
+        index.indexFilm(film(3, 1999, 2));
+
+        BitSet small = new BitSet();
+        small.set(1);
+        small.set(3);
+        small.set(7);
+        assertThat(index.getTopFilmIds(10, small, null, null)).containsExactly(1, 3, 7);
+        assertThat(index.getTopFilmIds(1, small, null, null)).containsExactly(1);
+
+        BitSet genre = new BitSet();
+        genre.set(1, 4);
+        assertThat(index.getTopFilmIds(10, genre, 2, null)).containsExactly(2, 1, 3);
+        assertThat(index.getTopFilmIds(2, genre, 2, 1999)).containsExactly(2, 1);
+        assertThat(index.getTopFilmIds(10, new BitSet(), null, null)).isEmpty();
+    }
+
+    /**
+     * Тест рейтингов по жанру, году и их сочетанию с переносом фильма при изменении жанров и даты.
+     */
+    @Test
+    void testPartitionsFollowFilmUpdates() {
+        index.indexFilm(film(1, 1999, 1, 2));
+        index.indexFilm(film(2, 1999, 2));
+        index.indexFilm(film(3, 2005, 2, 6));
+
+        assertThat(index.getTopFilmIds(10, 2, null)).containsExactly(2, 1, 3);
+        assertThat(index.getTopFilmIds(10, null, 1999)).containsExactly(2, 1);
+        assertThat(index.getTopFilmIds(10, 1, 1999)).containsExactly(1);
+        assertThat(index.getTopFilmIds(10, 6, 1999)).isEmpty();
+
+        index.indexFilm(film(2, 2005, 6));
+        index.incrementLikes(3);
+
+        assertThat(index.getTopFilmIds(10, 2, null)).containsExactly(1, 3);
+        assertThat(index.getTopFilmIds(10, 6, 2005)).containsExactly(2, 3);
+        assertThat(index.getLikes(2)).isEqualTo(5);
+    }
+
+    /**
+     * Тест рейтингов по разделам на случайной последовательности операций
+     * против полного перебора с сортировкой.
+     */
+    @Test
+    void testPartitionsMatchBruteForce() {
+        Random random = new Random(42);
+        index = new FilmPopularityIndex(mock(LikeRepository.class), mock(FilmRepository.class));
+        Map<Integer, Film> films = new HashMap<>();
+        Map<Integer, Integer> likes = new HashMap<>();
+
+        for (int step = 0; step < 5000; step++) {
+            int filmId = 1 + random.nextInt(200);
+            int operation = random.nextInt(10);
+            if (operation < 2 || !films.containsKey(filmId)) {
+                Film film = film(filmId, 1995 + random.nextInt(6), randomGenres(random));
+                films.put(filmId, film);
+                likes.putIfAbsent(filmId, 0);
+                index.indexFilm(film);
+            } else if (operation < 7) {
+                likes.merge(filmId, 1, Integer::sum);
+                index.incrementLikes(filmId);
+            } else if (operation < 9) {
+                likes.computeIfPresent(filmId, (id, count) -> Math.max(0, count - 1));
+                index.decrementLikes(filmId);
+            } else {
+                films.remove(filmId);
+                likes.remove(filmId);
+                index.removeFilm(filmId);
+            }
+
+            if (step % 100 == 0) {
+                for (Integer genreId : Arrays.asList(null, 1, 2, 3, 4, 5, 6)) {
+                    for (Integer year : Arrays.asList(null, 1995, 1997, 2000, 2010)) {
+                        assertThat(index.getTopFilmIds(15, genreId, year))
+                                .as("genreId=%s, year=%s, step=%d", genreId, year, step)
+                                .isEqualTo(bruteForceTop(films, likes, 15, genreId, year));
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<Integer> bruteForceTop(Map<Integer, Film> films, Map<Integer, Integer> likes,
+                                               int count, Integer genreId, Integer year) {
+        return films.values().stream()
+                .filter(film -> genreId == null || film.getGenres().stream().anyMatch(g -> g.getId().equals(genreId)))
+                .filter(film -> year == null || film.getReleaseDate().getYear() == year)
+                .sorted(Comparator.comparing((Film film) -> likes.get(film.getId())).reversed()
+                        .thenComparing(Film::getId))
+                .limit(count)
+                .map(Film::getId)
+                .toList();
+    }
+
+    private static int[] randomGenres(Random random) {
+        return random.ints(random.nextInt(3), 1, 7).toArray();
+    }
+
+    private static Film film(int id, int year, int... genreIds) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName("Film " + id);
+        film.setReleaseDate(LocalDate.of(year, 1, 1));
+        film.setGenres(new LinkedHashSet<>(Arrays.stream(genreIds).mapToObj(genreId -> new Genre(genreId, null)).toList()));
+        return film;
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.repository.FilmRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для FilmSearchIndex.
+ * Проверяют нормализацию текста, ранжирование и инкрементальное обновление индекса.
+ */
+class FilmSearchIndexTest {
+
+    private FilmPopularityIndex popularityIndex;
+    private FilmSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        popularityIndex = mock(FilmPopularityIndex.class);
+        index = new FilmSearchIndex(mock(FilmRepository.class), popularityIndex);
+        ReflectionTestUtils.setField(index, "likesWeight", 0.2);
+        index.rebuild();
+    }
+
+    /**
+     * Тест нормализации кириллицы и латиницы.
+     */
+    @Test
+    void testTokenizeNormalizesText() {
+        assertThat(FilmSearchIndex.tokenize("Ёжик в ТУМАНЕ, café-2000!"))
+                .containsExactly("ежик", "в", "тумане", "cafe", "2000");
+        assertThat(FilmSearchIndex.tokenize("   ")).isEmpty();
+    }
+
+    /**
+     * Тест нормализации, которая сохраняет й и снимает ударения и латинскую диакритику.
+     */
+    @Test
+    void testTokenizeKeepsShortI() {
+        assertThat(FilmSearchIndex.tokenize("Мой ЗА\u0301МОК Crème Brûlée naïve"))
+                .containsExactly("мой", "замок", "creme", "brulee", "naive");
+        assertThat(FilmSearchIndex.tokenize("Мои")).doesNotContain("мой");
+    }
+
+    /**
+     * Тест ранжирования: совпадение в названии важнее совпадения в описании.
+     */
+    @Test
+    void testNameMatchRanksHigher() {
+        index.indexFilm(film(1, "Обычный фильм", "Ежик ищет туман"));
+        index.indexFilm(film(2, "Ёжик в тумане", "Мультфильм"));
+        index.indexFilm(film(3, "Другое", "Совсем другое"));
+
+        assertThat(index.search("ежик", 10)).containsExactly(2, 1);
+        assertThat(index.search("ЁЖИК ТУМАНЕ", 1)).containsExactly(2);
+        assertThat(index.search("отсутствует", 10)).isEmpty();
+    }
+
+    /**
+     * Тест учета лайков при одинаковой текстовой релевантности.
+     */
+    @Test
+    void testLikesBreakTextualTies() {
+        index.indexFilm(film(1, "Matrix", "Film"));
+        index.indexFilm(film(2, "Matrix", "Film"));
+        when(popularityIndex.getLikes(2)).thenReturn(5);
+
+        assertThat(index.search("matrix", 10)).containsExactly(2, 1);
+    }
+
+    /**
+     * Тест обновления и удаления фильмов из индекса.
+     */
+    @Test
+    void testUpdateAndRemove() {
+        index.indexFilm(film(1, "Старое название", "Описание"));
+        index.indexFilm(film(1, "Новое название", "Описание"));
+
+        assertThat(index.search("старое", 10)).isEmpty();
+        assertThat(index.search("новое", 10)).containsExactly(1);
+
+        index.removeFilm(1);
+
+        assertThat(index.search("новое описание", 10)).isEmpty();
+    }
+
+    /**
+     * Тест учета лайков только для ограниченного числа лучших по BM25 кандидатов.
+     */
+    @Test
+    void testLikesAreReadOnlyForCandidates() {
+        for (int id = 1; id <= 20; id++) {
+            index.indexFilm(film(id, "Matrix", "Film " + id));
+        }
+        index.indexFilm(film(100, "Matrix", "Film 100"));
+        when(popularityIndex.getLikes(3)).thenReturn(10);
+        when(popularityIndex.getLikes(100)).thenReturn(1000);
+
+        assertThat(index.search("matrix", 2)).containsExactly(3, 1);
+        verify(popularityIndex, times(8)).getLikes(anyInt());
+    }
+
+    private Film film(int id, String name, String description) {
+        Film film = new Film();
+        film.setId(id);
+        film.setName(name);
+        film.setDescription(description);
+        return film;
+    }
+}
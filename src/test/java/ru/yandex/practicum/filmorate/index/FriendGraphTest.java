@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.repository.FriendshipRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тесты для FriendGraph.
+ * Проверяют подбор друзей друзей и обновление графа.
+ */
+class FriendGraphTest {
+
+    private FriendGraph graph;
+
+    @BeforeEach
+    void setUp() {
+        graph = new FriendGraph(mock(FriendshipRepository.class));
+        graph.rebuild();
+
+        // Друзья пользователя 1: 2, 3, 4
+        friends(1, 2, 3, 4);
+        friends(2, 1, 5, 6, 7);
+        friends(3, 5, 6, 4);
+        friends(4, 5, 200);
+    }
+
+    /**
+     * Тест ранжирования по количеству общих друзей с исключением самого пользователя и его друзей.
+     */
+    @Test
+    void testSuggestionsRankedByMutualFriends() {
+        assertThat(graph.suggestFriends(1, 10)).containsExactly(5, 6, 7, 200);
+        assertThat(graph.suggestFriends(1, 2)).containsExactly(5, 6);
+        assertThat(graph.suggestFriends(100, 10)).isEmpty();
+    }
+
+    /**
+     * Тест обновления графа при удалении дружбы и пользователя.
+     */
+    @Test
+    void testRemoveFriendAndUser() {
+        graph.removeFriend(1, 3);
+        assertThat(graph.getFriends(1)).containsExactly(2, 4);
+        assertThat(graph.suggestFriends(1, 10)).containsExactly(5, 6, 7, 200);
+
+        graph.removeUser(5);
+        assertThat(graph.getFriends(4)).containsExactly(200);
+        assertThat(graph.suggestFriends(1, 10)).containsExactly(6, 7, 200);
+    }
+
+    /**
+     * Тест пересечения друзей двух и нескольких пользователей.
+     */
+    @Test
+    void testCommonFriends() {
+        assertThat(graph.getCommonFriends(2, 3)).containsExactly(5, 6);
+        assertThat(graph.getCommonFriends(2, 3, 4)).containsExactly(5);
+        assertThat(graph.getCommonFriends(1, 100)).isEmpty();
+    }
+
+    private void friends(int userId, int... friendIds) {
+        for (int friendId : friendIds) {
+            graph.addFriend(userId, friendId);
+        }
+    }
+}
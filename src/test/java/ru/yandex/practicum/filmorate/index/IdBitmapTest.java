@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для IdBitmap.
+ */
+class IdBitmapTest {
+
+    /**
+     * Тест добавления и удаления идентификаторов, в том числе за пределами начального размера.
+     */
+    @Test
+    void testAddRemoveAndGrow() {
+        IdBitmap bitmap = new IdBitmap();
+        bitmap.add(1);
+        bitmap.add(63);
+        bitmap.add(100_000);
+        bitmap.add(1);
+
+        assertThat(bitmap.size()).isEqualTo(3);
+        assertThat(bitmap.contains(1)).isTrue();
+        assertThat(bitmap.contains(63)).isTrue();
+        assertThat(bitmap.contains(100_000)).isTrue();
+        assertThat(bitmap.contains(64)).isFalse();
+        assertThat(bitmap.contains(1_000_000)).isFalse();
+
+        bitmap.remove(63);
+        bitmap.remove(5);
+
+        assertThat(bitmap.contains(63)).isFalse();
+        assertThat(bitmap.size()).isEqualTo(2);
+    }
+
+    /**
+     * Тест обработки null и отрицательных идентификаторов.
+     */
+    @Test
+    void testInvalidIdsAreAbsent() {
+        IdBitmap bitmap = new IdBitmap();
+        bitmap.add(0);
+
+        assertThat(bitmap.contains(null)).isFalse();
+        assertThat(bitmap.contains(-1)).isFalse();
+        assertThat(bitmap.contains(0)).isTrue();
+    }
+}
@@ -0,0 +1,52 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для IntCounter.
+ */
+class IntCounterTest {
+
+    /**
+     * Тест подсчета вхождений, включая отрицательные и нулевой ключи.
+     */
+    @Test
+    void testIncrementAndGet() {
+        IntCounter counter = new IntCounter(0);
+
+        assertThat(counter.increment(7)).isEqualTo(1);
+        assertThat(counter.increment(7)).isEqualTo(2);
+        assertThat(counter.increment(0)).isEqualTo(1);
+        assertThat(counter.increment(-3)).isEqualTo(1);
+
+        assertThat(counter.get(7)).isEqualTo(2);
+        assertThat(counter.get(0)).isEqualTo(1);
+        assertThat(counter.get(100)).isZero();
+        assertThat(counter.size()).isEqualTo(3);
+    }
+
+    /**
+     * Тест против HashMap на случайной последовательности с расширением таблицы.
+     */
+    @Test
+    void testMatchesHashMapOnRandomKeys() {
+        Random random = new Random(42);
+        IntCounter counter = new IntCounter(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5_000);
+            assertThat(counter.increment(key)).isEqualTo(expected.merge(key, 1, Integer::sum));
+        }
+
+        Map<Integer, Integer> actual = new HashMap<>();
+        counter.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(counter.size()).isEqualTo(expected.size());
+    }
+}
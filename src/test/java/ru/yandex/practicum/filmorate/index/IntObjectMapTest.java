@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тесты для IntObjectMap.
+ */
+class IntObjectMapTest {
+
+    /**
+     * Тест основных операций: вставка, замена, чтение и удаление.
+     */
+    @Test
+    void testPutGetRemove() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        assertThat(map.put(1, "один")).isNull();
+        assertThat(map.put(1, "первый")).isEqualTo("один");
+        map.put(-5, "минус пять");
+
+        assertThat(map.get(1)).isEqualTo("первый");
+        assertThat(map.get(-5)).isEqualTo("минус пять");
+        assertThat(map.get(2)).isNull();
+        assertThat(map.size()).isEqualTo(2);
+
+        assertThat(map.remove(1)).isEqualTo("первый");
+        assertThat(map.remove(1)).isNull();
+        assertThat(map.containsKey(1)).isFalse();
+        assertThat(map.sortedKeys()).containsExactly(-5);
+        assertThatThrownBy(() -> map.put(3, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Тест против HashMap на случайной последовательности вставок и удалений,
+     * включая расширение таблицы и сдвиг цепочек при удалении.
+     */
+    @Test
+    void testMatchesHashMapOnRandomOperations() {
+        Random random = new Random(42);
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key));
+            } else {
+                assertThat(map.put(key, i)).isEqualTo(expected.put(key, i));
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        assertThat(map.sortedKeys()).containsExactly(expected.keySet().stream().sorted().mapToInt(Integer::intValue)
+                .toArray());
+        Map<Integer, Integer> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(expected);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тесты для LikeMatrix.
+ * Проверяют подбор рекомендаций и инкрементальное обновление матрицы.
+ */
+class LikeMatrixTest {
+
+    private LikeMatrix matrix;
+
+    @BeforeEach
+    void setUp() {
+        matrix = new LikeMatrix(mock(LikeRepository.class));
+        ReflectionTestUtils.setField(matrix, "neighbourCount", 50);
+        matrix.rebuild();
+
+        // Пользователь 1 похож на 2 сильнее, чем на 3
+        like(1, 10, 11, 12);
+        like(2, 10, 11, 12, 20);
+        like(3, 12, 30, 31, 32);
+        like(4, 40);
+    }
+
+    /**
+     * Тест ранжирования рекомендаций по сходству пользователей.
+     */
+    @Test
+    void testRecommendsFilmsOfSimilarUsers() {
+        assertThat(matrix.recommendFilms(1, 10)).containsExactly(20, 30, 31, 32);
+        assertThat(matrix.recommendFilms(1, 1)).containsExactly(20);
+        assertThat(matrix.recommendFilms(4, 10)).isEmpty();
+        assertThat(matrix.recommendFilms(99, 10)).isEmpty();
+    }
+
+    /**
+     * Тест обновления матрицы при удалении лайков, пользователей и фильмов.
+     */
+    @Test
+    void testIncrementalUpdates() {
+        matrix.removeLike(20, 2);
+        assertThat(matrix.recommendFilms(1, 10)).containsExactly(30, 31, 32);
+
+        matrix.removeFilm(31);
+        matrix.removeUser(3);
+        assertThat(matrix.recommendFilms(1, 10)).isEmpty();
+
+        matrix.addLike(40, 1);
+        assertThat(matrix.recommendFilms(4, 10)).containsExactly(10, 11, 12);
+    }
+
+    private void like(int userId, int... filmIds) {
+        for (int filmId : filmIds) {
+            matrix.addLike(filmId, userId);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для SortedIntArray.
+ */
+class SortedIntArrayTest {
+
+    /**
+     * Тест поддержания порядка при вставке и удалении.
+     */
+    @Test
+    void testAddRemoveKeepsOrder() {
+        SortedIntArray array = new SortedIntArray();
+        for (int value : new int[]{5, 1, 9, 3, 5, 7}) {
+            array.add(value);
+        }
+        array.remove(9);
+        array.remove(4);
+
+        assertThat(array.toArray()).containsExactly(1, 3, 5, 7);
+        assertThat(array.contains(3)).isTrue();
+        assertThat(array.contains(9)).isFalse();
+    }
+
+    /**
+     * Тест галопирующего пересечения против наивного пересечения на случайных данных.
+     */
+    @Test
+    void testIntersectMatchesNaiveIntersection() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            SortedIntArray large = randomArray(random, random.nextInt(2000), 5000);
+            int[] small = randomArray(random, random.nextInt(50), 5000).toArray();
+
+            int[] expected = IntStream.of(small).filter(large::contains).toArray();
+
+            assertThat(large.intersect(small)).containsExactly(expected);
+        }
+    }
+
+    private SortedIntArray randomArray(Random random, int size, int bound) {
+        SortedIntArray array = new SortedIntArray();
+        for (int i = 0; i < size; i++) {
+            array.add(random.nextInt(bound));
+        }
+        return array;
+    }
+}
@@ -0,0 +1,224 @@
+package ru.yandex.practicum.filmorate.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.TrendingWindow;
+import ru.yandex.practicum.filmorate.repository.LikeRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тесты для TrendingIndex.
+ * Проверяют подсчет лайков по окнам, их сдвиг во времени и отмену лайков.
+ */
+class TrendingIndexTest {
+
+    private static final Instant START = Instant.parse("2024-05-01T12:00:00Z");
+
+    private MutableClock clock;
+    private LikeRepository likeRepository;
+    private TrendingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        likeRepository = mock(LikeRepository.class);
+        index = new TrendingIndex(likeRepository, clock);
+        index.rebuild();
+    }
+
+    /**
+     * Тест упорядочивания фильмов по количеству лайков во всех окнах.
+     */
+    @Test
+    void testLikesAreRankedInEveryWindow() {
+        index.addLike(1);
+        index.addLike(2);
+        index.addLike(2);
+        index.addLike(2);
+
+        for (TrendingWindow window : TrendingWindow.values()) {
+            assertThat(index.getTopFilmIds(window, 10)).containsExactly(2, 1);
+        }
+        assertThat(index.getTopFilmIds(TrendingWindow.HOUR, 1)).containsExactly(2);
+    }
+
+    /**
+     * Тест выхода лайков из коротких окон с течением времени.
+     */
+    @Test
+    void testOldLikesLeaveShortWindows() {
+        index.addLike(1);
+        index.addLike(1);
+        clock.advance(Duration.ofHours(2));
+        index.addLike(2);
+
+        assertThat(index.getTopFilmIds(TrendingWindow.HOUR, 10)).containsExactly(2);
+        assertThat(index.getTopFilmIds(TrendingWindow.DAY, 10)).containsExactly(1, 2);
+
+        clock.advance(Duration.ofDays(2));
+
+        assertThat(index.getTopFilmIds(TrendingWindow.DAY, 10)).isEmpty();
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).containsExactly(1, 2);
+
+        clock.advance(Duration.ofDays(30));
+
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).isEmpty();
+    }
+
+    /**
+     * Тест отмены лайка: лайк вычитается из всех окон, которые еще охватывают время его постановки.
+     */
+    @Test
+    void testRemoveLikeUpdatesCoveringWindows() {
+        Instant liked = clock.instant();
+        index.addLike(1);
+        index.addLike(1);
+        index.addLike(2);
+        index.removeLike(1, liked);
+
+        assertThat(index.getTopFilmIds(TrendingWindow.HOUR, 10)).containsExactly(1, 2);
+
+        index.removeLike(2, liked);
+        assertThat(index.getTopFilmIds(TrendingWindow.DAY, 10)).containsExactly(1);
+
+        clock.advance(Duration.ofHours(2));
+        index.removeLike(1, liked);
+
+        assertThat(index.getTopFilmIds(TrendingWindow.HOUR, 10)).isEmpty();
+        assertThat(index.getTopFilmIds(TrendingWindow.DAY, 10)).isEmpty();
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).isEmpty();
+    }
+
+    /**
+     * Тест того, что повторяющиеся лайк и отмена через час не накапливают лайки в длинных окнах.
+     */
+    @Test
+    void testRepeatedRelikeDoesNotInflateLongWindows() {
+        for (int i = 0; i < 5; i++) {
+            Instant liked = clock.instant();
+            index.addLike(1);
+            clock.advance(Duration.ofMinutes(90));
+            index.removeLike(1, liked);
+        }
+        index.addLike(2);
+        index.addLike(2);
+        index.addLike(1);
+
+        assertThat(index.getTopFilmIds(TrendingWindow.DAY, 10)).containsExactly(2, 1);
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).containsExactly(2, 1);
+    }
+
+    /**
+     * Тест отмены лайка, вышедшего из всех окон, и повторного лайка.
+     */
+    @Test
+    void testRelikeAfterExpiryCountsAgain() {
+        Instant liked = clock.instant();
+        index.addLike(1);
+        clock.advance(Duration.ofDays(8));
+        index.removeLike(1, liked);
+        index.addLike(1);
+
+        assertThat(index.getTopFilmIds(TrendingWindow.HOUR, 10)).containsExactly(1);
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).containsExactly(1);
+    }
+
+    /**
+     * Тест отмены лайка, загруженного из хранилища при построении индекса.
+     */
+    @Test
+    void testRemoveRebuiltLike() {
+        Instant liked = START.minus(Duration.ofDays(2));
+        doAnswer(invocation -> {
+            Consumer<Like> consumer = invocation.getArgument(1);
+            consumer.accept(new Like(1, 1, liked));
+            consumer.accept(new Like(2, 1, liked));
+            return null;
+        }).when(likeRepository).streamCreatedSince(any(), any());
+        index.rebuild();
+
+        index.removeLike(1, liked);
+
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).containsExactly(2);
+    }
+
+    /**
+     * Тест удаления фильма из рейтингов.
+     */
+    @Test
+    void testRemoveFilm() {
+        index.addLike(1);
+        index.addLike(2);
+        index.removeFilm(1);
+
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).containsExactly(2);
+
+        clock.advance(Duration.ofDays(8));
+
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).isEmpty();
+    }
+
+    /**
+     * Тест построения индекса по времени лайков из хранилища.
+     */
+    @Test
+    void testRebuildUsesLikeTimestamps() {
+        doAnswer(invocation -> {
+            Consumer<Like> consumer = invocation.getArgument(1);
+            consumer.accept(new Like(1, 1, START.minus(Duration.ofMinutes(10))));
+            consumer.accept(new Like(2, 1, START.minus(Duration.ofHours(3))));
+            consumer.accept(new Like(2, 2, START.minus(Duration.ofHours(4))));
+            consumer.accept(new Like(3, 1, START.minus(Duration.ofDays(3))));
+            return null;
+        }).when(likeRepository).streamCreatedSince(any(), any());
+
+        index.rebuild();
+
+        assertThat(index.getTopFilmIds(TrendingWindow.HOUR, 10)).containsExactly(1);
+        assertThat(index.getTopFilmIds(TrendingWindow.DAY, 10)).containsExactly(2, 1);
+        assertThat(index.getTopFilmIds(TrendingWindow.WEEK, 10)).containsExactly(2, 1, 3);
+    }
+
+    /**
+     * Часы, которые можно переводить вперед.
+     */
+    private static class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
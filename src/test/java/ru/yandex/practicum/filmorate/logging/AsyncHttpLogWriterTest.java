@@ -0,0 +1,104 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.Correlation;
+import org.zalando.logbook.HttpLogWriter;
+import org.zalando.logbook.Precorrelation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Тесты для AsyncHttpLogWriter.
+ * Проверяют порядок записи, отбрасывание записей при заполненном буфере и запись остатка при закрытии.
+ */
+class AsyncHttpLogWriterTest {
+
+    /**
+     * Тест записи в фоновом потоке в порядке поступления и дописывания буфера при закрытии.
+     */
+    @Test
+    void testWritesInOrderAndFlushesOnClose() {
+        RecordingWriter delegate = new RecordingWriter(null);
+        AsyncHttpLogWriter writer = new AsyncHttpLogWriter(delegate, 100);
+
+        for (int i = 0; i < 50; i++) {
+            writer.write(mock(Precorrelation.class), "request " + i);
+            writer.write(mock(Correlation.class), "response " + i);
+        }
+        writer.close();
+
+        assertThat(delegate.messages).hasSize(100).startsWith("request 0", "response 0").endsWith("response 49");
+        assertThat(delegate.threads).containsOnly("http-log-writer");
+        assertThat(writer.getDropped()).isZero();
+        assertThat(writer.isActive()).isFalse();
+    }
+
+    /**
+     * Тест отбрасывания записей без блокировки, когда запись в лог не успевает за запросами.
+     */
+    @Test
+    void testDropsEntriesWhenBufferIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingWriter delegate = new RecordingWriter(release);
+        AsyncHttpLogWriter writer = new AsyncHttpLogWriter(delegate, 10);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            writer.write(mock(Precorrelation.class), "request " + i);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        writer.close();
+
+        assertThat(elapsedMs).isLessThan(1000);
+        // Фоновый поток может забрать одну запись до блокировки, остальное вмещает только буфер
+        assertThat(writer.getDropped()).isBetween(89L, 90L);
+        assertThat(delegate.messages).hasSize(100 - (int) writer.getDropped());
+    }
+
+    /**
+     * Запись, которая запоминает сообщения и потоки и может ждать разрешения на запись.
+     */
+    private static class RecordingWriter implements HttpLogWriter {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+        private final CountDownLatch release;
+
+        RecordingWriter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+        @Override
+        public void write(Precorrelation precorrelation, String request) {
+            record(request);
+        }
+
+        @Override
+        public void write(Correlation correlation, String response) {
+            record(response);
+        }
+
+        private void record(String message) {
+            if (release != null) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            messages.add(message);
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+}
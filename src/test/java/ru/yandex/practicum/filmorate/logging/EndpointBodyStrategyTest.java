@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.logging;
+
+import org.junit.jupiter.api.Test;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для EndpointBodyStrategy.
+ * Проверяют сопоставление запросов с правилами и отключение тел для подходящих запросов.
+ */
+class EndpointBodyStrategyTest {
+
+    private final EndpointBodyStrategy strategy = new EndpointBodyStrategy(
+            List.of("GET /films", "GET /users/*/friends", " * /actuator/** ", ""));
+
+    /**
+     * Тест сопоставления метода и шаблона пути.
+     */
+    @Test
+    void testRulesMatchMethodAndPath() {
+        assertThat(strategy.excludesBody(request("GET", "/films"))).isTrue();
+        assertThat(strategy.excludesBody(request("get", "/films"))).isTrue();
+        assertThat(strategy.excludesBody(request("POST", "/films"))).isFalse();
+        assertThat(strategy.excludesBody(request("GET", "/films/1"))).isFalse();
+        assertThat(strategy.excludesBody(request("GET", "/users/7/friends"))).isTrue();
+        assertThat(strategy.excludesBody(request("GET", "/users/7/friends/common/8"))).isFalse();
+        assertThat(strategy.excludesBody(request("DELETE", "/actuator/health/db"))).isTrue();
+    }
+
+    /**
+     * Тест отключения тел запроса и ответа для подходящих запросов.
+     */
+    @Test
+    void testBodiesAreSkippedOnlyForMatchingRequests() throws IOException {
+        HttpRequest list = request("GET", "/films");
+        HttpResponse listResponse = mock(HttpResponse.class);
+        strategy.process(list);
+        strategy.process(list, listResponse);
+        verify(list).withoutBody();
+        verify(listResponse).withoutBody();
+
+        HttpRequest create = request("POST", "/films");
+        HttpResponse createResponse = mock(HttpResponse.class);
+        strategy.process(create);
+        strategy.process(create, createResponse);
+        verify(create).withBody();
+        verify(createResponse).withBody();
+    }
+
+    /**
+     * Тест ошибки для правила без шаблона пути.
+     */
+    @Test
+    void testMalformedRuleIsRejected() {
+        assertThatThrownBy(() -> new EndpointBodyStrategy(List.of("/films")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static HttpRequest request(String method, String path) {
+        HttpRequest request = mock(HttpRequest.class);
+        when(request.getMethod()).thenReturn(method);
+        when(request.getPath()).thenReturn(path);
+        return request;
+    }
+}
@@ -0,0 +1,89 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.assertj.core.api.AbstractAssert;
+
+import java.util.List;
+
+/**
+ * Проверки журнала SQL-выражений для тестов.
+ * Сообщение об ошибке перечисляет выражения с временем выполнения и местами вызова.
+ * <pre>{@code
+ * try (QueryLog queries = queryTracker.start()) {
+ *     filmStorage.findAllByIds(ids);
+ *     assertThatQueries(queries).hasCountAtMost(1).hasNoRepeatedShapes();
+ * }
+ * }</pre>
+ */
+public class QueryAssert extends AbstractAssert<QueryAssert, QueryLog> {
+
+    private static final int SHAPES_IN_MESSAGE = 10;
+
+    private QueryAssert(QueryLog actual) {
+        super(actual, QueryAssert.class);
+    }
+
+    /**
+     * Создает проверки журнала.
+     *
+     * @param queries журнал SQL-выражений
+     * @return проверки
+     */
+    public static QueryAssert assertThatQueries(QueryLog queries) {
+        return new QueryAssert(queries);
+    }
+
+    /**
+     * Проверяет точное количество выражений.
+     *
+     * @param expected ожидаемое количество
+     * @return эти проверки
+     */
+    public QueryAssert hasCount(int expected) {
+        isNotNull();
+        if (actual.count() != expected) {
+            failWithMessage("Ожидалось %d SQL-выражений, выполнено %s", expected, actual.describe(SHAPES_IN_MESSAGE));
+        }
+        return this;
+    }
+
+    /**
+     * Проверяет, что выражений не больше заданного количества.
+     *
+     * @param max допустимое количество
+     * @return эти проверки
+     */
+    public QueryAssert hasCountAtMost(int max) {
+        isNotNull();
+        if (actual.count() > max) {
+            failWithMessage("Ожидалось не больше %d SQL-выражений, выполнено %s", max,
+                    actual.describe(SHAPES_IN_MESSAGE));
+        }
+        return this;
+    }
+
+    /**
+     * Проверяет, что ни одна форма выражения не выполнялась больше одного раза.
+     *
+     * @return эти проверки
+     */
+    public QueryAssert hasNoRepeatedShapes() {
+        return hasShapesRepeatedAtMost(1);
+    }
+
+    /**
+     * Проверяет, что каждая форма выражения выполнялась не больше заданного количества раз.
+     *
+     * @param maxRepeats допустимое количество выполнений одной формы
+     * @return эти проверки
+     */
+    public QueryAssert hasShapesRepeatedAtMost(int maxRepeats) {
+        isNotNull();
+        List<QueryLog.ShapeStats> repeated = actual.repeatedShapes(maxRepeats);
+        if (!repeated.isEmpty()) {
+            failWithMessage("Ожидалось не больше %d выполнений каждой формы SQL-выражения, повторяются %s; выполнено %s",
+                    maxRepeats, repeated.stream().map(QueryLog.ShapeStats::shape).toList(),
+                    actual.describe(SHAPES_IN_MESSAGE));
+        }
+        return this;
+    }
+}
@@ -0,0 +1,83 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static ru.yandex.practicum.filmorate.metrics.QueryAssert.assertThatQueries;
+
+/**
+ * Интеграционные тесты для QueryTracker и QueryLog.
+ * Проверяют журналы выражений, формы выражений, места вызова и вложенные журналы.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import(QueryTracker.class)
+class QueryTrackerTest {
+
+    @Autowired
+    private QueryTracker queryTracker;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Тест обнаружения повторяющейся формы выражения с местом вызова.
+     */
+    @Test
+    void testRepeatedShapeIsDetectedWithCallSite() {
+        try (QueryLog queries = queryTracker.start()) {
+            for (int id = 1; id <= 3; id++) {
+                jdbcTemplate.queryForObject("SELECT name FROM genres WHERE genre_id = ?", String.class, id);
+            }
+            jdbcTemplate.queryForList("SELECT name FROM mpa_ratings");
+
+            assertThat(queries.count()).isEqualTo(4);
+            assertThat(queries.statements()).allSatisfy(statement -> assertThat(statement.nanos()).isPositive());
+            assertThat(queries.repeatedShapes(2)).singleElement().satisfies(stats -> {
+                assertThat(stats.shape()).isEqualTo("SELECT name FROM genres WHERE genre_id = ?");
+                assertThat(stats.count()).isEqualTo(3);
+                assertThat(stats.callSite()).startsWith("QueryTrackerTest.testRepeatedShapeIsDetectedWithCallSite:");
+            });
+            assertThatQueries(queries).hasCountAtMost(4).hasShapesRepeatedAtMost(3);
+            assertThatThrownBy(() -> assertThatQueries(queries).hasNoRepeatedShapes())
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("3 x SELECT name FROM genres WHERE genre_id = ?");
+        }
+    }
+
+    /**
+     * Тест записи выражений во внешний журнал и прекращения записи после закрытия.
+     */
+    @Test
+    void testNestedLogsAndClose() {
+        QueryLog outer = queryTracker.start();
+        jdbcTemplate.queryForList("SELECT * FROM genres");
+        try (QueryLog inner = queryTracker.start()) {
+            jdbcTemplate.queryForList("SELECT * FROM mpa_ratings");
+            assertThat(inner.count()).isEqualTo(1);
+        }
+        assertThat(queryTracker.current()).containsSame(outer);
+        outer.close();
+        jdbcTemplate.queryForList("SELECT * FROM genres");
+
+        assertThat(outer.count()).isEqualTo(2);
+        assertThat(queryTracker.current()).isEmpty();
+    }
+
+    /**
+     * Тест приведения выражений к форме.
+     */
+    @Test
+    void testShapeIgnoresLiteralsAndParameterLists() {
+        assertThat(ExecutedStatement.shapeOf("SELECT *\n FROM films WHERE film_id IN (?, ?,?) AND name = 'a''b'"))
+                .isEqualTo("SELECT * FROM films WHERE film_id IN (?) AND name = ?");
+        assertThat(ExecutedStatement.shapeOf("SELECT * FROM films LIMIT 10"))
+                .isEqualTo(ExecutedStatement.shapeOf("SELECT * FROM films LIMIT 20"));
+    }
+}
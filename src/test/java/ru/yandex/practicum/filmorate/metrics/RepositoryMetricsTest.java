@@ -0,0 +1,82 @@
+package ru.yandex.practicum.filmorate.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.TestData;
+import ru.yandex.practicum.filmorate.repository.FilmDbStorage;
+import ru.yandex.practicum.filmorate.repository.GenreDbStorage;
+import ru.yandex.practicum.filmorate.repository.MpaRatingDbStorage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Интеграционные тесты для RepositoryMetrics.
+ * Проверяют таймеры и счетчики SQL-выражений методов хранилищ.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({RepositoryMetrics.class, QueryTracker.class, RepositoryMetricsTest.Config.class, FilmDbStorage.class,
+        ReferenceDataCache.class, GenreDbStorage.class, MpaRatingDbStorage.class})
+class RepositoryMetricsTest {
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    /**
+     * Тест времени вызова и количества SQL-выражений метода хранилища.
+     */
+    @Test
+    void testStorageCallIsTimedAndQueriesAreCounted() {
+        assertThat(AopUtils.isAopProxy(filmStorage)).isTrue();
+        Film film = filmStorage.save(TestData.film("Измеряемый"));
+
+        filmStorage.findById(film.getId());
+        filmStorage.findById(film.getId());
+
+        assertThat(registry.get("filmorate.repository.calls")
+                .tag("repository", "FilmDbStorage").tag("method", "findById")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get("filmorate.repository.queries")
+                .tag("repository", "FilmDbStorage").tag("method", "findById")
+                .counter().count()).isGreaterThanOrEqualTo(2);
+        assertThat(registry.get("filmorate.jdbc.statements").counter().count()).isPositive();
+    }
+
+    /**
+     * Тест метода без обращения к базе данных: время учитывается, выражения не считаются.
+     */
+    @Test
+    void testInMemoryCallHasNoQueries() {
+        Film film = filmStorage.save(TestData.film("Измеряемый"));
+        double statementsBefore = registry.get("filmorate.jdbc.statements").counter().count();
+
+        assertThat(filmStorage.existsById(film.getId())).isTrue();
+
+        assertThat(registry.get("filmorate.repository.calls")
+                .tag("repository", "FilmDbStorage").tag("method", "existsById")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get("filmorate.repository.queries")
+                .tag("repository", "FilmDbStorage").tag("method", "existsById")
+                .counter().count()).isZero();
+        assertThat(registry.get("filmorate.jdbc.statements").counter().count()).isEqualTo(statementsBefore);
+    }
+
+    static class Config {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.yandex.practicum.filmorate.model;
+
+import java.time.LocalDate;
+
+/**
+ * Тестовые данные: корректные фильмы и пользователи с минимальным набором полей.
+ * Тест меняет только те поля, которые проверяет.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    /**
+     * Создает фильм без жанров с рейтингом G.
+     *
+     * @param name название фильма
+     * @return новый фильм без ID
+     */
+    public static Film film(String name) {
+        Film film = new Film();
+        film.setName(name);
+        film.setDescription("Описание");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+        film.setMpa(new MpaRating(1, null));
+        return film;
+    }
+
+    /**
+     * Создает пользователя, у которого имя совпадает с логином, а почта построена из логина.
+     *
+     * @param login логин пользователя
+     * @return новый пользователь без ID
+     */
+    public static User user(String login) {
+        User user = new User();
+        user.setEmail(login + "@example.com");
+        user.setLogin(login);
+        user.setName(login);
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        return user;
+    }
+}
@@ -0,0 +1,230 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.metrics.QueryLog;
+import ru.yandex.practicum.filmorate.metrics.QueryTracker;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.TestData;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static ru.yandex.practicum.filmorate.metrics.QueryAssert.assertThatQueries;
+
+/**
+ * Интеграционные тесты для BufferedLikeStorage.
+ * Проверяют схлопывание изменений, чтение незаписанных лайков и пакетную запись.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class,
+        ReferenceDataCache.class, GenreDbStorage.class, MpaRatingDbStorage.class, QueryTracker.class})
+class BufferedLikeStorageTest {
+
+    @Autowired
+    private LikeDbStorage likeDbStorage;
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private QueryTracker queryTracker;
+
+    private BufferedLikeStorage bufferedStorage;
+    private Integer filmId;
+    private Integer firstUserId;
+    private Integer secondUserId;
+
+    @BeforeEach
+    void setUp() {
+        bufferedStorage = new BufferedLikeStorage(likeDbStorage, 100, 1000, 3_600_000);
+
+        filmId = filmStorage.save(TestData.film("Премьера")).getId();
+        firstUserId = userStorage.save(TestData.user("first")).getId();
+        secondUserId = userStorage.save(TestData.user("second")).getId();
+        bufferedStorage.reload();
+    }
+
+    @AfterEach
+    void tearDown() {
+        bufferedStorage.shutdown();
+    }
+
+    /**
+     * Тест видимости незаписанных лайков при чтении.
+     */
+    @Test
+    void testPendingLikesAreVisible() {
+        assertThat(bufferedStorage.addLike(filmId, firstUserId)).isTrue();
+        assertThat(bufferedStorage.addLike(filmId, secondUserId)).isTrue();
+        assertThat(bufferedStorage.addLike(filmId, firstUserId)).isFalse();
+
+        assertThat(likeDbStorage.getLikesCount(filmId)).isZero();
+        assertThat(bufferedStorage.getLikesCount(filmId)).isEqualTo(2);
+        assertThat(bufferedStorage.getLikesCountByFilm()).containsEntry(filmId, 2);
+        assertThat(bufferedStorage.getFilmIdsLikedByUser(firstUserId)).containsExactly(filmId);
+
+        bufferedStorage.flush();
+
+        assertThat(likeDbStorage.getLikesCount(filmId)).isEqualTo(2);
+        assertThat(bufferedStorage.getLikesCount(filmId)).isEqualTo(2);
+    }
+
+    /**
+     * Тест схлопывания добавления и удаления одного и того же лайка.
+     */
+    @Test
+    void testAddAndRemoveAreCoalesced() {
+        likeDbStorage.addLike(filmId, secondUserId);
+        bufferedStorage.reload();
+
+        assertThat(bufferedStorage.addLike(filmId, firstUserId)).isTrue();
+        assertThat(bufferedStorage.removeLike(filmId, firstUserId)).isPresent();
+        assertThat(bufferedStorage.removeLike(filmId, secondUserId)).isPresent();
+        assertThat(bufferedStorage.addLike(filmId, secondUserId)).isTrue();
+        assertThat(bufferedStorage.removeLike(filmId, firstUserId)).isEmpty();
+
+        assertThat(bufferedStorage.getLikesCount(filmId)).isEqualTo(1);
+        assertThat(bufferedStorage.hasLike(filmId, secondUserId)).isTrue();
+
+        bufferedStorage.flush();
+
+        assertThat(likeDbStorage.hasLike(filmId, firstUserId)).isFalse();
+        assertThat(likeDbStorage.hasLike(filmId, secondUserId)).isTrue();
+    }
+
+    /**
+     * Тест записи удалений лайков при сбросе буфера.
+     */
+    @Test
+    void testFlushAppliesRemovals() {
+        likeDbStorage.addLike(filmId, firstUserId);
+        bufferedStorage.reload();
+
+        assertThat(bufferedStorage.removeLike(filmId, firstUserId)).isPresent();
+        assertThat(likeDbStorage.getLikesCount(filmId)).isEqualTo(1);
+        assertThat(bufferedStorage.getLikesCount(filmId)).isZero();
+
+        bufferedStorage.shutdown();
+
+        assertThat(likeDbStorage.getLikesCount(filmId)).isZero();
+    }
+
+    /**
+     * Тест изменения и проверки лайков до сброса буфера: к базе данных обращается только
+     * удаление записанного лайка, чтобы прочитать время его постановки.
+     */
+    @Test
+    void testChangesDoNotQueryDatabase() {
+        likeDbStorage.addLike(filmId, firstUserId);
+        bufferedStorage.reload();
+
+        try (QueryLog queries = queryTracker.start()) {
+            assertThat(bufferedStorage.addLike(filmId, firstUserId)).isFalse();
+            assertThat(bufferedStorage.addLike(filmId, secondUserId)).isTrue();
+            assertThat(bufferedStorage.removeLike(filmId, secondUserId)).isPresent();
+            assertThat(bufferedStorage.addLike(filmId, secondUserId)).isTrue();
+            assertThat(bufferedStorage.hasLike(filmId, secondUserId)).isTrue();
+            assertThat(bufferedStorage.getLikesCount(filmId)).isEqualTo(2);
+            assertThat(bufferedStorage.getFilmIdsLikedByUser(secondUserId)).containsExactly(filmId);
+            assertThatQueries(queries).hasCount(0);
+
+            assertThat(bufferedStorage.removeLike(filmId, firstUserId)).isPresent();
+            assertThatQueries(queries).hasCount(1);
+        }
+
+        bufferedStorage.flush();
+
+        assertThat(likeDbStorage.hasLike(filmId, firstUserId)).isFalse();
+        assertThat(likeDbStorage.hasLike(filmId, secondUserId)).isTrue();
+    }
+
+    /**
+     * Тест времени постановки, которое возвращает удаление незаписанного и записанного лайка.
+     */
+    @Test
+    void testRemoveLikeReturnsCreationTime() {
+        Instant persistedAt = Instant.parse("2024-01-01T00:00:00Z");
+        likeDbStorage.applyChanges(List.of(new Like(filmId, firstUserId, persistedAt)), List.of());
+        bufferedStorage.reload();
+        Instant before = Instant.now();
+        bufferedStorage.addLike(filmId, secondUserId);
+
+        assertThat(bufferedStorage.removeLike(filmId, firstUserId)).contains(persistedAt);
+        assertThat(bufferedStorage.removeLike(filmId, secondUserId)).hasValueSatisfying(createdAt ->
+                assertThat(createdAt).isAfterOrEqualTo(before));
+    }
+
+    /**
+     * Тест записи заполненного до предела буфера в потоке запроса.
+     */
+    @Test
+    void testFullBufferIsWrittenByRequest() {
+        BufferedLikeStorage limited = new BufferedLikeStorage(likeDbStorage, 100, 1, 3_600_000);
+        try {
+            limited.reload();
+            assertThat(limited.addLike(filmId, firstUserId)).isTrue();
+            assertThat(likeDbStorage.getLikesCount(filmId)).isZero();
+
+            assertThat(limited.addLike(filmId, secondUserId)).isTrue();
+
+            assertThat(likeDbStorage.hasLike(filmId, firstUserId)).isTrue();
+            assertThat(likeDbStorage.hasLike(filmId, secondUserId)).isFalse();
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    /**
+     * Тест отказа в изменении, если буфер заполнен, а база данных недоступна.
+     */
+    @Test
+    void testFullBufferFailsFastWhenDatabaseIsDown() {
+        LikeDbStorage failing = mock(LikeDbStorage.class);
+        doThrow(new DataAccessResourceFailureException("База недоступна")).when(failing).applyChanges(any(), any());
+        BufferedLikeStorage limited = new BufferedLikeStorage(failing, 100, 2, 3_600_000);
+        limited.reload();
+
+        assertThat(limited.addLike(filmId, firstUserId)).isTrue();
+        assertThat(limited.addLike(filmId, secondUserId)).isTrue();
+        assertThatThrownBy(() -> limited.addLike(filmId + 1, firstUserId))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+        assertThatThrownBy(() -> limited.removeLike(filmId, firstUserId))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(limited.hasLike(filmId + 1, firstUserId)).isFalse();
+        assertThat(limited.getLikesCount(filmId)).isEqualTo(2);
+        assertThatThrownBy(limited::shutdown).isInstanceOf(DataAccessResourceFailureException.class);
+    }
+
+    /**
+     * Тест того, что лайк удаленного пользователя отбрасывается при сбросе, не ломая запись остальных.
+     */
+    @Test
+    void testFlushSkipsLikesOfDeletedUsers() {
+        assertThat(bufferedStorage.addLike(filmId, firstUserId)).isTrue();
+        assertThat(bufferedStorage.addLike(filmId, secondUserId)).isTrue();
+        userStorage.deleteById(secondUserId);
+
+        bufferedStorage.flush();
+
+        assertThat(likeDbStorage.hasLike(filmId, firstUserId)).isTrue();
+        assertThat(likeDbStorage.getLikesCount(filmId)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.metrics.QueryLog;
+import ru.yandex.practicum.filmorate.metrics.QueryTracker;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.TestData;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.metrics.QueryAssert.assertThatQueries;
+
+/**
+ * Интеграционные тесты для CachingFilmRepository и CachingUserRepository.
+ * Проверяют, что повторные чтения обслуживаются из кэша, а после изменений не возвращаются устаревшие данные.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({CachingFilmRepository.class, CachingUserRepository.class, FilmDbStorage.class, UserDbStorage.class,
+        EntityCache.class, ReferenceDataCache.class, GenreDbStorage.class, MpaRatingDbStorage.class,
+        QueryTracker.class})
+class CachingRepositoryTest {
+
+    @Autowired
+    private CachingFilmRepository filmRepository;
+
+    @Autowired
+    private CachingUserRepository userRepository;
+
+    @Autowired
+    private EntityCache entityCache;
+
+    @Autowired
+    private QueryTracker queryTracker;
+
+    /**
+     * Тест повторного чтения фильма из кэша без запросов к базе данных.
+     */
+    @Test
+    void testRepeatedFilmReadIsServedFromCache() {
+        Film cached = TestData.film("Кэшируемый");
+        cached.setGenres(Set.of(Genre.COMEDY));
+        Film film = filmRepository.save(cached);
+
+        filmRepository.findById(film.getId());
+        try (QueryLog queries = queryTracker.start()) {
+            assertThat(filmRepository.findById(film.getId())).isPresent();
+            assertThat(filmRepository.findAllByIds(List.of(film.getId()))).hasSize(1);
+            assertThat(filmRepository.existsById(film.getId())).isTrue();
+
+            assertThatQueries(queries).hasCount(0);
+        }
+        assertThat(entityCache.films().stats().hits()).isGreaterThanOrEqualTo(2);
+    }
+
+    /**
+     * Тест отсутствия устаревших данных фильма после обновления жанров и удаления.
+     */
+    @Test
+    void testNoStaleFilmAfterUpdateAndDelete() {
+        Film original = TestData.film("Исходное название");
+        original.setGenres(Set.of(Genre.COMEDY));
+        Film film = filmRepository.save(original);
+        assertThat(filmRepository.findById(film.getId())).isPresent();
+
+        Film changed = TestData.film("Новое название");
+        changed.setId(film.getId());
+        changed.setGenres(Set.of(Genre.THRILLER));
+        filmRepository.update(changed);
+
+        Film found = filmRepository.findById(film.getId()).orElseThrow();
+        assertThat(found.getName()).isEqualTo("Новое название");
+        assertThat(found.getGenres()).extracting(Genre::getId).containsExactly(4);
+        assertThat(filmRepository.findAllByIds(List.of(film.getId())))
+                .extracting(Film::getName).containsExactly("Новое название");
+
+        filmRepository.deleteById(film.getId());
+
+        assertThat(filmRepository.findById(film.getId())).isEmpty();
+        assertThat(filmRepository.existsById(film.getId())).isFalse();
+    }
+
+    /**
+     * Тест отсутствия устаревших данных пользователя после обновления и удаления.
+     */
+    @Test
+    void testNoStaleUserAfterUpdateAndDelete() {
+        User user = userRepository.save(TestData.user("cached"));
+        assertThat(userRepository.findById(user.getId())).isPresent();
+
+        User changed = TestData.user("cached");
+        changed.setId(user.getId());
+        changed.setEmail("updated@example.com");
+        changed.setName("Updated");
+        userRepository.update(changed);
+
+        assertThat(userRepository.findById(user.getId()))
+                .hasValueSatisfying(u -> assertThat(u.getEmail()).isEqualTo("updated@example.com"));
+
+        userRepository.deleteById(user.getId());
+
+        assertThat(userRepository.findById(user.getId())).isEmpty();
+    }
+
+    /**
+     * Тест пакетной загрузки пользователей: промахи кэша загружаются одним запросом, порядок сохраняется.
+     */
+    @Test
+    void testUserMultiGetLoadsMissesInOneQuery() {
+        User first = userRepository.save(TestData.user("multi1"));
+        User second = userRepository.save(TestData.user("multi2"));
+        User third = userRepository.save(TestData.user("multi3"));
+        userRepository.findById(second.getId());
+
+        try (QueryLog queries = queryTracker.start()) {
+            List<User> users = userRepository.findAllByIds(List.of(third.getId(), second.getId(), first.getId()));
+
+            assertThat(users).extracting(User::getLogin).containsExactly("multi3", "multi2", "multi1");
+            assertThatQueries(queries).hasCount(1);
+        }
+    }
+}
@@ -5,119 +5,112 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
 import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.metrics.QueryLog;
+import ru.yandex.practicum.filmorate.metrics.QueryTracker;
 import ru.yandex.practicum.filmorate.model.Film;
-import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.Genre;
 
-import java.time.LocalDate;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static ru.yandex.practicum.filmorate.metrics.QueryAssert.assertThatQueries;
 
 /**
  * Интеграционные тесты для FilmDbStorage.
- * Проверяют работу с базой данных для фильмов.
+ * Проверяют общий контракт хранилища фильмов и количество SQL-запросов.
  */
 @JdbcTest
 @AutoConfigureTestDatabase
-@Import({FilmDbStorage.class})
-class FilmDbStorageTest {
+@Import({FilmDbStorage.class, ReferenceDataCache.class, GenreDbStorage.class, MpaRatingDbStorage.class,
+        QueryTracker.class})
+class FilmDbStorageTest extends FilmRepositoryContractTest {
 
     @Autowired
     private FilmDbStorage filmStorage;
 
-    /**
-     * Тест сохранения фильма.
-     */
-    @Test
-    void testSaveFilm() {
-        Film film = new Film();
-        film.setName("Тестовый фильм");
-        film.setDescription("Описание тестового фильма");
-        film.setReleaseDate(LocalDate.of(2000, 1, 1));
-        film.setDuration(120);
-
-        MpaRating mpa = new MpaRating();
-        mpa.setId(1);
-        film.setMpa(mpa);
-
-        Film savedFilm = filmStorage.save(film);
-
-        assertThat(savedFilm.getId()).isNotNull();
-        assertThat(savedFilm.getName()).isEqualTo("Тестовый фильм");
-        assertThat(savedFilm.getDescription()).isEqualTo("Описание тестового фильма");
-        assertThat(savedFilm.getReleaseDate()).isEqualTo(LocalDate.of(2000, 1, 1));
-        assertThat(savedFilm.getDuration()).isEqualTo(120);
-        assertThat(savedFilm.getMpa().getId()).isEqualTo(1);
+    @Autowired
+    private QueryTracker queryTracker;
+
+    @Override
+    protected FilmRepository filmStorage() {
+        return filmStorage;
     }
 
     /**
-     * Тест поиска фильма по ID.
+     * Тест того, что количество запросов при загрузке фильмов не зависит от их числа.
      */
     @Test
-    void testFindFilmById() {
-        Film film = new Film();
-        film.setName("Тестовый фильм 2");
-        film.setDescription("Описание тестового фильма 2");
-        film.setReleaseDate(LocalDate.of(2005, 5, 5));
-        film.setDuration(150);
-
-        MpaRating mpa = new MpaRating();
-        mpa.setId(2);
-        film.setMpa(mpa);
-
-        Film savedFilm = filmStorage.save(film);
-        Optional<Film> foundFilm = filmStorage.findById(savedFilm.getId());
-
-        assertThat(foundFilm).isPresent();
-        assertThat(foundFilm.get().getId()).isEqualTo(savedFilm.getId());
-        assertThat(foundFilm.get().getName()).isEqualTo("Тестовый фильм 2");
+    void testHydrationQueryCountIsConstant() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            ids.add(filmStorage.save(createFilm("Фильм " + i, 1 + i % 5, Genre.COMEDY, Genre.THRILLER)).getId());
+        }
+
+        try (QueryLog queries = queryTracker.start()) {
+            filmStorage.findById(ids.get(0));
+            assertThatQueries(queries).hasCount(1);
+        }
+
+        int smallBatchQueries;
+        try (QueryLog queries = queryTracker.start()) {
+            filmStorage.findAllByIds(ids.subList(0, 5));
+            smallBatchQueries = queries.count();
+        }
+
+        try (QueryLog queries = queryTracker.start()) {
+            filmStorage.findAllByIds(ids);
+            assertThat(queries.count()).isEqualTo(smallBatchQueries);
+            assertThatQueries(queries).hasCount(1);
+        }
+
+        try (QueryLog queries = queryTracker.start()) {
+            Collection<Film> all = filmStorage.findAll();
+            assertThatQueries(queries).hasCount(1);
+            assertThat(all).hasSizeGreaterThanOrEqualTo(50);
+        }
     }
 
     /**
-     * Тест обновления фильма.
+     * Тест пакетного сохранения фильмов: ID присваиваются по порядку, жанры сохраняются,
+     * а количество запросов не зависит от размера пакета.
      */
     @Test
-    void testUpdateFilm() {
-        Film film = new Film();
-        film.setName("Оригинальный фильм");
-        film.setDescription("Описание оригинального фильма");
-        film.setReleaseDate(LocalDate.of(2000, 1, 1));
-        film.setDuration(100);
-
-        MpaRating mpa = new MpaRating();
-        mpa.setId(1);
-        film.setMpa(mpa);
-
-        Film savedFilm = filmStorage.save(film);
-
-        savedFilm.setName("Обновленный фильм");
-        savedFilm.setDuration(110);
-
-        Film updatedFilm = filmStorage.update(savedFilm);
-
-        assertThat(updatedFilm.getName()).isEqualTo("Обновленный фильм");
-        assertThat(updatedFilm.getDuration()).isEqualTo(110);
+    void testSaveAllUsesBatchStatements() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            films.add(createFilm("Пакет " + i, 1 + i % 5, Genre.DOCUMENTARY, Genre.CARTOON));
+        }
+
+        List<Film> saved;
+        try (QueryLog queries = queryTracker.start()) {
+            saved = filmStorage.saveAll(films);
+            assertThatQueries(queries).hasCount(2).hasNoRepeatedShapes();
+        }
+
+        assertThat(saved).extracting(Film::getId).doesNotContainNull().isSorted().doesNotHaveDuplicates();
+        Film found = filmStorage.findById(saved.get(29).getId()).orElseThrow();
+        assertThat(found.getName()).isEqualTo("Пакет 29");
+        assertThat(found.getGenres()).extracting(Genre::getId).containsExactly(3, 5);
     }
 
     /**
-     * Тест удаления фильма.
+     * Тест того, что жанры фильма сохраняются одним пакетным выражением, а не вставкой на каждый жанр.
      */
     @Test
-    void testDeleteFilm() {
-        Film film = new Film();
-        film.setName("Фильм для удаления");
-        film.setDescription("Описание фильма для удаления");
-        film.setReleaseDate(LocalDate.of(2010, 10, 10));
-        film.setDuration(90);
-
-        MpaRating mpa = new MpaRating();
-        mpa.setId(3);
-        film.setMpa(mpa);
-
-        Film savedFilm = filmStorage.save(film);
-        boolean deleted = filmStorage.deleteById(savedFilm.getId());
-
-        assertThat(deleted).isTrue();
-        assertThat(filmStorage.findById(savedFilm.getId())).isEmpty();
+    void testUpdateSavesGenresWithoutRepeatedStatements() {
+        Film film = filmStorage.save(createFilm("Жанры", 1, Genre.COMEDY));
+        film.setGenres(new LinkedHashSet<>(List.of(Genre.COMEDY, Genre.DRAMA, Genre.CARTOON, Genre.THRILLER,
+                Genre.DOCUMENTARY, Genre.ACTION)));
+
+        try (QueryLog queries = queryTracker.start()) {
+            filmStorage.update(film);
+            assertThatQueries(queries).hasCountAtMost(3).hasNoRepeatedShapes();
+        }
+        assertThat(filmStorage.findById(film.getId()).orElseThrow().getGenres()).hasSize(6);
     }
-}
\ No newline at end of file
+
+}
@@ -0,0 +1,252 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.TestData;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Общие тесты контракта FilmRepository.
+ * Выполняются для каждой реализации хранилища фильмов.
+ */
+abstract class FilmRepositoryContractTest {
+
+    /**
+     * Возвращает проверяемое хранилище фильмов.
+     *
+     * @return хранилище фильмов
+     */
+    protected abstract FilmRepository filmStorage();
+
+    /**
+     * Тест сохранения фильма.
+     */
+    @Test
+    void testSaveFilm() {
+        Film film = new Film();
+        film.setName("Тестовый фильм");
+        film.setDescription("Описание тестового фильма");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(120);
+
+        MpaRating mpa = new MpaRating();
+        mpa.setId(1);
+        film.setMpa(mpa);
+
+        Film savedFilm = filmStorage().save(film);
+
+        assertThat(savedFilm.getId()).isNotNull();
+        assertThat(savedFilm.getName()).isEqualTo("Тестовый фильм");
+        assertThat(savedFilm.getDescription()).isEqualTo("Описание тестового фильма");
+        assertThat(savedFilm.getReleaseDate()).isEqualTo(LocalDate.of(2000, 1, 1));
+        assertThat(savedFilm.getDuration()).isEqualTo(120);
+        assertThat(savedFilm.getMpa().getId()).isEqualTo(1);
+    }
+
+    /**
+     * Тест поиска фильма по ID.
+     */
+    @Test
+    void testFindFilmById() {
+        Film film = new Film();
+        film.setName("Тестовый фильм 2");
+        film.setDescription("Описание тестового фильма 2");
+        film.setReleaseDate(LocalDate.of(2005, 5, 5));
+        film.setDuration(150);
+
+        MpaRating mpa = new MpaRating();
+        mpa.setId(2);
+        film.setMpa(mpa);
+
+        Film savedFilm = filmStorage().save(film);
+        Optional<Film> foundFilm = filmStorage().findById(savedFilm.getId());
+
+        assertThat(foundFilm).isPresent();
+        assertThat(foundFilm.get().getId()).isEqualTo(savedFilm.getId());
+        assertThat(foundFilm.get().getName()).isEqualTo("Тестовый фильм 2");
+    }
+
+    /**
+     * Тест обновления фильма.
+     */
+    @Test
+    void testUpdateFilm() {
+        Film film = new Film();
+        film.setName("Оригинальный фильм");
+        film.setDescription("Описание оригинального фильма");
+        film.setReleaseDate(LocalDate.of(2000, 1, 1));
+        film.setDuration(100);
+
+        MpaRating mpa = new MpaRating();
+        mpa.setId(1);
+        film.setMpa(mpa);
+
+        Film savedFilm = filmStorage().save(film);
+
+        savedFilm.setName("Обновленный фильм");
+        savedFilm.setDuration(110);
+
+        Film updatedFilm = filmStorage().update(savedFilm);
+
+        assertThat(updatedFilm.getName()).isEqualTo("Обновленный фильм");
+        assertThat(updatedFilm.getDuration()).isEqualTo(110);
+    }
+
+    /**
+     * Тест удаления фильма.
+     */
+    @Test
+    void testDeleteFilm() {
+        Film film = new Film();
+        film.setName("Фильм для удаления");
+        film.setDescription("Описание фильма для удаления");
+        film.setReleaseDate(LocalDate.of(2010, 10, 10));
+        film.setDuration(90);
+
+        MpaRating mpa = new MpaRating();
+        mpa.setId(3);
+        film.setMpa(mpa);
+
+        Film savedFilm = filmStorage().save(film);
+        boolean deleted = filmStorage().deleteById(savedFilm.getId());
+
+        assertThat(deleted).isTrue();
+        assertThat(filmStorage().findById(savedFilm.getId())).isEmpty();
+    }
+
+    /**
+     * Тест загрузки жанров и названия MPA при получении всех фильмов.
+     */
+    @Test
+    void testFindAllLoadsGenresAndMpa() {
+        Film film = createFilm("Фильм с жанрами", 4, Genre.DRAMA, Genre.COMEDY);
+        Film saved = filmStorage().save(film);
+
+        Film found = filmStorage().findAll().stream()
+                .filter(f -> f.getId().equals(saved.getId()))
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(found.getMpa().getName()).isEqualTo("R");
+        assertThat(found.getGenres()).extracting(Genre::getId).containsExactly(1, 2);
+        assertThat(found.getGenres()).extracting(Genre::getName).containsExactly("Комедия", "Драма");
+    }
+
+    /**
+     * Тест загрузки фильмов по набору идентификаторов с сохранением порядка.
+     */
+    @Test
+    void testFindAllByIdsKeepsOrder() {
+        Film first = filmStorage().save(createFilm("Первый", 1, Genre.ACTION));
+        Film second = filmStorage().save(createFilm("Второй", 2));
+
+        List<Film> found = filmStorage().findAllByIds(List.of(second.getId(), -1, first.getId()));
+
+        assertThat(found).extracting(Film::getId).containsExactly(second.getId(), first.getId());
+        assertThat(found.get(1).getGenres()).extracting(Genre::getId).containsExactly(6);
+        assertThat(found.get(0).getMpa().getName()).isEqualTo("PG");
+    }
+
+    /**
+     * Тест потоковой выгрузки фильмов вместе с жанрами.
+     */
+    @Test
+    void testStreamAllEmitsEachFilmOnce() {
+        Film first = filmStorage().save(createFilm("Поток 1", 1, Genre.COMEDY, Genre.DRAMA, Genre.ACTION));
+        Film second = filmStorage().save(createFilm("Поток 2", 5));
+
+        List<Film> streamed = new ArrayList<>();
+        filmStorage().streamAll(streamed::add);
+
+        assertThat(streamed).extracting(Film::getId).doesNotHaveDuplicates().contains(first.getId(), second.getId());
+        Film streamedFirst = streamed.stream().filter(f -> f.getId().equals(first.getId())).findFirst().orElseThrow();
+        assertThat(streamedFirst.getGenres()).extracting(Genre::getId).containsExactly(1, 2, 6);
+        assertThat(streamed).usingRecursiveFieldByFieldElementComparator().containsExactlyElementsOf(filmStorage().findAll());
+    }
+
+    /**
+     * Тест пакетного сохранения фильмов: ID присваиваются по порядку, жанры сохраняются.
+     */
+    @Test
+    void testSaveAllAssignsIdsInOrder() {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            films.add(createFilm("Пакет " + i, 1 + i % 5, Genre.DOCUMENTARY, Genre.CARTOON));
+        }
+
+        List<Film> saved = filmStorage().saveAll(films);
+
+        assertThat(saved).extracting(Film::getId).doesNotContainNull().isSorted().doesNotHaveDuplicates();
+        Film found = filmStorage().findById(saved.get(9).getId()).orElseThrow();
+        assertThat(found.getName()).isEqualTo("Пакет 9");
+        assertThat(found.getGenres()).extracting(Genre::getId).containsExactly(3, 5);
+    }
+
+    /**
+     * Тест замены жанров при обновлении фильма.
+     */
+    @Test
+    void testUpdateReplacesGenres() {
+        Film film = filmStorage().save(createFilm("Смена жанров", 1, Genre.COMEDY, Genre.DRAMA));
+        film.setGenres(Set.of(Genre.ACTION));
+
+        filmStorage().update(film);
+
+        assertThat(filmStorage().findById(film.getId()).orElseThrow().getGenres())
+                .extracting(Genre::getId)
+                .containsExactly(6);
+    }
+
+    /**
+     * Тест обновления несуществующего фильма.
+     */
+    @Test
+    void testUpdateMissingFilmThrowsNotFound() {
+        Film film = createFilm("Нет такого", 1);
+        film.setId(Integer.MAX_VALUE);
+
+        assertThatThrownBy(() -> filmStorage().update(film)).isInstanceOf(NotFoundException.class);
+    }
+
+    /**
+     * Тест сохранения фильма с несуществующим рейтингом MPA.
+     */
+    @Test
+    void testSaveWithUnknownMpaFails() {
+        assertThatThrownBy(() -> filmStorage().save(createFilm("Неизвестный MPA", 99)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    /**
+     * Тест проверки существования фильма после сохранения и удаления.
+     */
+    @Test
+    void testExistsByIdTracksSaveAndDelete() {
+        Film film = filmStorage().save(createFilm("Существует", 1));
+        assertThat(filmStorage().existsById(film.getId())).isTrue();
+        assertThat(filmStorage().existsById(null)).isFalse();
+
+        assertThat(filmStorage().deleteById(film.getId())).isTrue();
+        assertThat(filmStorage().existsById(film.getId())).isFalse();
+        assertThat(filmStorage().deleteById(film.getId())).isFalse();
+    }
+
+    protected static Film createFilm(String name, int mpaId, Genre... genres) {
+        Film film = TestData.film(name);
+        film.setMpa(new MpaRating(mpaId, null));
+        film.setGenres(Set.of(genres));
+        return film;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Интеграционные тесты для FriendshipDbStorage.
+ * Проверяют общий контракт хранилища дружбы на базе данных.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({FriendshipDbStorage.class, UserDbStorage.class})
+class FriendshipDbStorageTest extends FriendshipRepositoryContractTest {
+
+    @Autowired
+    private FriendshipDbStorage friendshipStorage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Override
+    protected FriendshipRepository friendshipStorage() {
+        return friendshipStorage;
+    }
+
+    @Override
+    protected UserRepository userStorage() {
+        return userStorage;
+    }
+}
@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.TestData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Общие тесты контракта FriendshipRepository.
+ * Выполняются для каждой реализации хранилища дружбы вместе с хранилищем пользователей того же типа.
+ */
+abstract class FriendshipRepositoryContractTest {
+
+    /**
+     * Возвращает проверяемое хранилище дружбы.
+     *
+     * @return хранилище дружбы
+     */
+    protected abstract FriendshipRepository friendshipStorage();
+
+    /**
+     * Возвращает хранилище пользователей, связанное с хранилищем дружбы.
+     *
+     * @return хранилище пользователей
+     */
+    protected abstract UserRepository userStorage();
+
+    /**
+     * Тест добавления и удаления друга: связь односторонняя.
+     */
+    @Test
+    void testAddAndRemoveFriendship() {
+        Integer userId = saveUser("user");
+        Integer friendId = saveUser("friend");
+
+        friendshipStorage().addFriendship(new Friendship(userId, friendId, FriendshipStatus.PENDING));
+
+        assertThat(friendshipStorage().getUserFriendsIds(userId)).containsExactly(friendId);
+        assertThat(friendshipStorage().getUserFriendsIds(friendId)).isEmpty();
+
+        friendshipStorage().removeFriendship(userId, friendId);
+        friendshipStorage().removeFriendship(userId, friendId);
+        assertThat(friendshipStorage().getUserFriendsIds(userId)).isEmpty();
+    }
+
+    /**
+     * Тест того, что повторная связь и связь с несуществующим пользователем отклоняются.
+     */
+    @Test
+    void testAddFriendshipRejectsDuplicateAndMissingUser() {
+        Integer userId = saveUser("strict");
+        Integer friendId = saveUser("strictfriend");
+        friendshipStorage().addFriendship(new Friendship(userId, friendId, FriendshipStatus.PENDING));
+
+        assertThatThrownBy(() -> friendshipStorage().addFriendship(
+                new Friendship(userId, friendId, FriendshipStatus.CONFIRMED)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThatThrownBy(() -> friendshipStorage().addFriendship(
+                new Friendship(userId, Integer.MAX_VALUE, FriendshipStatus.PENDING)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(friendshipStorage().getUserFriendsIds(userId)).containsExactly(friendId);
+    }
+
+    /**
+     * Тест поиска общих друзей.
+     */
+    @Test
+    void testCommonFriends() {
+        Integer firstId = saveUser("first");
+        Integer secondId = saveUser("second");
+        Integer commonId = saveUser("common");
+        Integer otherCommonId = saveUser("othercommon");
+        Integer onlyFirstId = saveUser("onlyfirst");
+        for (Integer friendId : List.of(commonId, otherCommonId, onlyFirstId)) {
+            friendshipStorage().addFriendship(new Friendship(firstId, friendId, FriendshipStatus.PENDING));
+        }
+        friendshipStorage().addFriendship(new Friendship(secondId, otherCommonId, FriendshipStatus.PENDING));
+        friendshipStorage().addFriendship(new Friendship(secondId, commonId, FriendshipStatus.CONFIRMED));
+
+        assertThat(friendshipStorage().getCommonFriendsIds(firstId, secondId))
+                .containsExactlyInAnyOrder(commonId, otherCommonId);
+        assertThat(friendshipStorage().getCommonFriendsIds(firstId, onlyFirstId)).isEmpty();
+    }
+
+    /**
+     * Тест выгрузки всех связей дружбы со статусами.
+     */
+    @Test
+    void testStreamAllFriendships() {
+        Integer userId = saveUser("streamuser");
+        Integer friendId = saveUser("streamfriend");
+        friendshipStorage().addFriendship(new Friendship(userId, friendId, FriendshipStatus.CONFIRMED));
+
+        List<Friendship> streamed = new ArrayList<>();
+        friendshipStorage().streamAll(streamed::add);
+
+        assertThat(streamed)
+                .extracting(Friendship::getUserId, Friendship::getFriendId, Friendship::getStatus)
+                .contains(tuple(userId, friendId, FriendshipStatus.CONFIRMED));
+    }
+
+    /**
+     * Тест удаления связей дружбы в обе стороны вместе с пользователем.
+     */
+    @Test
+    void testFriendshipsAreDeletedWithUser() {
+        Integer userId = saveUser("leaving");
+        Integer friendId = saveUser("staying");
+        Integer followerId = saveUser("follower");
+        friendshipStorage().addFriendship(new Friendship(userId, friendId, FriendshipStatus.PENDING));
+        friendshipStorage().addFriendship(new Friendship(followerId, userId, FriendshipStatus.PENDING));
+        friendshipStorage().addFriendship(new Friendship(followerId, friendId, FriendshipStatus.PENDING));
+
+        userStorage().deleteById(userId);
+
+        assertThat(friendshipStorage().getUserFriendsIds(followerId)).containsExactly(friendId);
+        assertThat(friendshipStorage().getUserFriendsIds(userId)).isEmpty();
+    }
+
+    /**
+     * Сохраняет пользователя с минимальными данными.
+     *
+     * @param login логин пользователя
+     * @return ID сохраненного пользователя
+     */
+    protected Integer saveUser(String login) {
+        return userStorage().save(TestData.user(login)).getId();
+    }
+}
@@ -0,0 +1,26 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+
+/**
+ * Тесты для InMemoryFilmStorage.
+ * Проверяют общий контракт хранилища фильмов в памяти.
+ */
+class InMemoryFilmStorageTest extends FilmRepositoryContractTest {
+
+    private InMemoryFilmStorage filmStorage;
+
+    @BeforeEach
+    void setUp() {
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(new InMemoryGenreStorage(),
+                new InMemoryMpaRatingStorage());
+        referenceDataCache.reload();
+        filmStorage = new InMemoryFilmStorage(new MemoryStore(4, "", false, 60_000), referenceDataCache);
+    }
+
+    @Override
+    protected FilmRepository filmStorage() {
+        return filmStorage;
+    }
+}
@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+
+/**
+ * Тесты для InMemoryFriendshipStorage.
+ * Проверяют общий контракт хранилища дружбы в памяти.
+ */
+class InMemoryFriendshipStorageTest extends FriendshipRepositoryContractTest {
+
+    private InMemoryFriendshipStorage friendshipStorage;
+    private InMemoryUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        MemoryStore store = new MemoryStore(4, "", false, 60_000);
+        friendshipStorage = new InMemoryFriendshipStorage(store);
+        userStorage = new InMemoryUserStorage(store);
+    }
+
+    @Override
+    protected FriendshipRepository friendshipStorage() {
+        return friendshipStorage;
+    }
+
+    @Override
+    protected UserRepository userStorage() {
+        return userStorage;
+    }
+}
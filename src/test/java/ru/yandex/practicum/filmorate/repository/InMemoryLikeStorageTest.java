@@ -0,0 +1,41 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+
+/**
+ * Тесты для InMemoryLikeStorage.
+ * Проверяют общий контракт хранилища лайков в памяти.
+ */
+class InMemoryLikeStorageTest extends LikeRepositoryContractTest {
+
+    private InMemoryLikeStorage likeStorage;
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        MemoryStore store = new MemoryStore(4, "", false, 60_000);
+        ReferenceDataCache referenceDataCache = new ReferenceDataCache(new InMemoryGenreStorage(),
+                new InMemoryMpaRatingStorage());
+        referenceDataCache.reload();
+        likeStorage = new InMemoryLikeStorage(store);
+        filmStorage = new InMemoryFilmStorage(store, referenceDataCache);
+        userStorage = new InMemoryUserStorage(store);
+    }
+
+    @Override
+    protected LikeRepository likeStorage() {
+        return likeStorage;
+    }
+
+    @Override
+    protected FilmRepository filmStorage() {
+        return filmStorage;
+    }
+
+    @Override
+    protected UserRepository userStorage() {
+        return userStorage;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.yandex.practicum.filmorate.repository;
+
+/**
+ * Тесты для InMemoryUserStorage.
+ * Проверяют общий контракт хранилища пользователей в памяти.
+ */
+class InMemoryUserStorageTest extends UserRepositoryContractTest {
+
+    private final InMemoryUserStorage userStorage = new InMemoryUserStorage(new MemoryStore(4, "", false, 60_000));
+
+    @Override
+    protected UserRepository userStorage() {
+        return userStorage;
+    }
+}
@@ -0,0 +1,103 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для JdbcConcurrencyLimiter.
+ * Проверяют выдачу соединений в пределах разрешений, возврат разрешения при закрытии и ожидание в очереди.
+ */
+class JdbcConcurrencyLimiterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    /**
+     * Тест отказа при исчерпании разрешений и возврата разрешения при закрытии соединения.
+     */
+    @Test
+    void testConnectionsAreLimitedByPermits() throws SQLException {
+        JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(2, 50, registry());
+        DataSource dataSource = limiter.limit(dataSource());
+
+        Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection();
+        assertThat(limiter.getAvailablePermits()).isZero();
+        assertThat(registry.get("filmorate.jdbc.permits.available").gauge().value()).isZero();
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+
+        first.close();
+        first.close();
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+
+        second.close();
+        assertThat(limiter.getAvailablePermits()).isEqualTo(2);
+    }
+
+    /**
+     * Тест ожидания разрешения, пока другое соединение не будет закрыто.
+     */
+    @Test
+    void testWaitingThreadGetsConnectionAfterClose() throws Exception {
+        JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(1, 5000, registry());
+        DataSource dataSource = limiter.limit(dataSource());
+
+        Connection held = dataSource.getConnection();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        while (registry.get("filmorate.jdbc.permits.waiting").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+        assertThat(waiting).isNotDone();
+
+        held.close();
+        waiting.get(5, TimeUnit.SECONDS).close();
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+    }
+
+    /**
+     * Тест возврата разрешения, если пул не смог выдать соединение.
+     */
+    @Test
+    void testPermitIsReleasedWhenPoolFails() throws SQLException {
+        DataSource failing = mock(DataSource.class);
+        when(failing.getConnection()).thenThrow(new SQLException("pool is closed"));
+        JdbcConcurrencyLimiter limiter = new JdbcConcurrencyLimiter(1, 50, registry());
+        DataSource dataSource = limiter.limit(failing);
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool is closed");
+        assertThat(limiter.getAvailablePermits()).isEqualTo(1);
+        verify(failing).getConnection();
+    }
+
+    private static DataSource dataSource() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        return dataSource;
+    }
+
+    private ObjectProvider<MeterRegistry> registry() {
+        return new StaticListableBeanFactory(Map.of("meterRegistry", registry)).getBeanProvider(MeterRegistry.class);
+    }
+}
@@ -0,0 +1,101 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.model.Like;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Интеграционные тесты для LikeDbStorage.
+ * Проверяют общий контракт хранилища лайков на базе данных и миграцию столбца времени лайка.
+ */
+@JdbcTest
+@AutoConfigureTestDatabase
+@Import({LikeDbStorage.class, FilmDbStorage.class, UserDbStorage.class,
+        ReferenceDataCache.class, GenreDbStorage.class, MpaRatingDbStorage.class})
+class LikeDbStorageTest extends LikeRepositoryContractTest {
+
+    @Autowired
+    private LikeDbStorage likeStorage;
+
+    @Autowired
+    private FilmDbStorage filmStorage;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Override
+    protected LikeRepository likeStorage() {
+        return likeStorage;
+    }
+
+    @Override
+    protected FilmRepository filmStorage() {
+        return filmStorage;
+    }
+
+    @Override
+    protected UserRepository userStorage() {
+        return userStorage;
+    }
+
+    /**
+     * Тест миграции базы данных без столбца created_at: старые лайки получают время начала эпохи
+     * и не попадают в окна трендов, новые лайки получают текущее время.
+     * DDL в H2 фиксирует транзакцию, поэтому тест выполняется без нее и удаляет свои данные сам.
+     */
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testMigrationBackfillsExistingLikesWithEpoch() {
+        Integer filmId = saveFilm("До миграции");
+        Integer oldUserId = saveUser("before_migration");
+        Integer newUserId = saveUser("after_migration");
+        try {
+            jdbcTemplate.execute("DROP INDEX IF EXISTS idx_likes_created_at");
+            jdbcTemplate.execute("ALTER TABLE likes DROP COLUMN created_at");
+            jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", filmId, oldUserId);
+
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+            jdbcTemplate.update("INSERT INTO likes (film_id, user_id) VALUES (?, ?)", filmId, newUserId);
+
+            List<Like> likes = new ArrayList<>();
+            likeStorage.streamAll(like -> {
+                if (like.getFilmId().equals(filmId)) {
+                    likes.add(like);
+                }
+            });
+            assertThat(likes).hasSize(2);
+            assertThat(likes).filteredOn(like -> like.getUserId().equals(oldUserId)).singleElement()
+                    .satisfies(like -> assertThat(like.getCreatedAt()).isBefore(Instant.parse("1971-01-01T00:00:00Z")));
+            assertThat(likes).filteredOn(like -> like.getUserId().equals(newUserId)).singleElement()
+                    .satisfies(like -> assertThat(like.getCreatedAt())
+                            .isAfter(Instant.now().minus(1, ChronoUnit.HOURS)));
+        } finally {
+            filmStorage.deleteById(filmId);
+            userStorage.deleteById(oldUserId);
+            userStorage.deleteById(newUserId);
+        }
+    }
+}
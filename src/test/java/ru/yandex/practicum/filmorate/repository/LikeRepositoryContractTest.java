@@ -0,0 +1,203 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Like;
+import ru.yandex.practicum.filmorate.model.TestData;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Общие тесты контракта LikeRepository.
+ * Выполняются для каждой реализации хранилища лайков вместе с хранилищами фильмов и пользователей того же типа.
+ */
+abstract class LikeRepositoryContractTest {
+
+    /**
+     * Возвращает проверяемое хранилище лайков.
+     *
+     * @return хранилище лайков
+     */
+    protected abstract LikeRepository likeStorage();
+
+    /**
+     * Возвращает хранилище фильмов, связанное с хранилищем лайков.
+     *
+     * @return хранилище фильмов
+     */
+    protected abstract FilmRepository filmStorage();
+
+    /**
+     * Возвращает хранилище пользователей, связанное с хранилищем лайков.
+     *
+     * @return хранилище пользователей
+     */
+    protected abstract UserRepository userStorage();
+
+    /**
+     * Тест того, что повторный лайк не добавляется.
+     */
+    @Test
+    void testAddLikeOnlyOnce() {
+        Integer filmId = saveFilm("Лайк");
+        Integer userId = saveUser("liker");
+
+        assertThat(likeStorage().addLike(filmId, userId)).isTrue();
+        assertThat(likeStorage().addLike(filmId, userId)).isFalse();
+
+        assertThat(likeStorage().hasLike(filmId, userId)).isTrue();
+        assertThat(likeStorage().getLikesCount(filmId)).isEqualTo(1);
+    }
+
+    /**
+     * Тест удаления лайка, которое возвращает время его постановки.
+     */
+    @Test
+    void testRemoveLike() {
+        Integer filmId = saveFilm("Без лайка");
+        Integer userId = saveUser("unliker");
+        Instant before = Instant.now().minus(1, ChronoUnit.SECONDS);
+        likeStorage().addLike(filmId, userId);
+        Instant after = Instant.now().plus(1, ChronoUnit.SECONDS);
+
+        assertThat(likeStorage().removeLike(filmId, userId)).hasValueSatisfying(createdAt ->
+                assertThat(createdAt).isBetween(before, after));
+        assertThat(likeStorage().removeLike(filmId, userId)).isEmpty();
+
+        assertThat(likeStorage().hasLike(filmId, userId)).isFalse();
+        assertThat(likeStorage().getLikesCount(filmId)).isZero();
+    }
+
+    /**
+     * Тест того, что лайк несуществующему фильму или от несуществующего пользователя пропускается.
+     */
+    @Test
+    void testAddLikeSkipsMissingFilmOrUser() {
+        Integer filmId = saveFilm("Существующий");
+        Integer userId = saveUser("existing");
+
+        assertThat(likeStorage().addLike(Integer.MAX_VALUE, userId)).isFalse();
+        assertThat(likeStorage().addLike(filmId, Integer.MAX_VALUE)).isFalse();
+        assertThat(likeStorage().getLikesCount(filmId)).isZero();
+    }
+
+    /**
+     * Тест подсчета лайков по всем фильмам, включая фильмы без лайков.
+     */
+    @Test
+    void testLikesCountByFilmIncludesFilmsWithoutLikes() {
+        Integer popularId = saveFilm("Популярный");
+        Integer unpopularId = saveFilm("Непопулярный");
+        Integer firstUserId = saveUser("count1");
+        Integer secondUserId = saveUser("count2");
+        likeStorage().addLike(popularId, firstUserId);
+        likeStorage().addLike(popularId, secondUserId);
+
+        assertThat(likeStorage().getLikesCountByFilm())
+                .containsEntry(popularId, 2)
+                .containsEntry(unpopularId, 0);
+    }
+
+    /**
+     * Тест получения фильмов, которым пользователь поставил лайк.
+     */
+    @Test
+    void testFilmIdsLikedByUser() {
+        Integer firstFilmId = saveFilm("Первый");
+        Integer secondFilmId = saveFilm("Второй");
+        Integer userId = saveUser("collector");
+        likeStorage().addLike(secondFilmId, userId);
+        likeStorage().addLike(firstFilmId, userId);
+
+        assertThat(likeStorage().getFilmIdsLikedByUser(userId)).containsExactlyInAnyOrder(firstFilmId, secondFilmId);
+        assertThat(likeStorage().getFilmIdsLikedByUser(saveUser("nobody"))).isEmpty();
+    }
+
+    /**
+     * Тест получения лайков пользователя вместе со временем постановки.
+     */
+    @Test
+    void testLikesByUser() {
+        Integer filmId = saveFilm("С временем");
+        Integer userId = saveUser("timed");
+        Instant before = Instant.now().minus(1, ChronoUnit.SECONDS);
+        likeStorage().addLike(filmId, userId);
+
+        assertThat(likeStorage().getLikesByUser(userId)).singleElement().satisfies(like -> {
+            assertThat(like.getFilmId()).isEqualTo(filmId);
+            assertThat(like.getUserId()).isEqualTo(userId);
+            assertThat(like.getCreatedAt()).isAfterOrEqualTo(before);
+        });
+        assertThat(likeStorage().getLikesByUser(saveUser("no-likes"))).isEmpty();
+    }
+
+    /**
+     * Тест выгрузки всех лайков и лайков, поставленных после указанного момента.
+     */
+    @Test
+    void testStreamAllAndCreatedSince() {
+        Integer filmId = saveFilm("Выгрузка");
+        Integer userId = saveUser("streamer");
+        Instant before = Instant.now().minus(1, ChronoUnit.MINUTES);
+        likeStorage().addLike(filmId, userId);
+
+        List<Like> all = new ArrayList<>();
+        likeStorage().streamAll(all::add);
+        assertThat(all).extracting(Like::getFilmId, Like::getUserId).contains(tuple(filmId, userId));
+
+        List<Like> recent = new ArrayList<>();
+        likeStorage().streamCreatedSince(before, recent::add);
+        assertThat(recent).extracting(Like::getFilmId, Like::getUserId).contains(tuple(filmId, userId));
+        assertThat(recent).allSatisfy(like -> assertThat(like.getCreatedAt()).isAfterOrEqualTo(before));
+
+        List<Like> future = new ArrayList<>();
+        likeStorage().streamCreatedSince(Instant.now().plus(1, ChronoUnit.DAYS), future::add);
+        assertThat(future).isEmpty();
+    }
+
+    /**
+     * Тест удаления лайков вместе с фильмом и пользователем.
+     */
+    @Test
+    void testLikesAreDeletedWithFilmAndUser() {
+        Integer filmId = saveFilm("Удаляемый");
+        Integer otherFilmId = saveFilm("Остающийся");
+        Integer userId = saveUser("deleted");
+        Integer otherUserId = saveUser("remaining");
+        likeStorage().addLike(filmId, otherUserId);
+        likeStorage().addLike(otherFilmId, userId);
+        likeStorage().addLike(otherFilmId, otherUserId);
+
+        filmStorage().deleteById(filmId);
+        userStorage().deleteById(userId);
+
+        assertThat(likeStorage().getFilmIdsLikedByUser(otherUserId)).containsExactly(otherFilmId);
+        assertThat(likeStorage().getLikesCount(otherFilmId)).isEqualTo(1);
+        assertThat(likeStorage().getLikesCountByFilm()).doesNotContainKey(filmId);
+    }
+
+    /**
+     * Сохраняет фильм с минимальными данными.
+     *
+     * @param name название фильма
+     * @return ID сохраненного фильма
+     */
+    protected Integer saveFilm(String name) {
+        return filmStorage().save(TestData.film(name)).getId();
+    }
+
+    /**
+     * Сохраняет пользователя с минимальными данными.
+     *
+     * @param login логин пользователя
+     * @return ID сохраненного пользователя
+     */
+    protected Integer saveUser(String login) {
+        return userStorage().save(TestData.user(login)).getId();
+    }
+}
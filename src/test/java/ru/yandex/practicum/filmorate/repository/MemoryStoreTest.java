@@ -0,0 +1,174 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.Friendship;
+import ru.yandex.practicum.filmorate.model.FriendshipStatus;
+import ru.yandex.practicum.filmorate.model.Genre;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.TestData;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты для MemoryStore.
+ * Проверяют восстановление из журнала и снимка и согласованность индексов при параллельных изменениях.
+ */
+class MemoryStoreTest {
+
+    @TempDir
+    private Path directory;
+
+    /**
+     * Тест восстановления данных из журнала после перезапуска без снимка.
+     */
+    @Test
+    void testRecoverFromJournal() {
+        MemoryStore store = open();
+        Film journaled = TestData.film("Журнал");
+        journaled.setMpa(new MpaRating(3, null));
+        journaled.setGenres(Set.of(new Genre(6, null), new Genre(2, null)));
+        int filmId = store.insertFilms(List.of(journaled)).get(0).getId();
+        List<User> users = store.insertUsers(List.of(TestData.user("first"), TestData.user("second")));
+        int firstId = users.get(0).getId();
+        int secondId = users.get(1).getId();
+        store.addLike(filmId, firstId);
+        store.addLike(filmId, secondId);
+        store.removeLike(filmId, secondId);
+        store.addFriendship(new Friendship(firstId, secondId, FriendshipStatus.CONFIRMED));
+        closeWithoutSnapshot(store);
+
+        MemoryStore recovered = open();
+
+        Film film = recovered.findFilm(filmId).orElseThrow();
+        assertThat(film.getName()).isEqualTo("Журнал");
+        assertThat(film.getMpa().getId()).isEqualTo(3);
+        assertThat(film.getGenres()).extracting(Genre::getId).containsExactly(2, 6);
+        assertThat(recovered.likesCount(filmId)).isEqualTo(1);
+        assertThat(recovered.hasLike(filmId, firstId)).isTrue();
+        assertThat(recovered.friendIds(firstId)).containsExactly(secondId);
+        assertThat(recovered.insertUsers(List.of(TestData.user("third"))).get(0).getId()).isEqualTo(secondId + 1);
+        recovered.shutdown();
+    }
+
+    /**
+     * Тест восстановления из снимка и журнала изменений, сделанных после снимка.
+     */
+    @Test
+    void testRecoverFromSnapshotAndJournal() throws IOException {
+        MemoryStore store = open();
+        int filmId = store.insertFilms(List.of(TestData.film("Снимок"))).get(0).getId();
+        int userId = store.insertUsers(List.of(TestData.user("snapshot"))).get(0).getId();
+        store.addLike(filmId, userId);
+        store.snapshot();
+        assertThat(Files.size(directory.resolve("filmorate.journal"))).isEqualTo(8);
+
+        int deletedUserId = store.insertUsers(List.of(TestData.user("deleted"))).get(0).getId();
+        store.addLike(filmId, deletedUserId);
+        store.deleteUser(deletedUserId);
+        closeWithoutSnapshot(store);
+
+        MemoryStore recovered = open();
+
+        assertThat(recovered.userExists(userId)).isTrue();
+        assertThat(recovered.userExists(deletedUserId)).isFalse();
+        assertThat(recovered.likesCount(filmId)).isEqualTo(1);
+        recovered.shutdown();
+    }
+
+    /**
+     * Тест отбрасывания недописанной последней записи журнала.
+     */
+    @Test
+    void testTornJournalTailIsDiscarded() throws IOException {
+        MemoryStore store = open();
+        int userId = store.insertUsers(List.of(TestData.user("complete"))).get(0).getId();
+        store.insertUsers(List.of(TestData.user("torn")));
+        closeWithoutSnapshot(store);
+
+        Path journal = directory.resolve("filmorate.journal");
+        try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        MemoryStore recovered = open();
+
+        assertThat(recovered.userExists(userId)).isTrue();
+        assertThat(recovered.userExists(userId + 1)).isFalse();
+        int nextId = recovered.insertUsers(List.of(TestData.user("after"))).get(0).getId();
+        recovered.shutdown();
+
+        MemoryStore reopened = open();
+        assertThat(reopened.findUser(nextId)).hasValueSatisfying(user ->
+                assertThat(user.getLogin()).isEqualTo("after"));
+        reopened.shutdown();
+    }
+
+    /**
+     * Тест согласованности индексов лайков по фильму и по пользователю при параллельных изменениях.
+     */
+    @Test
+    void testConcurrentLikesKeepIndexesConsistent() {
+        MemoryStore store = new MemoryStore(4, "", false, 60_000);
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            films.add(TestData.film("Фильм " + i));
+        }
+        int[] filmIds = store.insertFilms(films).stream().mapToInt(Film::getId).toArray();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            users.add(TestData.user("user" + i));
+        }
+        int[] userIds = store.insertUsers(users).stream().mapToInt(User::getId).toArray();
+
+        CompletableFuture<?>[] workers = IntStream.range(0, 8)
+                .mapToObj(worker -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        int filmId = filmIds[(i * 7 + worker) % filmIds.length];
+                        int userId = userIds[(i * 13 + worker * 3) % userIds.length];
+                        if ((i + worker) % 3 == 0) {
+                            store.removeLike(filmId, userId);
+                        } else {
+                            store.addLike(filmId, userId);
+                        }
+                    }
+                }))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(workers).join();
+
+        int likesByFilm = store.likesCountByFilm().values().stream().mapToInt(Integer::intValue).sum();
+        int likesByUser = IntStream.of(userIds).map(userId -> store.filmIdsLikedBy(userId).length).sum();
+        assertThat(likesByUser).isEqualTo(likesByFilm);
+        for (int userId : userIds) {
+            for (int filmId : store.filmIdsLikedBy(userId)) {
+                assertThat(store.hasLike(filmId, userId)).isTrue();
+            }
+        }
+    }
+
+    private MemoryStore open() {
+        MemoryStore store = new MemoryStore(4, directory.toString(), false, 3_600_000);
+        store.recover();
+        return store;
+    }
+
+    /**
+     * Имитирует остановку процесса: журнал закрывается без итогового снимка.
+     */
+    private static void closeWithoutSnapshot(MemoryStore store) {
+        store.closeJournal();
+    }
+}
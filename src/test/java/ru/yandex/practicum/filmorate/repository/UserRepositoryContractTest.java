@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate.repository;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exception.NotFoundException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Общие тесты контракта UserRepository.
+ * Выполняются для каждой реализации хранилища пользователей.
+ */
+abstract class UserRepositoryContractTest {
+
+    /**
+     * Возвращает проверяемое хранилище пользователей.
+     *
+     * @return хранилище пользователей
+     */
+    protected abstract UserRepository userStorage();
+
+    /**
+     * Тест сохранения пользователя.
+     */
+    @Test
+    void testSaveUser() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setLogin("testuser");
+        user.setName("Test User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        User savedUser = userStorage().save(user);
+
+        assertThat(savedUser.getId()).isNotNull();
+        assertThat(savedUser.getEmail()).isEqualTo("test@example.com");
+        assertThat(savedUser.getLogin()).isEqualTo("testuser");
+        assertThat(savedUser.getName()).isEqualTo("Test User");
+        assertThat(savedUser.getBirthday()).isEqualTo(LocalDate.of(1990, 1, 1));
+    }
+
+    /**
+     * Тест поиска пользователя по ID.
+     */
+    @Test
+    void testFindUserById() {
+        User user = new User();
+        user.setEmail("test2@example.com");
+        user.setLogin("testuser2");
+        user.setName("Test User 2");
+        user.setBirthday(LocalDate.of(1995, 5, 5));
+
+        User savedUser = userStorage().save(user);
+        Optional<User> foundUser = userStorage().findById(savedUser.getId());
+
+        assertThat(foundUser).isPresent();
+        assertThat(foundUser.get().getId()).isEqualTo(savedUser.getId());
+        assertThat(foundUser.get().getEmail()).isEqualTo("test2@example.com");
+    }
+
+    /**
+     * Тест обновления пользователя.
+     */
+    @Test
+    void testUpdateUser() {
+        User user = new User();
+        user.setEmail("original@example.com");
+        user.setLogin("original");
+        user.setName("Original Name");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        User savedUser = userStorage().save(user);
+
+        savedUser.setEmail("updated@example.com");
+        savedUser.setName("Updated Name");
+
+        User updatedUser = userStorage().update(savedUser);
+
+        assertThat(updatedUser.getEmail()).isEqualTo("updated@example.com");
+        assertThat(updatedUser.getName()).isEqualTo("Updated Name");
+    }
+
+    /**
+     * Тест удаления пользователя.
+     */
+    @Test
+    void testDeleteUser() {
+        User user = new User();
+        user.setEmail("delete@example.com");
+        user.setLogin("deleteuser");
+        user.setName("Delete User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        User savedUser = userStorage().save(user);
+        boolean deleted = userStorage().deleteById(savedUser.getId());
+
+        assertThat(deleted).isTrue();
+        assertThat(userStorage().findById(savedUser.getId())).isEmpty();
+    }
+
+    /**
+     * Тест потоковой выгрузки пользователей.
+     */
+    @Test
+    void testStreamAllUsers() {
+        User user = new User();
+        user.setEmail("stream@example.com");
+        user.setLogin("streamuser");
+        user.setName("Stream User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+        userStorage().save(user);
+
+        List<User> streamed = new ArrayList<>();
+        userStorage().streamAll(streamed::add);
+
+        assertThat(streamed).containsExactlyInAnyOrderElementsOf(userStorage().findAll());
+        assertThat(streamed).extracting(User::getLogin).contains("streamuser");
+    }
+
+    /**
+     * Тест пакетного сохранения пользователей.
+     */
+    @Test
+    void testSaveAllUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            User user = new User();
+            user.setEmail("batch" + i + "@example.com");
+            user.setLogin("batch" + i);
+            user.setName("Batch " + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1 + i));
+            users.add(user);
+        }
+
+        List<User> saved = userStorage().saveAll(users);
+
+        assertThat(saved).extracting(User::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(userStorage().findById(saved.get(9).getId()))
+                .hasValueSatisfying(user -> assertThat(user.getLogin()).isEqualTo("batch9"));
+    }
+
+    /**
+     * Тест проверки существования пользователя после сохранения и удаления.
+     */
+    @Test
+    void testExistsByIdTracksSaveAndDelete() {
+        User user = new User();
+        user.setEmail("exists@example.com");
+        user.setLogin("existsuser");
+        user.setName("Exists User");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        User savedUser = userStorage().save(user);
+        assertThat(userStorage().existsById(savedUser.getId())).isTrue();
+        assertThat(userStorage().existsById(savedUser.getId() + 1)).isFalse();
+
+        userStorage().deleteById(savedUser.getId());
+        assertThat(userStorage().existsById(savedUser.getId())).isFalse();
+        assertThat(userStorage().existsById(null)).isFalse();
+    }
+
+    /**
+     * Тест загрузки пользователей по набору идентификаторов с сохранением порядка.
+     */
+    @Test
+    void testFindAllByIdsPreservesOrder() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            User user = new User();
+            user.setEmail("ids" + i + "@example.com");
+            user.setLogin("ids" + i);
+            user.setName("Ids " + i);
+            user.setBirthday(LocalDate.of(1990, 1, 1));
+            users.add(user);
+        }
+        List<User> saved = userStorage().saveAll(users);
+        List<Integer> ids = List.of(saved.get(2).getId(), -1, saved.get(0).getId(), saved.get(2).getId());
+
+        assertThat(userStorage().findAllByIds(ids))
+                .extracting(User::getLogin)
+                .containsExactly("ids2", "ids0");
+    }
+
+    /**
+     * Тест обновления несуществующего пользователя.
+     */
+    @Test
+    void testUpdateMissingUserThrowsNotFound() {
+        User user = new User();
+        user.setId(Integer.MAX_VALUE);
+        user.setEmail("missing@example.com");
+        user.setLogin("missing");
+        user.setName("Missing");
+        user.setBirthday(LocalDate.of(1990, 1, 1));
+
+        assertThatThrownBy(() -> userStorage().update(user)).isInstanceOf(NotFoundException.class);
+    }
+}
@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.EntityCache;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.exception.ValidationException;
+import ru.yandex.practicum.filmorate.index.FilmFacetIndex;
+import ru.yandex.practicum.filmorate.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.index.FilmSearchIndex;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
+import ru.yandex.practicum.filmorate.model.BatchItemError;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.FilmFilter;
+import ru.yandex.practicum.filmorate.model.FilmFilterResult;
+import ru.yandex.practicum.filmorate.model.MpaRating;
+import ru.yandex.practicum.filmorate.model.TestData;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.FilmDbStorage;
+import ru.yandex.practicum.filmorate.repository.GenreDbStorage;
+import ru.yandex.practicum.filmorate.repository.LikeDbStorage;
+import ru.yandex.practicum.filmorate.repository.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.repository.UserDbStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Интеграционные тесты для FilmServiceImpl.
+ * Проверяют пакетное создание фильмов с ошибками в отдельных элементах и ограничение фасетной выборки.
+ */
+@JdbcTest(properties = "filmorate.import.chunk-size=2")
+@AutoConfigureTestDatabase
+@Import({FilmServiceImpl.class, FilmDbStorage.class, UserDbStorage.class, LikeDbStorage.class,
+        GenreDbStorage.class, MpaRatingDbStorage.class, ReferenceDataCache.class, EntityCache.class,
+        EntityVersions.class, FilmPopularityIndex.class, FilmSearchIndex.class, FilmFacetIndex.class,
+        LikeMatrix.class, TrendingIndex.class})
+class FilmServiceImplTest {
+
+    @Autowired
+    private FilmServiceImpl filmService;
+
+    @Autowired
+    private UserDbStorage userStorage;
+
+    /**
+     * Тест пакетного создания, в котором некорректные элементы не мешают сохранению остальных.
+     */
+    @Test
+    void testCreateFilmsReportsInvalidItems() {
+        Film withoutDate = TestData.film("Без даты");
+        withoutDate.setReleaseDate(null);
+        Film withoutDuration = TestData.film("Без продолжительности");
+        withoutDuration.setDuration(null);
+        Film unknownMpa = TestData.film("Неизвестный рейтинг");
+        unknownMpa.setMpa(new MpaRating(100, null));
+
+        BatchResult<Film> result = filmService.createFilms(List.of(
+                TestData.film("Первый"), withoutDate, TestData.film("Второй"), withoutDuration,
+                TestData.film("Третий"), unknownMpa));
+
+        assertThat(result.getCreated()).extracting(Film::getName).containsExactly("Первый", "Второй", "Третий");
+        assertThat(result.getCreated()).allSatisfy(film ->
+                assertThat(filmService.getFilmById(film.getId())).isPresent());
+        assertThat(result.getErrors()).extracting(BatchItemError::getIndex).containsExactly(1, 3, 5);
+        assertThat(result.getErrors().get(0).getMessage()).isEqualTo("Дата релиза должна быть указана");
+        assertThat(result.getErrors().get(1).getMessage()).isEqualTo("Продолжительность фильма должна быть положительной");
+    }
+
+    /**
+     * Тест отклонения фильма без даты релиза при одиночном создании.
+     */
+    @Test
+    void testCreateFilmWithoutReleaseDateIsRejected() {
+        Film film = TestData.film("Без даты");
+        film.setReleaseDate(null);
+
+        assertThatThrownBy(() -> filmService.createFilm(film))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    /**
+     * Тест фасетной фильтрации, которая загружает только первые count фильмов, а фасеты считает по всей выборке.
+     */
+    @Test
+    void testGetFilmsReturnsOnlyRequestedCount() throws ValidationException {
+        List<Film> films = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Film film = TestData.film("Фильм " + i);
+            film.setMpa(new MpaRating(5, null));
+            films.add(filmService.createFilm(film));
+        }
+        User user = userStorage.save(TestData.user("user"));
+        filmService.addLike(films.get(3).getId(), user.getId());
+
+        FilmFilter filter = new FilmFilter();
+        filter.setMpa(5);
+        filter.setCount(2);
+        FilmFilterResult byId = filmService.getFilms(filter);
+
+        assertThat(byId.getTotal()).isEqualTo(5);
+        assertThat(byId.getFilms()).extracting(Film::getId)
+                .containsExactly(films.get(0).getId(), films.get(1).getId());
+        assertThat(byId.getFacets().getMpa()).containsEntry(5, 5);
+
+        filter.setSort(FilmFilter.SORT_POPULAR);
+        FilmFilterResult popular = filmService.getFilms(filter);
+
+        assertThat(popular.getTotal()).isEqualTo(5);
+        assertThat(popular.getFilms()).hasSize(2);
+        assertThat(popular.getFilms().get(0).getId()).isEqualTo(films.get(3).getId());
+    }
+}
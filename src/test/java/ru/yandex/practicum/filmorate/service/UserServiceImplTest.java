@@ -0,0 +1,64 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import ru.yandex.practicum.filmorate.cache.EntityVersions;
+import ru.yandex.practicum.filmorate.cache.ReferenceDataCache;
+import ru.yandex.practicum.filmorate.index.FilmPopularityIndex;
+import ru.yandex.practicum.filmorate.index.FriendGraph;
+import ru.yandex.practicum.filmorate.index.LikeMatrix;
+import ru.yandex.practicum.filmorate.index.TrendingIndex;
+import ru.yandex.practicum.filmorate.model.BatchItemError;
+import ru.yandex.practicum.filmorate.model.BatchResult;
+import ru.yandex.practicum.filmorate.model.TestData;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.repository.FilmDbStorage;
+import ru.yandex.practicum.filmorate.repository.FriendshipDbStorage;
+import ru.yandex.practicum.filmorate.repository.GenreDbStorage;
+import ru.yandex.practicum.filmorate.repository.LikeDbStorage;
+import ru.yandex.practicum.filmorate.repository.MpaRatingDbStorage;
+import ru.yandex.practicum.filmorate.repository.UserDbStorage;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Интеграционные тесты для UserServiceImpl.
+ * Проверяют пакетное создание пользователей с ошибками в отдельных элементах.
+ */
+@JdbcTest(properties = "filmorate.import.chunk-size=2")
+@AutoConfigureTestDatabase
+@Import({UserServiceImpl.class, UserDbStorage.class, FriendshipDbStorage.class, LikeDbStorage.class,
+        FilmDbStorage.class, GenreDbStorage.class, MpaRatingDbStorage.class, ReferenceDataCache.class,
+        EntityVersions.class, FilmPopularityIndex.class, LikeMatrix.class, FriendGraph.class, TrendingIndex.class})
+class UserServiceImplTest {
+
+    @Autowired
+    private UserServiceImpl userService;
+
+    /**
+     * Тест пакетного создания, в котором некорректные элементы не мешают сохранению остальных.
+     */
+    @Test
+    void testCreateUsersReportsInvalidItems() {
+        User withoutBirthday = TestData.user("nobirthday");
+        withoutBirthday.setBirthday(null);
+        User badEmail = TestData.user("bademail");
+        badEmail.setEmail("bademail");
+        User withoutName = TestData.user("noname");
+        withoutName.setName(null);
+
+        BatchResult<User> result = userService.createUsers(List.of(
+                TestData.user("first"), withoutBirthday, TestData.user("second"), badEmail, withoutName));
+
+        assertThat(result.getCreated()).extracting(User::getLogin).containsExactly("first", "second", "noname");
+        assertThat(result.getCreated().get(2).getName()).isEqualTo("noname");
+        assertThat(result.getCreated()).allSatisfy(user ->
+                assertThat(userService.getUserById(user.getId())).isPresent());
+        assertThat(result.getErrors()).extracting(BatchItemError::getIndex).containsExactly(1, 3);
+    }
+}